@@ -28,7 +28,30 @@ public class JdbcScanConfigAdapter {
             boolean schedulerEnabled,
             String dailyScanCron,
             String organization,
-            String scanBranch
+            String scanBranch,
+            int parseWorkerCount,
+            int fetchWorkerCount,
+            int repositoryParseConcurrency,
+            int pipelineQueueCapacity,
+            boolean incrementalScanEnabled,
+            int parseCacheMaxMb,
+            String parseProfile,
+            boolean deferredTypeResolution,
+            int enrichmentWorkerCount,
+            boolean preFilterEnabled,
+            String testRootPatterns,
+            String cloneMode,
+            int cloneDepth,
+            int gitMaxConnectionsPerHost,
+            int gitTimeoutSeconds,
+            int gitMaxRetries,
+            int gitRetryBackoffMs,
+            boolean sharedObjectStoreEnabled,
+            String objectStoreGroups,
+            int hubDiskBudgetMb,
+            boolean remoteChangeDetectionEnabled,
+            int scanTimeBudgetMinutes,
+            int repositoryScanWorkers
     ) {}
 
     /**
@@ -60,6 +83,29 @@ public class JdbcScanConfigAdapter {
                          daily_scan_cron = ?,
                          organization = ?,
                          scan_branch = ?,
+                         parse_worker_count = ?,
+                         fetch_worker_count = ?,
+                         repository_parse_concurrency = ?,
+                         pipeline_queue_capacity = ?,
+                         incremental_scan_enabled = ?,
+                         parse_cache_max_mb = ?,
+                         parse_profile = ?,
+                         deferred_type_resolution = ?,
+                         enrichment_worker_count = ?,
+                         pre_filter_enabled = ?,
+                         test_root_patterns = ?,
+                         clone_mode = ?,
+                         clone_depth = ?,
+                         git_max_connections_per_host = ?,
+                         git_timeout_seconds = ?,
+                         git_max_retries = ?,
+                         git_retry_backoff_ms = ?,
+                         shared_object_store_enabled = ?,
+                         object_store_groups = ?,
+                         hub_disk_budget_mb = ?,
+                         remote_change_detection_enabled = ?,
+                         scan_time_budget_minutes = ?,
+                         repository_scan_workers = ?,
                          updated_at = NOW()
                      WHERE id = ?
                      """)) {
@@ -70,7 +116,30 @@ public class JdbcScanConfigAdapter {
             statement.setString(5, settings.dailyScanCron());
             statement.setString(6, settings.organization() == null ? "" : settings.organization());
             statement.setString(7, normalizeBranch(settings.scanBranch()));
-            statement.setLong(8, settings.id());
+            statement.setInt(8, normalizeParseWorkerCount(settings.parseWorkerCount()));
+            statement.setInt(9, normalizeFetchWorkerCount(settings.fetchWorkerCount()));
+            statement.setInt(10, normalizeRepositoryParseConcurrency(settings.repositoryParseConcurrency()));
+            statement.setInt(11, normalizePipelineQueueCapacity(settings.pipelineQueueCapacity()));
+            statement.setBoolean(12, settings.incrementalScanEnabled());
+            statement.setInt(13, normalizeParseCacheMaxMb(settings.parseCacheMaxMb()));
+            statement.setString(14, normalizeParseProfile(settings.parseProfile()));
+            statement.setBoolean(15, settings.deferredTypeResolution());
+            statement.setInt(16, normalizeEnrichmentWorkerCount(settings.enrichmentWorkerCount()));
+            statement.setBoolean(17, settings.preFilterEnabled());
+            statement.setString(18, normalizeTestRootPatterns(settings.testRootPatterns()));
+            statement.setString(19, normalizeCloneMode(settings.cloneMode()));
+            statement.setInt(20, normalizeCloneDepth(settings.cloneDepth()));
+            statement.setInt(21, normalizeGitMaxConnectionsPerHost(settings.gitMaxConnectionsPerHost()));
+            statement.setInt(22, normalizeGitTimeoutSeconds(settings.gitTimeoutSeconds()));
+            statement.setInt(23, normalizeGitMaxRetries(settings.gitMaxRetries()));
+            statement.setInt(24, normalizeGitRetryBackoffMs(settings.gitRetryBackoffMs()));
+            statement.setBoolean(25, settings.sharedObjectStoreEnabled());
+            statement.setString(26, normalizeObjectStoreGroups(settings.objectStoreGroups()));
+            statement.setInt(27, normalizeHubDiskBudgetMb(settings.hubDiskBudgetMb()));
+            statement.setBoolean(28, settings.remoteChangeDetectionEnabled());
+            statement.setInt(29, normalizeScanTimeBudgetMinutes(settings.scanTimeBudgetMinutes()));
+            statement.setInt(30, normalizeRepositoryScanWorkers(settings.repositoryScanWorkers()));
+            statement.setLong(31, settings.id());
             int updated = statement.executeUpdate();
             if (updated == 0) {
                 throw new SQLException("No scan_settings row updated for id=" + settings.id());
@@ -168,7 +237,30 @@ public class JdbcScanConfigAdapter {
                        scheduler_enabled,
                        daily_scan_cron,
                        organization,
-                       scan_branch
+                       scan_branch,
+                       parse_worker_count,
+                       fetch_worker_count,
+                       repository_parse_concurrency,
+                       pipeline_queue_capacity,
+                       incremental_scan_enabled,
+                       parse_cache_max_mb,
+                       parse_profile,
+                       deferred_type_resolution,
+                       enrichment_worker_count,
+                       pre_filter_enabled,
+                       test_root_patterns,
+                       clone_mode,
+                       clone_depth,
+                       git_max_connections_per_host,
+                       git_timeout_seconds,
+                       git_max_retries,
+                       git_retry_backoff_ms,
+                       shared_object_store_enabled,
+                       object_store_groups,
+                       hub_disk_budget_mb,
+                       remote_change_detection_enabled,
+                       scan_time_budget_minutes,
+                       repository_scan_workers
                 FROM scan_settings
                 ORDER BY id
                 LIMIT 1
@@ -183,7 +275,30 @@ public class JdbcScanConfigAdapter {
                             rs.getBoolean("scheduler_enabled"),
                             rs.getString("daily_scan_cron"),
                             rs.getString("organization"),
-                            normalizeBranch(rs.getString("scan_branch"))
+                            normalizeBranch(rs.getString("scan_branch")),
+                            normalizeParseWorkerCount(rs.getInt("parse_worker_count")),
+                            normalizeFetchWorkerCount(rs.getInt("fetch_worker_count")),
+                            normalizeRepositoryParseConcurrency(rs.getInt("repository_parse_concurrency")),
+                            normalizePipelineQueueCapacity(rs.getInt("pipeline_queue_capacity")),
+                            rs.getBoolean("incremental_scan_enabled"),
+                            normalizeParseCacheMaxMb(rs.getInt("parse_cache_max_mb")),
+                            normalizeParseProfile(rs.getString("parse_profile")),
+                            rs.getBoolean("deferred_type_resolution"),
+                            normalizeEnrichmentWorkerCount(rs.getInt("enrichment_worker_count")),
+                            rs.getBoolean("pre_filter_enabled"),
+                            normalizeTestRootPatterns(rs.getString("test_root_patterns")),
+                            normalizeCloneMode(rs.getString("clone_mode")),
+                            normalizeCloneDepth(rs.getInt("clone_depth")),
+                            normalizeGitMaxConnectionsPerHost(rs.getInt("git_max_connections_per_host")),
+                            normalizeGitTimeoutSeconds(rs.getInt("git_timeout_seconds")),
+                            normalizeGitMaxRetries(rs.getInt("git_max_retries")),
+                            normalizeGitRetryBackoffMs(rs.getInt("git_retry_backoff_ms")),
+                            rs.getBoolean("shared_object_store_enabled"),
+                            normalizeObjectStoreGroups(rs.getString("object_store_groups")),
+                            normalizeHubDiskBudgetMb(rs.getInt("hub_disk_budget_mb")),
+                            rs.getBoolean("remote_change_detection_enabled"),
+                            normalizeScanTimeBudgetMinutes(rs.getInt("scan_time_budget_minutes")),
+                            normalizeRepositoryScanWorkers(rs.getInt("repository_scan_workers"))
                     ));
                 }
             }
@@ -193,8 +308,8 @@ public class JdbcScanConfigAdapter {
 
     private long insertDefaultSettings(Connection connection) throws SQLException {
         try (PreparedStatement insert = connection.prepareStatement("""
-                INSERT INTO scan_settings (repository_hub_path, temp_clone_mode, max_repositories_per_scan, scheduler_enabled, daily_scan_cron, organization, scan_branch)
-                VALUES ('./repositories', FALSE, 100, TRUE, '0 0 2 * * ?', '', 'main')
+                INSERT INTO scan_settings (repository_hub_path, temp_clone_mode, max_repositories_per_scan, scheduler_enabled, daily_scan_cron, organization, scan_branch, parse_worker_count, fetch_worker_count, repository_parse_concurrency, pipeline_queue_capacity, incremental_scan_enabled, parse_cache_max_mb, parse_profile, deferred_type_resolution, enrichment_worker_count, pre_filter_enabled, test_root_patterns, clone_mode, clone_depth, git_max_connections_per_host, git_timeout_seconds, git_max_retries, git_retry_backoff_ms, shared_object_store_enabled, object_store_groups, hub_disk_budget_mb, remote_change_detection_enabled, scan_time_budget_minutes, repository_scan_workers)
+                VALUES ('./repositories', FALSE, 100, TRUE, '0 0 2 * * ?', '', 'main', 1, 1, 1, 4, TRUE, 512, 'FULL', FALSE, 1, TRUE, 'src/test/java', 'FULL', 1, 4, 300, 2, 2000, false, '', 0, TRUE, 0, 2)
                 """, Statement.RETURN_GENERATED_KEYS)) {
             insert.executeUpdate();
             try (ResultSet keys = insert.getGeneratedKeys()) {
@@ -212,5 +327,88 @@ public class JdbcScanConfigAdapter {
         }
         return branch.trim();
     }
-}
 
+    private static int normalizeParseWorkerCount(int parseWorkerCount) {
+        return parseWorkerCount <= 0 ? 1 : parseWorkerCount;
+    }
+
+    private static int normalizeFetchWorkerCount(int fetchWorkerCount) {
+        return fetchWorkerCount <= 0 ? 1 : fetchWorkerCount;
+    }
+
+    private static int normalizeRepositoryParseConcurrency(int repositoryParseConcurrency) {
+        return repositoryParseConcurrency <= 0 ? 1 : repositoryParseConcurrency;
+    }
+
+    private static int normalizePipelineQueueCapacity(int pipelineQueueCapacity) {
+        return pipelineQueueCapacity <= 0 ? 4 : pipelineQueueCapacity;
+    }
+
+    private static int normalizeParseCacheMaxMb(int parseCacheMaxMb) {
+        return parseCacheMaxMb < 0 ? 512 : parseCacheMaxMb;
+    }
+
+    private static String normalizeParseProfile(String parseProfile) {
+        if (parseProfile == null || parseProfile.trim().isEmpty()) {
+            return "FULL";
+        }
+        return parseProfile.trim().toUpperCase();
+    }
+
+    private static int normalizeEnrichmentWorkerCount(int enrichmentWorkerCount) {
+        return enrichmentWorkerCount <= 0 ? 1 : enrichmentWorkerCount;
+    }
+
+    private static String normalizeTestRootPatterns(String testRootPatterns) {
+        if (testRootPatterns == null || testRootPatterns.trim().isEmpty()) {
+            return "src/test/java";
+        }
+        return testRootPatterns.trim();
+    }
+
+    private static String normalizeCloneMode(String cloneMode) {
+        if (cloneMode == null || cloneMode.trim().isEmpty()) {
+            return "FULL";
+        }
+        return cloneMode.trim().toUpperCase();
+    }
+
+    private static int normalizeCloneDepth(int cloneDepth) {
+        return cloneDepth < 0 ? 1 : cloneDepth;
+    }
+
+    private static int normalizeGitMaxConnectionsPerHost(int gitMaxConnectionsPerHost) {
+        return gitMaxConnectionsPerHost <= 0 ? 4 : gitMaxConnectionsPerHost;
+    }
+
+    private static int normalizeGitTimeoutSeconds(int gitTimeoutSeconds) {
+        return gitTimeoutSeconds <= 0 ? 300 : gitTimeoutSeconds;
+    }
+
+    private static int normalizeGitMaxRetries(int gitMaxRetries) {
+        return gitMaxRetries < 0 ? 2 : gitMaxRetries;
+    }
+
+    private static int normalizeGitRetryBackoffMs(int gitRetryBackoffMs) {
+        return gitRetryBackoffMs < 0 ? 2000 : gitRetryBackoffMs;
+    }
+
+    private static String normalizeObjectStoreGroups(String objectStoreGroups) {
+        if (objectStoreGroups == null || objectStoreGroups.trim().isEmpty()) {
+            return "";
+        }
+        return objectStoreGroups.trim();
+    }
+
+    private static int normalizeHubDiskBudgetMb(int hubDiskBudgetMb) {
+        return hubDiskBudgetMb < 0 ? 0 : hubDiskBudgetMb;
+    }
+
+    private static int normalizeScanTimeBudgetMinutes(int scanTimeBudgetMinutes) {
+        return scanTimeBudgetMinutes < 0 ? 0 : scanTimeBudgetMinutes;
+    }
+
+    private static int normalizeRepositoryScanWorkers(int repositoryScanWorkers) {
+        return repositoryScanWorkers <= 0 ? 2 : repositoryScanWorkers;
+    }
+}
@@ -95,8 +95,13 @@ public class JdbcScanSessionAdapter implements ScanSessionPort {
 
     @Override
     public Optional<Long> findLatestScanSessionIdForRepository(Long repositoryId) {
-        // Find the latest scan session that contains test classes for this repository
-        String sql = "SELECT MAX(scan_session_id) FROM test_classes WHERE repository_id = ?";
+        // Find the latest completed scan session that contains test classes for this repository;
+        // sessions still RUNNING or FAILED hold partially written repositories
+        String sql = """
+                SELECT MAX(tc.scan_session_id) FROM test_classes tc
+                JOIN scan_sessions ss ON ss.id = tc.scan_session_id
+                WHERE tc.repository_id = ? AND ss.scan_status = 'COMPLETED'
+                """;
         try (Connection conn = DatabaseConfig.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, repositoryId);
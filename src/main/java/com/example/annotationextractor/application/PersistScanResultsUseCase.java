@@ -1,5 +1,6 @@
 package com.example.annotationextractor.application;
 
+import com.example.annotationextractor.casemodel.IncrementalScanBaseline;
 import com.example.annotationextractor.casemodel.RepositoryTestInfo;
 import com.example.annotationextractor.casemodel.TestClassInfo;
 import com.example.annotationextractor.casemodel.TestCollectionSummary;
@@ -8,12 +9,22 @@ import com.example.annotationextractor.casemodel.TestHelperClassInfo;
 import com.example.annotationextractor.casemodel.UnittestCaseInfoData;
 import com.example.annotationextractor.database.DatabaseConfig;
 import com.example.annotationextractor.database.BatchOperationHelper;
+import com.example.annotationextractor.database.CopyOperationHelper;
 
 import java.io.StringReader;
 import java.sql.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.BiConsumer;
@@ -28,6 +39,40 @@ public class PersistScanResultsUseCase {
     
     // Batch size for batch operations - optimal balance between performance and memory
     private static final int BATCH_SIZE = 500;
+
+    /**
+     * test_classes.referenced_types_status of classes whose referenced types the enrichment worker still has to resolve.
+     */
+    public static final String REFERENCED_TYPES_PENDING = "PENDING";
+
+    // Ids of teams and repositories that already existed, kept for the lifetime of this use case (one scan);
+    // ids created by a transaction are only cached once seen again after it committed.
+    // Shared by the concurrent repository transactions of persist.
+    // Shadow writes run on their own instance, so the ids always belong to one database.
+    private final Map<String, Integer> teamIds = new ConcurrentHashMap<>();
+    private final Map<String, Long> repositoryIds = new ConcurrentHashMap<>();
+
+    private static final int TEST_CLASS_COLUMN_COUNT = 15;
+
+    private static final String TEST_CLASS_COLUMNS = """
+            (repository_id, class_name, package_name, file_path, total_test_methods,
+             annotated_test_methods, coverage_rate, scan_session_id, class_line_number,
+             test_class_content, helper_classes_line_numbers, class_loc,
+             imported_types, referenced_types, referenced_types_status)
+            """;
+
+    private static final String TEST_CLASS_UPSERT = """
+            ON CONFLICT (scan_session_id, repository_id, class_name, package_name, COALESCE(file_path, ''))
+            DO UPDATE SET total_test_methods = EXCLUDED.total_test_methods,
+                annotated_test_methods = EXCLUDED.annotated_test_methods,
+                coverage_rate = EXCLUDED.coverage_rate, class_line_number = EXCLUDED.class_line_number,
+                test_class_content = EXCLUDED.test_class_content,
+                helper_classes_line_numbers = EXCLUDED.helper_classes_line_numbers,
+                class_loc = EXCLUDED.class_loc, imported_types = EXCLUDED.imported_types,
+                referenced_types = EXCLUDED.referenced_types,
+                referenced_types_status = EXCLUDED.referenced_types_status
+            RETURNING id, class_name, package_name, file_path
+            """;
     
     // Helper class to hold prepared test class data for batch operations
     private static class TestClassBatchData {
@@ -91,20 +136,39 @@ public class PersistScanResultsUseCase {
         }
     }
 
+    /**
+     * Persist a scan session with one transaction per repository, running up to
+     * -Dpersistence.parallelism (default 4) repositories at a time on their own pooled connections.
+     * The session is inserted PERSISTING and only flipped to COMPLETED once every repository committed;
+     * if a repository fails, the remaining ones roll back instead of committing and the session is
+     * marked FAILED once none of them is running any more. A session left PERSISTING by a crash is
+     * neither served nor resumed, since both only look at COMPLETED and RUNNING sessions.
+     */
     public long persist(TestCollectionSummary summary, long scanDurationMs) throws SQLException {
+        long scanSessionId;
         try (Connection conn = DatabaseConfig.getConnection()) {
-            conn.setAutoCommit(false);
+            scanSessionId = insertScanSession(conn, summary, scanDurationMs, "PERSISTING");
+        }
+
+        try {
+            persistRepositoriesConcurrently(scanSessionId, summary.getRepositories());
+        } catch (SQLException e) {
             try {
-                long scanSessionId = insertScanSession(conn, summary, scanDurationMs);
+                failScanSession(scanSessionId, e.getMessage());
+            } catch (SQLException failEx) {
+                e.addSuppressed(failEx);
+            }
+            throw e;
+        }
 
-                for (RepositoryTestInfo repo : summary.getRepositories()) {
-                    int teamId = ensureTeamExists(conn, repo.getTeamName(), repo.getTeamCode());
-                    long repositoryId = upsertRepository(conn, repo, teamId);
-                    Map<String, Long> testClassIds = persistTestClassesBatch(conn, repo, repositoryId, scanSessionId);
-                    persistTestMethodsBatch(conn, repo, repositoryId, scanSessionId, testClassIds);
-                    persistHelperClassesBatch(conn, repo, repositoryId, scanSessionId);
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "UPDATE scan_sessions SET scan_status = 'COMPLETED' WHERE id = ?")) {
+                    stmt.setLong(1, scanSessionId);
+                    stmt.executeUpdate();
                 }
-
                 updateDailyMetrics(conn, summary);
                 conn.commit();
                 return scanSessionId;
@@ -115,6 +179,132 @@ public class PersistScanResultsUseCase {
         }
     }
 
+    private static int getPersistParallelism() {
+        return Math.max(1, Integer.getInteger("persistence.parallelism", 4));
+    }
+
+    private void persistRepositoriesConcurrently(long scanSessionId, List<RepositoryTestInfo> summaryRepositories) throws SQLException {
+        if (summaryRepositories.isEmpty()) {
+            return;
+        }
+        // Largest first, so a big repository does not end up running alone at the end
+        List<RepositoryTestInfo> repositories = new ArrayList<>(summaryRepositories);
+        repositories.sort(java.util.Comparator.comparingInt(RepositoryTestInfo::getTotalTestMethods).reversed());
+        int threads = Math.min(getPersistParallelism(), repositories.size());
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "persist-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicBoolean cancelled = new AtomicBoolean();
+        SQLException failure = null;
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (RepositoryTestInfo repo : repositories) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        persistRepositoryTransaction(scanSessionId, repo, cancelled);
+                    } catch (Throwable t) {
+                        cancelled.set(true);
+                        throw t;
+                    }
+                    return null;
+                }));
+            }
+            // Wait for every repository, so none commits after the session is marked FAILED
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof PersistCancelledException) {
+                        continue;
+                    }
+                    String message = "Failed to persist repository " + repositories.get(i).getGitUrl() + ": " + cause.getMessage();
+                    SQLException repositoryFailure = cause instanceof SQLException
+                            ? new SQLException(message, ((SQLException) cause).getSQLState(), cause)
+                            : new SQLException(message, cause);
+                    if (failure == null) {
+                        failure = repositoryFailure;
+                    } else {
+                        failure.addSuppressed(repositoryFailure);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            cancelled.set(true);
+            Thread.currentThread().interrupt();
+            failure = new SQLException("Interrupted while persisting repositories", e);
+            executor.shutdown();
+            awaitPersistWorkers(executor);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Let repositories still running after an interrupt roll back before the session is marked FAILED.
+     */
+    private static void awaitPersistWorkers(ExecutorService executor) {
+        boolean interrupted = Thread.interrupted();
+        try {
+            while (!executor.isTerminated()) {
+                try {
+                    executor.awaitTermination(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Thrown by a repository that rolled back because another repository of its session failed.
+     */
+    static final class PersistCancelledException extends SQLException {
+        PersistCancelledException(String gitUrl) {
+            super("Persisting " + gitUrl + " was cancelled after another repository failed");
+        }
+    }
+
+    private void persistRepositoryTransaction(long scanSessionId, RepositoryTestInfo repo, AtomicBoolean cancelled) throws SQLException {
+        if (cancelled.get()) {
+            throw new PersistCancelledException(repo.getGitUrl());
+        }
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                persistRepositoryData(conn, repo, scanSessionId);
+                if (cancelled.get()) {
+                    throw new PersistCancelledException(repo.getGitUrl());
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                clearIdCaches();
+                throw e;
+            }
+        }
+    }
+
+    private void failScanSession(long scanSessionId, String error) throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "UPDATE scan_sessions SET scan_status = 'FAILED', error_log = ? WHERE id = ?")) {
+            stmt.setString(1, error);
+            stmt.setLong(2, scanSessionId);
+            stmt.executeUpdate();
+        }
+    }
+
     /**
      * Shadow persist that targets the shadow database if configured.
      * It commits like the primary to allow real performance testing.
@@ -124,6 +314,7 @@ public class PersistScanResultsUseCase {
             conn.setAutoCommit(false);
             try {
                 long scanSessionId = insertScanSession(conn, summary, scanDurationMs);
+                // No incremental carry-forward here: baseline session ids refer to the primary database
                 for (RepositoryTestInfo repo : summary.getRepositories()) {
                     int teamId = ensureTeamExists(conn, repo.getTeamName(), repo.getTeamCode());
                     long repositoryId = upsertRepository(conn, repo, teamId);
@@ -141,12 +332,232 @@ public class PersistScanResultsUseCase {
         }
     }
 
+    /**
+     * Write one repository's classes, methods and helpers into a session and remember its scanned commit.
+     *
+     * @return id of the repository
+     */
+    long persistRepositoryData(Connection conn, RepositoryTestInfo repo, long scanSessionId) throws SQLException {
+        long start = System.nanoTime();
+        int teamId = ensureTeamExists(conn, repo.getTeamName(), repo.getTeamCode());
+        long repositoryId = upsertRepository(conn, repo, teamId);
+        Map<String, Long> testClassIds = persistTestClassesBatch(conn, repo, repositoryId, scanSessionId);
+        persistTestMethodsBatch(conn, repo, repositoryId, scanSessionId, testClassIds);
+        persistHelperClassesBatch(conn, repo, repositoryId, scanSessionId);
+        carryForwardUnchangedFiles(conn, repo, scanSessionId);
+        recordScannedCommit(conn, repositoryId, repo.getHeadCommit(), repo.getScanFingerprint(), scanSessionId);
+        recordFetchStats(conn, repositoryId, repo);
+        repo.setPersistDurationMs((System.nanoTime() - start) / 1_000_000L);
+        return repositoryId;
+    }
+
+    /**
+     * A scan session left RUNNING by a scan that never completed, e.g. because the JVM died.
+     */
+    public record InterruptedScanSession(long id, Timestamp scanDate) {}
+
+    /**
+     * Session a hub scan persists into, with the repositories an interrupted run of it already committed.
+     *
+     * @param checkpoints           git URLs already persisted, empty for a new session
+     * @param checkpointedTeamCodes team codes of the checkpointed repositories that have test data
+     */
+    public record ScanSessionStart(long id, boolean resumed, java.util.Set<String> checkpoints,
+            java.util.Set<String> checkpointedTeamCodes) {}
+
+    /**
+     * Resume the latest interrupted session of a hub if it started at most resumeWindowMs ago, otherwise
+     * mark it INTERRUPTED and start a new session.
+     */
+    public ScanSessionStart startOrResumeScanSession(String scanDirectory, long resumeWindowMs) throws SQLException {
+        java.util.Optional<InterruptedScanSession> interrupted = findInterruptedScanSession(scanDirectory);
+        if (interrupted.isPresent()) {
+            InterruptedScanSession session = interrupted.get();
+            if (System.currentTimeMillis() - session.scanDate().getTime() <= resumeWindowMs) {
+                return new ScanSessionStart(session.id(), true, loadCheckpoints(session.id()),
+                        loadCheckpointedTeamCodes(session.id()));
+            }
+            abandonScanSession(session.id());
+            System.out.println("Interrupted scan session " + session.id() + " is too old to resume, starting over");
+        }
+        return new ScanSessionStart(startScanSession(scanDirectory), false, java.util.Set.of(), java.util.Set.of());
+    }
+
+    /**
+     * Start a session that repositories are persisted into one by one as they finish, see
+     * {@link #persistRepository}; it stays RUNNING until {@link #completeScanSession}.
+     */
+    public long startScanSession(String scanDirectory) throws SQLException {
+        String sql = """
+                INSERT INTO scan_sessions (scan_date, scan_directory, scan_status)
+                VALUES (CURRENT_TIMESTAMP, ?, 'RUNNING')
+                """;
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, scanDirectory);
+            stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    return keys.getLong(1);
+                }
+            }
+            throw new SQLException("Failed to retrieve scan session ID");
+        }
+    }
+
+    /**
+     * Latest in-process scan session of a scan directory that is still RUNNING. Sessions of
+     * distributed scans are completed by their workers and never returned.
+     */
+    public java.util.Optional<InterruptedScanSession> findInterruptedScanSession(String scanDirectory) throws SQLException {
+        String sql = """
+                SELECT id, scan_date FROM scan_sessions s
+                WHERE scan_status = 'RUNNING' AND scan_directory = ?
+                  AND NOT EXISTS (SELECT 1 FROM scan_jobs j WHERE j.scan_session_id = s.id)
+                ORDER BY id DESC
+                LIMIT 1
+                """;
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, scanDirectory);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return java.util.Optional.of(new InterruptedScanSession(rs.getLong("id"), rs.getTimestamp("scan_date")));
+                }
+            }
+        }
+        return java.util.Optional.empty();
+    }
+
+    /**
+     * Give up on an interrupted session too old to resume; its rows stay, but it is never shown as completed.
+     */
+    public void abandonScanSession(long scanSessionId) throws SQLException {
+        String sql = "UPDATE scan_sessions SET scan_status = 'INTERRUPTED' WHERE id = ? AND scan_status = 'RUNNING'";
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, scanSessionId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Git URLs of the repositories already persisted into a session.
+     */
+    public java.util.Set<String> loadCheckpoints(long scanSessionId) throws SQLException {
+        java.util.Set<String> gitUrls = new java.util.HashSet<>();
+        String sql = "SELECT git_url FROM scan_checkpoints WHERE scan_session_id = ?";
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, scanSessionId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    gitUrls.add(rs.getString("git_url"));
+                }
+            }
+        }
+        return gitUrls;
+    }
+
+    /**
+     * Team codes of the checkpointed repositories of a session that have test data.
+     */
+    public java.util.Set<String> loadCheckpointedTeamCodes(long scanSessionId) throws SQLException {
+        java.util.Set<String> teamCodes = new java.util.HashSet<>();
+        String sql = """
+                SELECT DISTINCT t.team_code FROM scan_checkpoints c
+                JOIN repositories r ON r.id = c.repository_id
+                JOIN teams t ON t.id = r.team_id
+                WHERE c.scan_session_id = ?
+                """;
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, scanSessionId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    teamCodes.add(rs.getString("team_code"));
+                }
+            }
+        }
+        return teamCodes;
+    }
+
+    /**
+     * Persist a finished repository into a RUNNING session in its own transaction, together with its
+     * checkpoint, so a resumed scan skips exactly the repositories whose rows are committed.
+     * Repositories without test classes only get their checkpoint.
+     */
+    public void persistRepository(long scanSessionId, RepositoryTestInfo repo) throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Long repositoryId = repo.getTotalTestClasses() > 0 ? persistRepositoryData(conn, repo, scanSessionId) : null;
+                String sql = """
+                        INSERT INTO scan_checkpoints (scan_session_id, git_url, repository_id, head_commit, completed_at)
+                        VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)
+                        ON CONFLICT (scan_session_id, git_url) DO NOTHING
+                        """;
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setLong(1, scanSessionId);
+                    stmt.setString(2, repo.getGitUrl());
+                    if (repositoryId != null) {
+                        stmt.setLong(3, repositoryId);
+                    } else {
+                        stmt.setNull(3, Types.BIGINT);
+                    }
+                    stmt.setString(4, repo.getHeadCommit());
+                    stmt.executeUpdate();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                clearIdCaches();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Compute the totals of a session from its persisted rows, update the daily metrics and mark it COMPLETED.
+     */
+    public void completeScanSession(long scanSessionId, long scanDurationMs) throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                updateScanSessionTotals(conn, scanSessionId);
+                String sql = """
+                        UPDATE scan_sessions SET scan_status = 'COMPLETED', scan_duration_ms = ?
+                        WHERE id = ?
+                        RETURNING total_repositories, total_test_classes, total_test_methods, total_annotated_methods
+                        """;
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setLong(1, scanDurationMs);
+                    stmt.setLong(2, scanSessionId);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new SQLException("Scan session not found: " + scanSessionId);
+                        }
+                        updateDailyMetrics(conn, rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4));
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
     private long insertScanSession(Connection conn, TestCollectionSummary summary, long scanDurationMs) throws SQLException {
+        return insertScanSession(conn, summary, scanDurationMs, "COMPLETED");
+    }
+
+    private long insertScanSession(Connection conn, TestCollectionSummary summary, long scanDurationMs, String scanStatus) throws SQLException {
         String sql = """
                 INSERT INTO scan_sessions 
                 (scan_date, scan_directory, total_repositories, total_test_classes, 
-                 total_test_methods, total_annotated_methods, scan_duration_ms) 
-                VALUES (?, ?, ?, ?, ?, ?, ?)
+                 total_test_methods, total_annotated_methods, scan_duration_ms, scan_status) 
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
                 """;
         try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setTimestamp(1, new Timestamp(summary.getScanTimestamp()));
@@ -156,6 +567,7 @@ public class PersistScanResultsUseCase {
             stmt.setInt(5, summary.getTotalTestMethods());
             stmt.setInt(6, summary.getTotalAnnotatedTestMethods());
             stmt.setLong(7, scanDurationMs);
+            stmt.setString(8, scanStatus);
             int affected = stmt.executeUpdate();
             if (affected == 0) throw new SQLException("No rows inserted for scan_sessions");
             try (ResultSet keys = stmt.getGeneratedKeys()) {
@@ -198,15 +610,41 @@ public class PersistScanResultsUseCase {
     }
 
     private int ensureTeamExists(Connection conn, String teamName, String teamCode) throws SQLException {
+        Integer cachedId = teamIds.get(teamCode);
+        if (cachedId != null) {
+            return cachedId;
+        }
         String selectSql = "SELECT id FROM teams WHERE team_code = ?";
         try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
             stmt.setString(1, teamCode);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
+                    teamIds.put(teamCode, rs.getInt(1));
                     return rs.getInt(1);
                 }
             }
         }
+
+        if (isPostgres(conn)) {
+            // DO NOTHING leaves existing rows unlocked; concurrent repository transactions of one team would
+            // otherwise queue on the team row. Nothing returned means another transaction created it meanwhile.
+            String insertSql = """
+                    INSERT INTO teams (team_name, team_code)
+                    VALUES (?, ?)
+                    ON CONFLICT (team_code) DO NOTHING
+                    RETURNING id
+                    """;
+            try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
+                stmt.setString(1, teamName);
+                stmt.setString(2, teamCode);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getInt(1);
+                    }
+                }
+            }
+            return ensureTeamExists(conn, teamName, teamCode);
+        }
         
         String insertSql = """
                 INSERT INTO teams (team_name, team_code) 
@@ -226,10 +664,52 @@ public class PersistScanResultsUseCase {
     }
 
     private long upsertRepository(Connection conn, RepositoryTestInfo repo, int teamId) throws SQLException {
-        Long existingId = getRepositoryIdByGitUrl(conn, repo.getGitUrl());
         double coverageRate = repo.getTotalTestMethods() > 0 
             ? (double) repo.getTotalAnnotatedTestMethods() / repo.getTotalTestMethods() * 100 
             : 0.0;
+
+        if (isPostgres(conn)) {
+            String upsertSql = """
+                    INSERT INTO repositories 
+                    (repository_name, repository_path, git_url, team_id, total_test_classes, 
+                     total_test_methods, total_annotated_methods, annotation_coverage_rate, 
+                     test_code_lines, test_related_code_lines, last_scan_date) 
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+                    ON CONFLICT (git_url) DO UPDATE SET repository_name = EXCLUDED.repository_name,
+                        repository_path = EXCLUDED.repository_path, team_id = EXCLUDED.team_id,
+                        total_test_classes = EXCLUDED.total_test_classes,
+                        total_test_methods = EXCLUDED.total_test_methods,
+                        total_annotated_methods = EXCLUDED.total_annotated_methods,
+                        annotation_coverage_rate = EXCLUDED.annotation_coverage_rate,
+                        test_code_lines = EXCLUDED.test_code_lines,
+                        test_related_code_lines = EXCLUDED.test_related_code_lines,
+                        last_scan_date = CURRENT_TIMESTAMP
+                    RETURNING id
+                    """;
+            try (PreparedStatement stmt = conn.prepareStatement(upsertSql)) {
+                stmt.setString(1, repo.getRepositoryName());
+                stmt.setString(2, repo.getRepositoryPathString());
+                stmt.setString(3, repo.getGitUrl());
+                stmt.setInt(4, teamId);
+                stmt.setInt(5, repo.getTotalTestClasses());
+                stmt.setInt(6, repo.getTotalTestMethods());
+                stmt.setInt(7, repo.getTotalAnnotatedTestMethods());
+                stmt.setDouble(8, coverageRate);
+                stmt.setInt(9, repo.getTestCodeLines());
+                stmt.setInt(10, repo.getTestRelatedCodeLines());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getLong(1);
+                    }
+                }
+            }
+            throw new SQLException("Failed to upsert repository: " + repo.getGitUrl());
+        }
+
+        Long existingId = repositoryIds.get(repo.getGitUrl());
+        if (existingId == null) {
+            existingId = getRepositoryIdByGitUrl(conn, repo.getGitUrl());
+        }
             
         if (existingId == null) {
             String insertSql = """
@@ -288,8 +768,13 @@ public class PersistScanResultsUseCase {
                 stmt.setInt(8, repo.getTestCodeLines());
                 stmt.setInt(9, repo.getTestRelatedCodeLines());
                 stmt.setLong(10, existingId);
-                stmt.executeUpdate();
+                if (stmt.executeUpdate() == 0) {
+                    // Deleted since it was cached
+                    repositoryIds.remove(repo.getGitUrl());
+                    return upsertRepository(conn, repo, teamId);
+                }
             }
+            repositoryIds.put(repo.getGitUrl(), existingId);
             return existingId;
         }
     }
@@ -323,6 +808,14 @@ public class PersistScanResultsUseCase {
             String referencedTypesPayload = toDelimitedString(tc.getReferencedTypes());
             batchData.add(new TestClassBatchData(tc, coverage, importedTypesPayload, referencedTypesPayload));
         }
+        String referencedTypesStatus = repo.isReferencedTypesPending() ? REFERENCED_TYPES_PENDING : null;
+
+        if (CopyOperationHelper.isCopySupported(conn)) {
+            return copyTestClasses(conn, batchData, repositoryId, scanSessionId, referencedTypesStatus);
+        }
+        if (isPostgres(conn)) {
+            return upsertTestClasses(conn, batchData, repositoryId, scanSessionId, referencedTypesStatus);
+        }
 
         // Step 1: Try UPDATE in batch
         String updateSql = """
@@ -330,7 +823,7 @@ public class PersistScanResultsUseCase {
                 SET total_test_methods = ?, annotated_test_methods = ?,
                     coverage_rate = ?, class_line_number = ?, test_class_content = ?,
                     helper_classes_line_numbers = ?, class_loc = ?, imported_types = ?,
-                    referenced_types = ?
+                    referenced_types = ?, referenced_types_status = ?
                 WHERE scan_session_id = ? AND repository_id = ? 
                   AND class_name = ? AND package_name = ? AND file_path = ?
                 """;
@@ -349,11 +842,12 @@ public class PersistScanResultsUseCase {
                 updateStmt.setInt(7, tc.getClassLoc());
                 setLargeString(updateStmt, 8, data.importedTypes);
                 setLargeString(updateStmt, 9, data.referencedTypes);
-                updateStmt.setLong(10, scanSessionId);
-                updateStmt.setLong(11, repositoryId);
-                updateStmt.setString(12, tc.getClassName());
-                updateStmt.setString(13, tc.getPackageName());
-                updateStmt.setString(14, tc.getFilePath());
+                updateStmt.setString(10, referencedTypesStatus);
+                updateStmt.setLong(11, scanSessionId);
+                updateStmt.setLong(12, repositoryId);
+                updateStmt.setString(13, tc.getClassName());
+                updateStmt.setString(14, tc.getPackageName());
+                updateStmt.setString(15, tc.getFilePath());
                 updateStmt.addBatch();
             }
             
@@ -375,32 +869,12 @@ public class PersistScanResultsUseCase {
 
         // Step 2: INSERT new items using batch helper (handles duplicates gracefully)
         if (!toInsert.isEmpty()) {
-            String insertSql = """
-                    INSERT INTO test_classes 
-                    (repository_id, class_name, package_name, file_path, total_test_methods, 
-                     annotated_test_methods, coverage_rate, scan_session_id, class_line_number, 
-                     test_class_content, helper_classes_line_numbers, class_loc, 
-                     imported_types, referenced_types) 
-                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-                    """;
+            String insertSql = "INSERT INTO test_classes " + TEST_CLASS_COLUMNS
+                    + "VALUES " + BatchOperationHelper.buildValuesRows(TEST_CLASS_COLUMN_COUNT, 1);
             
             BiConsumer<PreparedStatement, TestClassBatchData> setter = (stmt, data) -> {
                 try {
-                    TestClassInfo tc = data.tc;
-                    stmt.setLong(1, repositoryId);
-                    stmt.setString(2, tc.getClassName());
-                    stmt.setString(3, tc.getPackageName());
-                    stmt.setString(4, tc.getFilePath());
-                    stmt.setInt(5, tc.getTotalTestMethods());
-                    stmt.setInt(6, tc.getAnnotatedTestMethods());
-                    stmt.setDouble(7, data.coverage);
-                    stmt.setLong(8, scanSessionId);
-                    stmt.setInt(9, tc.getClassLineNumber());
-                    stmt.setString(10, tc.getTestClassContent());
-                    stmt.setString(11, tc.getHelperClassesLineNumbers());
-                    stmt.setInt(12, tc.getClassLoc());
-                    setLargeString(stmt, 13, data.importedTypes);
-                    setLargeString(stmt, 14, data.referencedTypes);
+                    setTestClassInsertParameters(stmt, 0, data, repositoryId, scanSessionId, referencedTypesStatus);
                 } catch (SQLException e) {
                     throw new RuntimeException("Failed to set parameters for test class batch", e);
                 }
@@ -428,6 +902,74 @@ public class PersistScanResultsUseCase {
         return testClassIds;
     }
 
+    /**
+     * Upsert test classes with multi-row INSERT ... ON CONFLICT ... RETURNING, one round trip per chunk.
+     * Duplicates within the repository keep the first class, as the batch path does.
+     */
+    private Map<String, Long> upsertTestClasses(Connection conn, List<TestClassBatchData> batchData, long repositoryId,
+            long scanSessionId, String referencedTypesStatus) throws SQLException {
+        // A statement must not touch the same row twice, so duplicates are dropped before chunking
+        Map<String, TestClassBatchData> unique = new LinkedHashMap<>();
+        for (TestClassBatchData data : batchData) {
+            unique.putIfAbsent(buildTestClassKey(data.tc.getPackageName(), data.tc.getClassName(), data.tc.getFilePath()), data);
+        }
+        List<TestClassBatchData> rows = new ArrayList<>(unique.values());
+
+        Map<String, Long> testClassIds = new HashMap<>();
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            List<TestClassBatchData> chunk = rows.subList(from, Math.min(from + BATCH_SIZE, rows.size()));
+            String sql = "INSERT INTO test_classes " + TEST_CLASS_COLUMNS
+                    + "VALUES " + BatchOperationHelper.buildValuesRows(TEST_CLASS_COLUMN_COUNT, chunk.size()) + "\n"
+                    + TEST_CLASS_UPSERT;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int offset = 0;
+                for (TestClassBatchData data : chunk) {
+                    setTestClassInsertParameters(stmt, offset, data, repositoryId, scanSessionId, referencedTypesStatus);
+                    offset += TEST_CLASS_COLUMN_COUNT;
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        testClassIds.put(buildTestClassKey(rs.getString("package_name"), rs.getString("class_name"), rs.getString("file_path")),
+                                rs.getLong("id"));
+                    }
+                }
+            }
+        }
+        return testClassIds;
+    }
+
+    /**
+     * Bind one test_classes row in TEST_CLASS_COLUMNS order, starting after the given parameter offset.
+     */
+    private static void setTestClassInsertParameters(PreparedStatement stmt, int offset, TestClassBatchData data,
+            long repositoryId, long scanSessionId, String referencedTypesStatus) throws SQLException {
+        TestClassInfo tc = data.tc;
+        stmt.setLong(offset + 1, repositoryId);
+        stmt.setString(offset + 2, tc.getClassName());
+        stmt.setString(offset + 3, tc.getPackageName());
+        stmt.setString(offset + 4, tc.getFilePath());
+        stmt.setInt(offset + 5, tc.getTotalTestMethods());
+        stmt.setInt(offset + 6, tc.getAnnotatedTestMethods());
+        stmt.setDouble(offset + 7, data.coverage);
+        stmt.setLong(offset + 8, scanSessionId);
+        stmt.setInt(offset + 9, tc.getClassLineNumber());
+        stmt.setString(offset + 10, tc.getTestClassContent());
+        stmt.setString(offset + 11, tc.getHelperClassesLineNumbers());
+        stmt.setInt(offset + 12, tc.getClassLoc());
+        setLargeString(stmt, offset + 13, data.importedTypes);
+        setLargeString(stmt, offset + 14, data.referencedTypes);
+        stmt.setString(offset + 15, referencedTypesStatus);
+    }
+
+    private static boolean isPostgres(Connection conn) throws SQLException {
+        return BatchOperationHelper.detectDatabaseVendor(conn) == BatchOperationHelper.DatabaseVendor.POSTGRESQL;
+    }
+
+    private void clearIdCaches() {
+        teamIds.clear();
+        repositoryIds.clear();
+    }
+
     private void persistTestMethodsBatch(Connection conn, RepositoryTestInfo repo, long repositoryId, long scanSessionId, Map<String, Long> testClassIds) throws SQLException {
         List<TestMethodInfo> allMethods = new ArrayList<>();
         for (TestClassInfo tc : repo.getTestClasses()) {
@@ -449,6 +991,11 @@ public class PersistScanResultsUseCase {
             batchData.add(methodData);
         }
 
+        if (CopyOperationHelper.isCopySupported(conn)) {
+            copyTestMethods(conn, batchData, scanSessionId);
+            return;
+        }
+
         // Step 1: UPDATE existing methods in batch
         String updateSql = """
                 UPDATE test_methods 
@@ -626,6 +1173,11 @@ public class PersistScanResultsUseCase {
     private void persistHelperClassesBatch(Connection conn, RepositoryTestInfo repo, long repositoryId, long scanSessionId) throws SQLException {
         List<TestHelperClassInfo> helperClasses = repo.getHelperClasses();
         if (helperClasses == null || helperClasses.isEmpty()) return;
+
+        if (CopyOperationHelper.isCopySupported(conn)) {
+            copyHelperClasses(conn, helperClasses, repositoryId, scanSessionId);
+            return;
+        }
         
         String insertSql = """
                 INSERT INTO test_helper_classes 
@@ -653,6 +1205,362 @@ public class PersistScanResultsUseCase {
         BatchOperationHelper.executeBatchWithFallback(conn, helperClasses, BATCH_SIZE, setter, insertSql);
     }
 
+    // Staging tables for COPY loads; rows live until the end of the transaction and are truncated per load
+    private static final String STAGING_TEST_CLASSES_DDL = """
+            CREATE TEMP TABLE IF NOT EXISTS staging_test_classes (
+                ord BIGINT GENERATED BY DEFAULT AS IDENTITY,
+                class_name TEXT, package_name TEXT, file_path TEXT,
+                total_test_methods INT, annotated_test_methods INT, coverage_rate NUMERIC(5,2),
+                class_line_number INT, test_class_content TEXT, helper_classes_line_numbers TEXT,
+                class_loc INT, imported_types TEXT, referenced_types TEXT
+            ) ON COMMIT DELETE ROWS
+            """;
+
+    private static final String STAGING_TEST_METHODS_DDL = """
+            CREATE TEMP TABLE IF NOT EXISTS staging_test_methods (
+                ord BIGINT GENERATED BY DEFAULT AS IDENTITY,
+                test_class_id BIGINT, method_name TEXT, method_signature TEXT, line_number INT,
+                method_loc INT, method_body_content TEXT, has_annotation BOOLEAN, annotation_data TEXT,
+                annotation_title TEXT, annotation_author TEXT, annotation_status TEXT,
+                annotation_target_class TEXT, annotation_target_method TEXT, annotation_description TEXT,
+                annotation_tags TEXT, annotation_test_points TEXT, annotation_requirements TEXT,
+                annotation_defects TEXT, annotation_testcases TEXT, annotation_last_update_time TEXT,
+                annotation_last_update_author TEXT
+            ) ON COMMIT DELETE ROWS
+            """;
+
+    private static final String STAGING_HELPER_CLASSES_DDL = """
+            CREATE TEMP TABLE IF NOT EXISTS staging_test_helper_classes (
+                ord BIGINT GENERATED BY DEFAULT AS IDENTITY,
+                class_name TEXT, package_name TEXT, file_path TEXT, class_line_number INT,
+                helper_class_content TEXT, loc INT
+            ) ON COMMIT DELETE ROWS
+            """;
+
+    private static void prepareStagingTable(Connection conn, String ddl, String table) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(ddl);
+            stmt.execute("TRUNCATE " + table);
+        }
+    }
+
+    /**
+     * COPY test classes into staging and upsert them in one statement; duplicates within the
+     * repository keep the first class, as the JDBC path does.
+     */
+    private Map<String, Long> copyTestClasses(Connection conn, List<TestClassBatchData> batchData, long repositoryId,
+            long scanSessionId, String referencedTypesStatus) throws SQLException {
+        prepareStagingTable(conn, STAGING_TEST_CLASSES_DDL, "staging_test_classes");
+        CopyOperationHelper.copyIn(conn, """
+                COPY staging_test_classes (class_name, package_name, file_path, total_test_methods,
+                    annotated_test_methods, coverage_rate, class_line_number, test_class_content,
+                    helper_classes_line_numbers, class_loc, imported_types, referenced_types)
+                FROM STDIN WITH (FORMAT csv)
+                """, batchData, (row, data) -> {
+            TestClassInfo tc = data.tc;
+            row.addText(tc.getClassName())
+                    .addText(tc.getPackageName())
+                    .addText(tc.getFilePath())
+                    .addNumber(tc.getTotalTestMethods())
+                    .addNumber(tc.getAnnotatedTestMethods())
+                    .addNumber(data.coverage)
+                    .addNumber(tc.getClassLineNumber())
+                    .addText(tc.getTestClassContent())
+                    .addText(tc.getHelperClassesLineNumbers())
+                    .addNumber(tc.getClassLoc())
+                    .addText(data.importedTypes)
+                    .addText(data.referencedTypes);
+        });
+
+        String mergeSql = "INSERT INTO test_classes " + TEST_CLASS_COLUMNS + """
+                SELECT DISTINCT ON (class_name, package_name, COALESCE(file_path, ''))
+                       ?, class_name, package_name, file_path, total_test_methods,
+                       annotated_test_methods, coverage_rate, ?, class_line_number,
+                       test_class_content, helper_classes_line_numbers, class_loc,
+                       imported_types, referenced_types, ?
+                FROM staging_test_classes
+                ORDER BY class_name, package_name, COALESCE(file_path, ''), ord
+                """ + TEST_CLASS_UPSERT;
+        Map<String, Long> testClassIds = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(mergeSql)) {
+            stmt.setLong(1, repositoryId);
+            stmt.setLong(2, scanSessionId);
+            stmt.setString(3, referencedTypesStatus);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    testClassIds.put(buildTestClassKey(rs.getString("package_name"), rs.getString("class_name"), rs.getString("file_path")),
+                            rs.getLong("id"));
+                }
+            }
+        }
+        return testClassIds;
+    }
+
+    /**
+     * COPY test methods into staging and upsert them in one statement; duplicates within the
+     * repository keep the first method, as the JDBC path does.
+     */
+    private void copyTestMethods(Connection conn, List<TestMethodBatchData> batchData, long scanSessionId) throws SQLException {
+        prepareStagingTable(conn, STAGING_TEST_METHODS_DDL, "staging_test_methods");
+        CopyOperationHelper.copyIn(conn, """
+                COPY staging_test_methods (test_class_id, method_name, method_signature, line_number,
+                    method_loc, method_body_content, has_annotation, annotation_data, annotation_title,
+                    annotation_author, annotation_status, annotation_target_class, annotation_target_method,
+                    annotation_description, annotation_tags, annotation_test_points, annotation_requirements,
+                    annotation_defects, annotation_testcases, annotation_last_update_time,
+                    annotation_last_update_author)
+                FROM STDIN WITH (FORMAT csv)
+                """, batchData, (row, data) -> {
+            TestMethodInfo method = data.method;
+            String methodBodyContent = method.getMethodBodyContent() != null && !method.getMethodBodyContent().isEmpty()
+                    ? method.getMethodBodyContent() : null;
+            row.addNumber(data.testClassId)
+                    .addText(method.getMethodName())
+                    .addText(data.methodSignature)
+                    .addNumber(method.getLineNumber())
+                    .addNumber(method.getMethodLoc())
+                    .addText(methodBodyContent)
+                    .addBoolean(data.hasAnnotation)
+                    .addText(data.annotationJson)
+                    .addText(data.hasAnnotation ? data.title : null)
+                    .addText(data.hasAnnotation ? data.author : null)
+                    .addText(data.hasAnnotation ? data.status : null)
+                    .addText(data.hasAnnotation ? data.targetClass : null)
+                    .addText(data.hasAnnotation ? data.targetMethod : null)
+                    .addText(data.hasAnnotation ? data.description : null)
+                    .addText(data.hasAnnotation ? data.tags : null)
+                    .addText(data.hasAnnotation ? data.testPoints : null)
+                    .addText(data.hasAnnotation ? data.requirements : null)
+                    .addText(data.hasAnnotation ? data.defects : null)
+                    .addText(data.hasAnnotation ? data.testcases : null)
+                    .addText(data.hasAnnotation ? data.lastUpdateTime : null)
+                    .addText(data.hasAnnotation ? data.lastUpdateAuthor : null);
+        });
+
+        String mergeSql = """
+                INSERT INTO test_methods
+                (test_class_id, method_name, method_signature, line_number, method_loc,
+                 method_body_content, has_annotation, annotation_data, annotation_title,
+                 annotation_author, annotation_status, annotation_target_class,
+                 annotation_target_method, annotation_description, annotation_tags,
+                 annotation_test_points, annotation_requirements, annotation_defects,
+                 annotation_testcases, annotation_last_update_time,
+                 annotation_last_update_author, scan_session_id)
+                SELECT DISTINCT ON (test_class_id, method_name, COALESCE(method_signature, ''))
+                       test_class_id, method_name, method_signature, line_number, method_loc,
+                       method_body_content, has_annotation, annotation_data, annotation_title,
+                       annotation_author, annotation_status, annotation_target_class,
+                       annotation_target_method, annotation_description, annotation_tags,
+                       annotation_test_points, annotation_requirements, annotation_defects,
+                       annotation_testcases, annotation_last_update_time,
+                       annotation_last_update_author, ?
+                FROM staging_test_methods
+                ORDER BY test_class_id, method_name, COALESCE(method_signature, ''), ord
+                ON CONFLICT (scan_session_id, test_class_id, method_name, COALESCE(method_signature, ''))
+                DO UPDATE SET line_number = EXCLUDED.line_number, method_loc = EXCLUDED.method_loc,
+                    method_body_content = EXCLUDED.method_body_content,
+                    has_annotation = EXCLUDED.has_annotation, annotation_data = EXCLUDED.annotation_data,
+                    annotation_title = EXCLUDED.annotation_title, annotation_author = EXCLUDED.annotation_author,
+                    annotation_status = EXCLUDED.annotation_status,
+                    annotation_target_class = EXCLUDED.annotation_target_class,
+                    annotation_target_method = EXCLUDED.annotation_target_method,
+                    annotation_description = EXCLUDED.annotation_description,
+                    annotation_tags = EXCLUDED.annotation_tags,
+                    annotation_test_points = EXCLUDED.annotation_test_points,
+                    annotation_requirements = EXCLUDED.annotation_requirements,
+                    annotation_defects = EXCLUDED.annotation_defects,
+                    annotation_testcases = EXCLUDED.annotation_testcases,
+                    annotation_last_update_time = EXCLUDED.annotation_last_update_time,
+                    annotation_last_update_author = EXCLUDED.annotation_last_update_author
+                """;
+        try (PreparedStatement stmt = conn.prepareStatement(mergeSql)) {
+            stmt.setLong(1, scanSessionId);
+            stmt.executeUpdate();
+        }
+    }
+
+    private void copyHelperClasses(Connection conn, List<TestHelperClassInfo> helperClasses, long repositoryId,
+            long scanSessionId) throws SQLException {
+        prepareStagingTable(conn, STAGING_HELPER_CLASSES_DDL, "staging_test_helper_classes");
+        CopyOperationHelper.copyIn(conn, """
+                COPY staging_test_helper_classes (class_name, package_name, file_path, class_line_number,
+                    helper_class_content, loc)
+                FROM STDIN WITH (FORMAT csv)
+                """, helperClasses, (row, helperClass) -> row
+                .addText(helperClass.getClassName())
+                .addText(helperClass.getPackageName())
+                .addText(helperClass.getFilePath())
+                .addNumber(helperClass.getClassLineNumber())
+                .addText(helperClass.getHelperClassContent())
+                .addNumber(helperClass.getLoc()));
+
+        String mergeSql = """
+                INSERT INTO test_helper_classes
+                (repository_id, class_name, package_name, file_path, class_line_number,
+                 helper_class_content, loc, scan_session_id)
+                SELECT ?, class_name, package_name, file_path, class_line_number,
+                       helper_class_content, loc, ?
+                FROM staging_test_helper_classes
+                ORDER BY ord
+                """;
+        try (PreparedStatement stmt = conn.prepareStatement(mergeSql)) {
+            stmt.setLong(1, repositoryId);
+            stmt.setLong(2, scanSessionId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Copy rows of files that did not change since the repository's previous scan into this session.
+     * Rows are copied inside the database, so unchanged test code is neither parsed nor transferred again.
+     */
+    private void carryForwardUnchangedFiles(Connection conn, RepositoryTestInfo repo, long scanSessionId) throws SQLException {
+        IncrementalScanBaseline baseline = repo.getIncrementalBaseline();
+        if (baseline == null || baseline.getSourceScanSessionId() == scanSessionId) {
+            // Full scan, or a merge into the baseline session where unchanged rows are kept in place
+            return;
+        }
+        int excludedCount = baseline.getInvalidatedFilePaths().size();
+
+        String copyClassesSql = """
+                INSERT INTO test_classes
+                (repository_id, class_name, package_name, file_path, file_size_bytes, total_test_methods,
+                 annotated_test_methods, coverage_rate, first_seen_date, last_modified_date, scan_session_id,
+                 class_line_number, test_class_content, helper_classes_line_numbers, class_loc,
+                 imported_types, referenced_types, referenced_types_status)
+                SELECT repository_id, class_name, package_name, file_path, file_size_bytes, total_test_methods,
+                       annotated_test_methods, coverage_rate, first_seen_date, last_modified_date, ?,
+                       class_line_number, test_class_content, helper_classes_line_numbers, class_loc,
+                       imported_types, referenced_types, referenced_types_status
+                FROM test_classes
+                WHERE scan_session_id = ? AND repository_id = ?
+                """ + RepositoryScanStateReader.buildFilePathFilter("file_path", excludedCount);
+        int classes = executeCarryForward(conn, copyClassesSql, scanSessionId, baseline);
+
+        String copyMethodsSql = """
+                INSERT INTO test_methods
+                (test_class_id, method_name, method_signature, line_number, method_loc, method_body_content,
+                 has_annotation, annotation_data, annotation_title, annotation_author, annotation_status,
+                 annotation_target_class, annotation_target_method, annotation_description, annotation_tags,
+                 annotation_test_points, annotation_requirements, annotation_defects, annotation_testcases,
+                 annotation_last_update_time, annotation_last_update_author, first_seen_date,
+                 last_modified_date, scan_session_id)
+                SELECT nc.id, m.method_name, m.method_signature, m.line_number, m.method_loc, m.method_body_content,
+                       m.has_annotation, m.annotation_data, m.annotation_title, m.annotation_author, m.annotation_status,
+                       m.annotation_target_class, m.annotation_target_method, m.annotation_description, m.annotation_tags,
+                       m.annotation_test_points, m.annotation_requirements, m.annotation_defects, m.annotation_testcases,
+                       m.annotation_last_update_time, m.annotation_last_update_author, m.first_seen_date,
+                       m.last_modified_date, nc.scan_session_id
+                FROM test_methods m
+                JOIN test_classes oc ON oc.id = m.test_class_id
+                JOIN test_classes nc ON nc.scan_session_id = ?
+                  AND nc.repository_id = oc.repository_id
+                  AND nc.class_name = oc.class_name
+                  AND COALESCE(nc.package_name, '') = COALESCE(oc.package_name, '')
+                  AND COALESCE(nc.file_path, '') = COALESCE(oc.file_path, '')
+                WHERE oc.scan_session_id = ? AND oc.repository_id = ?
+                """ + RepositoryScanStateReader.buildFilePathFilter("oc.file_path", excludedCount);
+        int methods = executeCarryForward(conn, copyMethodsSql, scanSessionId, baseline);
+
+        String copyHelpersSql = """
+                INSERT INTO test_helper_classes
+                (repository_id, class_name, package_name, file_path, class_line_number,
+                 helper_class_content, loc, scan_session_id, first_seen_date, last_modified_date)
+                SELECT repository_id, class_name, package_name, file_path, class_line_number,
+                       helper_class_content, loc, ?, first_seen_date, last_modified_date
+                FROM test_helper_classes
+                WHERE scan_session_id = ? AND repository_id = ?
+                """ + RepositoryScanStateReader.buildFilePathFilter("file_path", excludedCount);
+        int helpers = executeCarryForward(conn, copyHelpersSql, scanSessionId, baseline);
+
+        System.out.println("Carried forward " + classes + " test classes, " + methods + " test methods and "
+                + helpers + " helper classes of " + repo.getGitUrl() + " from scan session " + baseline.getSourceScanSessionId());
+    }
+
+    private int executeCarryForward(Connection conn, String sql, long scanSessionId, IncrementalScanBaseline baseline) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, scanSessionId);
+            int index = 2;
+            stmt.setLong(index++, baseline.getSourceScanSessionId());
+            stmt.setLong(index++, baseline.getRepositoryId());
+            for (String path : baseline.getInvalidatedFilePaths()) {
+                stmt.setString(index++, path);
+            }
+            return stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Remove rows of changed and deleted files from the baseline session itself (in-place incremental merge).
+     */
+    private void deleteInvalidatedFiles(Connection conn, IncrementalScanBaseline baseline) throws SQLException {
+        if (baseline.getInvalidatedFilePaths().isEmpty()) {
+            return;
+        }
+        String pathFilter = RepositoryScanStateReader.buildFilePathMatch("file_path", baseline.getInvalidatedFilePaths().size());
+        String deleteMethodsSql = """
+                DELETE FROM test_methods
+                WHERE test_class_id IN (
+                  SELECT id FROM test_classes
+                  WHERE scan_session_id = ? AND repository_id = ?
+                """ + pathFilter + ")";
+        String deleteClassesSql = """
+                DELETE FROM test_classes
+                WHERE scan_session_id = ? AND repository_id = ?
+                """ + pathFilter;
+        String deleteHelpersSql = """
+                DELETE FROM test_helper_classes
+                WHERE scan_session_id = ? AND repository_id = ?
+                """ + pathFilter;
+        for (String sql : List.of(deleteMethodsSql, deleteClassesSql, deleteHelpersSql)) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                RepositoryScanStateReader.bindBaseline(stmt, baseline);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Remember which commit and extraction settings the repository's rows in this session were
+     * collected with. A null commit or fingerprint makes the next scan of the repository a full one.
+     */
+    private void recordScannedCommit(Connection conn, long repositoryId, String headCommit, String scanFingerprint,
+            long scanSessionId) throws SQLException {
+        String sql = """
+                UPDATE repositories
+                SET last_scanned_commit = ?, last_scan_fingerprint = ?, last_scanned_session_id = ?
+                WHERE id = ?
+                """;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, headCommit);
+            stmt.setString(2, scanFingerprint);
+            stmt.setLong(3, scanSessionId);
+            stmt.setLong(4, repositoryId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Remember how the repository was fetched, so clone modes can be compared by time and disk usage.
+     */
+    private void recordFetchStats(Connection conn, long repositoryId, RepositoryTestInfo repo) throws SQLException {
+        if (repo.getCloneMode() == null) {
+            return;
+        }
+        String sql = """
+                UPDATE repositories
+                SET clone_mode = ?, last_fetch_duration_ms = ?, disk_usage_bytes = ?
+                WHERE id = ?
+                """;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, repo.getCloneMode());
+            stmt.setLong(2, repo.getFetchDurationMs());
+            stmt.setLong(3, repo.getDiskUsageBytes());
+            stmt.setLong(4, repositoryId);
+            stmt.executeUpdate();
+        }
+    }
+
     private long getTestClassId(Connection conn, long repositoryId, String className, String packageName, String filePath, long scanSessionId) throws SQLException {
         String sql = """
                 SELECT id FROM test_classes 
@@ -692,8 +1600,14 @@ public class PersistScanResultsUseCase {
     }
 
     private void updateDailyMetrics(Connection conn, TestCollectionSummary summary) throws SQLException {
-        double overallCoverage = summary.getTotalTestMethods() > 0 
-            ? (double) summary.getTotalAnnotatedTestMethods() / summary.getTotalTestMethods() * 100 
+        updateDailyMetrics(conn, summary.getTotalRepositories(), summary.getTotalTestClasses(),
+                summary.getTotalTestMethods(), summary.getTotalAnnotatedTestMethods());
+    }
+
+    private void updateDailyMetrics(Connection conn, int totalRepositories, int totalTestClasses,
+            int totalTestMethods, int totalAnnotatedMethods) throws SQLException {
+        double overallCoverage = totalTestMethods > 0
+            ? (double) totalAnnotatedMethods / totalTestMethods * 100
             : 0.0;
         
         String updateSql = """
@@ -706,10 +1620,10 @@ public class PersistScanResultsUseCase {
                 WHERE metric_date = CURRENT_DATE
                 """;
         try (PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
-            updateStmt.setInt(1, summary.getTotalRepositories());
-            updateStmt.setInt(2, summary.getTotalTestClasses());
-            updateStmt.setInt(3, summary.getTotalTestMethods());
-            updateStmt.setInt(4, summary.getTotalAnnotatedTestMethods());
+            updateStmt.setInt(1, totalRepositories);
+            updateStmt.setInt(2, totalTestClasses);
+            updateStmt.setInt(3, totalTestMethods);
+            updateStmt.setInt(4, totalAnnotatedMethods);
             updateStmt.setDouble(5, overallCoverage);
             int updated = updateStmt.executeUpdate();
             if (updated > 0) {
@@ -724,10 +1638,10 @@ public class PersistScanResultsUseCase {
                 VALUES (CURRENT_DATE, ?, ?, ?, ?, ?)
                 """;
         try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
-            insertStmt.setInt(1, summary.getTotalRepositories());
-            insertStmt.setInt(2, summary.getTotalTestClasses());
-            insertStmt.setInt(3, summary.getTotalTestMethods());
-            insertStmt.setInt(4, summary.getTotalAnnotatedTestMethods());
+            insertStmt.setInt(1, totalRepositories);
+            insertStmt.setInt(2, totalTestClasses);
+            insertStmt.setInt(3, totalTestMethods);
+            insertStmt.setInt(4, totalAnnotatedMethods);
             insertStmt.setDouble(5, overallCoverage);
             insertStmt.executeUpdate();
         }
@@ -735,7 +1649,7 @@ public class PersistScanResultsUseCase {
 
     // Jackson handles JSON serialization; no manual JSON helpers needed
 
-    private static void setLargeString(PreparedStatement stmt, int index, String value) throws SQLException {
+    static void setLargeString(PreparedStatement stmt, int index, String value) throws SQLException {
         if (value == null || value.isEmpty()) {
             stmt.setNull(index, Types.CLOB);
             return;
@@ -743,7 +1657,7 @@ public class PersistScanResultsUseCase {
         stmt.setCharacterStream(index, new StringReader(value), value.length());
     }
 
-    private static String toDelimitedString(java.util.List<String> values) {
+    static String toDelimitedString(java.util.List<String> values) {
         if (values == null || values.isEmpty()) {
             return null;
         }
@@ -771,15 +1685,32 @@ public class PersistScanResultsUseCase {
         try (Connection conn = DatabaseConfig.getConnection()) {
             conn.setAutoCommit(false);
             try {
+                // Repositories scanned incrementally against this very session keep their unchanged rows;
+                // only the rows of changed and deleted files are removed
+                java.util.Set<Long> inPlaceRepositoryIds = new java.util.HashSet<>();
+                java.util.Set<String> inPlaceGitUrls = new java.util.HashSet<>();
+                for (RepositoryTestInfo repo : summary.getRepositories()) {
+                    IncrementalScanBaseline baseline = repo.getIncrementalBaseline();
+                    if (baseline != null && baseline.getSourceScanSessionId() == scanSessionId) {
+                        inPlaceRepositoryIds.add(baseline.getRepositoryId());
+                        inPlaceGitUrls.add(repo.getGitUrl());
+                        deleteInvalidatedFiles(conn, baseline);
+                    }
+                }
+
                 // Delete old data for the repositories being rescanned from this session
                 // Use git URLs from summary if repositoryIds not provided
                 if (repositoryIds != null && !repositoryIds.isEmpty()) {
-                    deleteRepositoryDataFromSession(conn, scanSessionId, repositoryIds);
+                    java.util.List<Long> idsToDelete = repositoryIds.stream()
+                            .filter(id -> !inPlaceRepositoryIds.contains(id))
+                            .collect(java.util.stream.Collectors.toList());
+                    deleteRepositoryDataFromSession(conn, scanSessionId, idsToDelete);
                 } else {
                     // Fallback: delete by git URLs from the scan summary
                     java.util.List<String> gitUrls = summary.getRepositories().stream()
                             .map(RepositoryTestInfo::getGitUrl)
                             .filter(url -> url != null && !url.isEmpty())
+                            .filter(url -> !inPlaceGitUrls.contains(url))
                             .collect(java.util.stream.Collectors.toList());
                     deleteRepositoryDataFromSessionByGitUrls(conn, scanSessionId, gitUrls);
                 }
@@ -787,12 +1718,7 @@ public class PersistScanResultsUseCase {
                 // Insert/update new data for the scanned repositories
                 java.util.List<Long> scannedRepositoryIds = new java.util.ArrayList<>();
                 for (RepositoryTestInfo repo : summary.getRepositories()) {
-                    int teamId = ensureTeamExists(conn, repo.getTeamName(), repo.getTeamCode());
-                    long repositoryId = upsertRepository(conn, repo, teamId);
-                    scannedRepositoryIds.add(repositoryId);
-                    Map<String, Long> testClassIds = persistTestClassesBatch(conn, repo, repositoryId, scanSessionId);
-                    persistTestMethodsBatch(conn, repo, repositoryId, scanSessionId, testClassIds);
-                    persistHelperClassesBatch(conn, repo, repositoryId, scanSessionId);
+                    scannedRepositoryIds.add(persistRepositoryData(conn, repo, scanSessionId));
                 }
 
                 // Update scan session metadata (recalculate totals)
@@ -804,6 +1730,7 @@ public class PersistScanResultsUseCase {
                 conn.commit();
             } catch (SQLException e) {
                 conn.rollback();
+                clearIdCaches();
                 throw e;
             }
         }
@@ -0,0 +1,175 @@
+package com.example.annotationextractor.application;
+
+import com.example.annotationextractor.database.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads test classes whose referenced types were deferred by the scan and writes the resolved types back.
+ * Pure Java, no Spring dependency.
+ */
+public class ReferencedTypeEnrichmentStore {
+
+    public static final String REFERENCED_TYPES_FAILED = "FAILED";
+
+    /**
+     * A repository with classes still waiting for type resolution.
+     */
+    public record PendingRepository(long repositoryId, String gitUrl, int pendingClasses) {}
+
+    /**
+     * Stored content of one pending test class.
+     */
+    public record PendingTestClass(long id, String filePath, String content) {}
+
+    /**
+     * Types resolved for one test class, newline-joined as in the scan.
+     */
+    public record ResolvedTypes(long id, List<String> importedTypes, List<String> referencedTypes) {}
+
+    /**
+     * Enrichment state of one repository; lag is measured from the scan of its oldest pending class.
+     */
+    public record RepositoryProgress(long repositoryId, String repositoryName, int pendingClasses,
+            int failedClasses, LocalDateTime oldestPendingScanDate) {}
+
+    /**
+     * Repositories with pending classes, most pending first.
+     */
+    public List<PendingRepository> findPendingRepositories() throws SQLException {
+        String sql = """
+                SELECT tc.repository_id, r.git_url, COUNT(*) AS pending
+                FROM test_classes tc
+                JOIN repositories r ON r.id = tc.repository_id
+                WHERE tc.referenced_types_status = ?
+                GROUP BY tc.repository_id, r.git_url
+                ORDER BY pending DESC
+                """;
+        List<PendingRepository> repositories = new ArrayList<>();
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, PersistScanResultsUseCase.REFERENCED_TYPES_PENDING);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    repositories.add(new PendingRepository(rs.getLong(1), rs.getString(2), rs.getInt(3)));
+                }
+            }
+        }
+        return repositories;
+    }
+
+    /**
+     * Next pending classes of a repository, newest scan session first so current data is enriched before history.
+     */
+    public List<PendingTestClass> loadPendingBatch(long repositoryId, int limit) throws SQLException {
+        String sql = """
+                SELECT id, file_path, test_class_content
+                FROM test_classes
+                WHERE repository_id = ? AND referenced_types_status = ?
+                ORDER BY scan_session_id DESC, id
+                LIMIT ?
+                """;
+        List<PendingTestClass> batch = new ArrayList<>();
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, repositoryId);
+            stmt.setString(2, PersistScanResultsUseCase.REFERENCED_TYPES_PENDING);
+            stmt.setInt(3, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    batch.add(new PendingTestClass(rs.getLong(1), rs.getString(2), rs.getString(3)));
+                }
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Store resolved types and clear the pending mark. Rows no longer pending are left untouched.
+     */
+    public void saveResolved(List<ResolvedTypes> resolved) throws SQLException {
+        if (resolved.isEmpty()) {
+            return;
+        }
+        String sql = """
+                UPDATE test_classes
+                SET imported_types = ?, referenced_types = ?, referenced_types_status = NULL
+                WHERE id = ? AND referenced_types_status = ?
+                """;
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (ResolvedTypes types : resolved) {
+                PersistScanResultsUseCase.setLargeString(stmt, 1, PersistScanResultsUseCase.toDelimitedString(types.importedTypes()));
+                PersistScanResultsUseCase.setLargeString(stmt, 2, PersistScanResultsUseCase.toDelimitedString(types.referencedTypes()));
+                stmt.setLong(3, types.id());
+                stmt.setString(4, PersistScanResultsUseCase.REFERENCED_TYPES_PENDING);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Mark classes whose stored content could not be parsed so they are not retried on every pass.
+     */
+    public void markFailed(List<Long> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String sql = "UPDATE test_classes SET referenced_types_status = ? WHERE id = ? AND referenced_types_status = ?";
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Long id : ids) {
+                stmt.setString(1, REFERENCED_TYPES_FAILED);
+                stmt.setLong(2, id);
+                stmt.setString(3, PersistScanResultsUseCase.REFERENCED_TYPES_PENDING);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Pending and failed counts per repository, for repositories that still have either.
+     */
+    public List<RepositoryProgress> loadProgress() throws SQLException {
+        String sql = """
+                SELECT tc.repository_id, r.repository_name,
+                       SUM(CASE WHEN tc.referenced_types_status = ? THEN 1 ELSE 0 END) AS pending,
+                       SUM(CASE WHEN tc.referenced_types_status = ? THEN 1 ELSE 0 END) AS failed,
+                       MIN(CASE WHEN tc.referenced_types_status = ? THEN ss.scan_date END) AS oldest_pending
+                FROM test_classes tc
+                JOIN repositories r ON r.id = tc.repository_id
+                LEFT JOIN scan_sessions ss ON ss.id = tc.scan_session_id
+                WHERE tc.referenced_types_status IS NOT NULL
+                GROUP BY tc.repository_id, r.repository_name
+                ORDER BY pending DESC
+                """;
+        List<RepositoryProgress> progress = new ArrayList<>();
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, PersistScanResultsUseCase.REFERENCED_TYPES_PENDING);
+            stmt.setString(2, REFERENCED_TYPES_FAILED);
+            stmt.setString(3, PersistScanResultsUseCase.REFERENCED_TYPES_PENDING);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp oldest = rs.getTimestamp(5);
+                    progress.add(new RepositoryProgress(
+                            rs.getLong(1),
+                            rs.getString(2),
+                            rs.getInt(3),
+                            rs.getInt(4),
+                            oldest != null ? oldest.toLocalDateTime() : null));
+                }
+            }
+        }
+        return progress;
+    }
+}
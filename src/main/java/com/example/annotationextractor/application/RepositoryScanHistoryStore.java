@@ -0,0 +1,101 @@
+package com.example.annotationextractor.application;
+
+import com.example.annotationextractor.casemodel.RepositoryScanHistory;
+import com.example.annotationextractor.casemodel.RepositoryTestInfo;
+import com.example.annotationextractor.database.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads and records per-repository scan history for the scan planner: when each repository was
+ * last scanned, how long its fetch, parse and persist took, and how often its commit changed.
+ */
+public class RepositoryScanHistoryStore {
+
+    /**
+     * @return history keyed by git URL; repositories never scanned are missing
+     */
+    public Map<String, RepositoryScanHistory> loadHistory() throws SQLException {
+        String sql = """
+                SELECT git_url, last_attempt_at, fetch_duration_ms, parse_duration_ms, persist_duration_ms,
+                       scan_count, change_count
+                FROM repository_scan_history
+                """;
+        Map<String, RepositoryScanHistory> history = new HashMap<>();
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                history.put(rs.getString("git_url"), new RepositoryScanHistory(
+                        rs.getString("git_url"),
+                        rs.getTimestamp("last_attempt_at").getTime(),
+                        durationOrUnknown(rs, "fetch_duration_ms"),
+                        durationOrUnknown(rs, "parse_duration_ms"),
+                        durationOrUnknown(rs, "persist_duration_ms"),
+                        rs.getInt("scan_count"),
+                        rs.getInt("change_count")));
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Record the repositories a scan reached. Durations not measured in this scan (e.g. no fetch
+     * because the remote was unchanged) keep their previous value.
+     */
+    public void recordScans(Collection<RepositoryTestInfo> repositories) throws SQLException {
+        if (repositories.isEmpty()) {
+            return;
+        }
+        String sql = """
+                INSERT INTO repository_scan_history
+                (git_url, last_attempt_at, last_commit, fetch_duration_ms, parse_duration_ms, persist_duration_ms,
+                 scan_count, change_count)
+                VALUES (?, CURRENT_TIMESTAMP, ?, ?, ?, ?, 1, 0)
+                ON CONFLICT (git_url) DO UPDATE SET
+                    last_attempt_at = EXCLUDED.last_attempt_at,
+                    last_commit = COALESCE(EXCLUDED.last_commit, repository_scan_history.last_commit),
+                    fetch_duration_ms = COALESCE(EXCLUDED.fetch_duration_ms, repository_scan_history.fetch_duration_ms),
+                    parse_duration_ms = COALESCE(EXCLUDED.parse_duration_ms, repository_scan_history.parse_duration_ms),
+                    persist_duration_ms = COALESCE(EXCLUDED.persist_duration_ms, repository_scan_history.persist_duration_ms),
+                    scan_count = repository_scan_history.scan_count + 1,
+                    change_count = repository_scan_history.change_count
+                        + CASE WHEN EXCLUDED.last_commit IS NOT NULL
+                                AND repository_scan_history.last_commit IS NOT NULL
+                                AND EXCLUDED.last_commit <> repository_scan_history.last_commit
+                               THEN 1 ELSE 0 END
+                """;
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (RepositoryTestInfo repo : repositories) {
+                stmt.setString(1, repo.getGitUrl());
+                stmt.setString(2, repo.getHeadCommit());
+                setDuration(stmt, 3, repo.getCloneMode() != null ? repo.getFetchDurationMs() : -1);
+                setDuration(stmt, 4, repo.getParseDurationMs());
+                setDuration(stmt, 5, repo.getPersistDurationMs());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static long durationOrUnknown(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? -1 : value;
+    }
+
+    private static void setDuration(PreparedStatement stmt, int index, long durationMs) throws SQLException {
+        if (durationMs < 0) {
+            stmt.setNull(index, Types.BIGINT);
+        } else {
+            stmt.setLong(index, durationMs);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.annotationextractor.application;
+
+import com.example.annotationextractor.casemodel.IncrementalScanBaseline;
+import com.example.annotationextractor.casemodel.RepositoryTestInfo;
+import com.example.annotationextractor.database.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads what incremental scans need to know about previous scans:
+ * the last scanned commit per repository and the totals of rows that will be carried forward.
+ */
+public class RepositoryScanStateReader {
+
+    /**
+     * Load the last scanned commit of every repository whose rows still exist in the recorded session
+     * and were collected with the given scan fingerprint. Repositories scanned with another extractor
+     * version or other test roots have no baseline, so they are scanned fully.
+     *
+     * @param scanFingerprint fingerprint of the current scan's extraction settings
+     * @return baselines keyed by git URL
+     */
+    public Map<String, IncrementalScanBaseline> loadBaselines(String scanFingerprint) throws SQLException {
+        String sql = """
+                SELECT r.id, r.git_url, r.last_scanned_commit, r.last_scanned_session_id
+                FROM repositories r
+                WHERE r.last_scanned_commit IS NOT NULL
+                  AND r.last_scanned_session_id IS NOT NULL
+                  AND r.last_scan_fingerprint = ?
+                  AND EXISTS (
+                    SELECT 1 FROM test_classes tc
+                    WHERE tc.scan_session_id = r.last_scanned_session_id
+                      AND tc.repository_id = r.id
+                  )
+                """;
+        Map<String, IncrementalScanBaseline> baselines = new HashMap<>();
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, scanFingerprint);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    baselines.put(rs.getString("git_url"), new IncrementalScanBaseline(
+                            rs.getLong("id"),
+                            rs.getLong("last_scanned_session_id"),
+                            rs.getString("last_scanned_commit")));
+                }
+            }
+        }
+        return baselines;
+    }
+
+    /**
+     * Add the totals of the rows that will be carried forward for the repository's baseline,
+     * so repository and session totals match a full scan.
+     */
+    public void loadCarriedForwardTotals(RepositoryTestInfo repo) throws SQLException {
+        IncrementalScanBaseline baseline = repo.getIncrementalBaseline();
+        if (baseline == null) {
+            return;
+        }
+        Set<String> excluded = baseline.getInvalidatedFilePaths();
+        String pathFilter = buildFilePathFilter("file_path", excluded.size());
+
+        // Same line count as String.lines().count() for \n and \r\n terminated content
+        String classTotalsSql = """
+                SELECT COUNT(*),
+                       COALESCE(SUM(total_test_methods), 0),
+                       COALESCE(SUM(annotated_test_methods), 0),
+                       COALESCE(SUM(CASE
+                           WHEN test_class_content IS NULL OR test_class_content = '' THEN 0
+                           ELSE LENGTH(test_class_content) - LENGTH(REPLACE(test_class_content, CHR(10), ''))
+                                + CASE WHEN RIGHT(test_class_content, 1) = CHR(10) THEN 0 ELSE 1 END
+                       END), 0)
+                FROM test_classes
+                WHERE scan_session_id = ? AND repository_id = ?
+                """ + pathFilter;
+        String helperTotalsSql = """
+                SELECT COALESCE(SUM(loc), 0)
+                FROM test_helper_classes
+                WHERE scan_session_id = ? AND repository_id = ?
+                """ + pathFilter;
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            int testClasses;
+            int testMethods;
+            int annotatedMethods;
+            int testCodeLines;
+            try (PreparedStatement stmt = conn.prepareStatement(classTotalsSql)) {
+                bindBaseline(stmt, baseline);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    testClasses = rs.getInt(1);
+                    testMethods = rs.getInt(2);
+                    annotatedMethods = rs.getInt(3);
+                    testCodeLines = rs.getInt(4);
+                }
+            }
+            int testRelatedCodeLines;
+            try (PreparedStatement stmt = conn.prepareStatement(helperTotalsSql)) {
+                bindBaseline(stmt, baseline);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    testRelatedCodeLines = rs.getInt(1);
+                }
+            }
+            repo.addCarriedForwardTotals(testClasses, testMethods, annotatedMethods, testCodeLines, testRelatedCodeLines);
+        }
+    }
+
+    /**
+     * Bind scan session, repository and excluded paths for a query built with {@link #buildFilePathFilter}.
+     */
+    static int bindBaseline(PreparedStatement stmt, IncrementalScanBaseline baseline) throws SQLException {
+        int index = 1;
+        stmt.setLong(index++, baseline.getSourceScanSessionId());
+        stmt.setLong(index++, baseline.getRepositoryId());
+        for (String path : baseline.getInvalidatedFilePaths()) {
+            stmt.setString(index++, path);
+        }
+        return index;
+    }
+
+    /**
+     * Build the "AND column NOT IN (...)" clause for the invalidated files of a baseline.
+     */
+    static String buildFilePathFilter(String column, int count) {
+        if (count == 0) {
+            return "";
+        }
+        return " AND (" + column + " IS NULL OR " + column + " NOT IN (" + placeholders(count) + "))";
+    }
+
+    /**
+     * Build the "AND column IN (...)" clause selecting exactly the invalidated files of a baseline.
+     */
+    static String buildFilePathMatch(String column, int count) {
+        if (count == 0) {
+            return " AND 1 = 0";
+        }
+        return " AND " + column + " IN (" + placeholders(count) + ")";
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder("?");
+        for (int i = 1; i < count; i++) {
+            sb.append(", ?");
+        }
+        return sb.toString();
+    }
+}
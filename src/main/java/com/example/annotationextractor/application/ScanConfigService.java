@@ -1,8 +1,11 @@
 package com.example.annotationextractor.application;
 
 import com.example.annotationextractor.adapters.persistence.jdbc.JdbcScanConfigAdapter;
+import com.example.annotationextractor.casemodel.ParseProfile;
 import com.example.annotationextractor.domain.model.ScanConfig;
 import com.example.annotationextractor.domain.model.ScanRepositoryEntry;
+import com.example.annotationextractor.util.CloneMode;
+import com.example.annotationextractor.util.SharedObjectStore;
 import com.example.annotationextractor.web.dto.ScanConfigDto;
 
 import org.springframework.stereotype.Service;
@@ -79,7 +82,30 @@ public class ScanConfigService {
                 repositoryConfigContent,
                 entries,
                 normalizeOrganization(settings.organization()),
-                normalizeBranch(settings.scanBranch())
+                normalizeBranch(settings.scanBranch()),
+                settings.parseWorkerCount(),
+                settings.fetchWorkerCount(),
+                settings.repositoryParseConcurrency(),
+                settings.pipelineQueueCapacity(),
+                settings.incrementalScanEnabled(),
+                settings.parseCacheMaxMb(),
+                settings.parseProfile(),
+                settings.deferredTypeResolution(),
+                settings.enrichmentWorkerCount(),
+                settings.preFilterEnabled(),
+                settings.testRootPatterns(),
+                settings.cloneMode(),
+                settings.cloneDepth(),
+                settings.gitMaxConnectionsPerHost(),
+                settings.gitTimeoutSeconds(),
+                settings.gitMaxRetries(),
+                settings.gitRetryBackoffMs(),
+                settings.sharedObjectStoreEnabled(),
+                settings.objectStoreGroups(),
+                settings.hubDiskBudgetMb(),
+                settings.remoteChangeDetectionEnabled(),
+                settings.scanTimeBudgetMinutes(),
+                settings.repositoryScanWorkers()
         );
     }
 
@@ -116,6 +142,164 @@ public class ScanConfigService {
                 ? dto.getScanBranch().trim()
                 : current.scanBranch();
 
+        int parseWorkerCount = dto.getParseWorkerCount() != null
+                ? dto.getParseWorkerCount()
+                : current.parseWorkerCount();
+
+        if (parseWorkerCount <= 0) {
+            throw new IllegalArgumentException("parseWorkerCount must be greater than 0");
+        }
+
+        int fetchWorkerCount = dto.getFetchWorkerCount() != null
+                ? dto.getFetchWorkerCount()
+                : current.fetchWorkerCount();
+
+        if (fetchWorkerCount < 1) {
+            throw new IllegalArgumentException("fetchWorkerCount must be greater than 0");
+        }
+
+        int repositoryParseConcurrency = dto.getRepositoryParseConcurrency() != null
+                ? dto.getRepositoryParseConcurrency()
+                : current.repositoryParseConcurrency();
+
+        if (repositoryParseConcurrency < 1) {
+            throw new IllegalArgumentException("repositoryParseConcurrency must be greater than 0");
+        }
+
+        int pipelineQueueCapacity = dto.getPipelineQueueCapacity() != null
+                ? dto.getPipelineQueueCapacity()
+                : current.pipelineQueueCapacity();
+
+        if (pipelineQueueCapacity < 1) {
+            throw new IllegalArgumentException("pipelineQueueCapacity must be greater than 0");
+        }
+
+        boolean incrementalScanEnabled = dto.getIncrementalScanEnabled() != null
+                ? dto.getIncrementalScanEnabled()
+                : current.incrementalScanEnabled();
+
+        int parseCacheMaxMb = dto.getParseCacheMaxMb() != null
+                ? dto.getParseCacheMaxMb()
+                : current.parseCacheMaxMb();
+
+        if (parseCacheMaxMb < 0) {
+            throw new IllegalArgumentException("parseCacheMaxMb must be non-negative");
+        }
+
+        String parseProfile = dto.getParseProfile() != null
+                ? dto.getParseProfile().trim().toUpperCase()
+                : current.parseProfile();
+
+        if (!isKnownParseProfile(parseProfile)) {
+            throw new IllegalArgumentException("parseProfile must be one of FAST, FULL");
+        }
+
+        boolean deferredTypeResolution = dto.getDeferredTypeResolution() != null
+                ? dto.getDeferredTypeResolution()
+                : current.deferredTypeResolution();
+
+        int enrichmentWorkerCount = dto.getEnrichmentWorkerCount() != null
+                ? dto.getEnrichmentWorkerCount()
+                : current.enrichmentWorkerCount();
+
+        if (enrichmentWorkerCount < 1) {
+            throw new IllegalArgumentException("enrichmentWorkerCount must be greater than 0");
+        }
+
+        boolean preFilterEnabled = dto.getPreFilterEnabled() != null
+                ? dto.getPreFilterEnabled()
+                : current.preFilterEnabled();
+
+        String testRootPatterns = dto.getTestRootPatterns() != null
+                ? dto.getTestRootPatterns().trim()
+                : current.testRootPatterns();
+
+        String cloneMode = dto.getCloneMode() != null
+                ? dto.getCloneMode().trim().toUpperCase()
+                : current.cloneMode();
+
+        if (!isKnownCloneMode(cloneMode)) {
+            throw new IllegalArgumentException("cloneMode must be one of FULL, PARTIAL, BARE");
+        }
+
+        int cloneDepth = dto.getCloneDepth() != null
+                ? dto.getCloneDepth()
+                : current.cloneDepth();
+
+        if (cloneDepth < 0) {
+            throw new IllegalArgumentException("cloneDepth must be non-negative");
+        }
+
+        int gitMaxConnectionsPerHost = dto.getGitMaxConnectionsPerHost() != null
+                ? dto.getGitMaxConnectionsPerHost()
+                : current.gitMaxConnectionsPerHost();
+
+        if (gitMaxConnectionsPerHost < 1) {
+            throw new IllegalArgumentException("gitMaxConnectionsPerHost must be greater than 0");
+        }
+
+        int gitTimeoutSeconds = dto.getGitTimeoutSeconds() != null
+                ? dto.getGitTimeoutSeconds()
+                : current.gitTimeoutSeconds();
+
+        if (gitTimeoutSeconds < 1) {
+            throw new IllegalArgumentException("gitTimeoutSeconds must be greater than 0");
+        }
+
+        int gitMaxRetries = dto.getGitMaxRetries() != null
+                ? dto.getGitMaxRetries()
+                : current.gitMaxRetries();
+
+        if (gitMaxRetries < 0) {
+            throw new IllegalArgumentException("gitMaxRetries must be non-negative");
+        }
+
+        int gitRetryBackoffMs = dto.getGitRetryBackoffMs() != null
+                ? dto.getGitRetryBackoffMs()
+                : current.gitRetryBackoffMs();
+
+        if (gitRetryBackoffMs < 0) {
+            throw new IllegalArgumentException("gitRetryBackoffMs must be non-negative");
+        }
+
+        boolean sharedObjectStoreEnabled = dto.getSharedObjectStoreEnabled() != null
+                ? dto.getSharedObjectStoreEnabled()
+                : current.sharedObjectStoreEnabled();
+
+        String objectStoreGroups = dto.getObjectStoreGroups() != null
+                ? dto.getObjectStoreGroups().trim()
+                : current.objectStoreGroups();
+        // Throws IllegalArgumentException for malformed group lines
+        SharedObjectStore.parseGroups(objectStoreGroups);
+
+        int hubDiskBudgetMb = dto.getHubDiskBudgetMb() != null
+                ? dto.getHubDiskBudgetMb()
+                : current.hubDiskBudgetMb();
+
+        if (hubDiskBudgetMb < 0) {
+            throw new IllegalArgumentException("hubDiskBudgetMb must be non-negative");
+        }
+
+        boolean remoteChangeDetectionEnabled = dto.getRemoteChangeDetectionEnabled() != null
+                ? dto.getRemoteChangeDetectionEnabled()
+                : current.remoteChangeDetectionEnabled();
+
+        int scanTimeBudgetMinutes = dto.getScanTimeBudgetMinutes() != null
+                ? dto.getScanTimeBudgetMinutes()
+                : current.scanTimeBudgetMinutes();
+
+        if (scanTimeBudgetMinutes < 0) {
+            throw new IllegalArgumentException("scanTimeBudgetMinutes must be non-negative");
+        }
+
+        int repositoryScanWorkers = dto.getRepositoryScanWorkers() != null
+                ? dto.getRepositoryScanWorkers()
+                : current.repositoryScanWorkers();
+
+        if (repositoryScanWorkers < 1) {
+            throw new IllegalArgumentException("repositoryScanWorkers must be greater than 0");
+        }
+
         return new JdbcScanConfigAdapter.ScanSettingsRow(
                 current.id(),
                 repositoryHubPath,
@@ -124,7 +308,30 @@ public class ScanConfigService {
                 schedulerEnabled,
                 dailyScanCron,
                 normalizeOrganization(organization),
-                normalizeBranch(scanBranch)
+                normalizeBranch(scanBranch),
+                parseWorkerCount,
+                fetchWorkerCount,
+                repositoryParseConcurrency,
+                pipelineQueueCapacity,
+                incrementalScanEnabled,
+                parseCacheMaxMb,
+                parseProfile,
+                deferredTypeResolution,
+                enrichmentWorkerCount,
+                preFilterEnabled,
+                testRootPatterns,
+                cloneMode,
+                cloneDepth,
+                gitMaxConnectionsPerHost,
+                gitTimeoutSeconds,
+                gitMaxRetries,
+                gitRetryBackoffMs,
+                sharedObjectStoreEnabled,
+                objectStoreGroups,
+                hubDiskBudgetMb,
+                remoteChangeDetectionEnabled,
+                scanTimeBudgetMinutes,
+                repositoryScanWorkers
         );
     }
 
@@ -194,5 +401,22 @@ public class ScanConfigService {
         }
         return organization.trim();
     }
-}
 
+    private static boolean isKnownCloneMode(String cloneMode) {
+        for (CloneMode mode : CloneMode.values()) {
+            if (mode.name().equals(cloneMode)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isKnownParseProfile(String parseProfile) {
+        for (ParseProfile profile : ParseProfile.values()) {
+            if (profile.name().equals(parseProfile)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
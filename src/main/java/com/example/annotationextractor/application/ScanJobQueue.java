@@ -0,0 +1,344 @@
+package com.example.annotationextractor.application;
+
+import com.example.annotationextractor.database.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Queue of repository scan jobs in the scan_jobs table, shared by all instances of the dashboard.
+ *
+ * A distributed full scan is a scan session in status RUNNING with one job per repository. Workers
+ * claim jobs with {@code FOR UPDATE SKIP LOCKED}, so concurrent workers never block on or take the
+ * same job, and merge each repository into the job's session. A claimed job carries a lease that
+ * its worker renews while scanning; a job whose lease expired (the worker died or stalled) is
+ * claimed again by the next worker, and failed jobs are retried after a delay, both until
+ * max_attempts is reached. The session is completed once none of its jobs is left to run.
+ */
+public class ScanJobQueue {
+
+    public static final String PENDING = "PENDING";
+    public static final String RUNNING = "RUNNING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    // Serializes starting distributed scans across instances, so one cron firing on every instance starts one scan
+    private static final long START_SCAN_LOCK = 0x5CA7_0B5L;
+
+    /**
+     * A claimed job.
+     *
+     * @param scanSessionId session to merge into, or null for the latest completed session
+     * @param repositoryId repository to replace in the session, or null to replace it by git URL
+     * @param attempts claims so far, including this one
+     */
+    public record ScanJob(long id, Long scanSessionId, String gitUrl, Long repositoryId, int attempts) {}
+
+    /**
+     * Start a distributed full scan: a RUNNING session and one job per repository.
+     *
+     * @return id of the new session, or -1 if a distributed scan is still running
+     */
+    public long startScan(String scanDirectory, List<String> gitUrls, int maxAttempts) throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT pg_advisory_xact_lock(?)")) {
+                    stmt.setLong(1, START_SCAN_LOCK);
+                    stmt.execute();
+                }
+                String runningSql = """
+                        SELECT 1 FROM scan_jobs j
+                        JOIN scan_sessions s ON s.id = j.scan_session_id
+                        WHERE s.scan_status = 'RUNNING' AND j.status IN ('PENDING', 'RUNNING')
+                        LIMIT 1
+                        """;
+                try (PreparedStatement stmt = conn.prepareStatement(runningSql);
+                     ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        conn.rollback();
+                        return -1;
+                    }
+                }
+                long scanSessionId;
+                String sessionSql = """
+                        INSERT INTO scan_sessions (scan_date, scan_directory, scan_status)
+                        VALUES (CURRENT_TIMESTAMP, ?, 'RUNNING')
+                        RETURNING id
+                        """;
+                try (PreparedStatement stmt = conn.prepareStatement(sessionSql)) {
+                    stmt.setString(1, scanDirectory);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        rs.next();
+                        scanSessionId = rs.getLong(1);
+                    }
+                }
+                for (String gitUrl : gitUrls) {
+                    insertJob(conn, scanSessionId, gitUrl, null, maxAttempts);
+                }
+                conn.commit();
+                return scanSessionId;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Queue a repository-level scan, or join the one already pending for the repository and session.
+     *
+     * @param scanSessionId session to merge into, or null for the latest completed session at scan time
+     * @return false if the request was coalesced into a pending job
+     */
+    public boolean enqueue(Long scanSessionId, String gitUrl, Long repositoryId, int maxAttempts) throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            return insertJob(conn, scanSessionId, gitUrl, repositoryId, maxAttempts);
+        }
+    }
+
+    private static boolean insertJob(Connection conn, Long scanSessionId, String gitUrl, Long repositoryId,
+            int maxAttempts) throws SQLException {
+        String sql = """
+                INSERT INTO scan_jobs (scan_session_id, git_url, repository_id, max_attempts)
+                VALUES (?, ?, ?, ?)
+                ON CONFLICT (COALESCE(scan_session_id, 0), git_url) WHERE status = 'PENDING' DO NOTHING
+                """;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            setNullableLong(stmt, 1, scanSessionId);
+            stmt.setString(2, gitUrl);
+            setNullableLong(stmt, 3, repositoryId);
+            stmt.setInt(4, Math.max(1, maxAttempts));
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Claim up to limit jobs that are due or whose lease expired, oldest first, skipping jobs other
+     * workers are claiming at the same moment.
+     */
+    public List<ScanJob> claim(String workerId, int limit, long leaseMs) throws SQLException {
+        if (limit <= 0) {
+            return List.of();
+        }
+        String sql = """
+                UPDATE scan_jobs
+                SET status = 'RUNNING',
+                    attempts = attempts + 1,
+                    lease_owner = ?,
+                    lease_expires_at = CURRENT_TIMESTAMP + (? * INTERVAL '1 millisecond')
+                WHERE id IN (
+                    SELECT id FROM scan_jobs
+                    WHERE attempts < max_attempts
+                      AND ((status = 'PENDING' AND available_at <= CURRENT_TIMESTAMP)
+                           OR (status = 'RUNNING' AND lease_expires_at < CURRENT_TIMESTAMP))
+                    ORDER BY id
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING id, scan_session_id, git_url, repository_id, attempts
+                """;
+        List<ScanJob> jobs = new ArrayList<>();
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, workerId);
+            stmt.setLong(2, leaseMs);
+            stmt.setInt(3, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    jobs.add(new ScanJob(
+                            rs.getLong("id"),
+                            nullableLong(rs, "scan_session_id"),
+                            rs.getString("git_url"),
+                            nullableLong(rs, "repository_id"),
+                            rs.getInt("attempts")));
+                }
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * Extend the leases of jobs the worker is still running.
+     *
+     * @return number of leases extended; jobs taken over by another worker after an expiry are not
+     */
+    public int renewLeases(String workerId, Collection<Long> jobIds, long leaseMs) throws SQLException {
+        if (jobIds.isEmpty()) {
+            return 0;
+        }
+        String sql = """
+                UPDATE scan_jobs
+                SET lease_expires_at = CURRENT_TIMESTAMP + (? * INTERVAL '1 millisecond')
+                WHERE id = ? AND status = 'RUNNING' AND lease_owner = ?
+                """;
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Long jobId : jobIds) {
+                stmt.setLong(1, leaseMs);
+                stmt.setLong(2, jobId);
+                stmt.setString(3, workerId);
+                stmt.addBatch();
+            }
+            int renewed = 0;
+            for (int count : stmt.executeBatch()) {
+                renewed += Math.max(0, count);
+            }
+            return renewed;
+        }
+    }
+
+    /**
+     * Extend the lease of one job if the worker still holds it.
+     *
+     * @return false if the lease expired and another worker claimed the job, or it was failed for good
+     */
+    public boolean renewLease(ScanJob job, String workerId, long leaseMs) throws SQLException {
+        return renewLeases(workerId, List.of(job.id()), leaseMs) > 0;
+    }
+
+    /**
+     * Mark a job done, unless another worker took it over after its lease expired.
+     */
+    public boolean complete(ScanJob job, String workerId) throws SQLException {
+        String sql = """
+                UPDATE scan_jobs
+                SET status = 'DONE', finished_at = CURRENT_TIMESTAMP, lease_expires_at = NULL, last_error = NULL
+                WHERE id = ? AND status = 'RUNNING' AND lease_owner = ?
+                """;
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, job.id());
+            stmt.setString(2, workerId);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Record a failed attempt: the job is retried after retryDelayMs times its attempts, or fails for
+     * good once it used up its attempts or a newer request for the repository is already pending.
+     *
+     * @return true if the job will be retried
+     */
+    public boolean fail(ScanJob job, String workerId, String error, long retryDelayMs) throws SQLException {
+        String sql = """
+                UPDATE scan_jobs
+                SET status = CASE
+                        WHEN attempts < max_attempts AND NOT EXISTS (
+                            SELECT 1 FROM scan_jobs p
+                            WHERE p.status = 'PENDING' AND p.git_url = scan_jobs.git_url
+                              AND COALESCE(p.scan_session_id, 0) = COALESCE(scan_jobs.scan_session_id, 0))
+                        THEN 'PENDING' ELSE 'FAILED' END,
+                    available_at = CURRENT_TIMESTAMP + (? * attempts * INTERVAL '1 millisecond'),
+                    finished_at = CURRENT_TIMESTAMP,
+                    lease_owner = NULL,
+                    lease_expires_at = NULL,
+                    last_error = ?
+                WHERE id = ? AND status = 'RUNNING' AND lease_owner = ?
+                RETURNING status
+                """;
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, retryDelayMs);
+            stmt.setString(2, error);
+            stmt.setLong(3, job.id());
+            stmt.setString(4, workerId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && PENDING.equals(rs.getString("status"));
+            }
+        }
+    }
+
+    /**
+     * Fail jobs whose lease expired on their last attempt, so their sessions can complete.
+     *
+     * @return sessions of the failed jobs
+     */
+    public Set<Long> failExpiredLeases() throws SQLException {
+        String sql = """
+                UPDATE scan_jobs
+                SET status = 'FAILED', finished_at = CURRENT_TIMESTAMP,
+                    last_error = 'Lease of ' || lease_owner || ' expired on the last attempt'
+                WHERE status = 'RUNNING' AND lease_expires_at < CURRENT_TIMESTAMP AND attempts >= max_attempts
+                RETURNING scan_session_id
+                """;
+        Set<Long> sessions = new LinkedHashSet<>();
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                Long scanSessionId = nullableLong(rs, "scan_session_id");
+                if (scanSessionId != null) {
+                    sessions.add(scanSessionId);
+                }
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * Complete a RUNNING session once none of its jobs is pending or running. Only one caller wins.
+     *
+     * @return true if this call completed the session
+     */
+    public boolean completeSessionIfDone(long scanSessionId) throws SQLException {
+        String sql = """
+                UPDATE scan_sessions
+                SET scan_status = 'COMPLETED',
+                    scan_duration_ms = (EXTRACT(EPOCH FROM (CURRENT_TIMESTAMP - scan_date)) * 1000)::BIGINT,
+                    error_log = (SELECT string_agg(git_url || ': ' || COALESCE(last_error, 'failed'), E'\\n')
+                                 FROM scan_jobs WHERE scan_session_id = ? AND status = 'FAILED')
+                WHERE id = ? AND scan_status = 'RUNNING'
+                  AND NOT EXISTS (SELECT 1 FROM scan_jobs
+                                  WHERE scan_session_id = ? AND status IN ('PENDING', 'RUNNING'))
+                """;
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, scanSessionId);
+            stmt.setLong(2, scanSessionId);
+            stmt.setLong(3, scanSessionId);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Jobs per status over the whole queue, for the scan status API.
+     */
+    public Map<String, Integer> countByStatus() throws SQLException {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String status : List.of(PENDING, RUNNING, DONE, FAILED)) {
+            counts.put(status, 0);
+        }
+        String sql = "SELECT status, COUNT(*) AS jobs FROM scan_jobs GROUP BY status";
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                counts.put(rs.getString("status"), rs.getInt("jobs"));
+            }
+        }
+        return counts;
+    }
+
+    private static Long nullableLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static void setNullableLong(PreparedStatement stmt, int index, Long value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(index, Types.BIGINT);
+        } else {
+            stmt.setLong(index, value);
+        }
+    }
+}
@@ -0,0 +1,483 @@
+package com.example.annotationextractor.casemodel;
+
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.symbolsolver.javassistmodel.JavassistFactory;
+import javassist.ClassPath;
+import javassist.ClassPool;
+import javassist.NotFoundException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Index of every class in a directory of dependency jars, built once and shared by all parsers.
+ *
+ * The index maps the dotted class name (nested classes joined with '.') to the jar holding it and is
+ * stored in a sorted binary file next to the dependencies directory. The file is memory-mapped read-only
+ * and searched in place, so opening it costs neither a jar scan nor heap proportional to the number of classes.
+ * It is rebuilt only when the set of jars (path, size, modification time) changes.
+ *
+ * Class files are loaded lazily from the indexed jar into one class pool shared by all type solvers
+ * created with {@link #newTypeSolver()}, so a dependency class is read and decoded once per process
+ * instead of once per repository and parse worker.
+ */
+public class DependencyTypeIndex {
+
+    private static final int MAGIC = 0x54594458; // "TYDX"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final Map<Path, DependencyTypeIndex> OPEN_INDEXES = new ConcurrentHashMap<>();
+
+    private final Path dependenciesDir;
+    private final Path indexFile;
+    private final String fingerprint;
+    private final List<Path> jars;
+    private final ByteBuffer buffer;
+    private final int entryCount;
+    private final int offsetTableStart;
+    private final JarFile[] openJars;
+    private final ClassPool classPool;
+
+    private DependencyTypeIndex(Path dependenciesDir, Path indexFile, String fingerprint, List<Path> jars,
+            ByteBuffer buffer, int entryCount, int offsetTableStart) {
+        this.dependenciesDir = dependenciesDir;
+        this.indexFile = indexFile;
+        this.fingerprint = fingerprint;
+        this.jars = jars;
+        this.buffer = buffer;
+        this.entryCount = entryCount;
+        this.offsetTableStart = offsetTableStart;
+        this.openJars = new JarFile[jars.size()];
+        this.classPool = new ClassPool(false);
+        this.classPool.appendClassPath(new IndexedClassPath());
+    }
+
+    /**
+     * Index of the jars in a dependencies directory, shared by all callers in this process.
+     * The jar set is re-checked on every call; the index is rebuilt only if it changed.
+     *
+     * @param dependenciesDir directory containing dependency jars
+     * @return the index, or null if the directory does not exist
+     * @throws IOException if the jars cannot be read
+     */
+    public static DependencyTypeIndex forDirectory(Path dependenciesDir) throws IOException {
+        if (dependenciesDir == null || !Files.isDirectory(dependenciesDir)) {
+            return null;
+        }
+        Path normalized = dependenciesDir.toAbsolutePath().normalize();
+        List<Path> jars = listJars(normalized);
+        String fingerprint = fingerprint(jars);
+        synchronized (OPEN_INDEXES) {
+            DependencyTypeIndex current = OPEN_INDEXES.get(normalized);
+            if (current != null && current.fingerprint.equals(fingerprint)) {
+                return current;
+            }
+            DependencyTypeIndex index = open(normalized, defaultIndexFile(normalized), jars, fingerprint);
+            OPEN_INDEXES.put(normalized, index);
+            if (current != null) {
+                current.closeJars();
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Index file used for a dependencies directory: a sibling of it, so it is never mistaken for a jar.
+     */
+    public static Path defaultIndexFile(Path dependenciesDir) {
+        Path dir = dependenciesDir.toAbsolutePath().normalize();
+        Path name = dir.getFileName();
+        return dir.resolveSibling((name != null ? name.toString() : "dependencies") + "-type-index.bin");
+    }
+
+    static DependencyTypeIndex open(Path dependenciesDir, Path indexFile, List<Path> jars, String fingerprint) throws IOException {
+        ByteBuffer mapped = mapIfCurrent(indexFile, fingerprint);
+        if (mapped == null) {
+            long start = System.currentTimeMillis();
+            byte[] content = build(jars, fingerprint);
+            try {
+                writeAtomically(indexFile, content);
+                mapped = map(indexFile);
+            } catch (IOException e) {
+                // Read-only location: keep the index on the heap for this process
+                System.err.println("Could not store dependency type index at " + indexFile + ": " + e.getMessage());
+                mapped = ByteBuffer.wrap(content);
+            }
+            System.out.println("Built dependency type index for " + jars.size() + " jars in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
+        return fromBuffer(dependenciesDir, indexFile, fingerprint, jars, mapped);
+    }
+
+    public Path getDependenciesDir() {
+        return dependenciesDir;
+    }
+
+    /**
+     * Fingerprint of the indexed jar set; changes when a jar is added, removed or replaced.
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public Path getIndexFile() {
+        return indexFile;
+    }
+
+    public int getJarCount() {
+        return jars.size();
+    }
+
+    public int getClassCount() {
+        return entryCount;
+    }
+
+    /**
+     * Whether a class is in one of the indexed jars.
+     *
+     * @param name class name with nested classes joined by '.' or '$'
+     */
+    public boolean contains(String name) {
+        return indexOf(name.replace('$', '.')) >= 0;
+    }
+
+    /**
+     * A new type solver over the indexed jars. Each parser needs its own because a type solver
+     * has exactly one parent; all of them share this index and its class pool.
+     */
+    public TypeSolver newTypeSolver() {
+        return new IndexedTypeSolver();
+    }
+
+    /**
+     * Class pool name (nested classes joined by '$') of a class, or null if it is not indexed.
+     */
+    String classPoolName(String name) {
+        int entry = indexOf(name.replace('$', '.'));
+        if (entry < 0) {
+            return null;
+        }
+        int offset = entryOffset(entry);
+        return readUtf(buffer, offset + 2 + (buffer.getShort(offset) & 0xFFFF));
+    }
+
+    private int indexOf(String key) {
+        byte[] target = key.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = entryCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareKey(entryOffset(mid), target);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int entryOffset(int entry) {
+        return buffer.getInt(offsetTableStart + entry * 4);
+    }
+
+    private int compareKey(int offset, byte[] target) {
+        int length = buffer.getShort(offset) & 0xFFFF;
+        int common = Math.min(length, target.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = (buffer.get(offset + 2 + i) & 0xFF) - (target[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - target.length;
+    }
+
+    private int jarOf(int entry) {
+        int offset = entryOffset(entry);
+        offset += 2 + (buffer.getShort(offset) & 0xFFFF);
+        offset += 2 + (buffer.getShort(offset) & 0xFFFF);
+        return buffer.getInt(offset);
+    }
+
+    private JarFile jar(int jarIndex) throws IOException {
+        synchronized (openJars) {
+            if (openJars[jarIndex] == null) {
+                openJars[jarIndex] = new JarFile(jars.get(jarIndex).toFile());
+            }
+            return openJars[jarIndex];
+        }
+    }
+
+    private void closeJars() {
+        synchronized (openJars) {
+            for (int i = 0; i < openJars.length; i++) {
+                if (openJars[i] != null) {
+                    try {
+                        openJars[i].close();
+                    } catch (IOException ignored) {
+                        // Replaced index; nothing to recover
+                    }
+                    openJars[i] = null;
+                }
+            }
+        }
+    }
+
+    private static List<Path> listJars(Path dependenciesDir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dependenciesDir)) {
+            return paths
+                    .filter(path -> Files.isRegularFile(path) && path.toString().toLowerCase().endsWith(".jar"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static String fingerprint(List<Path> jars) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(("v" + FORMAT_VERSION).getBytes(StandardCharsets.UTF_8));
+            for (Path jar : jars) {
+                digest.update((jar.toAbsolutePath().normalize() + "\0" + Files.size(jar) + "\0"
+                        + Files.getLastModifiedTime(jar).toMillis() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Layout: magic, version, fingerprint, jar paths, entry count, offset table, entries sorted by key.
+     * An entry is the dotted name, the class pool name and the jar ordinal.
+     */
+    static byte[] build(List<Path> jars, String fingerprint) throws IOException {
+        // First jar wins for duplicate classes, as with one type solver per jar in directory order
+        TreeMap<String, String[]> entries = new TreeMap<>(DependencyTypeIndex::compareUtf8);
+        for (int jarIndex = 0; jarIndex < jars.size(); jarIndex++) {
+            Path jarPath = jars.get(jarIndex);
+            try (JarFile jar = new JarFile(jarPath.toFile())) {
+                Enumeration<JarEntry> jarEntries = jar.entries();
+                while (jarEntries.hasMoreElements()) {
+                    JarEntry entry = jarEntries.nextElement();
+                    String entryName = entry.getName();
+                    if (entry.isDirectory() || !entryName.endsWith(".class")) {
+                        continue;
+                    }
+                    String poolName = entryName.substring(0, entryName.length() - ".class".length()).replace('/', '.');
+                    entries.putIfAbsent(poolName.replace('$', '.'), new String[] {poolName, Integer.toString(jarIndex)});
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to index dependency jar " + jarPath + ": " + e.getMessage());
+            }
+        }
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(header);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeString(out, fingerprint);
+        out.writeInt(jars.size());
+        for (Path jar : jars) {
+            writeString(out, jar.toAbsolutePath().normalize().toString());
+        }
+        out.writeInt(entries.size());
+        out.flush();
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream bodyOut = new DataOutputStream(body);
+        int[] offsets = new int[entries.size()];
+        int bodyStart = header.size() + entries.size() * 4;
+        int i = 0;
+        for (Map.Entry<String, String[]> entry : entries.entrySet()) {
+            offsets[i++] = bodyStart + body.size();
+            writeString(bodyOut, entry.getKey());
+            writeString(bodyOut, entry.getValue()[0]);
+            bodyOut.writeInt(Integer.parseInt(entry.getValue()[1]));
+        }
+        bodyOut.flush();
+        for (int offset : offsets) {
+            out.writeInt(offset);
+        }
+        out.flush();
+        header.write(body.toByteArray());
+        return header.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static int compareUtf8(String a, String b) {
+        return Arrays.compareUnsigned(a.getBytes(StandardCharsets.UTF_8), b.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ByteBuffer mapIfCurrent(Path indexFile, String fingerprint) {
+        if (!Files.isRegularFile(indexFile)) {
+            return null;
+        }
+        try {
+            ByteBuffer mapped = map(indexFile);
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != FORMAT_VERSION) {
+                return null;
+            }
+            String stored = readUtf(mapped, 8);
+            return fingerprint.equals(stored) ? mapped : null;
+        } catch (IOException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private static ByteBuffer map(Path indexFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static DependencyTypeIndex fromBuffer(Path dependenciesDir, Path indexFile, String fingerprint,
+            List<Path> jars, ByteBuffer buffer) {
+        int offset = 8;
+        offset += 2 + (buffer.getShort(offset) & 0xFFFF);
+        int jarCount = buffer.getInt(offset);
+        offset += 4;
+        for (int i = 0; i < jarCount; i++) {
+            offset += 2 + (buffer.getShort(offset) & 0xFFFF);
+        }
+        int entryCount = buffer.getInt(offset);
+        offset += 4;
+        return new DependencyTypeIndex(dependenciesDir, indexFile, fingerprint, jars, buffer, entryCount, offset);
+    }
+
+    private static String readUtf(ByteBuffer buffer, int offset) {
+        int length = buffer.getShort(offset) & 0xFFFF;
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeAtomically(Path target, byte[] content) throws IOException {
+        Path parent = target.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                out.write(content);
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Class path of the shared class pool: serves class files straight from the jar named in the index.
+     */
+    private class IndexedClassPath implements ClassPath {
+
+        @Override
+        public InputStream openClassfile(String classname) throws NotFoundException {
+            int entry = indexOf(classname.replace('$', '.'));
+            if (entry < 0) {
+                return null;
+            }
+            try {
+                JarFile jar = jar(jarOf(entry));
+                JarEntry jarEntry = jar.getJarEntry(classname.replace('.', '/') + ".class");
+                return jarEntry != null ? jar.getInputStream(jarEntry) : null;
+            } catch (IOException e) {
+                throw new NotFoundException("Cannot read " + classname + " from dependency jars", e);
+            }
+        }
+
+        @Override
+        public URL find(String classname) {
+            int entry = indexOf(classname.replace('$', '.'));
+            if (entry < 0) {
+                return null;
+            }
+            try {
+                return new URL("jar:" + jars.get(jarOf(entry)).toUri() + "!/" + classname.replace('.', '/') + ".class");
+            } catch (MalformedURLException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Type solver view over the shared index, the counterpart of one JarTypeSolver per jar.
+     */
+    private class IndexedTypeSolver implements TypeSolver {
+
+        private TypeSolver parent;
+
+        @Override
+        public TypeSolver getParent() {
+            return parent;
+        }
+
+        @Override
+        public void setParent(TypeSolver parent) {
+            Objects.requireNonNull(parent);
+            if (this.parent != null) {
+                throw new IllegalStateException("This TypeSolver already has a parent.");
+            }
+            if (parent == this) {
+                throw new IllegalStateException("The parent of this TypeSolver cannot be itself.");
+            }
+            this.parent = parent;
+        }
+
+        @Override
+        public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+            String poolName = classPoolName(name);
+            if (poolName == null) {
+                return SymbolReference.unsolved();
+            }
+            try {
+                return SymbolReference.solved(JavassistFactory.toTypeDeclaration(classPool.get(poolName), getRoot()));
+            } catch (NotFoundException e) {
+                return SymbolReference.unsolved();
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.annotationextractor.casemodel;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Previous scan of a repository that an incremental scan builds on.
+ *
+ * Rows of {@code repositoryId} in {@code sourceScanSessionId} were collected at {@code baseCommit}.
+ * Files listed in {@code invalidatedFilePaths} changed or were deleted since then; rows for every
+ * other file are carried forward into the new scan session instead of being parsed again.
+ */
+public class IncrementalScanBaseline {
+
+    private final long repositoryId;
+    private final long sourceScanSessionId;
+    private final String baseCommit;
+    private final Set<String> invalidatedFilePaths;
+
+    public IncrementalScanBaseline(long repositoryId, long sourceScanSessionId, String baseCommit) {
+        this(repositoryId, sourceScanSessionId, baseCommit, Collections.emptySet());
+    }
+
+    public IncrementalScanBaseline(long repositoryId, long sourceScanSessionId, String baseCommit,
+            Set<String> invalidatedFilePaths) {
+        this.repositoryId = repositoryId;
+        this.sourceScanSessionId = sourceScanSessionId;
+        this.baseCommit = baseCommit;
+        this.invalidatedFilePaths = Collections.unmodifiableSet(new LinkedHashSet<>(invalidatedFilePaths));
+    }
+
+    /**
+     * Same baseline with the files that changed between {@code baseCommit} and the scanned commit.
+     */
+    public IncrementalScanBaseline withInvalidatedFilePaths(Set<String> filePaths) {
+        return new IncrementalScanBaseline(repositoryId, sourceScanSessionId, baseCommit, filePaths);
+    }
+
+    public long getRepositoryId() {
+        return repositoryId;
+    }
+
+    public long getSourceScanSessionId() {
+        return sourceScanSessionId;
+    }
+
+    public String getBaseCommit() {
+        return baseCommit;
+    }
+
+    /**
+     * Repository-relative paths (forward slashes) whose rows must not be carried forward.
+     */
+    public Set<String> getInvalidatedFilePaths() {
+        return invalidatedFilePaths;
+    }
+
+    @Override
+    public String toString() {
+        return "IncrementalScanBaseline{" +
+                "repositoryId=" + repositoryId +
+                ", sourceScanSessionId=" + sourceScanSessionId +
+                ", baseCommit='" + baseCommit + '\'' +
+                ", invalidatedFilePaths=" + invalidatedFilePaths.size() +
+                '}';
+    }
+}
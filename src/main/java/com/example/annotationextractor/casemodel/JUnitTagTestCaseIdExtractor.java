@@ -19,6 +19,11 @@ public class JUnitTagTestCaseIdExtractor implements TestCaseIdExtractor {
     
     private static final String ANNOTATION_NAME = "Tag";
     
+    @Override
+    public String getAnnotationName() {
+        return ANNOTATION_NAME;
+    }
+
     @Override
     public boolean supports(AnnotationExpr annotation) {
         if (annotation == null) {
@@ -0,0 +1,32 @@
+package com.example.annotationextractor.casemodel;
+
+/**
+ * How much work TestClassParser does per file.
+ */
+public enum ParseProfile {
+
+    /**
+     * Test methods, annotations, LOC and method bodies only: no comment attribution
+     * and no symbol resolution, so referenced types stay empty.
+     */
+    FAST,
+
+    /**
+     * Everything FAST extracts plus referenced types resolved through the symbol solver.
+     */
+    FULL;
+
+    /**
+     * Parse a configured profile name, falling back to FULL for unknown or empty values.
+     */
+    public static ParseProfile fromString(String value) {
+        if (value == null || value.isBlank()) {
+            return FULL;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return FULL;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.example.annotationextractor.casemodel;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * On-disk cache of parse results keyed by file content, so identical files in forks,
+ * branches and rescans are not parsed again.
+ *
+ * The key is a SHA-256 of {@link TestClassParser#EXTRACTOR_VERSION}, the parse profile and the file bytes.
+ * FULL results also depend on what the symbol solver resolves against, so their key adds the
+ * repository root and the dependency jar set; FAST results are shared across repositories.
+ * Entries are gzipped JSON files under the cache directory; the total size is bounded and the
+ * least recently used entries are evicted first. Last access is kept in the file modification time,
+ * so the eviction order survives restarts. Safe for concurrent use by parse workers.
+ */
+public class ParseResultCache {
+
+    private static final String ENTRY_SUFFIX = ".json.gz";
+
+    private final Path cacheDir;
+    private final long maxBytes;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    // key -> entry size in bytes, in access order (eldest first)
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param cacheDir directory holding the cache entries; created if missing
+     * @param maxBytes total size of all entries before the least recently used ones are evicted
+     * @throws IOException if the cache directory cannot be created or listed
+     */
+    public ParseResultCache(Path cacheDir, long maxBytes) throws IOException {
+        this.cacheDir = cacheDir.toAbsolutePath().normalize();
+        this.maxBytes = Math.max(0L, maxBytes);
+        Files.createDirectories(this.cacheDir);
+        loadIndex();
+    }
+
+    /**
+     * Cache directory used for a repository hub: a sibling of the hub directory, so it is never mistaken
+     * for a repository and survives temporary clone cleanup.
+     */
+    public static Path defaultCacheDir(String repositoryHubPath) {
+        Path hub = Path.of(repositoryHubPath).toAbsolutePath().normalize();
+        Path name = hub.getFileName();
+        return hub.resolveSibling((name != null ? name.toString() : "repositories") + "-parse-cache");
+    }
+
+    /**
+     * Cache key of a file's content for the current extractor version and the FULL profile.
+     */
+    public static String computeKey(byte[] content) {
+        return computeKey(content, ParseProfile.FULL);
+    }
+
+    /**
+     * Cache key of a file's content for the current extractor version and parse profile.
+     * Profiles extract different data, so their results are cached separately.
+     */
+    public static String computeKey(byte[] content, ParseProfile profile) {
+        return computeKey(content, profile, null);
+    }
+
+    /**
+     * Cache key of a file's content for the current extractor version, parse profile and, for the FULL
+     * profile, the classpath the symbol solver resolves against.
+     *
+     * @param resolutionContext value from {@link #resolutionContext}; ignored for the FAST profile
+     */
+    public static String computeKey(byte[] content, ParseProfile profile, String resolutionContext) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(("v" + TestClassParser.EXTRACTOR_VERSION + "\0" + profile.name() + "\0")
+                    .getBytes(StandardCharsets.UTF_8));
+            if (profile == ParseProfile.FULL && resolutionContext != null) {
+                digest.update((resolutionContext + "\0").getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Identifies the symbol-solver classpath of a repository: its root and the jars in the dependencies
+     * directory. Compute it once per repository and pass it to {@link #computeKey(byte[], ParseProfile, String)}.
+     *
+     * @param repositoryRoot repository whose sources are resolved against (can be null)
+     * @param dependenciesDir directory of dependency jars (can be null)
+     * @throws IOException if the dependency jars cannot be read
+     */
+    public static String resolutionContext(Path repositoryRoot, Path dependenciesDir) throws IOException {
+        DependencyTypeIndex dependencies = DependencyTypeIndex.forDirectory(dependenciesDir);
+        return resolutionContext(repositoryRoot) + (dependencies != null ? dependencies.getFingerprint() : "");
+    }
+
+    /**
+     * Resolution context of a repository parsed without dependency jars.
+     */
+    public static String resolutionContext(Path repositoryRoot) {
+        return (repositoryRoot != null ? repositoryRoot.toAbsolutePath().normalize().toString() : "") + "\0";
+    }
+
+    /**
+     * Look up a cached parse result and point its file paths at the file being scanned.
+     *
+     * @param key key from {@link #computeKey}
+     * @param filePath file being scanned
+     * @param repositoryRoot repository root used to relativize file paths (can be null)
+     * @return the cached result, or null on a miss
+     */
+    public ParseResult get(String key, Path filePath, Path repositoryRoot) {
+        synchronized (this) {
+            // get() rather than containsKey() so the entry moves to the most recently used end
+            if (entries.get(key) == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+        }
+        Path entryPath = entryPath(key);
+        CacheEntry entry;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(entryPath))) {
+            entry = objectMapper.readValue(in, CacheEntry.class);
+            Files.setLastModifiedTime(entryPath, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            System.err.println("Dropping unreadable parse cache entry " + entryPath + ": " + e.getMessage());
+            remove(key);
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.toParseResult(TestClassParser.normalizeFilePath(filePath, repositoryRoot));
+    }
+
+    /**
+     * Store a parse result. Failures are reported and otherwise ignored; the cache is only an optimization.
+     */
+    public void put(String key, ParseResult result) {
+        if (maxBytes == 0 || result == null) {
+            return;
+        }
+        synchronized (this) {
+            if (entries.containsKey(key)) {
+                return;
+            }
+        }
+        Path entryPath = entryPath(key);
+        Path tempPath = null;
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (OutputStream out = new GZIPOutputStream(buffer)) {
+                objectMapper.writeValue(out, CacheEntry.of(result));
+            }
+            byte[] bytes = buffer.toByteArray();
+            if (bytes.length > maxBytes) {
+                return;
+            }
+            Files.createDirectories(entryPath.getParent());
+            tempPath = Files.createTempFile(entryPath.getParent(), key, ".tmp");
+            Files.write(tempPath, bytes);
+            try {
+                Files.move(tempPath, entryPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, entryPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tempPath = null;
+            synchronized (this) {
+                Long previous = entries.put(key, (long) bytes.length);
+                totalBytes += bytes.length - (previous != null ? previous : 0L);
+                evictOverBudget();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write parse cache entry " + entryPath + ": " + e.getMessage());
+        } finally {
+            if (tempPath != null) {
+                try {
+                    Files.deleteIfExists(tempPath);
+                } catch (IOException ignored) {
+                    // best effort
+                }
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getSizeBytes() {
+        return totalBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public Path getCacheDir() {
+        return cacheDir;
+    }
+
+    @Override
+    public String toString() {
+        return "ParseResultCache{" +
+                "hits=" + hits.get() +
+                ", misses=" + misses.get() +
+                ", evictions=" + evictions.get() +
+                ", entries=" + getEntryCount() +
+                ", sizeBytes=" + getSizeBytes() +
+                ", maxBytes=" + maxBytes +
+                '}';
+    }
+
+    private void loadIndex() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(cacheDir, 2)) {
+            paths.filter(path -> path.getFileName().toString().endsWith(ENTRY_SUFFIX) && Files.isRegularFile(path))
+                    .forEach(files::add);
+        }
+        Map<Path, Long> lastAccess = new LinkedHashMap<>();
+        for (Path file : files) {
+            try {
+                lastAccess.put(file, Files.getLastModifiedTime(file).toMillis());
+            } catch (IOException e) {
+                // Removed concurrently; ignore
+            }
+        }
+        files.removeIf(file -> !lastAccess.containsKey(file));
+        files.sort(Comparator.comparingLong(lastAccess::get));
+        synchronized (this) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    long size = Files.size(file);
+                    entries.put(name.substring(0, name.length() - ENTRY_SUFFIX.length()), size);
+                    totalBytes += size;
+                } catch (IOException e) {
+                    // Removed concurrently; ignore
+                }
+            }
+            evictOverBudget();
+        }
+    }
+
+    private void evictOverBudget() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            evictions.incrementAndGet();
+            deleteQuietly(entryPath(eldest.getKey()));
+        }
+    }
+
+    private void remove(String key) {
+        synchronized (this) {
+            Long size = entries.remove(key);
+            if (size != null) {
+                totalBytes -= size;
+            }
+        }
+        deleteQuietly(entryPath(key));
+    }
+
+    private Path entryPath(String key) {
+        return cacheDir.resolve(key.substring(0, 2)).resolve(key + ENTRY_SUFFIX);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Failed to delete parse cache entry " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Serialized form of a ParseResult. Totals are stored explicitly because
+     * {@link TestClassInfo#setTestMethods} recomputes them.
+     */
+    static class CacheEntry {
+        public TestClassInfo testClassInfo;
+        public List<TestHelperClassInfo> helperClasses;
+        public int totalTestMethods;
+        public int annotatedTestMethods;
+
+        static CacheEntry of(ParseResult result) {
+            CacheEntry entry = new CacheEntry();
+            entry.testClassInfo = result.getTestClassInfo();
+            entry.helperClasses = result.getHelperClasses();
+            if (entry.testClassInfo != null) {
+                entry.totalTestMethods = entry.testClassInfo.getTotalTestMethods();
+                entry.annotatedTestMethods = entry.testClassInfo.getAnnotatedTestMethods();
+            }
+            return entry;
+        }
+
+        ParseResult toParseResult(String filePath) {
+            if (testClassInfo != null) {
+                testClassInfo.setTotalTestMethods(totalTestMethods);
+                testClassInfo.setAnnotatedTestMethods(annotatedTestMethods);
+                if (!testClassInfo.getClassName().isEmpty()) {
+                    testClassInfo.setFilePath(filePath);
+                }
+                for (TestMethodInfo method : testClassInfo.getTestMethods()) {
+                    method.setFilePath(filePath);
+                }
+            }
+            List<TestHelperClassInfo> helpers = helperClasses != null ? helperClasses : new ArrayList<>();
+            for (TestHelperClassInfo helper : helpers) {
+                helper.setFilePath(filePath);
+            }
+            return new ParseResult(testClassInfo, helpers);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.annotationextractor.casemodel;
+
+/**
+ * What earlier scans of a repository took and found, used to plan the next scan.
+ *
+ * @param lastAttemptMs when the repository was last fetched or found unchanged, in epoch milliseconds
+ * @param fetchDurationMs duration of the last fetch, or -1 if never measured
+ * @param parseDurationMs duration of the last parse, or -1 if never measured
+ * @param persistDurationMs duration of the last persist, or -1 if never measured
+ * @param scanCount scans that reached the repository
+ * @param changeCount scans that found a different commit than the scan before
+ */
+public record RepositoryScanHistory(String gitUrl, long lastAttemptMs, long fetchDurationMs, long parseDurationMs,
+        long persistDurationMs, int scanCount, int changeCount) {
+
+    /**
+     * Share of scans that found a new commit, smoothed so that a few scans do not give 0 or 1.
+     */
+    public double changeLikelihood() {
+        return (changeCount + 1.0) / (scanCount + 2.0);
+    }
+}
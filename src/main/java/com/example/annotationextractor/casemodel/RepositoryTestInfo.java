@@ -19,6 +19,16 @@ public class RepositoryTestInfo {
     }
 
     private String gitUrl;
+    private String headCommit;
+    private String scanFingerprint;
+    private IncrementalScanBaseline incrementalBaseline;
+    private boolean referencedTypesPending;
+    private boolean unchangedOnRemote;
+    private String cloneMode;
+    private long fetchDurationMs;
+    private long diskUsageBytes;
+    private long parseDurationMs = -1;
+    private long persistDurationMs = -1;
     private final String teamName;
     private final String teamCode;
     public String getTeamName() {
@@ -90,6 +100,27 @@ public class RepositoryTestInfo {
         }
     }
 
+    /**
+     * Account for rows carried forward from the previous scan session without being parsed again.
+     */
+    public void addCarriedForwardTotals(int testClasses, int testMethods, int annotatedTestMethods,
+            int testCodeLines, int testRelatedCodeLines) {
+        this.totalTestClasses += testClasses;
+        this.totalTestMethods += testMethods;
+        this.totalAnnotatedTestMethods += annotatedTestMethods;
+        this.testCodeLines += testCodeLines;
+        this.testRelatedCodeLines += testRelatedCodeLines;
+    }
+
+    /**
+     * Drop the parsed test and helper classes, with their source content, once they are persisted.
+     * Totals and line counts are kept.
+     */
+    public void releaseParsedClasses() {
+        this.testClasses = new ArrayList<>();
+        this.helperClasses = new ArrayList<>();
+    }
+
     public void addHelperClass(TestHelperClassInfo helperClass) {
         this.helperClasses.add(helperClass);
         // Add helper class LOC to test related code lines
@@ -121,6 +152,107 @@ public class RepositoryTestInfo {
         return gitUrl;
     }
 
+    /**
+     * Commit the repository was scanned at, or null if it could not be resolved.
+     */
+    public String getHeadCommit() {
+        return headCommit;
+    }
+
+    public void setHeadCommit(String headCommit) {
+        this.headCommit = headCommit;
+    }
+
+    /**
+     * Fingerprint of the extraction settings the repository was scanned with, or null if unknown.
+     * Previous scans are only carried forward into a scan with the same fingerprint.
+     */
+    public String getScanFingerprint() {
+        return scanFingerprint;
+    }
+
+    public void setScanFingerprint(String scanFingerprint) {
+        this.scanFingerprint = scanFingerprint;
+    }
+
+    /**
+     * Previous scan this one is incremental to, or null for a full scan.
+     */
+    public IncrementalScanBaseline getIncrementalBaseline() {
+        return incrementalBaseline;
+    }
+
+    public void setIncrementalBaseline(IncrementalScanBaseline incrementalBaseline) {
+        this.incrementalBaseline = incrementalBaseline;
+    }
+
+    /**
+     * Whether the classes were parsed without symbol resolution and their referenced types
+     * are left to the background enrichment worker.
+     */
+    public boolean isReferencedTypesPending() {
+        return referencedTypesPending;
+    }
+
+    public void setReferencedTypesPending(boolean referencedTypesPending) {
+        this.referencedTypesPending = referencedTypesPending;
+    }
+
+    /**
+     * Whether the remote was still at the last scanned commit, so the repository was neither
+     * fetched nor parsed and all of its rows are carried forward.
+     */
+    public boolean isUnchangedOnRemote() {
+        return unchangedOnRemote;
+    }
+
+    public void setUnchangedOnRemote(boolean unchangedOnRemote) {
+        this.unchangedOnRemote = unchangedOnRemote;
+    }
+
+    /**
+     * Clone mode of the last clone or update, or null if the repository was not fetched in this scan.
+     */
+    public String getCloneMode() {
+        return cloneMode;
+    }
+
+    public long getFetchDurationMs() {
+        return fetchDurationMs;
+    }
+
+    public long getDiskUsageBytes() {
+        return diskUsageBytes;
+    }
+
+    public void setFetchStats(String cloneMode, long fetchDurationMs, long diskUsageBytes) {
+        this.cloneMode = cloneMode;
+        this.fetchDurationMs = fetchDurationMs;
+        this.diskUsageBytes = diskUsageBytes;
+    }
+
+    /**
+     * Time spent parsing the repository in this scan, or -1 if it was not parsed.
+     */
+    public long getParseDurationMs() {
+        return parseDurationMs;
+    }
+
+    public void setParseDurationMs(long parseDurationMs) {
+        this.parseDurationMs = parseDurationMs;
+    }
+
+    /**
+     * Time spent writing the repository's rows in this scan, or -1 if it was not persisted.
+     */
+    public long getPersistDurationMs() {
+        return persistDurationMs;
+    }
+
+    public void setPersistDurationMs(long persistDurationMs) {
+        this.persistDurationMs = persistDurationMs;
+    }
+
     public List<TestClassInfo> getTestClasses() {
         return testClasses;
     }
@@ -0,0 +1,82 @@
+package com.example.annotationextractor.casemodel;
+
+import java.util.Arrays;
+
+/**
+ * Content of one source file together with the offset of every line, built in a single pass.
+ *
+ * Line ranges are cut out of the content by offset instead of splitting the file per lookup,
+ * so extracting the bodies of all methods of a class is linear in the file size.
+ * Lines are separated by '\n' only; a '\r' before it stays part of the line.
+ */
+public class SourceBuffer {
+
+    private final String content;
+    // lineStarts[i] is the offset of the first character of line i + 1
+    private final int[] lineStarts;
+    private final int lineCount;
+    private final int logicalLineCount;
+
+    public SourceBuffer(String content) {
+        this.content = content != null ? content : "";
+        int[] starts = new int[64];
+        starts[0] = 0;
+        int count = 1;
+        int logical = 0;
+        int length = this.content.length();
+        for (int i = 0; i < length; i++) {
+            char c = this.content.charAt(i);
+            if (c == '\n') {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = i + 1;
+                logical++;
+            } else if (c == '\r' && (i + 1 >= length || this.content.charAt(i + 1) != '\n')) {
+                // Lone carriage return: a line break for String.lines(), not for the '\n' index
+                logical++;
+            }
+        }
+        if (length > 0) {
+            char last = this.content.charAt(length - 1);
+            if (last != '\n' && last != '\r') {
+                logical++;
+            }
+        }
+        this.lineStarts = starts;
+        this.lineCount = count;
+        this.logicalLineCount = logical;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    /**
+     * Number of '\n' separated lines, counting a trailing empty line (same as {@code split("\n", -1).length}).
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Number of lines as reported by {@link String#lines()}.
+     */
+    public int getLogicalLineCount() {
+        return logicalLineCount;
+    }
+
+    /**
+     * Lines {@code startLine} to {@code endLine} (1-based, inclusive) joined by '\n'.
+     *
+     * @return the lines, or null if the range is outside the file
+     */
+    public String getLines(int startLine, int endLine) {
+        if (startLine < 1 || endLine < startLine || endLine > lineCount) {
+            return null;
+        }
+        int start = lineStarts[startLine - 1];
+        int end = endLine < lineCount ? lineStarts[endLine] - 1 : content.length();
+        return content.substring(start, end);
+    }
+}
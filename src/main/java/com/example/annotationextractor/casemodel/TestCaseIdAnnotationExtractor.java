@@ -23,6 +23,11 @@ public class TestCaseIdAnnotationExtractor implements TestCaseIdExtractor {
     
     private static final String ANNOTATION_NAME = "TestCaseId";
     
+    @Override
+    public String getAnnotationName() {
+        return ANNOTATION_NAME;
+    }
+
     @Override
     public boolean supports(AnnotationExpr annotation) {
         if (annotation == null) {
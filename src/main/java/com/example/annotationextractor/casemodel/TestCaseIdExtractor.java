@@ -42,5 +42,15 @@ public interface TestCaseIdExtractor {
     default int getPriority() {
         return 0;
     }
+
+    /**
+     * Simple name of the annotation this extractor handles, used to spot candidate test files
+     * without parsing them.
+     *
+     * @return Annotation name, or null if the extractor does not match by name
+     */
+    default String getAnnotationName() {
+        return null;
+    }
 }
 
@@ -4,7 +4,9 @@ import com.github.javaparser.ast.expr.AnnotationExpr;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -106,6 +108,21 @@ public class TestCaseIdExtractorRegistry {
         return new ArrayList<>(extractors);
     }
     
+    /**
+     * Get the annotation names handled by the registered extractors
+     * 
+     * @return Simple annotation names
+     */
+    public Set<String> getAnnotationNames() {
+        Set<String> names = new LinkedHashSet<>();
+        for (TestCaseIdExtractor extractor : extractors) {
+            if (extractor.getAnnotationName() != null) {
+                names.add(extractor.getAnnotationName());
+            }
+        }
+        return names;
+    }
+    
     /**
      * Get extractors that support a specific annotation
      * 
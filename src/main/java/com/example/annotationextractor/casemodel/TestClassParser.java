@@ -1,6 +1,7 @@
 package com.example.annotationextractor.casemodel;
 
 import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.ImportDeclaration;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
@@ -16,7 +17,6 @@ import com.github.javaparser.ast.type.Type;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 import com.github.javaparser.symbolsolver.JavaSymbolSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JarTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
 import com.github.javaparser.resolution.UnsolvedSymbolException;
@@ -27,33 +27,33 @@ import com.github.javaparser.resolution.types.ResolvedArrayType;
 import com.github.javaparser.resolution.types.ResolvedReferenceType;
 import com.github.javaparser.resolution.types.ResolvedType;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Stream;
 
 /**
  * Parser class to extract test method information from Java test classes
  */
 public class TestClassParser {
+
+    /**
+     * Version of the extracted data. Bump whenever extraction output changes so cached parse results are not reused.
+     */
+    public static final int EXTRACTOR_VERSION = 1;
     
     // Registry for extracting test case IDs from any annotation
     private static final TestCaseIdExtractorRegistry testCaseIdRegistry = new TestCaseIdExtractorRegistry();
     private static final Object PARSER_LOCK = new Object();
     private static JavaParser sharedParser;
     private static Path activeRepositoryRoot;
-    private static Path cachedDependenciesDir;
-    private static List<JarTypeSolver> cachedJarTypeSolvers = Collections.emptyList();
+    private static DependencyTypeIndex activeDependencyIndex;
     
     /**
      * Parse a Java test class file and extract all test method information
@@ -75,34 +75,77 @@ public class TestClassParser {
      * @throws IOException if file cannot be read
      */
     public static ParseResult parseTestClassWithHelpers(Path filePath) throws IOException {
-        File file = filePath.toFile();
-        if (!file.exists() || !file.canRead()) {
-            throw new IOException("Cannot read file: " + filePath);
+        return parseTestClassWithHelpers(filePath, readContent(filePath));
+    }
+
+    /**
+     * Parse already loaded file content with the shared static parser.
+     *
+     * @param filePath Path the content was read from
+     * @param fileContent complete content of the file
+     * @return ParseResult object containing both test class info and helper classes
+     * @throws IOException if the content cannot be parsed
+     */
+    public static ParseResult parseTestClassWithHelpers(Path filePath, String fileContent) throws IOException {
+        JavaParser parser;
+        Path repositoryRoot;
+        synchronized (PARSER_LOCK) {
+            parser = getJavaParser();
+            repositoryRoot = activeRepositoryRoot;
         }
+        return parseTestClassWithHelpers(filePath, fileContent, parser, repositoryRoot);
+    }
 
-        // Read the entire file content for storing later
-        String fileContent = Files.readString(filePath, StandardCharsets.UTF_8);
+    /**
+     * Parse a Java test class file with a caller-owned parser instead of the shared static one.
+     * Used by parallel scans where every worker thread holds its own parser (see {@link #createParser}).
+     *
+     * @param filePath Path to the Java test class file
+     * @param parser parser to use; must not be shared with other threads while parsing
+     * @param repositoryRoot repository root used to relativize file paths (can be null)
+     * @return ParseResult object containing both test class info and helper classes
+     * @throws IOException if file cannot be read
+     */
+    public static ParseResult parseTestClassWithHelpers(Path filePath, JavaParser parser, Path repositoryRoot) throws IOException {
+        return parseTestClassWithHelpers(filePath, readContent(filePath), parser, repositoryRoot);
+    }
 
-        try (FileInputStream fis = new FileInputStream(file)) {
-            JavaParser parser = getJavaParser();
-            CompilationUnit cu = parser.parse(fis).getResult().orElse(null);
-            if (cu == null) {
-                throw new IOException("Failed to parse Java file: " + filePath);
-            }
-            
-            TestClassVisitor visitor = new TestClassVisitor(filePath, fileContent);
-            cu.accept(visitor, null);
-            
-            // Check if we found multiple public classes (invalid Java)
-            if (visitor.hasMultiplePublicClasses()) {
-                System.err.println("⚠️  WARNING: File contains multiple public classes: " + filePath);
-                System.err.println("   Public classes found: " + visitor.getPublicClassNames());
-                System.err.println("   This is invalid Java and will be skipped.");
-                return new ParseResult(new TestClassInfo(), new ArrayList<>());
-            }
-            
-            return new ParseResult(visitor.getTestClassInfo(), visitor.getHelperClasses());
+    /**
+     * Parse already loaded file content with a caller-owned parser, so the file is read only once.
+     *
+     * @param filePath Path the content was read from; used for file paths in the result
+     * @param fileContent complete content of the file
+     * @param parser parser to use; must not be shared with other threads while parsing
+     * @param repositoryRoot repository root used to relativize file paths (can be null)
+     * @return ParseResult object containing both test class info and helper classes
+     * @throws IOException if the content cannot be parsed
+     */
+    public static ParseResult parseTestClassWithHelpers(Path filePath, String fileContent, JavaParser parser, Path repositoryRoot) throws IOException {
+        CompilationUnit cu = parser.parse(fileContent).getResult().orElse(null);
+        if (cu == null) {
+            throw new IOException("Failed to parse Java file: " + filePath);
         }
+        
+        boolean resolveTypes = parser.getParserConfiguration().getSymbolResolver().isPresent();
+        TestClassVisitor visitor = new TestClassVisitor(filePath, new SourceBuffer(fileContent), repositoryRoot, resolveTypes);
+        cu.accept(visitor, null);
+        
+        // Check if we found multiple public classes (invalid Java)
+        if (visitor.hasMultiplePublicClasses()) {
+            System.err.println("⚠️  WARNING: File contains multiple public classes: " + filePath);
+            System.err.println("   Public classes found: " + visitor.getPublicClassNames());
+            System.err.println("   This is invalid Java and will be skipped.");
+            return new ParseResult(new TestClassInfo(), new ArrayList<>());
+        }
+        
+        return new ParseResult(visitor.getTestClassInfo(), visitor.getHelperClasses());
+    }
+
+    private static String readContent(Path filePath) throws IOException {
+        if (!Files.isReadable(filePath)) {
+            throw new IOException("Cannot read file: " + filePath);
+        }
+        return Files.readString(filePath, StandardCharsets.UTF_8);
     }
     
     /**
@@ -129,36 +172,100 @@ public class TestClassParser {
      * @throws IOException if dependency jars cannot be read
      */
     public static void configureSymbolResolver(Path repositoryRoot, Path dependenciesDir) throws IOException {
+        configureSharedParser(repositoryRoot, dependenciesDir, ParseProfile.FULL);
+    }
+
+    /**
+     * Configure the shared JavaParser for the current repository with the given parse profile.
+     * FAST installs no symbol solver, so dependency jars are not loaded either.
+     *
+     * @param repositoryRoot root directory of the repository being scanned (can be null)
+     * @param dependenciesDir directory containing dependency jars (can be null)
+     * @param profile parse profile
+     * @throws IOException if dependency jars cannot be read
+     */
+    public static void configureSharedParser(Path repositoryRoot, Path dependenciesDir, ParseProfile profile) throws IOException {
+        if (profile == ParseProfile.FAST) {
+            synchronized (PARSER_LOCK) {
+                sharedParser = new JavaParser(fastConfiguration());
+                activeRepositoryRoot = repositoryRoot == null ? null : repositoryRoot.toAbsolutePath().normalize();
+            }
+            return;
+        }
         Path normalizedRepoRoot = repositoryRoot == null ? null : repositoryRoot.toAbsolutePath().normalize();
-        Path normalizedDepsDir = dependenciesDir == null ? null : dependenciesDir.toAbsolutePath().normalize();
+        DependencyTypeIndex dependencyIndex = DependencyTypeIndex.forDirectory(dependenciesDir);
 
         synchronized (PARSER_LOCK) {
             boolean repoChanged = !Objects.equals(activeRepositoryRoot, normalizedRepoRoot);
-            boolean depsChanged = !Objects.equals(cachedDependenciesDir, normalizedDepsDir);
+            boolean depsChanged = activeDependencyIndex != dependencyIndex;
 
-            if (depsChanged) {
-                cachedJarTypeSolvers = loadJarTypeSolvers(normalizedDepsDir);
-                cachedDependenciesDir = normalizedDepsDir;
+            boolean resolverMissing = sharedParser == null
+                    || sharedParser.getParserConfiguration().getSymbolResolver().isEmpty();
+            if (resolverMissing || repoChanged || depsChanged) {
+                sharedParser = buildParser(normalizedRepoRoot, dependencyIndex);
+                activeRepositoryRoot = normalizedRepoRoot;
+                activeDependencyIndex = dependencyIndex;
             }
+        }
+    }
+
+    /**
+     * Create an independent JavaParser with its own symbol solver for the given repository.
+     * Unlike {@link #configureSymbolResolver}, nothing is shared with other callers, so each
+     * parallel parse worker can own one without taking {@code PARSER_LOCK}.
+     *
+     * @param repositoryRoot root directory of the repository being scanned (can be null)
+     * @param dependenciesDir directory containing dependency jars (can be null)
+     * @return a parser configured with symbol resolution for the repository
+     * @throws IOException if dependency jars cannot be read
+     */
+    public static JavaParser createParser(Path repositoryRoot, Path dependenciesDir) throws IOException {
+        return createParser(repositoryRoot, dependenciesDir, ParseProfile.FULL);
+    }
 
-            if (sharedParser == null || repoChanged || depsChanged) {
-                CombinedTypeSolver combinedTypeSolver = new CombinedTypeSolver();
-                combinedTypeSolver.add(new ReflectionTypeSolver());
+    /**
+     * Create an independent JavaParser for the given parse profile.
+     *
+     * @param repositoryRoot root directory of the repository being scanned (can be null)
+     * @param dependenciesDir directory containing dependency jars (can be null)
+     * @param profile parse profile; FAST returns a parser without symbol resolution
+     * @return a parser configured for the profile
+     * @throws IOException if dependency jars cannot be read
+     */
+    public static JavaParser createParser(Path repositoryRoot, Path dependenciesDir, ParseProfile profile) throws IOException {
+        if (profile == ParseProfile.FAST) {
+            return new JavaParser(fastConfiguration());
+        }
+        Path normalizedRepoRoot = repositoryRoot == null ? null : repositoryRoot.toAbsolutePath().normalize();
+        return buildParser(normalizedRepoRoot, DependencyTypeIndex.forDirectory(dependenciesDir));
+    }
 
-                registerSourceDirectory(normalizedRepoRoot, combinedTypeSolver, "src/main/java");
-                registerSourceDirectory(normalizedRepoRoot, combinedTypeSolver, "src/test/java");
+    private static JavaParser buildParser(Path repositoryRoot, DependencyTypeIndex dependencyIndex) {
+        CombinedTypeSolver combinedTypeSolver = new CombinedTypeSolver();
+        combinedTypeSolver.add(new ReflectionTypeSolver());
 
-                for (JarTypeSolver typeSolver : cachedJarTypeSolvers) {
-                    combinedTypeSolver.add(typeSolver);
-                }
+        registerSourceDirectory(repositoryRoot, combinedTypeSolver, "src/main/java");
+        registerSourceDirectory(repositoryRoot, combinedTypeSolver, "src/test/java");
 
-                JavaSymbolSolver symbolSolver = new JavaSymbolSolver(combinedTypeSolver);
-                JavaParser parser = new JavaParser();
-                parser.getParserConfiguration().setSymbolResolver(symbolSolver);
-                sharedParser = parser;
-                activeRepositoryRoot = normalizedRepoRoot;
-            }
+        if (dependencyIndex != null) {
+            // Shared, already indexed jars: no per-repository jar scan
+            combinedTypeSolver.add(dependencyIndex.newTypeSolver());
         }
+
+        JavaSymbolSolver symbolSolver = new JavaSymbolSolver(combinedTypeSolver);
+        JavaParser parser = new JavaParser();
+        parser.getParserConfiguration().setSymbolResolver(symbolSolver);
+        return parser;
+    }
+
+    /**
+     * Parser configuration for the FAST profile: no comment attribution, no lexical preservation, no symbol solver.
+     * Tokens stay stored because JavaParser derives node ranges (and so line numbers) from them.
+     */
+    private static ParserConfiguration fastConfiguration() {
+        return new ParserConfiguration()
+                .setAttributeComments(false)
+                .setLexicalPreservationEnabled(false);
     }
 
     private static void registerSourceDirectory(Path repositoryRoot, CombinedTypeSolver combinedTypeSolver, String relativePath) {
@@ -175,28 +282,6 @@ public class TestClassParser {
         }
     }
 
-    private static List<JarTypeSolver> loadJarTypeSolvers(Path depsDir) throws IOException {
-        if (depsDir == null || !Files.isDirectory(depsDir)) {
-            return Collections.emptyList();
-        }
-
-        List<JarTypeSolver> solvers = new ArrayList<>();
-        try (Stream<Path> pathStream = Files.walk(depsDir)) {
-            pathStream
-                .filter(path -> Files.isRegularFile(path) && path.toString().toLowerCase().endsWith(".jar"))
-                .forEach(path -> {
-                    try {
-                        solvers.add(new JarTypeSolver(path.toFile()));
-                    } catch (IOException e) {
-                        System.err.println("Failed to load dependency jar " + path + ": " + e.getMessage());
-                    }
-                });
-        }
-
-        System.out.println("Loaded " + solvers.size() + " dependency jars from " + depsDir);
-        return solvers;
-    }
-
     private static JavaParser getJavaParser() {
         synchronized (PARSER_LOCK) {
             if (sharedParser == null) {
@@ -215,9 +300,7 @@ public class TestClassParser {
             return false;
         }
         
-        // Check if class name ends with "Test" or "Tests" or starts with "Test"
-        String className = classDecl.getNameAsString();
-        if (className.endsWith("Test") || className.toLowerCase().endsWith("Tests") || className.startsWith("Test")){
+        if (isTestClassName(classDecl.getNameAsString())) {
             return true;
         }
         
@@ -234,6 +317,21 @@ public class TestClassParser {
         return false;
     }
     
+    /**
+     * Check if a class name marks a test class by naming convention
+     */
+    static boolean isTestClassName(String className) {
+        // Check if class name ends with "Test" or "Tests" or starts with "Test"
+        return className.endsWith("Test") || className.toLowerCase().endsWith("Tests") || className.startsWith("Test");
+    }
+
+    /**
+     * Simple names of the annotations the test case ID extractors handle
+     */
+    public static Set<String> getTestCaseIdAnnotationNames() {
+        return testCaseIdRegistry.getAnnotationNames();
+    }
+    
     /**
      * Normalize file path to be relative to repository root and use forward slashes.
      * This ensures OS-independent path format in the database.
@@ -242,7 +340,7 @@ public class TestClassParser {
      * @param repositoryRoot The repository root path
      * @return Normalized relative path with forward slashes (e.g., "src/test/java/Test.java")
      */
-    private static String normalizeFilePath(Path filePath, Path repositoryRoot) {
+    static String normalizeFilePath(Path filePath, Path repositoryRoot) {
         if (repositoryRoot == null || filePath == null) {
             // Fallback: return path as-is, but normalize separators
             return filePath != null ? filePath.toString().replace('\\', '/') : "";
@@ -267,7 +365,10 @@ public class TestClassParser {
      */
     private static class TestClassVisitor extends VoidVisitorAdapter<Void> {
         private final Path filePath;
-        private final String fileContent;
+        private final SourceBuffer source;
+        private final Path repositoryRoot;
+        // False for parsers without a symbol solver (FAST profile): every resolve() call would just throw
+        private final boolean resolveTypes;
         private TestClassInfo testClassInfo;
         private String packageName = "";
         private List<String> publicClassNames = new ArrayList<>();
@@ -277,9 +378,11 @@ public class TestClassParser {
         private final List<String> importedTypes = new ArrayList<>();
         private final Set<String> referencedTypes = new HashSet<>();
 
-        public TestClassVisitor(Path filePath, String fileContent) {
+        public TestClassVisitor(Path filePath, SourceBuffer source, Path repositoryRoot, boolean resolveTypes) {
             this.filePath = filePath;
-            this.fileContent = fileContent;
+            this.source = source;
+            this.resolveTypes = resolveTypes;
+            this.repositoryRoot = repositoryRoot;
             this.testClassInfo = new TestClassInfo();
         }
         
@@ -302,9 +405,11 @@ public class TestClassParser {
         
         @Override
         public void visit(ClassOrInterfaceDeclaration classDecl, Void arg) {
-            recordResolvedTypes(classDecl.getExtendedTypes());
-            recordResolvedTypes(classDecl.getImplementedTypes());
-            classDecl.getAnnotations().forEach(this::recordResolvedAnnotation);
+            if (resolveTypes) {
+                recordResolvedTypes(classDecl.getExtendedTypes());
+                recordResolvedTypes(classDecl.getImplementedTypes());
+                classDecl.getAnnotations().forEach(this::recordResolvedAnnotation);
+            }
 
             // Debug: Log all classes found
             String className = classDecl.getNameAsString();
@@ -331,15 +436,12 @@ public class TestClassParser {
                     testClassInfo.setClassName(classDecl.getNameAsString());
                     testClassInfo.setPackageName(packageName);
                     // Normalize file path to be relative to repository root with forward slashes (OS-independent)
-                    testClassInfo.setFilePath(normalizeFilePath(filePath, activeRepositoryRoot));
+                    testClassInfo.setFilePath(normalizeFilePath(filePath, repositoryRoot));
                     testClassInfo.setClassLineNumber(classLineNumber);
                     // Store the entire file content
-                    testClassInfo.setTestClassContent(fileContent);
+                    testClassInfo.setTestClassContent(source.getContent());
                     // Calculate class LOC from file content
-                    if (fileContent != null) {
-                        long lineCount = fileContent.lines().count();
-                        testClassInfo.setClassLoc((int) lineCount);
-                    }
+                    testClassInfo.setClassLoc(source.getLogicalLineCount());
 
                     
                     super.visit(classDecl, arg);
@@ -356,10 +458,10 @@ public class TestClassParser {
                     helperClass.setClassName(className);
                     helperClass.setPackageName(packageName);
                     // Normalize file path to be relative to repository root with forward slashes (OS-independent)
-                    helperClass.setFilePath(normalizeFilePath(filePath, activeRepositoryRoot));
+                    helperClass.setFilePath(normalizeFilePath(filePath, repositoryRoot));
                     helperClass.setClassLineNumber(classLineNumber);
                     // Store full file content for each helper class in the file
-                    helperClass.setHelperClassContent(fileContent);
+                    helperClass.setHelperClassContent(source.getContent());
                     
                     // Calculate LOC for this specific class (class body only)
                     int startLine = classDecl.getBegin().map(p -> p.line).orElse(0);
@@ -381,12 +483,14 @@ public class TestClassParser {
         
         @Override
         public void visit(MethodDeclaration methodDecl, Void arg) {
-            recordResolvedType(methodDecl.getType());
-            for (Parameter parameter : methodDecl.getParameters()) {
-                recordResolvedType(parameter.getType());
+            if (resolveTypes) {
+                recordResolvedType(methodDecl.getType());
+                for (Parameter parameter : methodDecl.getParameters()) {
+                    recordResolvedType(parameter.getType());
+                }
+                methodDecl.getThrownExceptions().forEach(this::recordResolvedType);
+                methodDecl.getAnnotations().forEach(this::recordResolvedAnnotation);
             }
-            methodDecl.getThrownExceptions().forEach(this::recordResolvedType);
-            methodDecl.getAnnotations().forEach(this::recordResolvedAnnotation);
 
             // Only process test methods
             if (isTestMethod(methodDecl)) {
@@ -404,27 +508,10 @@ public class TestClassParser {
                 methodLoc = endLine - startLine + 1; // +1 because both start and end are inclusive
                 testMethodInfo.setMethodLoc(methodLoc);
                 
-                // Extract method body content from file content
-                if (fileContent != null && startLine > 0 && endLine >= startLine) {
-                    try {
-                        String[] lines = fileContent.split("\n", -1); // -1 to preserve trailing empty lines
-                        if (lines.length >= endLine) {
-                            // Extract lines from startLine-1 to endLine-1 (0-indexed)
-                            StringBuilder methodBody = new StringBuilder();
-                            for (int i = startLine - 1; i < endLine && i < lines.length; i++) {
-                                if (i > startLine - 1) {
-                                    methodBody.append("\n");
-                                }
-                                methodBody.append(lines[i]);
-                            }
-                            testMethodInfo.setMethodBodyContent(methodBody.toString());
-                        }
-                    } catch (Exception e) {
-                        // If extraction fails, leave method body empty
-                        System.err.println("Warning: Failed to extract method body for " + 
-                            testMethodInfo.getMethodName() + ": " + e.getMessage());
-                        testMethodInfo.setMethodBodyContent("");
-                    }
+                // Extract method body content as a slice of the file (line offsets are indexed once per file)
+                String methodBody = source.getLines(startLine, endLine);
+                if (methodBody != null) {
+                    testMethodInfo.setMethodBodyContent(methodBody);
                 }
                 
                 List<AnnotationExpr> annotations = methodDecl.getAnnotations();
@@ -450,33 +537,43 @@ public class TestClassParser {
 
         @Override
         public void visit(ClassOrInterfaceType type, Void arg) {
-            recordResolvedType(type);
+            if (resolveTypes) {
+                recordResolvedType(type);
+            }
             super.visit(type, arg);
         }
 
         @Override
         public void visit(ObjectCreationExpr expr, Void arg) {
-            recordResolvedType(expr.getType());
+            if (resolveTypes) {
+                recordResolvedType(expr.getType());
+            }
             super.visit(expr, arg);
         }
 
         @Override
         public void visit(FieldDeclaration field, Void arg) {
-            recordResolvedType(field.getElementType());
-            field.getAnnotations().forEach(this::recordResolvedAnnotation);
+            if (resolveTypes) {
+                recordResolvedType(field.getElementType());
+                field.getAnnotations().forEach(this::recordResolvedAnnotation);
+            }
             super.visit(field, arg);
         }
 
         @Override
         public void visit(VariableDeclarationExpr variableDecl, Void arg) {
-            recordResolvedType(variableDecl.getElementType());
-            variableDecl.getAnnotations().forEach(this::recordResolvedAnnotation);
+            if (resolveTypes) {
+                recordResolvedType(variableDecl.getElementType());
+                variableDecl.getAnnotations().forEach(this::recordResolvedAnnotation);
+            }
             super.visit(variableDecl, arg);
         }
 
         @Override
         public void visit(MethodCallExpr methodCall, Void arg) {
-            recordResolvedMethod(methodCall);
+            if (resolveTypes) {
+                recordResolvedMethod(methodCall);
+            }
             super.visit(methodCall, arg);
         }
 
@@ -16,7 +16,8 @@ public class TestCollectionSummary {
     private int totalTestMethods;
     private int totalAnnotatedTestMethods;
     private long scanTimestamp;
-
+    // Team codes of repositories counted without being kept, see recordRepository
+    private final Set<String> recordedTeamCodes = new HashSet<>();
 
     public TestCollectionSummary() {
         this.scanDirectory = "";
@@ -46,6 +47,18 @@ public class TestCollectionSummary {
         this.totalAnnotatedTestMethods += repository.getTotalAnnotatedTestMethods();
     }
 
+    /**
+     * Count a repository that was already persisted on its own into the totals without keeping it,
+     * so the summary of a streaming scan does not hold the parsed classes of the whole hub.
+     */
+    public void recordRepository(RepositoryTestInfo repository) {
+        this.totalRepositories++;
+        this.totalTestClasses += repository.getTotalTestClasses();
+        this.totalTestMethods += repository.getTotalTestMethods();
+        this.totalAnnotatedTestMethods += repository.getTotalAnnotatedTestMethods();
+        this.recordedTeamCodes.add(repository.getTeamCode());
+    }
+
     // Getters and Setters
     public String getScanDirectory() {
         return scanDirectory;
@@ -61,6 +74,7 @@ public class TestCollectionSummary {
 
     public void setRepositories(List<RepositoryTestInfo> repositories) {
         this.repositories = repositories;
+        this.recordedTeamCodes.clear();
         this.totalRepositories = repositories.size();
         this.totalTestClasses = 0;
         this.totalTestMethods = 0;
@@ -97,7 +111,7 @@ public class TestCollectionSummary {
     }
 
     public Set<String> getTeamCodes() {
-        Set<String> teamCodes = new HashSet<>();
+        Set<String> teamCodes = new HashSet<>(recordedTeamCodes);
         for (RepositoryTestInfo repository : repositories) {
             teamCodes.add(repository.getTeamCode());
         }
@@ -0,0 +1,502 @@
+package com.example.annotationextractor.casemodel;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Byte-level pre-scan of a source file that decides whether it needs a full AST parse.
+ *
+ * The scan skips comments, string, text block and char literals and only looks at what
+ * TestClassParser would act on: test annotations, JUnit imports, test case ID annotations
+ * and the top-level class declarations. Files without any test marker never yield test
+ * methods, so their helper classes are taken from the top-level declarations directly and
+ * the parser is not started. Whenever the scan is unsure (nested types it cannot place,
+ * unbalanced braces, unterminated literals) the file is sent to the full parse.
+ */
+public class TestFilePreFilter {
+
+    /**
+     * What to do with a file.
+     */
+    public enum Decision {
+        /** Parse the file with JavaParser. */
+        FULL_PARSE,
+        /** No test markers: take helper classes from the lexical scan. */
+        HELPER_ONLY,
+        /** Nothing the parser would extract: no top-level class, or several public ones. */
+        SKIP
+    }
+
+    /**
+     * Top-level type declaration found by the scan. Lines are 1-based and inclusive,
+     * starting at the first annotation or modifier like JavaParser's node range.
+     */
+    public record Declaration(String name, boolean isPublic, boolean classOrInterface, int beginLine, int endLine) {}
+
+    /**
+     * Outcome of the scan of one file.
+     */
+    public record Result(Decision decision, String packageName, List<Declaration> declarations) {}
+
+    private final Set<String> testCaseIdAnnotations;
+
+    /**
+     * @param testCaseIdAnnotations simple names of annotations that carry test case IDs
+     */
+    public TestFilePreFilter(Set<String> testCaseIdAnnotations) {
+        this.testCaseIdAnnotations = testCaseIdAnnotations != null ? testCaseIdAnnotations : Collections.emptySet();
+    }
+
+    /**
+     * Pre-filter matching the extractors registered with TestClassParser.
+     */
+    public static TestFilePreFilter forRegisteredExtractors() {
+        return new TestFilePreFilter(TestClassParser.getTestCaseIdAnnotationNames());
+    }
+
+    /**
+     * Scan UTF-8 encoded file content.
+     */
+    public Result scan(byte[] content) {
+        Scanner scanner = new Scanner(content);
+        if (!scanner.run()) {
+            return new Result(Decision.FULL_PARSE, scanner.packageName, scanner.declarations);
+        }
+        return new Result(decide(scanner), scanner.packageName, scanner.declarations);
+    }
+
+    private Decision decide(Scanner scanner) {
+        if (scanner.hasTestMarker || scanner.hasNestedTypeInOtherDeclaration) {
+            return Decision.FULL_PARSE;
+        }
+        int classes = 0;
+        int publicClasses = 0;
+        boolean testNamed = false;
+        for (Declaration declaration : scanner.declarations) {
+            if (!declaration.classOrInterface()) {
+                continue;
+            }
+            classes++;
+            if (declaration.isPublic()) {
+                publicClasses++;
+                testNamed |= TestClassParser.isTestClassName(declaration.name());
+            }
+        }
+        if (publicClasses > 1) {
+            return Decision.SKIP;
+        }
+        if (testNamed) {
+            return Decision.FULL_PARSE;
+        }
+        return classes == 0 ? Decision.SKIP : Decision.HELPER_ONLY;
+    }
+
+    /**
+     * Build the parse result of a HELPER_ONLY file: the same helper entries TestClassParser
+     * creates for top-level classes that are not test classes.
+     *
+     * @param result scan result with decision HELPER_ONLY
+     * @param filePath file the content was read from
+     * @param content complete content of the file
+     * @param repositoryRoot repository root used to relativize file paths (can be null)
+     */
+    public static ParseResult toHelperResult(Result result, Path filePath, String content, Path repositoryRoot) {
+        List<TestHelperClassInfo> helpers = new ArrayList<>();
+        String filePathValue = TestClassParser.normalizeFilePath(filePath, repositoryRoot);
+        for (Declaration declaration : result.declarations()) {
+            if (!declaration.classOrInterface()) {
+                continue;
+            }
+            TestHelperClassInfo helper = new TestHelperClassInfo();
+            helper.setClassName(declaration.name());
+            helper.setPackageName(result.packageName());
+            helper.setFilePath(filePathValue);
+            helper.setClassLineNumber(declaration.beginLine());
+            helper.setHelperClassContent(content);
+            helper.setLoc(Math.max(0, declaration.endLine() - declaration.beginLine() + 1));
+            helpers.add(helper);
+        }
+        return new ParseResult(new TestClassInfo(), helpers);
+    }
+
+    /**
+     * Number of files per decision, shared by the parse workers of a scan.
+     */
+    public static class Counts {
+        private final AtomicLong fullParse = new AtomicLong();
+        private final AtomicLong helperOnly = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+
+        public void record(Decision decision) {
+            switch (decision) {
+                case FULL_PARSE -> fullParse.incrementAndGet();
+                case HELPER_ONLY -> helperOnly.incrementAndGet();
+                case SKIP -> skipped.incrementAndGet();
+            }
+        }
+
+        public long getFullParse() {
+            return fullParse.get();
+        }
+
+        public long getHelperOnly() {
+            return helperOnly.get();
+        }
+
+        public long getSkipped() {
+            return skipped.get();
+        }
+
+        @Override
+        public String toString() {
+            return "full parse=" + fullParse.get() + ", helper only=" + helperOnly.get() + ", skipped=" + skipped.get();
+        }
+    }
+
+    /**
+     * Single pass over the bytes. Returns false from {@link #run()} when the structure
+     * could not be followed, so the caller falls back to a full parse.
+     */
+    private final class Scanner {
+        private final byte[] b;
+        private int pos;
+        private int line = 1;
+
+        private int depth;
+        private int parenDepth;
+        private boolean atStatementStart = true;
+        private boolean previousWasDot;
+
+        // Current top-level statement
+        private String statementKeyword;
+        private StringBuilder qualifiedName;
+        private int declarationLine;
+        private boolean declarationPublic;
+        private Boolean declarationClassOrInterface;
+        private boolean expectName;
+        private String declarationName;
+        // Top-level declaration whose body is open
+        private String openName;
+        private boolean openPublic;
+        private boolean openClassOrInterface;
+        private int openLine;
+
+        String packageName = "";
+        final List<Declaration> declarations = new ArrayList<>();
+        boolean hasTestMarker;
+        boolean hasNestedTypeInOtherDeclaration;
+
+        Scanner(byte[] b) {
+            this.b = b;
+            // UTF-8 byte order mark
+            if (b.length >= 3 && (b[0] & 0xFF) == 0xEF && (b[1] & 0xFF) == 0xBB && (b[2] & 0xFF) == 0xBF) {
+                pos = 3;
+            }
+        }
+
+        boolean run() {
+            while (pos < b.length) {
+                int c = b[pos] & 0xFF;
+                if (c == '\n') {
+                    line++;
+                    pos++;
+                } else if (c == '\r') {
+                    line++;
+                    pos++;
+                    if (pos < b.length && b[pos] == '\n') {
+                        pos++;
+                    }
+                } else if (c == ' ' || c == '\t' || c == '\f') {
+                    pos++;
+                } else if (c == '/' && peek(1) == '/') {
+                    while (pos < b.length && b[pos] != '\n' && b[pos] != '\r') {
+                        pos++;
+                    }
+                } else if (c == '/' && peek(1) == '*') {
+                    if (!skipBlockComment()) {
+                        return false;
+                    }
+                } else if (c == '"') {
+                    startToken();
+                    if (!(peek(1) == '"' && peek(2) == '"' ? skipTextBlock() : skipQuoted('"'))) {
+                        return false;
+                    }
+                    previousWasDot = false;
+                } else if (c == '\'') {
+                    startToken();
+                    if (!skipQuoted('\'')) {
+                        return false;
+                    }
+                    previousWasDot = false;
+                } else if (c >= '0' && c <= '9') {
+                    startToken();
+                    while (pos < b.length && (isIdentifierPart(b[pos] & 0xFF) || b[pos] == '.')) {
+                        pos++;
+                    }
+                    previousWasDot = false;
+                } else if (isIdentifierStart(c)) {
+                    startToken();
+                    identifier(readIdentifier());
+                } else if (c == '@') {
+                    startToken();
+                    pos++;
+                    if (!annotation()) {
+                        return false;
+                    }
+                } else {
+                    startToken();
+                    pos++;
+                    if (!punctuation(c)) {
+                        return false;
+                    }
+                }
+            }
+            return depth == 0 && parenDepth == 0 && openName == null;
+        }
+
+        private void startToken() {
+            if (depth == 0 && atStatementStart) {
+                atStatementStart = false;
+                declarationLine = line;
+                statementKeyword = null;
+                qualifiedName = null;
+                declarationPublic = false;
+                declarationClassOrInterface = null;
+                expectName = false;
+                declarationName = null;
+            }
+        }
+
+        private void identifier(String word) {
+            boolean afterDot = previousWasDot;
+            previousWasDot = false;
+            if (depth > 0) {
+                if (!openClassOrInterface && !afterDot && (word.equals("class") || word.equals("interface"))) {
+                    hasNestedTypeInOtherDeclaration = true;
+                }
+                return;
+            }
+            if (parenDepth > 0) {
+                return;
+            }
+            if (statementKeyword == null) {
+                statementKeyword = word;
+                if (word.equals("package") || word.equals("import")) {
+                    qualifiedName = new StringBuilder();
+                    return;
+                }
+            }
+            if (qualifiedName != null) {
+                if (!(statementKeyword.equals("import") && qualifiedName.length() == 0 && word.equals("static"))) {
+                    qualifiedName.append(word);
+                }
+                return;
+            }
+            if (expectName) {
+                declarationName = word;
+                expectName = false;
+            } else if (declarationClassOrInterface == null) {
+                if (word.equals("public")) {
+                    declarationPublic = true;
+                } else if (word.equals("class") || word.equals("interface")) {
+                    declarationClassOrInterface = true;
+                    expectName = true;
+                } else if (word.equals("enum") || word.equals("record")) {
+                    declarationClassOrInterface = false;
+                    expectName = true;
+                }
+            }
+        }
+
+        private boolean annotation() {
+            while (pos < b.length && (b[pos] == ' ' || b[pos] == '\t')) {
+                pos++;
+            }
+            if (pos >= b.length || !isIdentifierStart(b[pos] & 0xFF)) {
+                return false;
+            }
+            String name = readIdentifier();
+            if (name.equals("interface")) {
+                // Annotation type declaration
+                if (depth == 0 && parenDepth == 0 && declarationClassOrInterface == null) {
+                    declarationClassOrInterface = false;
+                    expectName = true;
+                } else if (depth > 0 && !openClassOrInterface) {
+                    hasNestedTypeInOtherDeclaration = true;
+                }
+                previousWasDot = false;
+                return true;
+            }
+            while (pos + 1 < b.length && b[pos] == '.' && isIdentifierStart(b[pos + 1] & 0xFF)) {
+                pos++;
+                name = readIdentifier();
+            }
+            if (name.equals("Test") || name.equals("TestCase") || testCaseIdAnnotations.contains(name)) {
+                hasTestMarker = true;
+            }
+            previousWasDot = false;
+            return true;
+        }
+
+        private boolean punctuation(int c) {
+            previousWasDot = c == '.';
+            if (depth > 0) {
+                if (c == '{') {
+                    depth++;
+                } else if (c == '}') {
+                    depth--;
+                    if (depth == 0) {
+                        declarations.add(new Declaration(openName, openPublic, openClassOrInterface, openLine, line));
+                        openName = null;
+                        atStatementStart = true;
+                    }
+                }
+                return true;
+            }
+            switch (c) {
+                case '(' -> parenDepth++;
+                case ')' -> {
+                    if (--parenDepth < 0) {
+                        return false;
+                    }
+                }
+                case '.' -> {
+                    if (qualifiedName != null) {
+                        qualifiedName.append('.');
+                    }
+                }
+                case '*' -> {
+                    if (qualifiedName != null) {
+                        qualifiedName.append('*');
+                    }
+                }
+                case ';' -> {
+                    if (parenDepth == 0) {
+                        endStatement();
+                    }
+                }
+                case '{' -> {
+                    if (parenDepth > 0) {
+                        // Array value of an annotation argument
+                        return true;
+                    }
+                    if (declarationClassOrInterface == null || declarationName == null) {
+                        return false;
+                    }
+                    openName = declarationName;
+                    openPublic = declarationPublic;
+                    openClassOrInterface = declarationClassOrInterface;
+                    openLine = declarationLine;
+                    depth = 1;
+                }
+                case '}' -> {
+                    if (parenDepth == 0) {
+                        return false;
+                    }
+                }
+                default -> {
+                }
+            }
+            return true;
+        }
+
+        private void endStatement() {
+            if (qualifiedName != null) {
+                String name = qualifiedName.toString();
+                if (statementKeyword.equals("package")) {
+                    packageName = name;
+                } else if (name.startsWith("org.junit") || name.startsWith("junit.")) {
+                    hasTestMarker = true;
+                }
+            }
+            atStatementStart = true;
+        }
+
+        private String readIdentifier() {
+            int start = pos;
+            while (pos < b.length && isIdentifierPart(b[pos] & 0xFF)) {
+                pos++;
+            }
+            return new String(b, start, pos - start, StandardCharsets.UTF_8);
+        }
+
+        private boolean skipBlockComment() {
+            pos += 2;
+            while (pos < b.length) {
+                if (b[pos] == '*' && peek(1) == '/') {
+                    pos += 2;
+                    return true;
+                }
+                newlineAt();
+            }
+            return false;
+        }
+
+        private boolean skipTextBlock() {
+            pos += 3;
+            while (pos < b.length) {
+                if (b[pos] == '\\') {
+                    pos++;
+                    if (pos < b.length) {
+                        newlineAt();
+                    }
+                } else if (b[pos] == '"' && peek(1) == '"' && peek(2) == '"') {
+                    pos += 3;
+                    return true;
+                } else {
+                    newlineAt();
+                }
+            }
+            return false;
+        }
+
+        private boolean skipQuoted(char quote) {
+            pos++;
+            while (pos < b.length) {
+                byte c = b[pos];
+                if (c == '\\') {
+                    pos += 2;
+                } else if (c == quote) {
+                    pos++;
+                    return true;
+                } else if (c == '\n' || c == '\r') {
+                    return false;
+                } else {
+                    pos++;
+                }
+            }
+            return false;
+        }
+
+        // Advance past the byte at pos, counting it if it ends a line
+        private void newlineAt() {
+            byte c = b[pos++];
+            if (c == '\n') {
+                line++;
+            } else if (c == '\r') {
+                line++;
+                if (pos < b.length && b[pos] == '\n') {
+                    pos++;
+                }
+            }
+        }
+
+        private int peek(int offset) {
+            int index = pos + offset;
+            return index < b.length ? b[index] & 0xFF : -1;
+        }
+
+        private boolean isIdentifierStart(int c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == '$' || c >= 0x80;
+        }
+
+        private boolean isIdentifierPart(int c) {
+            return isIdentifierStart(c) || (c >= '0' && c <= '9');
+        }
+    }
+}
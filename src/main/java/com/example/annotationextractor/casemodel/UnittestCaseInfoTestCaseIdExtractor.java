@@ -23,6 +23,11 @@ public class UnittestCaseInfoTestCaseIdExtractor implements TestCaseIdExtractor
     private static final String TEST_CASE_IDS_FIELD = "testCaseIds";
     private static final String TAGS_FIELD = "tags";
     
+    @Override
+    public String getAnnotationName() {
+        return ANNOTATION_NAME;
+    }
+
     @Override
     public boolean supports(AnnotationExpr annotation) {
         if (annotation == null) {
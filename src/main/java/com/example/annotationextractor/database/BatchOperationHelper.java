@@ -7,14 +7,17 @@ import java.sql.Savepoint;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 
 /**
  * Helper class for vendor-neutral batch operations with duplicate handling.
  * 
  * Best Practices:
- * 1. Uses "try batch, fallback to individual" pattern to handle duplicates gracefully
+ * 1. Uses "try batch, bisect on failure" pattern to handle duplicates gracefully
  * 2. Vendor-neutral approach that works across PostgreSQL, MySQL, SQLite, etc.
  * 3. Provides error tolerance for batch operations
  * 
@@ -26,6 +29,11 @@ import java.util.function.BiConsumer;
  */
 public class BatchOperationHelper {
 
+    // Process-wide counters, reported on the scan status endpoint
+    private static final AtomicLong batchesAttempted = new AtomicLong();
+    private static final AtomicLong batchesBisected = new AtomicLong();
+    private static final AtomicLong rowsRejected = new AtomicLong();
+
     /**
      * Database vendor types
      */
@@ -67,11 +75,11 @@ public class BatchOperationHelper {
     }
 
     /**
-     * Execute batch operation with automatic fallback to individual operations on failure.
+     * Execute batch operation with automatic bisection of failed batches.
      * 
      * This is the recommended vendor-neutral approach that:
      * 1. Tries to execute as a batch for performance
-     * 2. If batch fails (e.g., due to duplicates), falls back to individual operations
+     * 2. If batch fails (e.g., due to duplicates), retries its halves until the failing rows are isolated
      * 3. Continues processing even if some items fail
      * 
      * @param conn Database connection
@@ -112,7 +120,7 @@ public class BatchOperationHelper {
     }
 
     /**
-     * Try to execute as batch, fallback to individual if batch fails.
+     * Try to execute as batch; if the batch fails, bisect it to isolate the failing rows.
      * Uses savepoints for PostgreSQL to prevent transaction abort from cascading.
      */
     private static <T> List<T> executeBatchOrFallback(
@@ -123,57 +131,22 @@ public class BatchOperationHelper {
         
         DatabaseVendor vendor = detectDatabaseVendor(conn);
         boolean useSavepoint = (vendor == DatabaseVendor.POSTGRESQL);
-        Savepoint savepoint = null;
+        batchesAttempted.incrementAndGet();
         
         try {
-            // Create savepoint for PostgreSQL to isolate batch operations
-            if (useSavepoint) {
-                savepoint = conn.setSavepoint("batch_operation");
-            }
-            
-            // Try batch operation first
-            try {
-                executeBatch(conn, items, parameterSetter, sql);
-                // Success - release savepoint if used
-                if (useSavepoint && savepoint != null) {
-                    try {
-                        conn.releaseSavepoint(savepoint);
-                    } catch (SQLException releaseEx) {
-                        // Ignore release errors - savepoint will be released on commit/rollback
-                    }
-                }
+            SQLException batchException = tryBatch(conn, items, parameterSetter, sql, useSavepoint);
+            if (batchException == null) {
                 return new ArrayList<>(); // Success - no failures
-            } catch (SQLException batchException) {
-                // Check if it's a duplicate/key constraint error
-                if (isDuplicateKeyError(batchException)) {
-                    // Rollback to savepoint to recover from transaction abort
-                    if (useSavepoint && savepoint != null) {
-                        try {
-                            conn.rollback(savepoint);
-                            // Note: After rollback, savepoint is automatically released - don't release again
-                        } catch (SQLException rollbackEx) {
-                            // If rollback fails, check if transaction is aborted
-                            if (isTransactionAbortedError(rollbackEx)) {
-                                // Transaction is in bad state - need to throw
-                                throw new SQLException("Transaction aborted and cannot recover. Please rollback the transaction.", rollbackEx);
-                            }
-                            // Otherwise, try to continue - savepoint rollback might have worked
-                        }
-                    }
-                    // Fallback to individual operations with error tolerance
-                    return executeIndividuallyWithTolerance(conn, items, parameterSetter, sql);
-                } else {
-                    // Non-duplicate error - rollback savepoint if used, then rethrow
-                    if (useSavepoint && savepoint != null) {
-                        try {
-                            conn.rollback(savepoint);
-                        } catch (SQLException rollbackEx) {
-                            // Log but continue - we're about to throw anyway
-                        }
-                    }
-                    throw batchException;
-                }
             }
+            if (!isDuplicateKeyError(batchException)) {
+                // Non-duplicate error on the whole batch - rethrow
+                throw batchException;
+            }
+            // Bisect: only the halves containing failing rows are split further
+            List<T> failedItems = new ArrayList<>();
+            bisect(conn, items, parameterSetter, sql, useSavepoint, failedItems);
+            rowsRejected.addAndGet(failedItems.size());
+            return failedItems;
         } catch (SQLException e) {
             // Check if transaction is aborted (PostgreSQL specific)
             if (isTransactionAbortedError(e)) {
@@ -183,6 +156,83 @@ public class BatchOperationHelper {
         }
     }
 
+    /**
+     * Split a failed batch in halves and retry each, recursing into halves that fail again.
+     * k bad rows in n are isolated with O(k log n) statements instead of n single-row statements.
+     * Like the former row-by-row fallback, any error of a single row only rejects that row.
+     *
+     * The items are known to fail, so nothing is executed twice: a single row is rejected without
+     * running it again, and when the first half succeeds the second half is split without running it.
+     */
+    private static <T> void bisect(
+            Connection conn,
+            List<T> items,
+            BiConsumer<PreparedStatement, T> parameterSetter,
+            String sql,
+            boolean useSavepoint,
+            List<T> failedItems) throws SQLException {
+
+        if (items.size() == 1) {
+            failedItems.add(items.get(0));
+            return;
+        }
+        batchesBisected.incrementAndGet();
+        int middle = items.size() / 2;
+        List<T> first = items.subList(0, middle);
+        List<T> second = items.subList(middle, items.size());
+        if (tryBatch(conn, first, parameterSetter, sql, useSavepoint) == null) {
+            // The failure is in the second half
+            bisect(conn, second, parameterSetter, sql, useSavepoint, failedItems);
+            return;
+        }
+        bisect(conn, first, parameterSetter, sql, useSavepoint, failedItems);
+        if (tryBatch(conn, second, parameterSetter, sql, useSavepoint) != null) {
+            bisect(conn, second, parameterSetter, sql, useSavepoint, failedItems);
+        }
+    }
+
+    /**
+     * Execute items as one batch inside a savepoint if used.
+     *
+     * @return null on success, otherwise the failure after the savepoint was rolled back
+     */
+    private static <T> SQLException tryBatch(
+            Connection conn,
+            List<T> items,
+            BiConsumer<PreparedStatement, T> parameterSetter,
+            String sql,
+            boolean useSavepoint) throws SQLException {
+
+        Savepoint savepoint = useSavepoint ? conn.setSavepoint("batch_operation") : null;
+        try {
+            executeBatch(conn, items, parameterSetter, sql);
+        } catch (SQLException batchException) {
+            if (savepoint != null) {
+                try {
+                    conn.rollback(savepoint);
+                    // Note: After rollback, savepoint is automatically released - don't release again
+                } catch (SQLException rollbackEx) {
+                    if (isTransactionAbortedError(rollbackEx)) {
+                        // Transaction is in bad state - need to throw
+                        throw new SQLException("Transaction aborted and cannot recover. Please rollback the transaction.", rollbackEx);
+                    }
+                    // Otherwise, try to continue - savepoint rollback might have worked
+                }
+            } else if (isTransactionAbortedError(batchException)) {
+                throw new SQLException("Transaction aborted during batch operation. All operations failed.", batchException);
+            }
+            return batchException;
+        }
+        if (savepoint != null) {
+            try {
+                conn.releaseSavepoint(savepoint);
+            } catch (SQLException releaseEx) {
+                // Ignore release errors - savepoint will be released on commit/rollback
+            }
+        }
+        return null;
+    }
+
     /**
      * Execute batch operation
      */
@@ -210,45 +260,6 @@ public class BatchOperationHelper {
         }
     }
 
-    /**
-     * Execute items individually, collecting failures.
-     * Handles transaction aborted errors for PostgreSQL.
-     */
-    private static <T> List<T> executeIndividuallyWithTolerance(
-            Connection conn,
-            List<T> items,
-            BiConsumer<PreparedStatement, T> parameterSetter,
-            String sql) throws SQLException {
-        
-        List<T> failedItems = new ArrayList<>();
-        
-        for (T item : items) {
-            try {
-                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                    parameterSetter.accept(stmt, item);
-                    stmt.executeUpdate();
-                }
-            } catch (SQLException e) {
-                // Check for transaction aborted error
-                if (isTransactionAbortedError(e)) {
-                    // Transaction is aborted - cannot continue
-                    throw new SQLException("Transaction aborted during individual operation. All operations failed.", e);
-                }
-                
-                // Log individual failure but continue processing
-                if (isDuplicateKeyError(e)) {
-                    // Duplicate - expected in some cases, can be ignored or logged
-                    failedItems.add(item);
-                } else {
-                    // Unexpected error - might want to rethrow or log differently
-                    failedItems.add(item);
-                }
-            }
-        }
-        
-        return failedItems;
-    }
-    
     /**
      * Check if SQLException indicates a transaction aborted error.
      * PostgreSQL: SQLState "25P02" = in_failed_sql_transaction
@@ -327,6 +338,35 @@ public class BatchOperationHelper {
         return false;
     }
 
+    /**
+     * Batches executed through executeBatchWithFallback, not counting retries of their halves
+     */
+    public static long getBatchesAttempted() {
+        return batchesAttempted.get();
+    }
+
+    /**
+     * Failed batches or halves that were split in two
+     */
+    public static long getBatchesBisected() {
+        return batchesBisected.get();
+    }
+
+    /**
+     * Rows returned as failed items after bisection isolated them
+     */
+    public static long getRowsRejected() {
+        return rowsRejected.get();
+    }
+
+    public static Map<String, Long> getMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("batchesAttempted", getBatchesAttempted());
+        metrics.put("batchesBisected", getBatchesBisected());
+        metrics.put("rowsRejected", getRowsRejected());
+        return metrics;
+    }
+
     /**
      * Build UPSERT SQL statement based on database vendor.
      * This allows using native UPSERT for better performance while remaining vendor-aware.
@@ -390,6 +430,19 @@ public class BatchOperationHelper {
         }
     }
 
+    /**
+     * Build the row list of a multi-row VALUES clause, e.g. "(?, ?), (?, ?)" for 2 columns and 2 rows.
+     */
+    public static String buildValuesRows(int columnCount, int rowCount) {
+        String row = "(" + buildPlaceholders(columnCount) + ")";
+        StringBuilder sb = new StringBuilder(rowCount * (row.length() + 2));
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(row);
+        }
+        return sb.toString();
+    }
+
     private static String buildPlaceholders(int count) {
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < count; i++) {
@@ -0,0 +1,154 @@
+package com.example.annotationextractor.database;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Helper for streaming rows into PostgreSQL through the COPY protocol.
+ *
+ * Rows are encoded as CSV and sent in chunks while they are written, so large text columns are
+ * neither bound one parameter at a time nor buffered for the whole load. Callers COPY into a
+ * staging table and merge from there with a single INSERT ... SELECT per target table.
+ *
+ * Usage:
+ *   if (CopyOperationHelper.isCopySupported(conn)) {
+ *       CopyOperationHelper.copyIn(conn, "COPY staging (a, b) FROM STDIN WITH (FORMAT csv)", items,
+ *           (row, item) -> row.addText(item.getA()).addNumber(item.getB()));
+ *   }
+ */
+public class CopyOperationHelper {
+
+    // Flush encoded rows to the server in chunks of about this many characters
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+
+    /**
+     * Writes the columns of one item into a COPY row, in the order of the COPY column list.
+     */
+    @FunctionalInterface
+    public interface RowWriter<T> {
+        void write(CopyRow row, T item) throws SQLException;
+    }
+
+    private static boolean isCopyEnabled() {
+        return Boolean.parseBoolean(System.getProperty("persistence.copy", "true"));
+    }
+
+    /**
+     * COPY is used on PostgreSQL connections inside a transaction, so staging tables created with
+     * ON COMMIT DELETE ROWS keep their rows until the merge. Everything else, including H2, uses
+     * JDBC batches; -Dpersistence.copy=false forces JDBC batches on PostgreSQL as well.
+     */
+    public static boolean isCopySupported(Connection conn) throws SQLException {
+        if (!isCopyEnabled() || conn.getAutoCommit()) {
+            return false;
+        }
+        if (BatchOperationHelper.detectDatabaseVendor(conn) != BatchOperationHelper.DatabaseVendor.POSTGRESQL) {
+            return false;
+        }
+        return conn.isWrapperFor(PGConnection.class);
+    }
+
+    /**
+     * Stream items into a COPY ... FROM STDIN WITH (FORMAT csv) statement.
+     *
+     * @return number of rows the server loaded
+     */
+    public static <T> long copyIn(Connection conn, String copySql, List<T> items, RowWriter<T> rowWriter) throws SQLException {
+        CopyIn copyIn = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(copySql);
+        try {
+            CopyRow row = new CopyRow();
+            for (T item : items) {
+                rowWriter.write(row, item);
+                row.endRow();
+                if (row.length() >= FLUSH_THRESHOLD) {
+                    write(copyIn, row);
+                }
+            }
+            write(copyIn, row);
+            return copyIn.endCopy();
+        } catch (SQLException | RuntimeException e) {
+            if (copyIn.isActive()) {
+                try {
+                    copyIn.cancelCopy();
+                } catch (SQLException cancelEx) {
+                    // The original failure is more useful to the caller
+                }
+            }
+            throw e;
+        }
+    }
+
+    private static void write(CopyIn copyIn, CopyRow row) throws SQLException {
+        if (row.length() == 0) {
+            return;
+        }
+        byte[] bytes = row.drain().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+    }
+
+    /**
+     * CSV encoder for COPY rows: text is always quoted so an empty string stays distinct from
+     * NULL, which is written as an unquoted empty field.
+     */
+    public static final class CopyRow {
+        private final StringBuilder buffer = new StringBuilder();
+        private boolean rowStart = true;
+
+        public CopyRow addText(String value) {
+            separate();
+            if (value != null) {
+                buffer.append('"');
+                for (int i = 0; i < value.length(); i++) {
+                    char c = value.charAt(i);
+                    if (c == '"') {
+                        buffer.append('"');
+                    }
+                    buffer.append(c);
+                }
+                buffer.append('"');
+            }
+            return this;
+        }
+
+        public CopyRow addNumber(Number value) {
+            separate();
+            if (value != null) {
+                buffer.append(value);
+            }
+            return this;
+        }
+
+        public CopyRow addBoolean(boolean value) {
+            separate();
+            buffer.append(value ? 't' : 'f');
+            return this;
+        }
+
+        void endRow() {
+            buffer.append('\n');
+            rowStart = true;
+        }
+
+        int length() {
+            return buffer.length();
+        }
+
+        String drain() {
+            String rows = buffer.toString();
+            buffer.setLength(0);
+            return rows;
+        }
+
+        private void separate() {
+            if (!rowStart) {
+                buffer.append(',');
+            }
+            rowStart = false;
+        }
+    }
+}
@@ -56,6 +56,26 @@ public class DataPersistenceService {
         PerformanceMonitor.endOperation("Database Persistence");
         return id;
     }
+
+    /**
+     * Whether scans are mirrored to the shadow database, which needs the full scan summary in memory
+     */
+    public static boolean isShadowWriteEnabled() {
+        return isHexWriteShadow();
+    }
+
+    /**
+     * Mirror a scan whose repositories were persisted one by one to the shadow database, if enabled
+     */
+    public static void persistShadowIfEnabled(TestCollectionSummary summary, long scanDurationMs) {
+        if (isHexWriteShadow()) {
+            try {
+                getWriteFacade().persistScanSessionShadow(summary, scanDurationMs);
+            } catch (Exception e) {
+                System.err.println("[SHADOW] Shadow write failed: " + e.getMessage());
+            }
+        }
+    }
     
 
 
@@ -133,6 +133,22 @@ public class DatabaseConfig {
         System.out.println("  Username: " + username);
     }
 
+    /**
+     * Initialize the database connection pool for a JDBC URL, e.g. an embedded database in tests
+     */
+    public static void initialize(String jdbcUrl, String username, String password) {
+        if (isInitialized()) {
+            return;
+        }
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(getIntProperty("db.pool.maxSize", 10));
+        config.setMinimumIdle(1);
+        dataSource = new HikariDataSource(config);
+    }
+
     /**
      * Initialize a separate shadow database pool if configured.
      * Uses shadow.db.* properties; falls back to primary db if not set.
@@ -18,6 +18,29 @@ public class ScanConfig {
     private final List<ScanRepositoryEntry> repositories;
     private final String organization;
     private final String scanBranch;
+    private final int parseWorkerCount;
+    private final int fetchWorkerCount;
+    private final int repositoryParseConcurrency;
+    private final int pipelineQueueCapacity;
+    private final boolean incrementalScanEnabled;
+    private final int parseCacheMaxMb;
+    private final String parseProfile;
+    private final boolean deferredTypeResolution;
+    private final int enrichmentWorkerCount;
+    private final boolean preFilterEnabled;
+    private final String testRootPatterns;
+    private final String cloneMode;
+    private final int cloneDepth;
+    private final int gitMaxConnectionsPerHost;
+    private final int gitTimeoutSeconds;
+    private final int gitMaxRetries;
+    private final int gitRetryBackoffMs;
+    private final boolean sharedObjectStoreEnabled;
+    private final String objectStoreGroups;
+    private final int hubDiskBudgetMb;
+    private final boolean remoteChangeDetectionEnabled;
+    private final int scanTimeBudgetMinutes;
+    private final int repositoryScanWorkers;
 
     public ScanConfig(
             String repositoryHubPath,
@@ -29,7 +52,30 @@ public class ScanConfig {
             String repositoryConfigContent,
             List<ScanRepositoryEntry> repositories,
             String organization,
-            String scanBranch) {
+            String scanBranch,
+            int parseWorkerCount,
+            int fetchWorkerCount,
+            int repositoryParseConcurrency,
+            int pipelineQueueCapacity,
+            boolean incrementalScanEnabled,
+            int parseCacheMaxMb,
+            String parseProfile,
+            boolean deferredTypeResolution,
+            int enrichmentWorkerCount,
+            boolean preFilterEnabled,
+            String testRootPatterns,
+            String cloneMode,
+            int cloneDepth,
+            int gitMaxConnectionsPerHost,
+            int gitTimeoutSeconds,
+            int gitMaxRetries,
+            int gitRetryBackoffMs,
+            boolean sharedObjectStoreEnabled,
+            String objectStoreGroups,
+            int hubDiskBudgetMb,
+            boolean remoteChangeDetectionEnabled,
+            int scanTimeBudgetMinutes,
+            int repositoryScanWorkers) {
         this.repositoryHubPath = Objects.requireNonNull(repositoryHubPath, "repositoryHubPath");
         this.tempCloneMode = tempCloneMode;
         this.maxRepositoriesPerScan = maxRepositoriesPerScan;
@@ -40,6 +86,29 @@ public class ScanConfig {
         this.repositories = repositories == null ? List.of() : List.copyOf(repositories);
         this.organization = organization == null ? "" : organization;
         this.scanBranch = (scanBranch == null || scanBranch.isBlank()) ? "main" : scanBranch;
+        this.parseWorkerCount = Math.max(1, parseWorkerCount);
+        this.fetchWorkerCount = Math.max(1, fetchWorkerCount);
+        this.repositoryParseConcurrency = Math.max(1, repositoryParseConcurrency);
+        this.pipelineQueueCapacity = Math.max(1, pipelineQueueCapacity);
+        this.incrementalScanEnabled = incrementalScanEnabled;
+        this.parseCacheMaxMb = Math.max(0, parseCacheMaxMb);
+        this.parseProfile = (parseProfile == null || parseProfile.isBlank()) ? "FULL" : parseProfile;
+        this.deferredTypeResolution = deferredTypeResolution;
+        this.enrichmentWorkerCount = Math.max(1, enrichmentWorkerCount);
+        this.preFilterEnabled = preFilterEnabled;
+        this.testRootPatterns = (testRootPatterns == null || testRootPatterns.isBlank()) ? "src/test/java" : testRootPatterns;
+        this.cloneMode = (cloneMode == null || cloneMode.isBlank()) ? "FULL" : cloneMode;
+        this.cloneDepth = Math.max(0, cloneDepth);
+        this.gitMaxConnectionsPerHost = Math.max(1, gitMaxConnectionsPerHost);
+        this.gitTimeoutSeconds = Math.max(1, gitTimeoutSeconds);
+        this.gitMaxRetries = Math.max(0, gitMaxRetries);
+        this.gitRetryBackoffMs = Math.max(0, gitRetryBackoffMs);
+        this.sharedObjectStoreEnabled = sharedObjectStoreEnabled;
+        this.objectStoreGroups = (objectStoreGroups == null || objectStoreGroups.isBlank()) ? "" : objectStoreGroups;
+        this.hubDiskBudgetMb = Math.max(0, hubDiskBudgetMb);
+        this.remoteChangeDetectionEnabled = remoteChangeDetectionEnabled;
+        this.scanTimeBudgetMinutes = Math.max(0, scanTimeBudgetMinutes);
+        this.repositoryScanWorkers = Math.max(1, repositoryScanWorkers);
     }
 
     public String getRepositoryHubPath() {
@@ -88,5 +157,166 @@ public class ScanConfig {
     public String getScanBranch() {
         return scanBranch;
     }
-}
 
+    /**
+     * Number of worker threads parsing the test files of a single repository. 1 means serial parsing.
+     */
+    public int getParseWorkerCount() {
+        return parseWorkerCount;
+    }
+
+    /**
+     * Number of repositories cloned or updated concurrently by the scan pipeline.
+     */
+    public int getFetchWorkerCount() {
+        return fetchWorkerCount;
+    }
+
+    /**
+     * Number of repositories parsed concurrently by the scan pipeline.
+     */
+    public int getRepositoryParseConcurrency() {
+        return repositoryParseConcurrency;
+    }
+
+    /**
+     * Maximum number of repositories waiting between two scan pipeline stages.
+     */
+    public int getPipelineQueueCapacity() {
+        return pipelineQueueCapacity;
+    }
+
+    /**
+     * Whether repositories with a recorded last scanned commit only re-parse test files changed since that commit.
+     */
+    public boolean isIncrementalScanEnabled() {
+        return incrementalScanEnabled;
+    }
+
+    /**
+     * Disk budget of the parse result cache in megabytes; 0 disables the cache.
+     */
+    public int getParseCacheMaxMb() {
+        return parseCacheMaxMb;
+    }
+
+    /**
+     * Parse profile: FAST skips comments and symbol resolution, FULL also collects referenced types.
+     */
+    public String getParseProfile() {
+        return parseProfile;
+    }
+
+    /**
+     * Whether scans publish structural results first and resolve referenced types in the background
+     */
+    public boolean isDeferredTypeResolution() {
+        return deferredTypeResolution;
+    }
+
+    /**
+     * Number of background threads resolving deferred referenced types
+     */
+    public int getEnrichmentWorkerCount() {
+        return enrichmentWorkerCount;
+    }
+
+    /**
+     * Scan each file lexically first and only parse files with test markers
+     */
+    public boolean isPreFilterEnabled() {
+        return preFilterEnabled;
+    }
+
+    /**
+     * Comma separated test source directories collected in each repository
+     */
+    public String getTestRootPatterns() {
+        return testRootPatterns;
+    }
+
+    /**
+     * How repositories are cloned: FULL, PARTIAL (blob-filtered, shallow, sparse test roots)
+     * or BARE (mirror scanned from the object database)
+     */
+    public String getCloneMode() {
+        return cloneMode;
+    }
+
+    /**
+     * History depth of PARTIAL clones; 0 fetches full history
+     */
+    public int getCloneDepth() {
+        return cloneDepth;
+    }
+
+    /**
+     * Maximum concurrent clone/fetch connections per git host
+     */
+    public int getGitMaxConnectionsPerHost() {
+        return gitMaxConnectionsPerHost;
+    }
+
+    /**
+     * Time limit of a single git command attempt in seconds
+     */
+    public int getGitTimeoutSeconds() {
+        return gitTimeoutSeconds;
+    }
+
+    /**
+     * Retries of a failed clone or fetch
+     */
+    public int getGitMaxRetries() {
+        return gitMaxRetries;
+    }
+
+    /**
+     * Wait before the first git retry in milliseconds, doubled per retry
+     */
+    public int getGitRetryBackoffMs() {
+        return gitRetryBackoffMs;
+    }
+
+    /**
+     * Borrow objects of forks and related repositories from a shared object store
+     */
+    public boolean isSharedObjectStoreEnabled() {
+        return sharedObjectStoreEnabled;
+    }
+
+    /**
+     * Declared object store groups, one 'group: url, url' line per group
+     */
+    public String getObjectStoreGroups() {
+        return objectStoreGroups;
+    }
+
+    /**
+     * Disk budget of the repository hub in MB; least recently scanned clones are evicted above it, 0 keeps everything
+     */
+    public int getHubDiskBudgetMb() {
+        return hubDiskBudgetMb;
+    }
+
+    /**
+     * Whether remote heads are compared with the last scanned commits before fetching
+     */
+    public boolean isRemoteChangeDetectionEnabled() {
+        return remoteChangeDetectionEnabled;
+    }
+
+    /**
+     * Time window a scan is planned to fit in, in minutes; 0 plans by repository count only
+     */
+    public int getScanTimeBudgetMinutes() {
+        return scanTimeBudgetMinutes;
+    }
+
+    /**
+     * Workers running repository-level scans, separate from the fetch and parse workers of full scans
+     */
+    public int getRepositoryScanWorkers() {
+        return repositoryScanWorkers;
+    }
+}
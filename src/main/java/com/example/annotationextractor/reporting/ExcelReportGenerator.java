@@ -471,7 +471,7 @@ public class ExcelReportGenerator {
                     JOIN teams t ON r.team_id = t.id
                     WHERE tm.has_annotation = true 
                     AND t.team_code = ?
-                    AND ss.id = (SELECT MAX(id) FROM scan_sessions)
+                    AND ss.id = (SELECT MAX(id) FROM scan_sessions WHERE scan_status = 'COMPLETED')
                     ORDER BY t.team_name, r.repository_name, tc.class_name, tm.method_name
                     """,
                     ResultSet.TYPE_SCROLL_INSENSITIVE,
@@ -892,7 +892,7 @@ public class ExcelReportGenerator {
                  JOIN test_classes tc ON r.id = tc.repository_id
                  JOIN test_methods tm ON tc.id = tm.test_class_id
                  JOIN scan_sessions ss ON tm.scan_session_id = ss.id
-                 WHERE ss.id = (SELECT MAX(id) FROM scan_sessions)
+                 WHERE ss.id = (SELECT MAX(id) FROM scan_sessions WHERE scan_status = 'COMPLETED')
                  AND t.team_code = ANY(?)
                  GROUP BY t.id, t.team_name, t.team_code
                  ORDER BY coverage_rate DESC, t.team_name
@@ -1,8 +1,13 @@
 package com.example.annotationextractor.runner;
 
 import com.example.annotationextractor.application.PersistScanResultsUseCase;
+import com.example.annotationextractor.application.RepositoryScanHistoryStore;
+import com.example.annotationextractor.application.RepositoryScanStateReader;
 
+import com.example.annotationextractor.casemodel.ParseProfile;
+import com.example.annotationextractor.casemodel.ParseResultCache;
 import com.example.annotationextractor.casemodel.TestCollectionSummary;
+import com.example.annotationextractor.casemodel.TestFilePreFilter;
 import com.example.annotationextractor.database.DataPersistenceService;
 import com.example.annotationextractor.database.DatabaseConfig;
 import com.example.annotationextractor.domain.model.ScanRepositoryEntry;
@@ -26,11 +31,126 @@ import java.util.Set;
  */
 public class RepositoryHubScanner {
 
+    // Interrupted scans older than this start over instead of mixing in data of a previous night
+    private static final long RESUME_WINDOW_MS = 24L * 60 * 60 * 1000;
+
+    /**
+     * Checked right before a repository-level scan merges its results into the session.
+     */
+    @FunctionalInterface
+    public interface MergeGuard {
+        /**
+         * @return false to discard the results instead of merging them
+         */
+        boolean mayMerge() throws SQLException;
+    }
+
     private final RepositoryScanner repositoryScanner;
+    private Set<String> resumedTeamCodes = Set.of();
+    private MergeGuard mergeGuard = () -> true;
 
     public RepositoryHubScanner(GitRepositoryManager gitManager, List<ScanRepositoryEntry> repositoryEntries,
             int maxRepositoriesPerScan) throws IOException {
-        this.repositoryScanner = new RepositoryScanner(gitManager, repositoryEntries, maxRepositoriesPerScan);
+        this(gitManager, repositoryEntries, maxRepositoriesPerScan, 1);
+    }
+
+    public RepositoryHubScanner(GitRepositoryManager gitManager, List<ScanRepositoryEntry> repositoryEntries,
+            int maxRepositoriesPerScan, int parseWorkerCount) throws IOException {
+        this(gitManager, repositoryEntries, maxRepositoriesPerScan, parseWorkerCount,
+                new RepositoryScanPipeline(1, 1, 1, 1));
+    }
+
+    public RepositoryHubScanner(GitRepositoryManager gitManager, List<ScanRepositoryEntry> repositoryEntries,
+            int maxRepositoriesPerScan, int parseWorkerCount, RepositoryScanPipeline pipeline) throws IOException {
+        this(gitManager, repositoryEntries, maxRepositoriesPerScan, parseWorkerCount, pipeline, null);
+    }
+
+    /**
+     * @param dependenciesDir directory containing dependency jars for symbol resolution (can be null)
+     */
+    public RepositoryHubScanner(GitRepositoryManager gitManager, List<ScanRepositoryEntry> repositoryEntries,
+            int maxRepositoriesPerScan, int parseWorkerCount, RepositoryScanPipeline pipeline, Path dependenciesDir) throws IOException {
+        this.repositoryScanner = new RepositoryScanner(gitManager, repositoryEntries, maxRepositoriesPerScan, dependenciesDir,
+                parseWorkerCount, pipeline);
+        this.repositoryScanner.setScanHistoryStore(new RepositoryScanHistoryStore());
+    }
+
+    /**
+     * Plan scans to fit a time window, most valuable repositories first; 0 plans by maxRepositoriesPerScan only.
+     */
+    public void setScanTimeBudgetMinutes(int scanTimeBudgetMinutes) {
+        repositoryScanner.setScanTimeBudgetMs(scanTimeBudgetMinutes * 60_000L);
+    }
+
+    public ScanPlanner getScanPlanner() {
+        return repositoryScanner.getScanPlanner();
+    }
+
+    /**
+     * Parse only files changed since a repository's last scanned commit and carry the rest forward.
+     */
+    public void setIncrementalScanEnabled(boolean incrementalScanEnabled) {
+        repositoryScanner.setIncrementalScanStateReader(incrementalScanEnabled ? new RepositoryScanStateReader() : null);
+    }
+
+    /**
+     * Skip fetching repositories whose remote head is still the last scanned commit; needs incremental scans.
+     */
+    public void setRemoteChangeDetection(boolean remoteChangeDetection) {
+        repositoryScanner.setRemoteChangeDetection(remoteChangeDetection);
+    }
+
+    /**
+     * Guard merges of repository-level scans, e.g. by a scan job's lease.
+     */
+    public void setMergeGuard(MergeGuard mergeGuard) {
+        this.mergeGuard = mergeGuard != null ? mergeGuard : () -> true;
+    }
+
+    /**
+     * Share repository locks with other scans of the hub, so that no repository is scanned twice at once.
+     */
+    public void setRepositoryLocks(RepositoryLocks repositoryLocks) {
+        repositoryScanner.setRepositoryLocks(repositoryLocks);
+    }
+
+    /**
+     * Reuse parse results of files whose content was parsed before, in this or any other repository.
+     */
+    public void setParseCache(ParseResultCache parseCache) {
+        repositoryScanner.setParseCache(parseCache);
+    }
+
+    /**
+     * FAST collects test and annotation data only; FULL also resolves referenced types.
+     */
+    public void setParseProfile(ParseProfile parseProfile) {
+        repositoryScanner.setParseProfile(parseProfile);
+    }
+
+    /**
+     * Publish structural results with the FAST profile and leave referenced types pending for enrichment.
+     */
+    public void setDeferredTypeResolution(boolean deferredTypeResolution) {
+        repositoryScanner.setDeferredTypeResolution(deferredTypeResolution);
+    }
+
+    /**
+     * Decide per file from a lexical pre-scan whether it needs a full parse.
+     */
+    public void setPreFilterEnabled(boolean preFilterEnabled) {
+        repositoryScanner.setPreFilterEnabled(preFilterEnabled);
+    }
+
+    /**
+     * Test source directories to collect files from, e.g. src/test/java or src/integrationTest/java.
+     */
+    public void setTestRootPatterns(List<String> testRootPatterns) {
+        repositoryScanner.setTestRootPatterns(testRootPatterns);
+    }
+
+    public TestFilePreFilter.Counts getParseDecisionCounts() {
+        return repositoryScanner.getParseDecisionCounts();
     }
 
     public boolean executeFullScan(boolean tempCloneMode) {
@@ -84,25 +204,46 @@ public class RepositoryHubScanner {
     }
 
     /**
-     * Process repositories in normal mode: clone all, then scan all
+     * Process repositories in normal mode: clone all, then scan all.
+     * Each repository is committed into a RUNNING scan session as soon as it is parsed, so a scan
+     * interrupted by a crash resumes its session with the remaining repositories instead of starting over.
      */
     private boolean processRepositoriesNormally(boolean tempCloneMode) {
 
         // Scan repositories and persist data to database
         try {
             long startTime = System.currentTimeMillis();
+            PersistScanResultsUseCase persistUseCase = new PersistScanResultsUseCase();
+            long scanSessionId = startOrResumeScanSession(persistUseCase);
+            repositoryScanner.setRepositorySink(repoInfo -> persistUseCase.persistRepository(scanSessionId, repoInfo));
+            // The shadow mirror is written from the summary at the end, so it keeps every repository in memory
+            repositoryScanner.setStreaming(!DataPersistenceService.isShadowWriteEnabled());
             // Scan repositories
             TestCollectionSummary scanSummary = repositoryScanner.scanRepositories(tempCloneMode);
             long endTime = System.currentTimeMillis();
             long duration = endTime - startTime;
             System.out.println("Scan completed in " + duration + " milliseconds");
 
+            List<String> failedRepositories = repositoryScanner.getFailedPersistRepositories();
+            if (scanSummary != null && !failedRepositories.isEmpty()) {
+                // Completing would drop these repositories from the dashboard until the next scan; the
+                // previous completed session keeps serving them and the next scan resumes this one
+                repositoryScanner.completeScan(System.currentTimeMillis() - startTime);
+                System.err.println("Failed to persist " + failedRepositories.size() + " repositories, scan session "
+                        + scanSessionId + " is left RUNNING: " + failedRepositories);
+                System.out.println("Repository Hub Scan Failed!");
+                return false;
+            }
             if (scanSummary != null) {
-                long scanSessionId = storeScanResults(scanSummary, duration);
+                storeScanResults(persistUseCase, scanSessionId, scanSummary, duration);
+                repositoryScanner.completeScan(System.currentTimeMillis() - startTime);
                 System.out.println("Repository Hub Scan Completed Successfully!");
 
                 // Generate report and store its path
-                String reportPath = generateReport(scanSummary.getTeamCodes());
+                // A resumed scan only holds the repositories of this run; the report covers the whole session
+                Set<String> teamCodes = new java.util.HashSet<>(scanSummary.getTeamCodes());
+                teamCodes.addAll(resumedTeamCodes);
+                String reportPath = generateReport(teamCodes);
                 if (reportPath != null) {
                     try {
                         // Convert to absolute path
@@ -129,11 +270,29 @@ public class RepositoryHubScanner {
         return false;
     }
 
-    private long storeScanResults(TestCollectionSummary summary, long duration) throws SQLException {
-        System.out.println("\nPersisting data to database...");
-        long scanSessionId = DataPersistenceService.persistScanSession(summary, duration);
+    /**
+     * Resume the session of an interrupted scan of this hub, or start a new one.
+     */
+    private long startOrResumeScanSession(PersistScanResultsUseCase persistUseCase) throws SQLException {
+        PersistScanResultsUseCase.ScanSessionStart session =
+                persistUseCase.startOrResumeScanSession(repositoryScanner.getScanDirectory(), RESUME_WINDOW_MS);
+        resumedTeamCodes = session.checkpointedTeamCodes();
+        if (session.resumed()) {
+            repositoryScanner.setCheckpointedRepositories(session.checkpoints());
+            System.out.println("Resuming interrupted scan session " + session.id()
+                    + " (" + session.checkpoints().size() + " repositories already persisted)");
+        } else {
+            System.out.println("Started scan session " + session.id());
+        }
+        return session.id();
+    }
+
+    private void storeScanResults(PersistScanResultsUseCase persistUseCase, long scanSessionId,
+            TestCollectionSummary summary, long duration) throws SQLException {
+        System.out.println("\nCompleting scan session...");
+        persistUseCase.completeScanSession(scanSessionId, duration);
+        DataPersistenceService.persistShadowIfEnabled(summary, duration);
         System.out.println("Data persisted successfully. Scan Session ID: " + scanSessionId);
-        return scanSessionId;
     }
 
     /**
@@ -148,6 +307,16 @@ public class RepositoryHubScanner {
      */
     public boolean executeRepositoryScan(boolean tempCloneMode, Long existingScanSessionId, 
             java.util.List<Long> repositoryIds) {
+        return executeRepositoryScan(tempCloneMode, existingScanSessionId, repositoryIds, false);
+    }
+
+    /**
+     * @param mergeEmpty whether a scan that completed without finding test classes still succeeds and
+     *                   replaces the repositories' rows in the session; scan jobs of a distributed full
+     *                   scan use it, since repositories without tests are simply absent from a session
+     */
+    public boolean executeRepositoryScan(boolean tempCloneMode, Long existingScanSessionId,
+            java.util.List<Long> repositoryIds, boolean mergeEmpty) {
         try {
             System.out.println("Starting Repository-Level Scan");
             System.out.println("==============================");
@@ -174,7 +343,8 @@ public class RepositoryHubScanner {
             long duration = endTime - startTime;
             System.out.println("Scan completed in " + duration + " milliseconds");
 
-            if (scanSummary == null || scanSummary.getRepositories().isEmpty()) {
+            if (scanSummary == null || scanSummary.getRepositories().isEmpty()
+                    && !(mergeEmpty && repositoryScanner.getCompletedRepositories() > 0)) {
                 System.err.println("Repository scan failed or no repositories found");
                 return false;
             }
@@ -190,10 +360,16 @@ public class RepositoryHubScanner {
                 System.out.println("Using latest scan session ID: " + scanSessionId);
             }
 
+            if (!mergeGuard.mayMerge()) {
+                System.err.println("Repository scan results discarded, not merged into scan session: " + scanSessionId);
+                return false;
+            }
+
             // Merge results into the existing scan session
             PersistScanResultsUseCase persistUseCase = new PersistScanResultsUseCase();
             persistUseCase.mergeIntoExistingSession(scanSummary, scanSessionId, repositoryIds);
             System.out.println("Repository scan results merged into scan session: " + scanSessionId);
+            repositoryScanner.completeScan(System.currentTimeMillis() - startTime);
 
             return true;
 
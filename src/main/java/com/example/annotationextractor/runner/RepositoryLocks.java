@@ -0,0 +1,65 @@
+package com.example.annotationextractor.runner;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * One lock per repository, shared by all scans of the hub so that a repository is fetched and
+ * parsed by one scan at a time while different repositories are scanned concurrently.
+ *
+ * A scan takes the lock in its fetch stage and gives it back once the repository is parsed; the
+ * two stages run on different threads, so the locks are not owned by a thread.
+ */
+public class RepositoryLocks {
+
+    private final Map<String, Semaphore> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Wait until the repository is free and lock it.
+     */
+    public void lock(String gitUrl) throws InterruptedException {
+        semaphore(gitUrl).acquire();
+    }
+
+    /**
+     * Lock the repository if it is free.
+     *
+     * @return false if another scan holds it
+     */
+    public boolean tryLock(String gitUrl) {
+        return semaphore(gitUrl).tryAcquire();
+    }
+
+    public void unlock(String gitUrl) {
+        Semaphore semaphore = locks.get(gitUrl);
+        if (semaphore == null || semaphore.availablePermits() > 0) {
+            throw new IllegalStateException("Repository is not locked: " + gitUrl);
+        }
+        semaphore.release();
+    }
+
+    public boolean isLocked(String gitUrl) {
+        Semaphore semaphore = locks.get(gitUrl);
+        return semaphore != null && semaphore.availablePermits() == 0;
+    }
+
+    /**
+     * Repositories being fetched or parsed right now, sorted by URL.
+     */
+    public Set<String> getLockedRepositories() {
+        Set<String> locked = new TreeSet<>();
+        locks.forEach((gitUrl, semaphore) -> {
+            if (semaphore.availablePermits() == 0) {
+                locked.add(gitUrl);
+            }
+        });
+        return locked;
+    }
+
+    private Semaphore semaphore(String gitUrl) {
+        return locks.computeIfAbsent(gitUrl, key -> new Semaphore(1));
+    }
+}
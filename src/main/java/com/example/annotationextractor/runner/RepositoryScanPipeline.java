@@ -0,0 +1,191 @@
+package com.example.annotationextractor.runner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.annotationextractor.casemodel.RepositoryTestInfo;
+
+/**
+ * Staged fetch -> parse -> persist pipeline for multi-repository scans.
+ *
+ * Every stage has its own worker count and the stages are connected by bounded queues,
+ * so git work for the next repositories overlaps with parsing and persisting the previous
+ * ones, while a slow stage blocks the stage in front of it instead of buffering results.
+ * Each repository moves through the stages independently; a failure in one repository,
+ * including an Error such as a StackOverflowError on a pathological source file, is reported
+ * and does not stop the others. A worker that died would leave the stage in front of it
+ * blocked on a full queue.
+ */
+public class RepositoryScanPipeline {
+
+    /**
+     * A fetch or parse step. Returning null drops the repository from the rest of the pipeline.
+     */
+    @FunctionalInterface
+    public interface Stage {
+        RepositoryTestInfo process(RepositoryTestInfo repository) throws Exception;
+    }
+
+    /**
+     * Final step receiving every repository that made it through fetch and parse.
+     */
+    @FunctionalInterface
+    public interface Sink {
+        void accept(RepositoryTestInfo repository) throws Exception;
+    }
+
+    // Queue entry; END tells a downstream worker that its upstream stage has finished
+    private record Item(RepositoryTestInfo repository) {
+        private static final Item END = new Item(null);
+    }
+
+    private final int fetchWorkers;
+    private final int parseWorkers;
+    private final int persistWorkers;
+    private final int queueCapacity;
+
+    /**
+     * @param fetchWorkers concurrent git clone/pull workers
+     * @param parseWorkers repositories parsed concurrently
+     * @param persistWorkers repositories handed to the sink concurrently
+     * @param queueCapacity maximum number of repositories waiting between two stages
+     */
+    public RepositoryScanPipeline(int fetchWorkers, int parseWorkers, int persistWorkers, int queueCapacity) {
+        this.fetchWorkers = Math.max(1, fetchWorkers);
+        this.parseWorkers = Math.max(1, parseWorkers);
+        this.persistWorkers = Math.max(1, persistWorkers);
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    public int getFetchWorkers() {
+        return fetchWorkers;
+    }
+
+    public int getParseWorkers() {
+        return parseWorkers;
+    }
+
+    public int getPersistWorkers() {
+        return persistWorkers;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Run all repositories through the pipeline and wait until the last one has been handed to the sink.
+     *
+     * @param repositories repositories to process, fetched in list order
+     * @param fetch clone/update step
+     * @param parse parse step
+     * @param persist sink for parsed repositories
+     * @return number of repositories that reached the sink without error
+     */
+    public int run(List<RepositoryTestInfo> repositories, Stage fetch, Stage parse, Sink persist) throws InterruptedException {
+        if (repositories == null || repositories.isEmpty()) {
+            return 0;
+        }
+        BlockingQueue<Item> fetched = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Item> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger nextRepository = new AtomicInteger();
+        AtomicInteger fetchersRunning = new AtomicInteger(fetchWorkers);
+        AtomicInteger parsersRunning = new AtomicInteger(parseWorkers);
+        AtomicInteger persisted = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(fetchWorkers + parseWorkers + persistWorkers, runnable -> {
+            Thread thread = new Thread(runnable, "repository-scan-pipeline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < fetchWorkers; i++) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        int index;
+                        while ((index = nextRepository.getAndIncrement()) < repositories.size()) {
+                            RepositoryTestInfo result = runStage("fetch", fetch, repositories.get(index));
+                            if (result != null) {
+                                fetched.put(new Item(result));
+                            }
+                        }
+                    } finally {
+                        finishStage(fetchersRunning, fetched, parseWorkers);
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < parseWorkers; i++) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        Item item;
+                        while ((item = fetched.take()) != Item.END) {
+                            RepositoryTestInfo result = runStage("parse", parse, item.repository());
+                            if (result != null) {
+                                parsed.put(new Item(result));
+                            }
+                        }
+                    } finally {
+                        finishStage(parsersRunning, parsed, persistWorkers);
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < persistWorkers; i++) {
+                futures.add(executor.submit(() -> {
+                    Item item;
+                    while ((item = parsed.take()) != Item.END) {
+                        RepositoryTestInfo repository = item.repository();
+                        try {
+                            persist.accept(repository);
+                            persisted.incrementAndGet();
+                        } catch (Throwable e) {
+                            System.err.println("Error in persist stage for repository " + repository.getGitUrl() + ": " + e.getMessage());
+                            e.printStackTrace();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    System.err.println("Scan pipeline worker failed: " + e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return persisted.get();
+    }
+
+    private static RepositoryTestInfo runStage(String stageName, Stage stage, RepositoryTestInfo repository) {
+        try {
+            return stage.process(repository);
+        } catch (Throwable e) {
+            System.err.println("Error in " + stageName + " stage for repository " + repository.getGitUrl() + ": " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * The last worker of a stage to finish releases every worker of the next stage.
+     */
+    private static void finishStage(AtomicInteger running, BlockingQueue<Item> downstream, int downstreamWorkers) throws InterruptedException {
+        if (running.decrementAndGet() == 0) {
+            for (int i = 0; i < downstreamWorkers; i++) {
+                downstream.put(Item.END);
+            }
+        }
+    }
+}
@@ -1,25 +1,42 @@
 package com.example.annotationextractor.runner;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
-import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
+import com.example.annotationextractor.application.RepositoryScanHistoryStore;
+import com.example.annotationextractor.application.RepositoryScanStateReader;
+import com.example.annotationextractor.casemodel.IncrementalScanBaseline;
+import com.example.annotationextractor.casemodel.ParseProfile;
 import com.example.annotationextractor.casemodel.ParseResult;
+import com.example.annotationextractor.casemodel.ParseResultCache;
+import com.example.annotationextractor.casemodel.RepositoryScanHistory;
 import com.example.annotationextractor.casemodel.RepositoryTestInfo;
 import com.example.annotationextractor.casemodel.TestClassInfo;
 import com.example.annotationextractor.casemodel.TestClassParser;
 import com.example.annotationextractor.casemodel.TestCollectionSummary;
+import com.example.annotationextractor.casemodel.TestFilePreFilter;
 import com.example.annotationextractor.casemodel.TestHelperClassInfo;
 import com.example.annotationextractor.domain.model.ScanRepositoryEntry;
+import com.example.annotationextractor.util.CloneMode;
+import com.example.annotationextractor.util.GitChangeSet;
+import com.example.annotationextractor.util.GitObjectReader;
 import com.example.annotationextractor.util.GitRepositoryManager;
 
-import java.util.regex.Matcher;
-
 
 /**
  * Scanner class to find Java git repositories and their test directories
@@ -29,21 +46,62 @@ import java.util.regex.Matcher;
 
 public class RepositoryScanner {
 
+    /**
+     * Above this many changed files a full scan is cheaper than excluding every path from the carry-forward.
+     */
+    private static final int MAX_INCREMENTAL_CHANGED_FILES = 1000;
+
     private final Map<String, RepositoryTestInfo> repositoryInfos = new LinkedHashMap<>();
     private final TestCollectionSummary summary;
     private final GitRepositoryManager gitRepositoryManager;
     private final Path dependenciesDir;
-    private final int maxRepositoriesPerScan;
+    private final ScanPlanner scanPlanner;
+    private RepositoryScanHistoryStore historyStore;
+    // Repositories the fetch stage started on in the current scan
+    private final List<RepositoryTestInfo> attemptedRepositories = Collections.synchronizedList(new ArrayList<>());
+    private final TestFileParseExecutor parseExecutor;
+    private final RepositoryScanPipeline pipeline;
+    private RepositoryScanStateReader incrementalStateReader;
+    private Map<String, IncrementalScanBaseline> incrementalBaselines = Collections.emptyMap();
+    private boolean deferredTypeResolution;
+    private boolean remoteChangeDetection;
+    private Map<String, String> unchangedRemoteHeads = Collections.emptyMap();
+    private RepositoryLocks repositoryLocks;
+    private final Set<String> heldLocks = ConcurrentHashMap.newKeySet();
+    private int completedRepositories;
+    private final Set<String> failedPersistRepositories = ConcurrentHashMap.newKeySet();
+    private RepositoryScanPipeline.Sink repositorySink;
+    private boolean streaming;
+    private Set<String> checkpointedRepositories = Collections.emptySet();
+    private TestRootFinder testRootFinder = new TestRootFinder();
 
     public RepositoryScanner(GitRepositoryManager gitRepositoryManager, List<ScanRepositoryEntry> repositoryEntries, int maxRepositoriesPerScan) throws IOException {
         this(gitRepositoryManager, repositoryEntries, maxRepositoriesPerScan, null);
     }
 
     public RepositoryScanner(GitRepositoryManager gitRepositoryManager, List<ScanRepositoryEntry> repositoryEntries, int maxRepositoriesPerScan, Path dependenciesDir) throws IOException {
+        this(gitRepositoryManager, repositoryEntries, maxRepositoriesPerScan, dependenciesDir, 1);
+    }
+
+    /**
+     * @param parseWorkerCount number of threads parsing files of a single repository; 1 keeps the serial path
+     */
+    public RepositoryScanner(GitRepositoryManager gitRepositoryManager, List<ScanRepositoryEntry> repositoryEntries, int maxRepositoriesPerScan, Path dependenciesDir, int parseWorkerCount) throws IOException {
+        this(gitRepositoryManager, repositoryEntries, maxRepositoriesPerScan, dependenciesDir, parseWorkerCount,
+                new RepositoryScanPipeline(1, 1, 1, 1));
+    }
+
+    /**
+     * @param parseWorkerCount number of threads parsing files of a single repository; 1 keeps the serial path
+     * @param pipeline fetch/parse/persist pipeline moving repositories through the scan
+     */
+    public RepositoryScanner(GitRepositoryManager gitRepositoryManager, List<ScanRepositoryEntry> repositoryEntries, int maxRepositoriesPerScan, Path dependenciesDir, int parseWorkerCount, RepositoryScanPipeline pipeline) throws IOException {
         this.gitRepositoryManager = gitRepositoryManager;
         this.summary = new TestCollectionSummary(gitRepositoryManager.getRepositoryHubPath());
         this.dependenciesDir = dependenciesDir == null ? null : dependenciesDir.toAbsolutePath().normalize();
-        this.maxRepositoriesPerScan = maxRepositoriesPerScan;
+        this.scanPlanner = new ScanPlanner(maxRepositoriesPerScan, pipeline.getFetchWorkers(), pipeline.getParseWorkers());
+        this.pipeline = pipeline;
+        this.parseExecutor = new TestFileParseExecutor(parseWorkerCount, this.dependenciesDir);
         if (repositoryEntries != null) {
             for (ScanRepositoryEntry entry : repositoryEntries) {
                 if (!entry.isActive()) {
@@ -54,6 +112,123 @@ public class RepositoryScanner {
             }
         }
     }
+
+    /**
+     * Enable incremental scans: repositories scanned before are diffed against their last scanned commit,
+     * only changed test files are parsed and the rest is carried forward at persist time.
+     *
+     * @param incrementalStateReader source of previous scan state, or null to always scan fully
+     */
+    public void setIncrementalScanStateReader(RepositoryScanStateReader incrementalStateReader) {
+        this.incrementalStateReader = incrementalStateReader;
+    }
+
+    /**
+     * Plan scans from the repositories' history: staleness, change likelihood and past durations.
+     *
+     * @param historyStore source and sink of per-repository scan history, or null to plan in configuration order
+     */
+    public void setScanHistoryStore(RepositoryScanHistoryStore historyStore) {
+        this.historyStore = historyStore;
+    }
+
+    /**
+     * @param timeBudgetMs time window a scan is planned to fit in; 0 plans by maxRepositoriesPerScan only
+     */
+    public void setScanTimeBudgetMs(long timeBudgetMs) {
+        scanPlanner.setTimeBudgetMs(timeBudgetMs);
+    }
+
+    public ScanPlanner getScanPlanner() {
+        return scanPlanner;
+    }
+
+    /**
+     * Query the remote head of every repository with an incremental baseline before fetching; repositories
+     * still at their last scanned commit are not fetched or parsed and carry all rows forward.
+     * Needs incremental scans, see {@link #setIncrementalScanStateReader}.
+     */
+    public void setRemoteChangeDetection(boolean remoteChangeDetection) {
+        this.remoteChangeDetection = remoteChangeDetection;
+    }
+
+    /**
+     * Lock every repository while it is fetched and parsed, so that concurrent scans of the same hub
+     * never work on the same repository at once; a scan reaching a locked repository waits for it.
+     *
+     * @param repositoryLocks locks shared by all scans of the hub, or null if scans never overlap
+     */
+    public void setRepositoryLocks(RepositoryLocks repositoryLocks) {
+        this.repositoryLocks = repositoryLocks;
+    }
+
+    /**
+     * @param repositorySink called in the persist stage for every parsed repository, including those
+     *                       without test classes, before it is added to the summary; null keeps all
+     *                       persistence to the caller
+     */
+    public void setRepositorySink(RepositoryScanPipeline.Sink repositorySink) {
+        this.repositorySink = repositorySink;
+    }
+
+    /**
+     * @param streaming true to only count repositories persisted by the repository sink into the summary
+     *                  and release their parsed classes, so heap is bounded by the largest repository
+     *                  instead of the whole hub; the returned summary then carries totals and team codes only
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * @param checkpointedRepositories git URLs already persisted by an interrupted scan that is resumed;
+     *                                 they are left out of the scan
+     */
+    public void setCheckpointedRepositories(Set<String> checkpointedRepositories) {
+        this.checkpointedRepositories = checkpointedRepositories != null ? checkpointedRepositories : Collections.emptySet();
+    }
+
+    /**
+     * @param parseCache cache of parse results by file content, or null to parse every file
+     */
+    public void setParseCache(ParseResultCache parseCache) {
+        parseExecutor.setParseCache(parseCache);
+    }
+
+    public void setParseProfile(ParseProfile parseProfile) {
+        parseExecutor.setParseProfile(parseProfile);
+    }
+
+    public void setPreFilterEnabled(boolean preFilterEnabled) {
+        parseExecutor.setPreFilterEnabled(preFilterEnabled);
+    }
+
+    /**
+     * @param testRootPatterns test source directories to collect files from, e.g. src/test/java;
+     *                         null or empty keeps {@link TestRootFinder#DEFAULT_TEST_ROOTS}
+     */
+    public void setTestRootPatterns(List<String> testRootPatterns) {
+        this.testRootFinder = new TestRootFinder(testRootPatterns);
+    }
+
+    /**
+     * Files per pre-filter decision (full parse, helper only, skipped) over all scans of this scanner.
+     */
+    public TestFilePreFilter.Counts getParseDecisionCounts() {
+        return parseExecutor.getDecisionCounts();
+    }
+
+    /**
+     * Parse with the FAST profile and mark every repository's referenced types as pending,
+     * so they are resolved later by the enrichment worker instead of during the scan.
+     * Overrides the parse profile; call after {@link #setParseProfile}.
+     */
+    public void setDeferredTypeResolution(boolean deferredTypeResolution) {
+        this.deferredTypeResolution = deferredTypeResolution;
+        if (deferredTypeResolution) {
+            parseExecutor.setParseProfile(ParseProfile.FAST);
+        }
+    }
     
     /**
      * Scan a directory for Java git repositories and collect test information
@@ -77,55 +252,380 @@ public class RepositoryScanner {
      */
     public TestCollectionSummary scanRepositories(List<String> includePatterns, List<String> excludePatterns, boolean tempCloneMode) throws IOException {
         Path rootPath = gitRepositoryManager.initializeRepositoryHub();
-        int processedCount = 0;
-        for (Map.Entry<String, RepositoryTestInfo> entry : repositoryInfos.entrySet()) {
-            if (maxRepositoriesPerScan > 0 && processedCount >= maxRepositoriesPerScan) {
-                System.out.println("Reached maxRepositoriesPerScan limit (" + maxRepositoriesPerScan + "), stopping further scans.");
-                break;
+        List<Pattern> includes = compileGlobs(includePatterns);
+        List<Pattern> excludes = compileGlobs(excludePatterns);
+        List<RepositoryTestInfo> repositories = planScan(rootPath, includes, excludes);
+        System.out.println("Scan pipeline: " + pipeline.getFetchWorkers() + " fetch, " + pipeline.getParseWorkers()
+                + " parse, " + pipeline.getPersistWorkers() + " persist workers, queue capacity " + pipeline.getQueueCapacity()
+                + ", parse profile " + parseExecutor.getParseProfile());
+        System.out.println("Test roots: " + testRootFinder.getPatterns());
+        String fingerprint = getScanFingerprint();
+        loadIncrementalBaselines(fingerprint);
+        detectUnchangedRepositories(repositories, rootPath, includes, excludes);
+        for (RepositoryTestInfo repoInfo : repositories) {
+            repoInfo.setReferencedTypesPending(deferredTypeResolution);
+            repoInfo.setScanFingerprint(fingerprint);
+        }
+
+        try {
+            completedRepositories = pipeline.run(repositories,
+                    repoInfo -> fetchRepository(repoInfo, rootPath, includes, excludes, tempCloneMode),
+                    repoInfo -> parseRepository(repoInfo, tempCloneMode),
+                    repoInfo -> {
+                        if (repositorySink != null) {
+                            try {
+                                repositorySink.accept(repoInfo);
+                            } catch (Exception e) {
+                                failedPersistRepositories.add(repoInfo.getGitUrl());
+                                throw e;
+                            }
+                        }
+                        if (streaming && repositorySink != null) {
+                            if (repoInfo.getTotalTestClasses() > 0) {
+                                synchronized (summary) {
+                                    summary.recordRepository(repoInfo);
+                                }
+                            }
+                            repoInfo.releaseParsedClasses();
+                        } else if (repoInfo.getTotalTestClasses() > 0) {
+                            synchronized (summary) {
+                                summary.addRepository(repoInfo);
+                            }
+                        }
+                    });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Repository scan interrupted", e);
+        } finally {
+            // Repositories fetched but never parsed, e.g. after an interruption
+            for (String gitUrl : new ArrayList<>(heldLocks)) {
+                unlockRepository(gitUrl);
+            }
+        }
+        if (parseExecutor.getParseCache() != null) {
+            System.out.println("Parse cache: " + parseExecutor.getParseCache());
+        }
+        System.out.println("Parse decisions: " + parseExecutor.getDecisionCounts());
+
+        return summary;
+    }
+
+    /**
+     * Hub directory the scan runs in, as recorded in its scan session.
+     */
+    public String getScanDirectory() {
+        return summary.getScanDirectory();
+    }
+
+    /**
+     * Repositories the last scan fetched and parsed without error, including those without test classes.
+     */
+    public int getCompletedRepositories() {
+        return completedRepositories;
+    }
+
+    /**
+     * Repositories of the last scan the repository sink failed to persist, sorted by git URL.
+     */
+    public List<String> getFailedPersistRepositories() {
+        return failedPersistRepositories.stream().sorted().toList();
+    }
+
+    /**
+     * Choose the repositories of this scan among those passing the path filters, most valuable first.
+     */
+    private List<RepositoryTestInfo> planScan(Path rootPath, List<Pattern> includes, List<Pattern> excludes) {
+        attemptedRepositories.clear();
+        failedPersistRepositories.clear();
+        List<RepositoryTestInfo> candidates = new ArrayList<>();
+        for (RepositoryTestInfo repoInfo : repositoryInfos.values()) {
+            if (checkpointedRepositories.contains(repoInfo.getGitUrl())) {
+                continue;
+            }
+            Path filterPath = rootPath.resolve(gitRepositoryManager.getRepositoryName(repoInfo.getGitUrl()));
+            if (shouldIncludeRepository(filterPath, rootPath, includes, excludes)) {
+                candidates.add(repoInfo);
+            } else {
+                System.out.println("Skipping repository (pattern filter): " + filterPath);
             }
+        }
+        Map<String, RepositoryScanHistory> history = Collections.emptyMap();
+        if (historyStore != null) {
             try {
-                Path repoPath = gitRepositoryManager.cloneOrUpdateRepository(entry.getKey());
-                if (repoPath != null) {
-                    entry.getValue().setRepositoryPath(repoPath);
-                    entry.getValue().setRepositoryName(entry.getKey().substring(entry.getKey().lastIndexOf('/') + 1));
-                } else {
-                    System.err.println("Failed to clone or update repository " + entry.getKey());
-                    continue;
-                }
-                System.out.println(">>>> Repository path to check: " + repoPath);
-                // Check if repository path matches include/exclude patterns
-                if (shouldIncludeRepository(repoPath, rootPath, includePatterns, excludePatterns)) {
-                    RepositoryTestInfo repoInfo = scanRepository(entry.getValue());
-                    if (repoInfo.getTotalTestClasses() > 0) {
-                        summary.addRepository(repoInfo);
-                    }
-                } else {
-                    System.out.println("Skipping repository (pattern filter): " + repoPath);
-                }
-            } catch (Exception e) {
-                System.err.println("Error scanning repository " + entry.getKey() + ": " + e.getMessage());
-                // Continue with other repositories
-                e.printStackTrace();
-            } finally {
-                if (tempCloneMode) {
-                    gitRepositoryManager.deleteRepository(entry.getKey());
-                }
+                history = historyStore.loadHistory();
+            } catch (SQLException e) {
+                System.err.println("Failed to load scan history, planning in configuration order: " + e.getMessage());
             }
-            processedCount++;
         }
-        
-        return summary;
+        if (!checkpointedRepositories.isEmpty()) {
+            System.out.println("Resuming interrupted scan: " + checkpointedRepositories.size() + " repositories already persisted");
+        }
+        List<RepositoryTestInfo> planned = scanPlanner.plan(candidates, history, System.currentTimeMillis());
+        ScanPlanner.ScanPlan plan = scanPlanner.getCurrentPlan();
+        System.out.println("Scan plan: " + planned.size() + " of " + candidates.size() + " repositories, estimated "
+                + plan.getEstimatedMs() / 1000 + " s" + (plan.getBudgetMs() > 0 ? " of a " + plan.getBudgetMs() / 1000 + " s budget" : "")
+                + ", " + plan.getDeferred() + " deferred to a later scan");
+        return planned;
+    }
+
+    /**
+     * Close the plan of the finished scan and record the history of every repository it reached,
+     * once their rows are persisted.
+     *
+     * @param totalDurationMs wall time of the scan including persistence
+     */
+    public void completeScan(long totalDurationMs) {
+        ScanPlanner.ScanPlan plan = scanPlanner.getCurrentPlan();
+        List<RepositoryTestInfo> attempted;
+        synchronized (attemptedRepositories) {
+            attempted = new ArrayList<>(attemptedRepositories);
+        }
+        if (plan != null) {
+            for (RepositoryTestInfo repoInfo : attempted) {
+                plan.recordActual(repoInfo.getGitUrl(), actualDurationMs(repoInfo));
+            }
+            plan.complete(totalDurationMs);
+            System.out.println("Scan took " + totalDurationMs / 1000 + " s, estimated " + plan.getEstimatedMs() / 1000 + " s");
+        }
+        if (historyStore != null) {
+            try {
+                historyStore.recordScans(attempted);
+            } catch (SQLException e) {
+                System.err.println("Failed to record scan history: " + e.getMessage());
+            }
+        }
+    }
+
+    private static long actualDurationMs(RepositoryTestInfo repoInfo) {
+        return (repoInfo.getCloneMode() != null ? repoInfo.getFetchDurationMs() : 0L)
+                + Math.max(0L, repoInfo.getParseDurationMs())
+                + Math.max(0L, repoInfo.getPersistDurationMs());
     }
 
+    /**
+     * Fingerprint of what the scan extracts: extractor version, parse profile and test root patterns.
+     * Rows collected with another fingerprint are not carried forward.
+     */
+    public String getScanFingerprint() {
+        return scanFingerprint(TestClassParser.EXTRACTOR_VERSION, parseExecutor.getParseProfile(),
+                testRootFinder.getPatterns());
+    }
 
+    /**
+     * Fingerprint of the given extraction settings; the order of the test root patterns does not matter.
+     */
+    public static String scanFingerprint(int extractorVersion, ParseProfile parseProfile, List<String> testRootPatterns) {
+        List<String> roots = new ArrayList<>(testRootPatterns);
+        Collections.sort(roots);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(("v" + extractorVersion + "\0" + parseProfile.name() + "\0"
+                    + String.join("\n", roots)).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void loadIncrementalBaselines(String fingerprint) {
+        incrementalBaselines = Collections.emptyMap();
+        if (incrementalStateReader == null) {
+            return;
+        }
+        try {
+            incrementalBaselines = incrementalStateReader.loadBaselines(fingerprint);
+            System.out.println("Incremental scan: " + incrementalBaselines.size() + " repositories have a previous scan baseline");
+        } catch (SQLException e) {
+            System.err.println("Failed to load incremental scan baselines, scanning all repositories fully: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compare the remote heads of previously scanned repositories with their last scanned commit,
+     * before anything is fetched.
+     */
+    private void detectUnchangedRepositories(List<RepositoryTestInfo> repositories, Path rootPath,
+            List<Pattern> includePatterns, List<Pattern> excludePatterns) {
+        unchangedRemoteHeads = Collections.emptyMap();
+        if (!remoteChangeDetection || incrementalBaselines.isEmpty()) {
+            return;
+        }
+        List<String> candidates = new ArrayList<>();
+        for (RepositoryTestInfo repoInfo : repositories) {
+            String gitUrl = repoInfo.getGitUrl();
+            if (incrementalBaselines.containsKey(gitUrl) && shouldIncludeRepository(
+                    rootPath.resolve(gitRepositoryManager.getRepositoryName(gitUrl)), rootPath, includePatterns, excludePatterns)) {
+                candidates.add(gitUrl);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Map<String, String> remoteHeads = gitRepositoryManager.resolveRemoteHeads(candidates);
+        Map<String, String> unchanged = new HashMap<>();
+        for (String gitUrl : candidates) {
+            String remoteHead = remoteHeads.get(gitUrl);
+            if (remoteHead != null && remoteHead.equals(incrementalBaselines.get(gitUrl).getBaseCommit())) {
+                unchanged.put(gitUrl, remoteHead);
+            }
+        }
+        unchangedRemoteHeads = unchanged;
+        System.out.println("Remote change detection: " + unchanged.size() + " of " + candidates.size()
+                + " previously scanned repositories unchanged (" + remoteHeads.size() + " remotes answered) in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Take over the previous scan of a repository whose remote has not moved: no fetch, no parse,
+     * every row is carried forward at persist time.
+     *
+     * @return false if the carried forward totals cannot be loaded; the repository is then fetched as usual
+     */
+    private boolean carryForwardUnchanged(RepositoryTestInfo repoInfo, Path filterPath, String headCommit) {
+        IncrementalScanBaseline baseline = incrementalBaselines.get(repoInfo.getGitUrl());
+        repoInfo.setIncrementalBaseline(baseline.withInvalidatedFilePaths(Collections.emptySet()));
+        try {
+            incrementalStateReader.loadCarriedForwardTotals(repoInfo);
+        } catch (SQLException e) {
+            System.err.println("Failed to load carried forward totals, fetching " + repoInfo.getGitUrl() + ": " + e.getMessage());
+            repoInfo.setIncrementalBaseline(null);
+            return false;
+        }
+        Path repoPath = gitRepositoryManager.getRepositoryPath(repoInfo.getGitUrl());
+        repoInfo.setRepositoryPath(repoPath != null ? repoPath : filterPath);
+        repoInfo.setRepositoryName(repoInfo.getGitUrl().substring(repoInfo.getGitUrl().lastIndexOf('/') + 1));
+        repoInfo.setHeadCommit(headCommit);
+        repoInfo.setUnchangedOnRemote(true);
+        System.out.println("Unchanged since last scan at " + headCommit + ", not fetching: " + repoInfo.getGitUrl());
+        return true;
+    }
+
+    /**
+     * Fetch stage: clone or update the repository and apply the path filters.
+     * Returns null when the repository should not be parsed.
+     */
+    private RepositoryTestInfo fetchRepository(RepositoryTestInfo repoInfo, Path rootPath, List<Pattern> includePatterns,
+            List<Pattern> excludePatterns, boolean tempCloneMode) {
+        String gitUrl = repoInfo.getGitUrl();
+        // Filters match the hub-relative repository name, so they are checked before fetching
+        Path filterPath = rootPath.resolve(gitRepositoryManager.getRepositoryName(gitUrl));
+        System.out.println(">>>> Repository path to check: " + filterPath);
+        if (!shouldIncludeRepository(filterPath, rootPath, includePatterns, excludePatterns)) {
+            System.out.println("Skipping repository (pattern filter): " + filterPath);
+            return null;
+        }
+        ScanPlanner.ScanPlan plan = scanPlanner.getCurrentPlan();
+        if (plan != null && plan.isOverBudget(System.currentTimeMillis())) {
+            System.out.println("Scan time budget used up, deferring to a later scan: " + gitUrl);
+            plan.recordSkippedOverBudget();
+            return null;
+        }
+        if (!lockRepository(gitUrl)) {
+            return null;
+        }
+        attemptedRepositories.add(repoInfo);
+        String unchangedHead = unchangedRemoteHeads.get(gitUrl);
+        if (unchangedHead != null && carryForwardUnchanged(repoInfo, filterPath, unchangedHead)) {
+            return repoInfo;
+        }
+        boolean handedOver = false;
+        try {
+            Path repoPath = gitRepositoryManager.cloneOrUpdateRepository(gitUrl);
+            if (repoPath == null) {
+                System.err.println("Failed to clone or update repository " + gitUrl);
+                return null;
+            }
+            repoInfo.setRepositoryPath(repoPath);
+            repoInfo.setRepositoryName(gitUrl.substring(gitUrl.lastIndexOf('/') + 1));
+            GitRepositoryManager.FetchStats fetchStats = gitRepositoryManager.getFetchStats(gitUrl);
+            if (fetchStats != null) {
+                repoInfo.setFetchStats(fetchStats.cloneMode().name(), fetchStats.durationMs(), fetchStats.diskUsageBytes());
+            }
+            handedOver = true;
+            return repoInfo;
+        } finally {
+            if (!handedOver) {
+                finishRepository(gitUrl, tempCloneMode);
+            }
+        }
+    }
+
+    /**
+     * Parse stage: collect the repository's test classes. Temporary clones are removed
+     * as soon as parsing is done, before the repository waits for persistence.
+     */
+    private RepositoryTestInfo parseRepository(RepositoryTestInfo repoInfo, boolean tempCloneMode) throws IOException {
+        if (repoInfo.isUnchangedOnRemote()) {
+            // Nothing was fetched, so there is nothing to parse or release
+            unlockRepository(repoInfo.getGitUrl());
+            return repoInfo;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            return scanRepository(repoInfo);
+        } finally {
+            repoInfo.setParseDurationMs(System.currentTimeMillis() - start);
+            ScanPlanner.ScanPlan plan = scanPlanner.getCurrentPlan();
+            if (plan != null) {
+                plan.recordActual(repoInfo.getGitUrl(), actualDurationMs(repoInfo));
+            }
+            finishRepository(repoInfo.getGitUrl(), tempCloneMode);
+        }
+    }
+
+
+    /**
+     * Temporary clones are deleted after their scan; bare mirrors are kept as a cache in every mode, and
+     * with a hub disk budget clones are kept too. Kept repositories are released, so the least recently
+     * used ones can be evicted once the hub is over budget.
+     */
+    private void finishRepository(String gitUrl, boolean tempCloneMode) {
+        try {
+            if (tempCloneMode && gitRepositoryManager.getCloneMode() != CloneMode.BARE && !gitRepositoryManager.hasDiskBudget()) {
+                gitRepositoryManager.deleteRepository(gitUrl);
+            } else {
+                gitRepositoryManager.releaseRepository(gitUrl);
+            }
+        } finally {
+            unlockRepository(gitUrl);
+        }
+    }
+
+    /**
+     * Wait for other scans to finish with the repository, see {@link #setRepositoryLocks}.
+     *
+     * @return false if interrupted while waiting; the repository is then not scanned
+     */
+    private boolean lockRepository(String gitUrl) {
+        if (repositoryLocks == null) {
+            return true;
+        }
+        if (!repositoryLocks.tryLock(gitUrl)) {
+            System.out.println("Repository is being scanned by another scan, waiting: " + gitUrl);
+            try {
+                repositoryLocks.lock(gitUrl);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        heldLocks.add(gitUrl);
+        return true;
+    }
+
+    private void unlockRepository(String gitUrl) {
+        if (heldLocks.remove(gitUrl)) {
+            repositoryLocks.unlock(gitUrl);
+        }
+    }
     
     /**
      * Check if a repository should be included based on path patterns
      */
-    private static boolean shouldIncludeRepository(Path repoPath, Path rootPath, List<String> includePatterns, List<String> excludePatterns) {
+    private static boolean shouldIncludeRepository(Path repoPath, Path rootPath, List<Pattern> includePatterns, List<Pattern> excludePatterns) {
         // If no patterns specified, include everything
-        if ((includePatterns == null || includePatterns.isEmpty()) && 
-            (excludePatterns == null || excludePatterns.isEmpty())) {
+        if (includePatterns.isEmpty() && excludePatterns.isEmpty()) {
             return true;
         }
         
@@ -133,18 +633,16 @@ public class RepositoryScanner {
         String relativePath = rootPath.relativize(repoPath).toString().replace('\\', '/');
         
         // Check exclude patterns first (exclusions take precedence)
-        if (excludePatterns != null) {
-            for (String excludePattern : excludePatterns) {
-                if (matchesPattern(relativePath, excludePattern)) {
-                    return false; // Excluded
-                }
+        for (Pattern excludePattern : excludePatterns) {
+            if (excludePattern.matcher(relativePath).matches()) {
+                return false; // Excluded
             }
         }
         
         // Check include patterns
-        if (includePatterns != null && !includePatterns.isEmpty()) {
-            for (String includePattern : includePatterns) {
-                if (matchesPattern(relativePath, includePattern)) {
+        if (!includePatterns.isEmpty()) {
+            for (Pattern includePattern : includePatterns) {
+                if (includePattern.matcher(relativePath).matches()) {
                     return true; // Included
                 }
             }
@@ -155,15 +653,18 @@ public class RepositoryScanner {
     }
     
     /**
-     * Check if a path matches a pattern
-     * Supports glob-like patterns with * and ** wildcards
+     * Compile glob patterns once per scan instead of once per repository and pattern.
+     * Supports glob-like patterns with * and ** wildcards, matched case-insensitively.
      */
-    private static boolean matchesPattern(String path, String pattern) {
-        // Convert glob pattern to regex
-        String regexPattern = convertGlobToRegex(pattern);
-        Pattern compiledPattern = Pattern.compile(regexPattern, Pattern.CASE_INSENSITIVE);
-        Matcher matcher = compiledPattern.matcher(path);
-        return matcher.matches();
+    static List<Pattern> compileGlobs(List<String> patterns) {
+        if (patterns == null || patterns.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Pattern> compiled = new ArrayList<>(patterns.size());
+        for (String pattern : patterns) {
+            compiled.add(Pattern.compile(convertGlobToRegex(pattern), Pattern.CASE_INSENSITIVE));
+        }
+        return compiled;
     }
     
     /**
@@ -173,7 +674,7 @@ public class RepositoryScanner {
      * ** - matches any sequence of characters including path separators
      * ? - matches any single character except path separators
      */
-    private static String convertGlobToRegex(String globPattern) {
+    static String convertGlobToRegex(String globPattern) {
         StringBuilder regex = new StringBuilder();
         regex.append("^");
         
@@ -227,63 +728,136 @@ public class RepositoryScanner {
      */
     private RepositoryTestInfo scanRepository(RepositoryTestInfo repoInfo) throws IOException {
         System.out.println("Scanning repository: " + repoInfo.getRepositoryPath());
-        // Find test directories following standard Java conventions
-        HashMap<String, Path> testJavaFiles = findTestJavaFiles(repoInfo.getRepositoryPath());
-        System.out.println("Found " + testJavaFiles.size() + " test Java files");
-        try {
-            TestClassParser.configureSymbolResolver(repoInfo.getRepositoryPath(), dependenciesDir);
-        } catch (IOException e) {
-            System.err.println("Failed to configure symbol resolver for repository " +
-                repoInfo.getRepositoryPath() + ": " + e.getMessage());
+        repoInfo.setHeadCommit(gitRepositoryManager.getHeadCommit(repoInfo.getRepositoryPath()));
+        if (GitRepositoryManager.isBareRepository(repoInfo.getRepositoryPath())) {
+            scanObjectDatabase(repoInfo);
+            return repoInfo;
         }
-        for (Path javaFile : testJavaFiles.values()) {
-            try {
-                ParseResult parseResult = TestClassParser.parseTestClassWithHelpers(javaFile);
-                TestClassInfo testClassInfo = parseResult.getTestClassInfo();
-                
-                // A file is either a test file OR a helper file, not both
-                // Check if we have a valid test class first
-                if (testClassInfo.getTotalTestMethods() > 0) {
-                    // This file contains a test class with test methods
-                    repoInfo.addTestClass(testClassInfo);
-                } else if (!parseResult.getHelperClasses().isEmpty()) {
-                    // This file contains helper classes (non-test classes)
-                    for (TestHelperClassInfo helperClass : parseResult.getHelperClasses()) {
-                        repoInfo.addHelperClass(helperClass);
-                    }
-                }
-                // else: file has neither test methods nor helper classes (shouldn't happen in test directory)
-            } catch (Exception e) {
-                System.err.println("Error parsing test class " + javaFile + ": " + e.getMessage());
-                // Continue with other files
-            }
+        List<Path> testFiles = planIncrementalScan(repoInfo, Files::isRegularFile);
+        if (testFiles == null) {
+            // Walk only the configured test roots, pruning build output and vendored directories
+            TestRootFinder.Result found = testRootFinder.find(repoInfo.getRepositoryPath());
+            System.out.println("Found " + found.getFiles().size() + " test Java files in " + found.getElapsedMs() + " ms ("
+                    + found.getVisitedDirectories() + " directories visited, " + found.getPrunedDirectories() + " pruned)");
+            testFiles = new ArrayList<>(found.getFiles().values());
         }
-        
+        addParseResults(repoInfo, parseExecutor.parseAll(repoInfo.getRepositoryPath(), testFiles));
         return repoInfo;
     }
-    
-   
+
     /**
-     * Find all Java test files following standard Java conventions
+     * Scan a bare repository: test files are selected from the tree of the head commit and their
+     * blobs are streamed to the parser, so no working tree is checked out or deleted.
+     * File paths are resolved against the repository directory only to keep them repository-relative.
      */
-    private static HashMap<String, Path> findTestJavaFiles(Path repoPath) throws IOException {
-        HashMap<String, Path> testJavaFiles = new HashMap<>();
-        
-        Files.walkFileTree(repoPath, new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                String fileFullPath = file.toString();
-                if (fileFullPath.contains("src/test/java") || fileFullPath.contains("src\\test\\java")) {
-                    if (file.toString().endsWith(".java")) {
-                        testJavaFiles.put(file.toString(), file);
-                    }
+    private void scanObjectDatabase(RepositoryTestInfo repoInfo) throws IOException {
+        Path repoPath = repoInfo.getRepositoryPath();
+        String headCommit = repoInfo.getHeadCommit();
+        if (headCommit == null) {
+            throw new IOException("Cannot resolve the head commit of bare repository " + repoPath);
+        }
+        long start = System.nanoTime();
+        List<GitObjectReader.TreeEntry> tree = gitRepositoryManager.listTree(repoPath, headCommit);
+        if (tree == null) {
+            throw new IOException("Cannot list the tree of commit " + headCommit + " in " + repoPath);
+        }
+        Map<Path, GitObjectReader.TreeEntry> blobs = new LinkedHashMap<>();
+        for (GitObjectReader.TreeEntry entry : tree) {
+            if (testRootFinder.isTestJavaFile(entry.path())) {
+                blobs.put(repoPath.resolve(entry.path()), entry);
+            }
+        }
+        System.out.println("Found " + blobs.size() + " test Java files in " + tree.size() + " tree entries of commit "
+                + headCommit + " in " + (System.nanoTime() - start) / 1_000_000L + " ms");
+
+        List<Path> testFiles = planIncrementalScan(repoInfo, blobs::containsKey);
+        if (testFiles == null) {
+            testFiles = new ArrayList<>(blobs.keySet());
+        }
+        try (GitObjectReader reader = gitRepositoryManager.openObjectReader(repoPath)) {
+            // Sizes come from the tree listing: the paths do not exist on disk
+            addParseResults(repoInfo, parseExecutor.parseAll(repoPath, testFiles, new TestFileParseExecutor.ContentSource() {
+                @Override
+                public byte[] read(Path javaFile) throws IOException {
+                    return reader.read(blobs.get(javaFile).objectId());
+                }
+
+                @Override
+                public long size(Path javaFile) {
+                    return blobs.get(javaFile).size();
+                }
+            }));
+        }
+    }
+
+    private static void addParseResults(RepositoryTestInfo repoInfo, List<ParseResult> parseResults) {
+        for (ParseResult parseResult : parseResults) {
+            if (parseResult == null) {
+                // Parse error already reported; continue with other files
+                continue;
+            }
+            TestClassInfo testClassInfo = parseResult.getTestClassInfo();
+
+            // A file is either a test file OR a helper file, not both
+            // Check if we have a valid test class first
+            if (testClassInfo.getTotalTestMethods() > 0) {
+                // This file contains a test class with test methods
+                repoInfo.addTestClass(testClassInfo);
+            } else if (!parseResult.getHelperClasses().isEmpty()) {
+                // This file contains helper classes (non-test classes)
+                for (TestHelperClassInfo helperClass : parseResult.getHelperClasses()) {
+                    repoInfo.addHelperClass(helperClass);
                 }
-                return FileVisitResult.CONTINUE;
             }
-        });
-        
-        return testJavaFiles;
+            // else: file has neither test methods nor helper classes (shouldn't happen in test directory)
+        }
     }
     
-    
+
+    /**
+     * Decide whether the repository can be scanned incrementally against its previous scan.
+     *
+     * @param exists whether a changed file is present in the scanned commit
+     * @return the changed test files to parse, or null when the repository needs a full scan
+     */
+    private List<Path> planIncrementalScan(RepositoryTestInfo repoInfo, Predicate<Path> exists) {
+        IncrementalScanBaseline baseline = incrementalBaselines.get(repoInfo.getGitUrl());
+        String headCommit = repoInfo.getHeadCommit();
+        if (baseline == null || headCommit == null) {
+            return null;
+        }
+        Path repoPath = repoInfo.getRepositoryPath();
+        GitChangeSet changes = headCommit.equals(baseline.getBaseCommit())
+                ? new GitChangeSet()
+                : gitRepositoryManager.getChangedFiles(repoPath, baseline.getBaseCommit(), headCommit);
+        if (changes == null) {
+            System.out.println("Cannot diff against last scanned commit " + baseline.getBaseCommit() + ", scanning fully: " + repoInfo.getGitUrl());
+            return null;
+        }
+        Set<String> invalidated = changes.getAllPaths();
+        if (invalidated.size() > MAX_INCREMENTAL_CHANGED_FILES) {
+            System.out.println(invalidated.size() + " files changed since last scan, scanning fully: " + repoInfo.getGitUrl());
+            return null;
+        }
+
+        repoInfo.setIncrementalBaseline(baseline.withInvalidatedFilePaths(invalidated));
+        try {
+            incrementalStateReader.loadCarriedForwardTotals(repoInfo);
+        } catch (SQLException e) {
+            System.err.println("Failed to load carried forward totals, scanning fully: " + e.getMessage());
+            repoInfo.setIncrementalBaseline(null);
+            return null;
+        }
+
+        List<Path> testFiles = new ArrayList<>();
+        for (String changedFile : changes.getChangedFiles()) {
+            Path file = repoPath.resolve(changedFile);
+            if (testRootFinder.isTestJavaFile(changedFile) && exists.test(file)) {
+                testFiles.add(file);
+            }
+        }
+        System.out.println("Incremental scan since " + baseline.getBaseCommit() + ": " + changes
+                + ", " + testFiles.size() + " test Java files to parse");
+        return testFiles;
+    }
 }
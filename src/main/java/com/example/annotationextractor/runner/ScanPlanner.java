@@ -0,0 +1,240 @@
+package com.example.annotationextractor.runner;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+import com.example.annotationextractor.casemodel.RepositoryScanHistory;
+import com.example.annotationextractor.casemodel.RepositoryTestInfo;
+
+/**
+ * Chooses the repositories of a scan and their order.
+ *
+ * Every repository gets a priority from its history: hours since it was last scanned, times the
+ * likelihood that its commit changed, per estimated minute of work. Repositories never scanned
+ * come first. Repositories are taken in priority order while the estimated scan time stays within
+ * the time budget and the count within maxRepositoriesPerScan; smaller repositories further down
+ * can still fill the remaining time. Skipped repositories only grow staler, so every repository
+ * is scanned eventually and the rotation is fair across runs.
+ *
+ * Durations are estimated from the last fetch, parse and persist of each repository, or the
+ * median of all repositories when a repository has no history. Fetch and parse overlap in the
+ * pipeline, so the scan takes the longer of the two stages (divided by its workers) plus persisting.
+ */
+public class ScanPlanner {
+
+    static final long DEFAULT_FETCH_MS = 30_000L;
+    static final long DEFAULT_PARSE_MS = 30_000L;
+    static final long DEFAULT_PERSIST_MS = 2_000L;
+    private static final double HOUR_MS = 3_600_000.0;
+
+    /**
+     * @param stalenessHours hours since the last scan, or -1 if never scanned
+     */
+    public record PlannedRepository(String gitUrl, long estimatedMs, double priority, double stalenessHours) {}
+
+    /**
+     * Repositories chosen for one scan, with estimated and (once known) actual durations.
+     */
+    public static class ScanPlan {
+        private final Instant createdAt;
+        private final long budgetMs;
+        private final int maxRepositories;
+        private final List<PlannedRepository> repositories;
+        private final int candidates;
+        private final long estimatedMs;
+        private final Map<String, Long> actualMs = new ConcurrentHashMap<>();
+        private final AtomicInteger skippedOverBudget = new AtomicInteger();
+        private volatile long totalActualMs = -1;
+
+        ScanPlan(Instant createdAt, long budgetMs, int maxRepositories, List<PlannedRepository> repositories,
+                int candidates, long estimatedMs) {
+            this.createdAt = createdAt;
+            this.budgetMs = budgetMs;
+            this.maxRepositories = maxRepositories;
+            this.repositories = Collections.unmodifiableList(repositories);
+            this.candidates = candidates;
+            this.estimatedMs = estimatedMs;
+        }
+
+        public Instant getCreatedAt() {
+            return createdAt;
+        }
+
+        /**
+         * Time budget of the scan, 0 if it is planned by count only.
+         */
+        public long getBudgetMs() {
+            return budgetMs;
+        }
+
+        public int getMaxRepositories() {
+            return maxRepositories;
+        }
+
+        public List<PlannedRepository> getRepositories() {
+            return repositories;
+        }
+
+        /**
+         * Repositories left for a later scan.
+         */
+        public int getDeferred() {
+            return candidates - repositories.size();
+        }
+
+        public long getEstimatedMs() {
+            return estimatedMs;
+        }
+
+        /**
+         * Fetch, parse and persist time of a planned repository, or null while it is not done.
+         */
+        public Long getActualMs(String gitUrl) {
+            return actualMs.get(gitUrl);
+        }
+
+        void recordActual(String gitUrl, long durationMs) {
+            actualMs.put(gitUrl, durationMs);
+        }
+
+        /**
+         * Planned repositories not started because the time budget had run out.
+         */
+        public int getSkippedOverBudget() {
+            return skippedOverBudget.get();
+        }
+
+        void recordSkippedOverBudget() {
+            skippedOverBudget.incrementAndGet();
+        }
+
+        /**
+         * Wall time of the scan including persistence, or -1 while it is running.
+         */
+        public long getTotalActualMs() {
+            return totalActualMs;
+        }
+
+        void complete(long totalActualMs) {
+            this.totalActualMs = totalActualMs;
+        }
+
+        /**
+         * Whether the scan has used up its time budget; never true without a budget.
+         */
+        public boolean isOverBudget(long nowMs) {
+            return budgetMs > 0 && nowMs - createdAt.toEpochMilli() > budgetMs;
+        }
+    }
+
+    private final int maxRepositories;
+    private final int fetchWorkers;
+    private final int parseWorkers;
+    private long timeBudgetMs;
+    private volatile ScanPlan currentPlan;
+
+    /**
+     * @param maxRepositories most repositories per scan; 0 or less for no limit
+     */
+    public ScanPlanner(int maxRepositories, int fetchWorkers, int parseWorkers) {
+        this.maxRepositories = maxRepositories;
+        this.fetchWorkers = Math.max(1, fetchWorkers);
+        this.parseWorkers = Math.max(1, parseWorkers);
+    }
+
+    /**
+     * @param timeBudgetMs time window the scan should fit in; 0 or less plans by count only
+     */
+    public void setTimeBudgetMs(long timeBudgetMs) {
+        this.timeBudgetMs = Math.max(0L, timeBudgetMs);
+    }
+
+    public long getTimeBudgetMs() {
+        return timeBudgetMs;
+    }
+
+    /**
+     * Plan of the running or last scan, or null before the first scan.
+     */
+    public ScanPlan getCurrentPlan() {
+        return currentPlan;
+    }
+
+    /**
+     * Choose and order the repositories of a scan.
+     *
+     * @param candidates repositories in configuration order
+     * @param history scan history by git URL; can be empty
+     * @return the repositories to scan, most valuable first
+     */
+    public List<RepositoryTestInfo> plan(List<RepositoryTestInfo> candidates, Map<String, RepositoryScanHistory> history,
+            long nowMs) {
+        long medianFetch = median(history, RepositoryScanHistory::fetchDurationMs, DEFAULT_FETCH_MS);
+        long medianParse = median(history, RepositoryScanHistory::parseDurationMs, DEFAULT_PARSE_MS);
+        long medianPersist = median(history, RepositoryScanHistory::persistDurationMs, DEFAULT_PERSIST_MS);
+
+        List<Candidate> ranked = new ArrayList<>(candidates.size());
+        for (RepositoryTestInfo repo : candidates) {
+            RepositoryScanHistory past = history.get(repo.getGitUrl());
+            long fetch = past != null && past.fetchDurationMs() >= 0 ? past.fetchDurationMs() : medianFetch;
+            long parse = past != null && past.parseDurationMs() >= 0 ? past.parseDurationMs() : medianParse;
+            long persist = past != null && past.persistDurationMs() >= 0 ? past.persistDurationMs() : medianPersist;
+            double stalenessHours = past != null ? Math.max(0L, nowMs - past.lastAttemptMs()) / HOUR_MS : -1;
+            double priority = past == null
+                    ? Double.POSITIVE_INFINITY
+                    : stalenessHours * past.changeLikelihood() / (1.0 + (fetch + parse + persist) / 60_000.0);
+            ranked.add(new Candidate(repo, fetch, parse, persist, stalenessHours, priority));
+        }
+        // Stable: ties (e.g. never scanned) keep configuration order
+        ranked.sort(Comparator.comparingDouble(Candidate::priority).reversed());
+
+        List<RepositoryTestInfo> chosen = new ArrayList<>();
+        List<PlannedRepository> planned = new ArrayList<>();
+        long fetchTotal = 0;
+        long parseTotal = 0;
+        long persistTotal = 0;
+        for (Candidate candidate : ranked) {
+            if (maxRepositories > 0 && chosen.size() >= maxRepositories) {
+                break;
+            }
+            long fetchWith = fetchTotal + candidate.fetchMs();
+            long parseWith = parseTotal + candidate.parseMs();
+            long persistWith = persistTotal + candidate.persistMs();
+            // The most valuable repository is always scanned, even if it alone exceeds the budget
+            if (timeBudgetMs > 0 && !chosen.isEmpty() && estimate(fetchWith, parseWith, persistWith) > timeBudgetMs) {
+                continue;
+            }
+            fetchTotal = fetchWith;
+            parseTotal = parseWith;
+            persistTotal = persistWith;
+            chosen.add(candidate.repo());
+            planned.add(new PlannedRepository(candidate.repo().getGitUrl(),
+                    candidate.fetchMs() + candidate.parseMs() + candidate.persistMs(),
+                    candidate.priority(), candidate.stalenessHours()));
+        }
+
+        currentPlan = new ScanPlan(Instant.ofEpochMilli(nowMs), timeBudgetMs, maxRepositories, planned,
+                candidates.size(), estimate(fetchTotal, parseTotal, persistTotal));
+        return chosen;
+    }
+
+    private long estimate(long fetchTotal, long parseTotal, long persistTotal) {
+        return Math.max(fetchTotal / fetchWorkers, parseTotal / parseWorkers) + persistTotal;
+    }
+
+    private static long median(Map<String, RepositoryScanHistory> history,
+            ToLongFunction<RepositoryScanHistory> duration, long fallback) {
+        long[] known = history.values().stream().mapToLong(duration).filter(value -> value >= 0).sorted().toArray();
+        return known.length == 0 ? fallback : known[known.length / 2];
+    }
+
+    private record Candidate(RepositoryTestInfo repo, long fetchMs, long parseMs, long persistMs,
+            double stalenessHours, double priority) {}
+}
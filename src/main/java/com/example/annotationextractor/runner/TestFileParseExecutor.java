@@ -0,0 +1,282 @@
+package com.example.annotationextractor.runner;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.annotationextractor.casemodel.ParseProfile;
+import com.example.annotationextractor.casemodel.ParseResult;
+import com.example.annotationextractor.casemodel.ParseResultCache;
+import com.example.annotationextractor.casemodel.TestClassInfo;
+import com.example.annotationextractor.casemodel.TestClassParser;
+import com.example.annotationextractor.casemodel.TestFilePreFilter;
+import com.github.javaparser.JavaParser;
+
+/**
+ * Parses the test files of one repository, serially or in parallel, with one parser and symbol
+ * solver per worker. No parser state is shared with other executors, so several repositories can be
+ * parsed at the same time.
+ *
+ * Results are always returned in the order of the input list so callers can
+ * build the same RepositoryTestInfo regardless of the worker count.
+ */
+public class TestFileParseExecutor {
+
+    /**
+     * Supplies file contents when the files are not on disk, e.g. blobs of a bare repository.
+     */
+    @FunctionalInterface
+    public interface ContentSource {
+        byte[] read(Path javaFile) throws IOException;
+
+        /**
+         * Size of a file in bytes, used to parse the largest files first; 0 if unknown.
+         */
+        default long size(Path javaFile) {
+            return sizeOf(javaFile);
+        }
+    }
+
+    private final int workerCount;
+    private final Path dependenciesDir;
+    private ParseResultCache parseCache;
+    private ParseProfile parseProfile = ParseProfile.FULL;
+    private TestFilePreFilter preFilter;
+    private final TestFilePreFilter.Counts decisionCounts = new TestFilePreFilter.Counts();
+
+    /**
+     * @param workerCount number of parse workers; 1 or less parses serially
+     * @param dependenciesDir directory containing dependency jars (can be null)
+     */
+    public TestFileParseExecutor(int workerCount, Path dependenciesDir) {
+        this.workerCount = Math.max(1, workerCount);
+        this.dependenciesDir = dependenciesDir;
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    /**
+     * Reuse parse results of files whose content was parsed before.
+     *
+     * @param parseCache cache to consult before parsing, or null to always parse
+     */
+    public void setParseCache(ParseResultCache parseCache) {
+        this.parseCache = parseCache;
+    }
+
+    public ParseResultCache getParseCache() {
+        return parseCache;
+    }
+
+    /**
+     * @param parseProfile FAST skips comment attribution, lexical preservation and symbol resolution;
+     *                     FULL also collects referenced types
+     */
+    public void setParseProfile(ParseProfile parseProfile) {
+        this.parseProfile = parseProfile != null ? parseProfile : ParseProfile.FULL;
+    }
+
+    public ParseProfile getParseProfile() {
+        return parseProfile;
+    }
+
+    /**
+     * Scan every file lexically before parsing: files without test markers get their helper
+     * classes without a parse, files the parser would drop are skipped.
+     */
+    public void setPreFilterEnabled(boolean preFilterEnabled) {
+        this.preFilter = preFilterEnabled ? TestFilePreFilter.forRegisteredExtractors() : null;
+    }
+
+    public boolean isPreFilterEnabled() {
+        return preFilter != null;
+    }
+
+    /**
+     * Files per pre-filter decision since this executor was created; every file counts as a
+     * full parse while the pre-filter is disabled.
+     */
+    public TestFilePreFilter.Counts getDecisionCounts() {
+        return decisionCounts;
+    }
+
+    /**
+     * Parse all files of a repository.
+     *
+     * @param repositoryRoot root directory of the repository
+     * @param javaFiles files to parse
+     * @return one entry per input file, in input order; null where parsing failed
+     */
+    public List<ParseResult> parseAll(Path repositoryRoot, List<Path> javaFiles) {
+        return parseAll(repositoryRoot, javaFiles, null);
+    }
+
+    /**
+     * Parse files whose content comes from a source other than the file system.
+     *
+     * @param repositoryRoot root the file paths are relative to; does not need to exist
+     * @param javaFiles files to parse
+     * @param contentSource source of file contents; must be thread-safe, null reads from disk
+     * @return one entry per input file, in input order; null where parsing failed
+     */
+    public List<ParseResult> parseAll(Path repositoryRoot, List<Path> javaFiles, ContentSource contentSource) {
+        String cacheContext = cacheContext(repositoryRoot);
+        if (workerCount <= 1 || javaFiles.size() <= 1) {
+            return parseSerially(repositoryRoot, javaFiles, contentSource, cacheContext);
+        }
+        return parseInParallel(repositoryRoot, javaFiles, contentSource, cacheContext);
+    }
+
+    /**
+     * Classpath part of the cache keys of FULL parses, computed once per repository.
+     */
+    private String cacheContext(Path repositoryRoot) {
+        if (parseCache == null || parseProfile != ParseProfile.FULL) {
+            return null;
+        }
+        try {
+            return ParseResultCache.resolutionContext(repositoryRoot, dependenciesDir);
+        } catch (IOException e) {
+            System.err.println("Failed to fingerprint dependencies for repository " +
+                repositoryRoot + ": " + e.getMessage());
+            return ParseResultCache.resolutionContext(repositoryRoot);
+        }
+    }
+
+    private List<ParseResult> parseSerially(Path repositoryRoot, List<Path> javaFiles, ContentSource contentSource,
+                                            String cacheContext) {
+        JavaParser parser = createWorkerParser(repositoryRoot);
+        List<ParseResult> results = new ArrayList<>(javaFiles.size());
+        for (Path javaFile : javaFiles) {
+            results.add(parseQuietly(javaFile, parser, repositoryRoot, contentSource, cacheContext));
+        }
+        return results;
+    }
+
+    private List<ParseResult> parseInParallel(Path repositoryRoot, List<Path> javaFiles, ContentSource contentSource,
+                                              String cacheContext) {
+        int threads = Math.min(workerCount, javaFiles.size());
+        ParseResult[] results = new ParseResult[javaFiles.size()];
+
+        // Largest files first so the slowest parse does not start last and stretch the tail
+        List<Integer> schedule = new ArrayList<>(javaFiles.size());
+        long[] sizes = new long[javaFiles.size()];
+        for (int i = 0; i < javaFiles.size(); i++) {
+            schedule.add(i);
+            sizes[i] = contentSource != null ? contentSource.size(javaFiles.get(i)) : sizeOf(javaFiles.get(i));
+        }
+        schedule.sort(Comparator.comparingLong((Integer i) -> sizes[i]).reversed());
+
+        System.out.println("Parsing " + javaFiles.size() + " files with " + threads + " workers");
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "test-file-parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int w = 0; w < threads; w++) {
+                futures.add(executor.submit(() -> {
+                    JavaParser parser = createWorkerParser(repositoryRoot);
+                    int slot;
+                    while ((slot = next.getAndIncrement()) < schedule.size()) {
+                        int index = schedule.get(slot);
+                        results[index] = parseQuietly(javaFiles.get(index), parser, repositoryRoot, contentSource,
+                            cacheContext);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Parallel parsing interrupted for repository " + repositoryRoot);
+        } catch (Exception e) {
+            System.err.println("Parallel parsing failed for repository " + repositoryRoot + ": " + e.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<ParseResult> ordered = new ArrayList<>(results.length);
+        for (ParseResult result : results) {
+            ordered.add(result);
+        }
+        return ordered;
+    }
+
+    private JavaParser createWorkerParser(Path repositoryRoot) {
+        try {
+            return TestClassParser.createParser(repositoryRoot, dependenciesDir, parseProfile);
+        } catch (IOException e) {
+            System.err.println("Failed to configure symbol resolver for repository " +
+                repositoryRoot + ": " + e.getMessage());
+            try {
+                return TestClassParser.createParser(repositoryRoot, null);
+            } catch (IOException ignored) {
+                return new JavaParser();
+            }
+        }
+    }
+
+    private ParseResult parseQuietly(Path javaFile, JavaParser parser, Path repositoryRoot, ContentSource contentSource,
+                                     String cacheContext) {
+        try {
+            ParseResultCache cache = parseCache;
+            TestFilePreFilter filter = preFilter;
+            if (cache == null && filter == null && contentSource == null) {
+                decisionCounts.record(TestFilePreFilter.Decision.FULL_PARSE);
+                return TestClassParser.parseTestClassWithHelpers(javaFile, parser, repositoryRoot);
+            }
+            byte[] bytes = contentSource != null ? contentSource.read(javaFile) : Files.readAllBytes(javaFile);
+            if (filter != null) {
+                TestFilePreFilter.Result scan = filter.scan(bytes);
+                decisionCounts.record(scan.decision());
+                if (scan.decision() == TestFilePreFilter.Decision.SKIP) {
+                    return new ParseResult(new TestClassInfo(), new ArrayList<>());
+                }
+                if (scan.decision() == TestFilePreFilter.Decision.HELPER_ONLY) {
+                    return TestFilePreFilter.toHelperResult(scan, javaFile,
+                        new String(bytes, StandardCharsets.UTF_8), repositoryRoot);
+                }
+            } else {
+                decisionCounts.record(TestFilePreFilter.Decision.FULL_PARSE);
+            }
+            String key = cache != null ? ParseResultCache.computeKey(bytes, parseProfile, cacheContext) : null;
+            if (cache != null) {
+                ParseResult cached = cache.get(key, javaFile, repositoryRoot);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+            String content = new String(bytes, StandardCharsets.UTF_8);
+            ParseResult result = TestClassParser.parseTestClassWithHelpers(javaFile, content, parser, repositoryRoot);
+            if (cache != null) {
+                cache.put(key, result);
+            }
+            return result;
+        } catch (Exception e) {
+            System.err.println("Error parsing test class " + javaFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.annotationextractor.runner;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the test Java files of a repository by walking only the directories that can lead to a test root.
+ *
+ * A test root pattern is a '/' separated directory path relative to a module root, for example
+ * {@code src/test/java} or {@code src/*Test/java}; each segment may use the * and ? wildcards.
+ * Patterns match at any depth, so multi-module layouts are found without listing every module.
+ * Outside test roots the walk prunes hidden directories, build output and vendored dependencies.
+ * Directories that leave a pattern half way (e.g. {@code src/main}) are still walked, because a
+ * pattern can start again at any depth below them, as in {@code src/<module>/src/test/java}.
+ * Inside a test root everything is visited.
+ */
+public class TestRootFinder {
+
+    public static final List<String> DEFAULT_TEST_ROOTS = List.of("src/test/java");
+
+    /**
+     * Directory names never descended into outside a test root.
+     */
+    public static final Set<String> PRUNED_DIRECTORIES = Set.of(
+            "node_modules", "target", "build", "out", "bin", "vendor", "third_party", "bower_components");
+
+    private final List<String> patterns;
+    private final List<Pattern[]> segmentPatterns;
+
+    public TestRootFinder() {
+        this(DEFAULT_TEST_ROOTS);
+    }
+
+    /**
+     * @param testRootPatterns test root directory patterns; null or empty uses {@link #DEFAULT_TEST_ROOTS}
+     */
+    public TestRootFinder(List<String> testRootPatterns) {
+        List<String> cleaned = new ArrayList<>();
+        if (testRootPatterns != null) {
+            for (String pattern : testRootPatterns) {
+                String trimmed = pattern == null ? "" : pattern.trim().replace('\\', '/');
+                while (trimmed.startsWith("/")) {
+                    trimmed = trimmed.substring(1);
+                }
+                while (trimmed.endsWith("/")) {
+                    trimmed = trimmed.substring(0, trimmed.length() - 1);
+                }
+                if (!trimmed.isEmpty()) {
+                    cleaned.add(trimmed);
+                }
+            }
+        }
+        this.patterns = cleaned.isEmpty() ? DEFAULT_TEST_ROOTS : List.copyOf(cleaned);
+        this.segmentPatterns = new ArrayList<>(patterns.size());
+        for (String pattern : patterns) {
+            String[] segments = pattern.split("/+");
+            Pattern[] compiled = new Pattern[segments.length];
+            for (int i = 0; i < segments.length; i++) {
+                compiled[i] = Pattern.compile(RepositoryScanner.convertGlobToRegex(segments[i]));
+            }
+            segmentPatterns.add(compiled);
+        }
+    }
+
+    /**
+     * Parse a comma or newline separated list of test root patterns.
+     */
+    public static List<String> parsePatterns(String value) {
+        if (value == null || value.isBlank()) {
+            return DEFAULT_TEST_ROOTS;
+        }
+        List<String> patterns = new ArrayList<>();
+        for (String part : value.split("[,\\n]")) {
+            if (!part.isBlank()) {
+                patterns.add(part.trim());
+            }
+        }
+        return patterns.isEmpty() ? DEFAULT_TEST_ROOTS : patterns;
+    }
+
+    public List<String> getPatterns() {
+        return patterns;
+    }
+
+    /**
+     * Walk a repository and collect its test Java files.
+     */
+    public Result find(Path repoPath) throws IOException {
+        long start = System.nanoTime();
+        HashMap<String, Path> files = new HashMap<>();
+        int[] visitedDirectories = new int[1];
+        int[] prunedDirectories = new int[1];
+
+        Files.walkFileTree(repoPath, new SimpleFileVisitor<Path>() {
+            // Test root the walk is currently inside, null outside test roots
+            private Path activeRoot;
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                visitedDirectories[0]++;
+                if (activeRoot != null || dir.equals(repoPath)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                List<String> segments = segmentsOf(repoPath.relativize(dir));
+                if (matchesTestRoot(segments)) {
+                    activeRoot = dir;
+                    return FileVisitResult.CONTINUE;
+                }
+                if (isPrunedName(segments.get(segments.size() - 1))) {
+                    prunedDirectories[0]++;
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (activeRoot != null && file.getFileName().toString().endsWith(".java")) {
+                    files.put(file.toString(), file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                System.err.println("Cannot read " + file + ": " + exc.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+                if (dir.equals(activeRoot)) {
+                    activeRoot = null;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
+        return new Result(files, visitedDirectories[0], prunedDirectories[0], elapsedMs);
+    }
+
+    /**
+     * Whether a repository-relative file path is a Java file inside a test root the walk would reach.
+     */
+    public boolean isTestJavaFile(String relativePath) {
+        if (relativePath == null || !relativePath.endsWith(".java")) {
+            return false;
+        }
+        List<String> segments = segmentsOf(relativePath.replace('\\', '/'));
+        // Directories only: drop the file name
+        for (int end = 1; end < segments.size(); end++) {
+            String name = segments.get(end - 1);
+            List<String> directory = segments.subList(0, end);
+            if (matchesTestRoot(directory)) {
+                return true;
+            }
+            if (isPrunedName(name)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPrunedName(String name) {
+        return name.startsWith(".") || PRUNED_DIRECTORIES.contains(name);
+    }
+
+    /**
+     * Whether the directory ends with all segments of a pattern.
+     */
+    private boolean matchesTestRoot(List<String> segments) {
+        for (Pattern[] pattern : segmentPatterns) {
+            if (endsWith(segments, pattern, pattern.length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean endsWith(List<String> segments, Pattern[] pattern, int length) {
+        if (segments.size() < length) {
+            return false;
+        }
+        int offset = segments.size() - length;
+        for (int i = 0; i < length; i++) {
+            if (!pattern[i].matcher(segments.get(offset + i)).matches()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> segmentsOf(Path relative) {
+        List<String> segments = new ArrayList<>(relative.getNameCount());
+        for (Path part : relative) {
+            segments.add(part.toString());
+        }
+        return segments;
+    }
+
+    private static List<String> segmentsOf(String relative) {
+        return new ArrayList<>(Arrays.asList(relative.split("/+")));
+    }
+
+    /**
+     * Test files found in one repository and how much of the tree was walked to find them.
+     */
+    public static class Result {
+        private final HashMap<String, Path> files;
+        private final int visitedDirectories;
+        private final int prunedDirectories;
+        private final long elapsedMs;
+
+        Result(HashMap<String, Path> files, int visitedDirectories, int prunedDirectories, long elapsedMs) {
+            this.files = files;
+            this.visitedDirectories = visitedDirectories;
+            this.prunedDirectories = prunedDirectories;
+            this.elapsedMs = elapsedMs;
+        }
+
+        public HashMap<String, Path> getFiles() {
+            return files;
+        }
+
+        public int getVisitedDirectories() {
+            return visitedDirectories;
+        }
+
+        public int getPrunedDirectories() {
+            return prunedDirectories;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+    }
+}
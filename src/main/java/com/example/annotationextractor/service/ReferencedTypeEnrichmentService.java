@@ -0,0 +1,395 @@
+package com.example.annotationextractor.service;
+
+import com.example.annotationextractor.application.ReferencedTypeEnrichmentStore;
+import com.example.annotationextractor.application.ScanConfigService;
+import com.example.annotationextractor.casemodel.ParseProfile;
+import com.example.annotationextractor.casemodel.TestClassInfo;
+import com.example.annotationextractor.casemodel.TestClassParser;
+import com.example.annotationextractor.domain.model.ScanConfig;
+import com.example.annotationextractor.runner.RepositoryLocks;
+import com.example.annotationextractor.util.CloneMode;
+import com.example.annotationextractor.util.GitRepositoryManager;
+import com.github.javaparser.JavaParser;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Background worker resolving referenced types that scans deferred to publish structural results sooner.
+ *
+ * Repositories with pending classes are enriched one per task on a dedicated low-priority pool sized by
+ * the enrichmentWorkerCount setting, so type resolution never competes with scan threads for more than that many CPUs.
+ * The stored class content is re-parsed with the FULL profile against the repository checkout and the
+ * configured dependency jars, holding the repository lock of the scans so no scan updates or deletes the
+ * checkout meanwhile.
+ */
+@Service
+public class ReferencedTypeEnrichmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferencedTypeEnrichmentService.class);
+
+    private static final int BATCH_SIZE = 200;
+
+    private final ScanConfigService scanConfigService;
+    private final ScanRole scanRole;
+    private final Path dependenciesDir;
+    private final ReferencedTypeEnrichmentStore store = new ReferencedTypeEnrichmentStore();
+
+    // Scans hand over their factory so enrichment shares their git executor and per-host limits
+    private volatile Function<ScanConfig, GitRepositoryManager> gitManagerFactory = ScheduledScanService::buildGitManager;
+    private volatile RepositoryLocks repositoryLocks;
+
+    private final Object poolLock = new Object();
+    private ExecutorService pool;
+    private int poolSize;
+
+    private final Set<Long> activeRepositories = ConcurrentHashMap.newKeySet();
+    private final AtomicLong resolvedClasses = new AtomicLong();
+    private final AtomicLong failedClasses = new AtomicLong();
+    private final AtomicInteger completedRepositories = new AtomicInteger();
+    private final AtomicReference<LocalDateTime> lastEnrichmentTime = new AtomicReference<>();
+    private final AtomicReference<String> lastEnrichmentError = new AtomicReference<>();
+
+    public ReferencedTypeEnrichmentService(ScanConfigService scanConfigService,
+            @Value("${testcraft.scanning.role:standalone}") String scanRole,
+            @Value("${testcraft.scanning.dependencies-dir:}") String dependenciesDir) {
+        this.scanConfigService = scanConfigService;
+        this.scanRole = ScanRole.fromString(scanRole);
+        this.dependenciesDir = ScheduledScanService.toDependenciesDir(dependenciesDir);
+    }
+
+    /**
+     * Periodic pass picking up classes left pending by scans, restarts or failed passes.
+     * Configured via application.yml: testcraft.scheduler.enrichment-poll-interval-ms
+     */
+    @Scheduled(fixedDelayString = "${testcraft.scheduler.enrichment-poll-interval-ms:300000}",
+            initialDelayString = "${testcraft.scheduler.enrichment-poll-interval-ms:300000}")
+    public void pollPendingRepositories() {
+        // API instances leave type resolution to the scan workers
+        if (scanRole != ScanRole.API) {
+            requestEnrichment();
+        }
+    }
+
+    /**
+     * Queue every repository with pending classes that is not already being enriched.
+     *
+     * @return number of repositories queued
+     */
+    public int requestEnrichment() {
+        try {
+            ScanConfig config = scanConfigService.getCurrentConfig();
+            List<ReferencedTypeEnrichmentStore.PendingRepository> pending = store.findPendingRepositories();
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            ExecutorService executor = resolvePool(config.getEnrichmentWorkerCount());
+            GitRepositoryManager gitManager = gitManagerFactory.apply(config);
+            int queued = 0;
+            for (ReferencedTypeEnrichmentStore.PendingRepository repository : pending) {
+                if (!activeRepositories.add(repository.repositoryId())) {
+                    continue;
+                }
+                try {
+                    executor.submit(() -> enrichRepository(repository, gitManager, config.isTempCloneMode()));
+                    queued++;
+                } catch (RejectedExecutionException e) {
+                    activeRepositories.remove(repository.repositoryId());
+                }
+            }
+            if (queued > 0) {
+                logger.info("Queued referenced type enrichment for {} repositories", queued);
+            }
+            return queued;
+        } catch (SQLException e) {
+            lastEnrichmentError.set(e.getMessage());
+            logger.warn("Failed to look up pending referenced type enrichment: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Create git managers the way scans do, so that enrichment fetches count against the same
+     * per-host connection limit and use the configured timeout and retries.
+     */
+    public void setGitManagerFactory(Function<ScanConfig, GitRepositoryManager> gitManagerFactory) {
+        this.gitManagerFactory = gitManagerFactory;
+    }
+
+    /**
+     * Share the repository locks of the scans, so that a repository is never fetched, reset or deleted
+     * by a scan while it is being enriched, and the other way round.
+     */
+    public void setRepositoryLocks(RepositoryLocks repositoryLocks) {
+        this.repositoryLocks = repositoryLocks;
+    }
+
+    /**
+     * Snapshot of enrichment progress for the scan status API.
+     */
+    public EnrichmentStatus getStatus() {
+        List<ReferencedTypeEnrichmentStore.RepositoryProgress> progress;
+        String error = lastEnrichmentError.get();
+        try {
+            progress = store.loadProgress();
+        } catch (SQLException e) {
+            progress = Collections.emptyList();
+            error = e.getMessage();
+        }
+        int workers;
+        synchronized (poolLock) {
+            workers = pool != null ? poolSize : 0;
+        }
+        return new EnrichmentStatus(
+                !activeRepositories.isEmpty(),
+                workers,
+                Set.copyOf(activeRepositories),
+                resolvedClasses.get(),
+                failedClasses.get(),
+                completedRepositories.get(),
+                lastEnrichmentTime.get(),
+                error,
+                progress);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (poolLock) {
+            if (pool != null) {
+                pool.shutdownNow();
+                pool = null;
+            }
+        }
+    }
+
+    private ExecutorService resolvePool(int workerCount) {
+        int size = Math.max(1, workerCount);
+        synchronized (poolLock) {
+            if (pool != null && poolSize == size) {
+                return pool;
+            }
+            if (pool != null) {
+                // Running tasks finish on the old pool; new work goes to the resized one
+                pool.shutdown();
+            }
+            AtomicInteger threadIndex = new AtomicInteger();
+            pool = Executors.newFixedThreadPool(size, runnable -> {
+                Thread thread = new Thread(runnable, "type-enrichment-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+            poolSize = size;
+            return pool;
+        }
+    }
+
+    private void enrichRepository(ReferencedTypeEnrichmentStore.PendingRepository repository,
+            GitRepositoryManager gitManager, boolean tempCloneMode) {
+        long start = System.currentTimeMillis();
+        String gitUrl = repository.gitUrl();
+        boolean pinned = false;
+        boolean clonedForEnrichment = false;
+        RepositoryLocks locks = gitUrl != null ? repositoryLocks : null;
+        if (locks != null && !locks.tryLock(gitUrl)) {
+            logger.info("Repository is being scanned, enrichment waits for it: {}", gitUrl);
+            try {
+                locks.lock(gitUrl);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                activeRepositories.remove(repository.repositoryId());
+                return;
+            }
+        }
+        try {
+            // Pinned either way, so the hub disk budget does not evict the checkout while it is read
+            Path repositoryRoot = gitUrl != null ? gitManager.acquireRepositoryPath(gitUrl) : null;
+            pinned = repositoryRoot != null;
+            if (repositoryRoot == null && gitUrl != null) {
+                repositoryRoot = gitManager.cloneOrUpdateRepository(gitUrl);
+                pinned = true;
+                // Bare mirrors stay as a cache; they only give the parser JDK and dependency types.
+                // With a hub disk budget the clone is kept and evicted when it is no longer used.
+                clonedForEnrichment = repositoryRoot != null && tempCloneMode
+                        && gitManager.getCloneMode() != CloneMode.BARE && !gitManager.hasDiskBudget();
+            }
+            if (repositoryRoot == null) {
+                // Without sources only JDK types resolve; still better than leaving the classes pending forever
+                logger.warn("No checkout for {}, resolving referenced types against the JDK only", gitUrl);
+            }
+            JavaParser parser = TestClassParser.createParser(repositoryRoot, dependenciesDir, ParseProfile.FULL);
+
+            int resolved = 0;
+            int failed = 0;
+            List<ReferencedTypeEnrichmentStore.PendingTestClass> batch;
+            while (!Thread.currentThread().isInterrupted()
+                    && !(batch = store.loadPendingBatch(repository.repositoryId(), BATCH_SIZE)).isEmpty()) {
+                List<ReferencedTypeEnrichmentStore.ResolvedTypes> resolvedBatch = new ArrayList<>();
+                List<Long> failedIds = new ArrayList<>();
+                for (ReferencedTypeEnrichmentStore.PendingTestClass testClass : batch) {
+                    ReferencedTypeEnrichmentStore.ResolvedTypes types = resolve(testClass, parser, repositoryRoot);
+                    if (types != null) {
+                        resolvedBatch.add(types);
+                    } else {
+                        failedIds.add(testClass.id());
+                    }
+                }
+                store.saveResolved(resolvedBatch);
+                store.markFailed(failedIds);
+                resolved += resolvedBatch.size();
+                failed += failedIds.size();
+                resolvedClasses.addAndGet(resolvedBatch.size());
+                failedClasses.addAndGet(failedIds.size());
+            }
+            completedRepositories.incrementAndGet();
+            lastEnrichmentTime.set(LocalDateTime.now());
+            logger.info("Resolved referenced types of {} classes in {} ({} failed) in {} ms",
+                    resolved, gitUrl, failed, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            lastEnrichmentError.set(e.getMessage());
+            logger.error("Referenced type enrichment failed for {}", gitUrl, e);
+        } finally {
+            if (clonedForEnrichment) {
+                gitManager.deleteRepository(gitUrl);
+            } else if (pinned) {
+                gitManager.releaseRepository(gitUrl);
+            }
+            if (locks != null) {
+                locks.unlock(gitUrl);
+            }
+            activeRepositories.remove(repository.repositoryId());
+        }
+    }
+
+    /**
+     * Re-parse stored class content with symbol resolution.
+     *
+     * @return resolved types, or null if the content cannot be parsed
+     */
+    static ReferencedTypeEnrichmentStore.ResolvedTypes resolve(ReferencedTypeEnrichmentStore.PendingTestClass testClass,
+            JavaParser parser, Path repositoryRoot) {
+        if (testClass.content() == null || testClass.content().isEmpty()) {
+            return null;
+        }
+        Path filePath = repositoryRoot != null && testClass.filePath() != null
+                ? repositoryRoot.resolve(testClass.filePath())
+                : Path.of(testClass.filePath() != null ? testClass.filePath() : "Unknown.java");
+        try {
+            TestClassInfo info = TestClassParser.parseTestClassWithHelpers(filePath, testClass.content(), parser, repositoryRoot)
+                    .getTestClassInfo();
+            if (info.getClassName() == null || info.getClassName().isEmpty()) {
+                // Parsed with recovery but no test class found: the stored content is not a usable class
+                return null;
+            }
+            return new ReferencedTypeEnrichmentStore.ResolvedTypes(testClass.id(), info.getImportedTypes(), info.getReferencedTypes());
+        } catch (Exception e) {
+            logger.debug("Could not re-parse {} for type resolution: {}", testClass.filePath(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Data class for enrichment progress.
+     */
+    public static class EnrichmentStatus {
+        private final boolean running;
+        private final int workerCount;
+        private final Set<Long> activeRepositoryIds;
+        private final long resolvedClasses;
+        private final long failedClasses;
+        private final int completedRepositories;
+        private final LocalDateTime lastEnrichmentTime;
+        private final String lastEnrichmentError;
+        private final List<ReferencedTypeEnrichmentStore.RepositoryProgress> repositories;
+
+        public EnrichmentStatus(boolean running, int workerCount, Set<Long> activeRepositoryIds, long resolvedClasses,
+                long failedClasses, int completedRepositories, LocalDateTime lastEnrichmentTime,
+                String lastEnrichmentError, List<ReferencedTypeEnrichmentStore.RepositoryProgress> repositories) {
+            this.running = running;
+            this.workerCount = workerCount;
+            this.activeRepositoryIds = activeRepositoryIds;
+            this.resolvedClasses = resolvedClasses;
+            this.failedClasses = failedClasses;
+            this.completedRepositories = completedRepositories;
+            this.lastEnrichmentTime = lastEnrichmentTime;
+            this.lastEnrichmentError = lastEnrichmentError;
+            this.repositories = repositories;
+        }
+
+        public boolean isRunning() {
+            return running;
+        }
+
+        public int getWorkerCount() {
+            return workerCount;
+        }
+
+        public Set<Long> getActiveRepositoryIds() {
+            return activeRepositoryIds;
+        }
+
+        /**
+         * Classes resolved since the application started.
+         */
+        public long getResolvedClasses() {
+            return resolvedClasses;
+        }
+
+        /**
+         * Classes marked FAILED since the application started.
+         */
+        public long getFailedClasses() {
+            return failedClasses;
+        }
+
+        public int getCompletedRepositories() {
+            return completedRepositories;
+        }
+
+        public LocalDateTime getLastEnrichmentTime() {
+            return lastEnrichmentTime;
+        }
+
+        public String getLastEnrichmentError() {
+            return lastEnrichmentError;
+        }
+
+        public List<ReferencedTypeEnrichmentStore.RepositoryProgress> getRepositories() {
+            return repositories;
+        }
+
+        public int getPendingClasses() {
+            return repositories.stream().mapToInt(ReferencedTypeEnrichmentStore.RepositoryProgress::pendingClasses).sum();
+        }
+
+        /**
+         * Seconds since the scan that produced the repository's oldest pending class, or 0 when nothing is pending.
+         */
+        public static long lagSeconds(ReferencedTypeEnrichmentStore.RepositoryProgress progress, LocalDateTime now) {
+            if (progress.pendingClasses() == 0 || progress.oldestPendingScanDate() == null) {
+                return 0;
+            }
+            return Math.max(0, Duration.between(progress.oldestPendingScanDate(), now).getSeconds());
+        }
+    }
+}
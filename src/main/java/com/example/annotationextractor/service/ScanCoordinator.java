@@ -0,0 +1,231 @@
+package com.example.annotationextractor.service;
+
+import com.example.annotationextractor.runner.RepositoryLocks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coordinates full scans and repository-level scans of the hub.
+ *
+ * Only one full scan runs at a time. Repository-level scans go through a work queue served by their
+ * own pool, sized by the repositoryScanWorkers setting, and run next to a full scan: both take the
+ * per-repository lock of {@link #getRepositoryLocks()} while they fetch and parse a repository, so a
+ * repository the full scan has finished or not reached yet is rescanned right away, and one it is
+ * working on waits until it is done.
+ *
+ * Requests for a repository already waiting in the queue join that scan. A request for a repository
+ * being scanned right now queues one follow-up scan, which later requests join in turn, so the latest
+ * commit is always picked up and a burst of requests costs at most two scans.
+ */
+public class ScanCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScanCoordinator.class);
+
+    /**
+     * Scans one repository and merges its results into the latest scan session.
+     */
+    @FunctionalInterface
+    public interface RepositoryScanJob {
+        boolean scan(String gitUrl, Long repositoryId) throws Exception;
+    }
+
+    private record QueuedScan(Long repositoryId, CompletableFuture<Boolean> result) {}
+
+    private final RepositoryScanJob job;
+    private final RepositoryLocks repositoryLocks = new RepositoryLocks();
+    private final AtomicBoolean fullScanRunning = new AtomicBoolean(false);
+
+    private final Object queueLock = new Object();
+    private final Map<String, QueuedScan> queued = new LinkedHashMap<>();
+    private final Set<String> running = new TreeSet<>();
+    private ExecutorService pool;
+    private int poolSize;
+
+    private final AtomicLong coalescedRequests = new AtomicLong();
+    private final AtomicLong completedScans = new AtomicLong();
+    private final AtomicLong failedScans = new AtomicLong();
+
+    public ScanCoordinator(RepositoryScanJob job) {
+        this.job = job;
+    }
+
+    /**
+     * Locks to hand to every scanner of the hub, full or repository-level.
+     */
+    public RepositoryLocks getRepositoryLocks() {
+        return repositoryLocks;
+    }
+
+    /**
+     * @return false if a full scan is already running
+     */
+    public boolean tryStartFullScan() {
+        return fullScanRunning.compareAndSet(false, true);
+    }
+
+    public void finishFullScan() {
+        fullScanRunning.set(false);
+    }
+
+    public boolean isFullScanRunning() {
+        return fullScanRunning.get();
+    }
+
+    /**
+     * Queue a repository-level scan, or join the one already waiting for the repository.
+     *
+     * @param workerCount repository scan workers; the pool is resized when the setting changed
+     * @return completes with true when the scan merged its results, false when it failed
+     */
+    public CompletableFuture<Boolean> submit(String gitUrl, Long repositoryId, int workerCount) {
+        synchronized (queueLock) {
+            resizePool(workerCount);
+            QueuedScan existing = queued.get(gitUrl);
+            if (existing != null) {
+                coalescedRequests.incrementAndGet();
+                logger.info("Scan of {} already queued, joining it", gitUrl);
+                return existing.result();
+            }
+            QueuedScan scan = new QueuedScan(repositoryId, new CompletableFuture<>());
+            queued.put(gitUrl, scan);
+            if (running.contains(gitUrl)) {
+                logger.info("Repository {} is being scanned, queued a follow-up scan", gitUrl);
+            } else {
+                dispatch(gitUrl);
+            }
+            return scan.result();
+        }
+    }
+
+    /**
+     * Whether any repository-level scan is queued or running.
+     */
+    public boolean hasRepositoryScans() {
+        synchronized (queueLock) {
+            return !queued.isEmpty() || !running.isEmpty();
+        }
+    }
+
+    /**
+     * Repositories waiting for a repository scan worker or for a running scan of themselves, in request order.
+     */
+    public List<String> getQueuedRepositories() {
+        synchronized (queueLock) {
+            return new ArrayList<>(queued.keySet());
+        }
+    }
+
+    /**
+     * Repositories a repository-level scan is working on, sorted by URL.
+     */
+    public Set<String> getRunningRepositories() {
+        synchronized (queueLock) {
+            return new TreeSet<>(running);
+        }
+    }
+
+    public int getWorkers() {
+        synchronized (queueLock) {
+            return pool != null ? poolSize : 0;
+        }
+    }
+
+    /**
+     * Requests that joined a scan already queued instead of starting their own.
+     */
+    public long getCoalescedRequests() {
+        return coalescedRequests.get();
+    }
+
+    public long getCompletedScans() {
+        return completedScans.get();
+    }
+
+    public long getFailedScans() {
+        return failedScans.get();
+    }
+
+    public void shutdown() {
+        synchronized (queueLock) {
+            if (pool != null) {
+                pool.shutdownNow();
+                pool = null;
+            }
+        }
+    }
+
+    private void resizePool(int workerCount) {
+        int size = Math.max(1, workerCount);
+        if (pool != null && poolSize == size) {
+            return;
+        }
+        if (pool != null) {
+            // Running scans finish on the old pool; queued ones are dispatched to the resized one
+            pool.shutdown();
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(size, runnable -> {
+            Thread thread = new Thread(runnable, "repository-scan-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        poolSize = size;
+    }
+
+    /**
+     * Hand the queued scan of a repository to a worker; called with queueLock held.
+     */
+    private void dispatch(String gitUrl) {
+        try {
+            if (pool == null) {
+                throw new RejectedExecutionException("Scan coordinator is shut down");
+            }
+            pool.execute(() -> runQueued(gitUrl));
+        } catch (RejectedExecutionException e) {
+            QueuedScan scan = queued.remove(gitUrl);
+            failedScans.incrementAndGet();
+            logger.warn("Repository scan of {} rejected: {}", gitUrl, e.getMessage());
+            scan.result().complete(false);
+        }
+    }
+
+    private void runQueued(String gitUrl) {
+        QueuedScan scan;
+        synchronized (queueLock) {
+            scan = queued.remove(gitUrl);
+            if (scan == null) {
+                return;
+            }
+            running.add(gitUrl);
+        }
+        boolean success = false;
+        try {
+            success = job.scan(gitUrl, scan.repositoryId());
+        } catch (Exception e) {
+            logger.error("Repository-level scan of {} failed", gitUrl, e);
+        } finally {
+            (success ? completedScans : failedScans).incrementAndGet();
+            synchronized (queueLock) {
+                running.remove(gitUrl);
+                if (queued.containsKey(gitUrl)) {
+                    dispatch(gitUrl);
+                }
+            }
+            scan.result().complete(success);
+        }
+    }
+}
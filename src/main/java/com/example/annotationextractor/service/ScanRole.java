@@ -0,0 +1,43 @@
+package com.example.annotationextractor.service;
+
+/**
+ * What an instance of the dashboard does with scans, set per instance by testcraft.scanning.role.
+ */
+public enum ScanRole {
+
+    /**
+     * Scans in-process: scheduled and manual scans run on this instance. The default for a single instance.
+     */
+    STANDALONE,
+
+    /**
+     * Serves the API only: scans are queued as jobs in the database for workers and nothing is scanned here.
+     */
+    API,
+
+    /**
+     * Queues scans like API and also claims and runs scan jobs from the queue; run as many as needed.
+     */
+    WORKER;
+
+    /**
+     * Parse a configured role name, falling back to STANDALONE for unknown or empty values.
+     */
+    public static ScanRole fromString(String value) {
+        if (value == null || value.isBlank()) {
+            return STANDALONE;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return STANDALONE;
+        }
+    }
+
+    /**
+     * Whether scans are distributed through the job queue instead of run in-process.
+     */
+    public boolean usesQueue() {
+        return this != STANDALONE;
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.annotationextractor.service;
+
+import com.example.annotationextractor.application.ScanConfigService;
+import com.example.annotationextractor.application.ScanJobQueue;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scan worker of the WORKER role: claims repository scan jobs from the database-backed queue and
+ * runs each end-to-end on this instance, merging the results into the job's scan session.
+ *
+ * Up to repositoryScanWorkers jobs run at a time, each with its own scanner and parsers, so jobs
+ * never share a parser or repository root. Leases of running jobs are renewed on a heartbeat,
+ * so a job is only taken over by another worker when this one dies or stalls. Before merging, a job
+ * renews its lease once more and discards its results if another worker took it over meanwhile. The
+ * worker finishing the last job of a distributed full scan completes its session.
+ */
+@Service
+public class ScanWorkerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScanWorkerService.class);
+
+    private final ScheduledScanService scheduledScanService;
+    private final ScanConfigService scanConfigService;
+    private final ScanJobQueue queue = new ScanJobQueue();
+    private final boolean enabled;
+    private final String workerId;
+    private final long leaseMs;
+    private final long retryDelayMs;
+
+    private final Object poolLock = new Object();
+    private ExecutorService pool;
+    private int poolSize;
+
+    private final Map<Long, ScanJobQueue.ScanJob> runningJobs = new ConcurrentHashMap<>();
+    private final AtomicLong completedJobs = new AtomicLong();
+    private final AtomicLong failedJobs = new AtomicLong();
+
+    public ScanWorkerService(ScheduledScanService scheduledScanService, ScanConfigService scanConfigService,
+            @Value("${testcraft.scanning.role:standalone}") String scanRole,
+            @Value("${testcraft.scanning.queue.lease-seconds:600}") long leaseSeconds,
+            @Value("${testcraft.scanning.queue.retry-delay-seconds:60}") long retryDelaySeconds) {
+        this.scheduledScanService = scheduledScanService;
+        this.scanConfigService = scanConfigService;
+        this.enabled = ScanRole.fromString(scanRole) == ScanRole.WORKER;
+        this.workerId = resolveWorkerId();
+        this.leaseMs = Math.max(1L, leaseSeconds) * 1000L;
+        this.retryDelayMs = Math.max(0L, retryDelaySeconds) * 1000L;
+    }
+
+    /**
+     * Claim as many jobs as there are free workers.
+     * Configured via application.yml: testcraft.scanning.queue.poll-interval-ms
+     */
+    @Scheduled(fixedDelayString = "${testcraft.scanning.queue.poll-interval-ms:10000}")
+    public void pollQueue() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (Long scanSessionId : queue.failExpiredLeases()) {
+                completeSessionIfDone(scanSessionId);
+            }
+            int workers = Math.max(1, scanConfigService.getCurrentConfig().getRepositoryScanWorkers());
+            ExecutorService executor = resolvePool(workers);
+            List<ScanJobQueue.ScanJob> jobs = queue.claim(workerId, workers - runningJobs.size(), leaseMs);
+            for (ScanJobQueue.ScanJob job : jobs) {
+                runningJobs.put(job.id(), job);
+                executor.execute(() -> runJob(job));
+            }
+            if (!jobs.isEmpty()) {
+                logger.info("Worker {} claimed {} scan jobs", workerId, jobs.size());
+            }
+        } catch (SQLException e) {
+            logger.warn("Failed to claim scan jobs: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Extend the leases of the jobs running on this worker; must run well within the lease time.
+     * Configured via application.yml: testcraft.scanning.queue.heartbeat-interval-ms
+     */
+    @Scheduled(fixedDelayString = "${testcraft.scanning.queue.heartbeat-interval-ms:60000}")
+    public void renewLeases() {
+        if (!enabled || runningJobs.isEmpty()) {
+            return;
+        }
+        try {
+            Set<Long> jobIds = Set.copyOf(runningJobs.keySet());
+            int renewed = queue.renewLeases(workerId, jobIds, leaseMs);
+            if (renewed < jobIds.size()) {
+                logger.warn("Worker {} lost the lease of {} scan jobs to other workers", workerId, jobIds.size() - renewed);
+            }
+        } catch (SQLException e) {
+            logger.warn("Failed to renew scan job leases: {}", e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * Git URLs of the jobs running on this worker.
+     */
+    public List<String> getRunningRepositories() {
+        return runningJobs.values().stream().map(ScanJobQueue.ScanJob::gitUrl).sorted().toList();
+    }
+
+    public long getCompletedJobs() {
+        return completedJobs.get();
+    }
+
+    public long getFailedJobs() {
+        return failedJobs.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (poolLock) {
+            if (pool != null) {
+                // Interrupted jobs are left to lease expiry and claimed again by another worker
+                pool.shutdownNow();
+                pool = null;
+            }
+        }
+    }
+
+    private void runJob(ScanJobQueue.ScanJob job) {
+        long start = System.currentTimeMillis();
+        boolean success = false;
+        String error = "Scan failed";
+        AtomicBoolean leaseLost = new AtomicBoolean();
+        try {
+            // Renewed right before the merge, so the job cannot expire and be taken over while merging
+            success = scheduledScanService.runScanJob(job, () -> {
+                if (queue.renewLease(job, workerId, leaseMs)) {
+                    return true;
+                }
+                leaseLost.set(true);
+                return false;
+            });
+        } catch (Exception e) {
+            error = e.getMessage() != null ? e.getMessage() : e.toString();
+            logger.error("Scan job {} for {} failed", job.id(), job.gitUrl(), e);
+        }
+        try {
+            if (leaseLost.get()) {
+                // The worker that took the job over records its result
+                logger.warn("Worker {} lost the lease of scan job {} for {}, results discarded", workerId, job.id(), job.gitUrl());
+            } else if (success) {
+                if (queue.complete(job, workerId)) {
+                    completedJobs.incrementAndGet();
+                    logger.info("Scan job {} for {} done in {} ms", job.id(), job.gitUrl(), System.currentTimeMillis() - start);
+                }
+            } else {
+                failedJobs.incrementAndGet();
+                boolean retried = queue.fail(job, workerId, error, retryDelayMs);
+                logger.warn("Scan job {} for {} failed on attempt {}{}", job.id(), job.gitUrl(), job.attempts(),
+                        retried ? ", will be retried" : ", giving up");
+            }
+            if (leaseLost.get()) {
+                return;
+            }
+            if (job.repositoryId() != null) {
+                // Repository-level job merged into a completed session
+                if (success) {
+                    scheduledScanService.completeQueuedScan();
+                }
+            } else if (job.scanSessionId() != null) {
+                completeSessionIfDone(job.scanSessionId());
+            }
+        } catch (SQLException e) {
+            // The lease runs out and the job is claimed again
+            logger.error("Failed to record the result of scan job {} for {}", job.id(), job.gitUrl(), e);
+        } finally {
+            runningJobs.remove(job.id());
+        }
+    }
+
+    private boolean completeSessionIfDone(long scanSessionId) throws SQLException {
+        if (!queue.completeSessionIfDone(scanSessionId)) {
+            return false;
+        }
+        logger.info("Worker {} completed queued scan session {}", workerId, scanSessionId);
+        scheduledScanService.completeQueuedScan();
+        return true;
+    }
+
+    private ExecutorService resolvePool(int workerCount) {
+        synchronized (poolLock) {
+            if (pool != null && poolSize == workerCount) {
+                return pool;
+            }
+            if (pool != null) {
+                // Running jobs finish on the old pool; new jobs go to the resized one
+                pool.shutdown();
+            }
+            AtomicInteger threadIndex = new AtomicInteger();
+            pool = Executors.newFixedThreadPool(workerCount, runnable -> {
+                Thread thread = new Thread(runnable, "scan-worker-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            poolSize = workerCount;
+            return pool;
+        }
+    }
+
+    private static String resolveWorkerId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown-host";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+}
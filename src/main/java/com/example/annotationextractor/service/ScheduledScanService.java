@@ -1,22 +1,40 @@
 package com.example.annotationextractor.service;
 
 import com.example.annotationextractor.application.ScanConfigService;
+import com.example.annotationextractor.application.ScanJobQueue;
+import com.example.annotationextractor.casemodel.ParseProfile;
+import com.example.annotationextractor.casemodel.ParseResultCache;
+import com.example.annotationextractor.casemodel.TestFilePreFilter;
 import com.example.annotationextractor.domain.model.ScanConfig;
 import com.example.annotationextractor.domain.model.ScanRepositoryEntry;
 import com.example.annotationextractor.runner.RepositoryHubScanner;
+import com.example.annotationextractor.runner.RepositoryScanPipeline;
+import com.example.annotationextractor.runner.ScanPlanner;
+import com.example.annotationextractor.runner.TestRootFinder;
+import com.example.annotationextractor.util.CloneMode;
+import com.example.annotationextractor.util.GitCommandExecutor;
 import com.example.annotationextractor.util.GitRepositoryManager;
+import com.example.annotationextractor.util.HubDiskLedger;
+import com.example.annotationextractor.util.SharedObjectStore;
 import com.example.annotationextractor.testcase.TestCaseService;
 import com.example.annotationextractor.web.dto.ScanConfigDto;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
@@ -32,18 +50,42 @@ public class ScheduledScanService {
     private final ScanConfigService scanConfigService;
     private final TestCaseService testCaseService;
     private final java.util.Optional<com.example.annotationextractor.application.PersistenceReadFacade> persistenceReadFacade;
-
-    // Thread-safe state tracking
-    private final AtomicBoolean isScanning = new AtomicBoolean(false);
+    private final ReferencedTypeEnrichmentService enrichmentService;
+    private final ScanRole scanRole;
+    private final int jobMaxAttempts;
+    private final Path dependenciesDir;
+    private final ScanJobQueue scanJobQueue = new ScanJobQueue();
+
+    // Thread-safe state tracking; full scans and repository-level scans are coordinated per repository
+    private final ScanCoordinator scanCoordinator = new ScanCoordinator(this::scanRepository);
     private final AtomicReference<LocalDateTime> lastScanTime = new AtomicReference<>();
     private final AtomicReference<String> lastScanStatus = new AtomicReference<>("Never run");
     private final AtomicReference<String> lastScanError = new AtomicReference<>();
+    // Kept across scans so the in-memory LRU index and hit/miss counters are not rebuilt every time
+    private final AtomicReference<ParseResultCache> parseCache = new AtomicReference<>();
+    // Decision counts of the current or last scan
+    private final AtomicReference<TestFilePreFilter.Counts> parseDecisions = new AtomicReference<>();
+    // Shared by all scans so per-host git connection limits and counters span them
+    private final AtomicReference<GitCommandExecutor> gitExecutor = new AtomicReference<>();
+    private final AtomicReference<HubDiskLedger> hubLedger = new AtomicReference<>();
+    private final AtomicReference<ScanPlanner> scanPlanner = new AtomicReference<>();
 
     public ScheduledScanService(ScanConfigService scanConfigService, TestCaseService testCaseService,
-            java.util.Optional<com.example.annotationextractor.application.PersistenceReadFacade> persistenceReadFacade) {
+            java.util.Optional<com.example.annotationextractor.application.PersistenceReadFacade> persistenceReadFacade,
+            ReferencedTypeEnrichmentService enrichmentService,
+            @Value("${testcraft.scanning.role:standalone}") String scanRole,
+            @Value("${testcraft.scanning.queue.max-attempts:3}") int jobMaxAttempts,
+            @Value("${testcraft.scanning.dependencies-dir:}") String dependenciesDir) {
         this.scanConfigService = scanConfigService;
         this.testCaseService = testCaseService;
         this.persistenceReadFacade = persistenceReadFacade;
+        this.enrichmentService = enrichmentService;
+        this.dependenciesDir = toDependenciesDir(dependenciesDir);
+        enrichmentService.setGitManagerFactory(this::createGitManager);
+        enrichmentService.setRepositoryLocks(scanCoordinator.getRepositoryLocks());
+        this.scanRole = ScanRole.fromString(scanRole);
+        this.jobMaxAttempts = Math.max(1, jobMaxAttempts);
+        logger.info("Scan role: {}", this.scanRole);
     }
 
     /**
@@ -54,7 +96,7 @@ public class ScheduledScanService {
     public void performDailyScan() {
         logger.info("Starting scheduled daily repository scan");
 
-        if (!isScanning.compareAndSet(false, true)) {
+        if (!scanCoordinator.tryStartFullScan()) {
             logger.warn("Scan already in progress, skipping scheduled scan");
             return;
         }
@@ -77,12 +119,13 @@ public class ScheduledScanService {
                 lastScanStatus.set("Skipped (no repositories)");
                 return;
             }
+            if (scanRole.usesQueue()) {
+                queueFullScan(config, repositoryEntries);
+                return;
+            }
 
-            GitRepositoryManager gitManager = buildGitManager(config);
-            RepositoryHubScanner scanner = new RepositoryHubScanner(
-                    gitManager,
-                    repositoryEntries,
-                    config.getMaxRepositoriesPerScan());
+            GitRepositoryManager gitManager = createGitManager(config);
+            RepositoryHubScanner scanner = createHubScanner(gitManager, repositoryEntries, config, true);
 
             boolean success = scanner.executeFullScan(config.isTempCloneMode());
             if (success) {
@@ -91,6 +134,7 @@ public class ScheduledScanService {
 
                 // Refresh test case coverage
                 testCaseService.refreshCoverage();
+                requestEnrichment(config);
             } else {
                 lastScanStatus.set("Failed");
                 logger.error("Scheduled daily scan failed");
@@ -109,17 +153,25 @@ public class ScheduledScanService {
             lastScanError.set(e.getMessage());
             logger.error("Error during scheduled scan", e);
         } finally {
-            isScanning.set(false);
+            scanCoordinator.finishFullScan();
         }
     }
 
     /**
-     * Manual scan trigger - can be called via REST API
+     * Manual scan trigger - can be called via REST API.
+     * With repository IDs the repositories are queued for repository-level scans, which run even while
+     * a full scan is in progress; without them a full scan runs unless one is already in progress.
      */
     public boolean triggerManualScan(List<Long> repositoryIds) {
+        if (repositoryIds != null && !repositoryIds.isEmpty()) {
+            if (persistenceReadFacade.isPresent()) {
+                return triggerRepositoryScans(repositoryIds);
+            }
+            logger.warn("PersistenceReadFacade not available, cannot filter by ID. Scanning all.");
+        }
         logger.info("Starting manual repository scan");
 
-        if (!isScanning.compareAndSet(false, true)) {
+        if (!scanCoordinator.tryStartFullScan()) {
             logger.warn("Scan already in progress, cannot start manual scan");
             return false;
         }
@@ -131,76 +183,32 @@ public class ScheduledScanService {
 
             ScanConfig config = scanConfigService.getCurrentConfig();
             List<ScanRepositoryEntry> repositoryEntries = extractActiveRepositories(config);
-
-            // Filter by repository IDs if provided
-            if (repositoryIds != null && !repositoryIds.isEmpty()) {
-                if (persistenceReadFacade.isPresent()) {
-                    java.util.Set<String> targetUrls = new java.util.HashSet<>();
-                    for (Long id : repositoryIds) {
-                        persistenceReadFacade.get().getRepositoryById(id)
-                                .ifPresent(repo -> targetUrls.add(repo.getGitUrl()));
-                    }
-
-                    repositoryEntries = repositoryEntries.stream()
-                            .filter(entry -> targetUrls.contains(entry.getRepositoryUrl()))
-                            .collect(Collectors.toList());
-                    logger.info("Filtering scan for {} repositories: {}", repositoryEntries.size(), repositoryIds);
-                } else {
-                    logger.warn("PersistenceReadFacade not available, cannot filter by ID. Scanning all.");
-                }
-            }
-
             if (repositoryEntries.isEmpty()) {
-                logger.warn("No repository entries configured or matched; skipping manual scan.");
+                logger.warn("No repository entries configured; skipping manual scan.");
                 lastScanStatus.set("Skipped (no repositories)");
                 return false;
             }
+            if (scanRole.usesQueue()) {
+                return queueFullScan(config, repositoryEntries);
+            }
 
-            GitRepositoryManager gitManager = buildGitManager(config);
-            RepositoryHubScanner scanner = new RepositoryHubScanner(
-                    gitManager,
-                    repositoryEntries,
-                    config.getMaxRepositoriesPerScan());
+            GitRepositoryManager gitManager = createGitManager(config);
+            RepositoryHubScanner scanner = createHubScanner(gitManager, repositoryEntries, config, true);
 
-            boolean success;
-            
-            // If repositoryIds are provided, this is a repository-level scan
-            // Merge results into the latest scan session instead of creating a new one
-            if (repositoryIds != null && !repositoryIds.isEmpty()) {
-                logger.info("Repository-level scan detected: merging results into latest scan session");
-                
-                // Find the latest scan session that contains these repositories, or use latest completed session
-                Long targetScanSessionId = findLatestScanSessionForRepositories(repositoryIds);
-                
-                success = scanner.executeRepositoryScan(config.isTempCloneMode(), targetScanSessionId, repositoryIds);
-                
-                if (success) {
-                    lastScanStatus.set("Success (merged into existing session)");
-                    logger.info("Manual repository-level scan completed successfully and merged into scan session: {}", targetScanSessionId);
-                    
-                    // Refresh test case coverage
-                    testCaseService.refreshCoverage();
-                } else {
-                    lastScanStatus.set("Failed");
-                    logger.error("Manual repository-level scan failed");
-                }
+            // Full scan: create a new scan session as before
+            logger.info("Full scan detected: creating new scan session");
+            boolean success = scanner.executeFullScan(config.isTempCloneMode());
+            if (success) {
+                lastScanStatus.set("Success");
+                logger.info("Manual scan completed successfully");
+
+                // Refresh test case coverage
+                testCaseService.refreshCoverage();
+                requestEnrichment(config);
             } else {
-                // Full scan: create a new scan session as before
-                logger.info("Full scan detected: creating new scan session");
-                success = scanner.executeFullScan(config.isTempCloneMode());
-                
-                if (success) {
-                    lastScanStatus.set("Success");
-                    logger.info("Manual scan completed successfully");
-
-                    // Refresh test case coverage
-                    testCaseService.refreshCoverage();
-                } else {
-                    lastScanStatus.set("Failed");
-                    logger.error("Manual scan failed");
-                }
+                lastScanStatus.set("Failed");
+                logger.error("Manual scan failed");
             }
-            
             return success;
 
         } catch (SQLException e) {
@@ -219,10 +227,162 @@ public class ScheduledScanService {
             logger.error("Error during manual scan", e);
             return false;
         } finally {
-            isScanning.set(false);
+            scanCoordinator.finishFullScan();
+        }
+    }
+
+    /**
+     * Queue a repository-level scan per repository and wait for all of them.
+     * Results are merged into the latest scan session instead of creating a new one.
+     */
+    private boolean triggerRepositoryScans(List<Long> repositoryIds) {
+        logger.info("Queueing repository-level scans for repositories {}", repositoryIds);
+        try {
+            lastScanTime.set(LocalDateTime.now());
+            lastScanError.set(null);
+
+            ScanConfig config = scanConfigService.getCurrentConfig();
+            Map<String, Long> targetUrls = new LinkedHashMap<>();
+            for (Long id : repositoryIds) {
+                persistenceReadFacade.get().getRepositoryById(id)
+                        .ifPresent(repo -> targetUrls.putIfAbsent(repo.getGitUrl(), id));
+            }
+            List<ScanRepositoryEntry> repositoryEntries = extractActiveRepositories(config).stream()
+                    .filter(entry -> targetUrls.containsKey(entry.getRepositoryUrl()))
+                    .collect(Collectors.toList());
+            if (repositoryEntries.isEmpty()) {
+                logger.warn("No repository entries configured or matched; skipping manual scan.");
+                lastScanStatus.set("Skipped (no repositories)");
+                return false;
+            }
+
+            if (scanRole.usesQueue()) {
+                return queueRepositoryScans(repositoryEntries, targetUrls);
+            }
+
+            List<CompletableFuture<Boolean>> results = new ArrayList<>();
+            for (ScanRepositoryEntry entry : repositoryEntries) {
+                String gitUrl = entry.getRepositoryUrl();
+                results.add(scanCoordinator.submit(gitUrl, targetUrls.get(gitUrl), config.getRepositoryScanWorkers()));
+            }
+            boolean success = true;
+            for (CompletableFuture<Boolean> result : results) {
+                success &= result.join();
+            }
+
+            if (success) {
+                lastScanStatus.set("Success (merged into existing session)");
+                logger.info("Manual repository-level scan of {} repositories completed successfully", results.size());
+
+                // Refresh test case coverage
+                testCaseService.refreshCoverage();
+                requestEnrichment(config);
+            } else {
+                lastScanStatus.set("Failed");
+                logger.error("Manual repository-level scan failed");
+            }
+            return success;
+
+        } catch (SQLException e) {
+            lastScanStatus.set("Error");
+            lastScanError.set(e.getMessage());
+            logger.error("Failed to load scan configuration", e);
+            return false;
+        }
+    }
+
+    /**
+     * Start a distributed full scan: one job per repository for the scan workers.
+     */
+    private boolean queueFullScan(ScanConfig config, List<ScanRepositoryEntry> repositoryEntries) throws SQLException {
+        List<String> gitUrls = repositoryEntries.stream()
+                .map(ScanRepositoryEntry::getRepositoryUrl)
+                .collect(Collectors.toList());
+        long scanSessionId = scanJobQueue.startScan(config.getRepositoryHubPath(), gitUrls, jobMaxAttempts);
+        if (scanSessionId < 0) {
+            logger.warn("A queued scan is still running; not queueing another one");
+            lastScanStatus.set("Skipped (queued scan still running)");
+            return false;
+        }
+        lastScanStatus.set("Queued");
+        logger.info("Queued {} repository scan jobs for scan session {}", gitUrls.size(), scanSessionId);
+        return true;
+    }
+
+    private boolean queueRepositoryScans(List<ScanRepositoryEntry> repositoryEntries, Map<String, Long> repositoryIds)
+            throws SQLException {
+        int queued = 0;
+        for (ScanRepositoryEntry entry : repositoryEntries) {
+            Long repositoryId = repositoryIds.get(entry.getRepositoryUrl());
+            Long targetScanSessionId = findLatestScanSessionForRepositories(List.of(repositoryId));
+            if (scanJobQueue.enqueue(targetScanSessionId, entry.getRepositoryUrl(), repositoryId, jobMaxAttempts)) {
+                queued++;
+            }
+        }
+        lastScanStatus.set("Queued");
+        logger.info("Queued repository-level scan jobs for {} repositories, {} joined pending jobs",
+                repositoryEntries.size(), repositoryEntries.size() - queued);
+        return true;
+    }
+
+    /**
+     * Run a job claimed from the scan job queue on this worker: scan its repository and merge it into the job's session.
+     *
+     * @param mergeGuard checked before merging, so a worker that lost the job's lease discards its results
+     */
+    public boolean runScanJob(ScanJobQueue.ScanJob job, RepositoryHubScanner.MergeGuard mergeGuard)
+            throws SQLException, IOException {
+        List<Long> repositoryIds = job.repositoryId() != null ? List.of(job.repositoryId()) : null;
+        Long targetScanSessionId = job.scanSessionId() != null
+                ? job.scanSessionId()
+                : findLatestScanSessionForRepositories(repositoryIds);
+        return scanRepository(job.gitUrl(), repositoryIds, targetScanSessionId, mergeGuard);
+    }
+
+    /**
+     * Refresh what depends on scan results once a queued scan finished on this worker.
+     */
+    public void completeQueuedScan() {
+        testCaseService.refreshCoverage();
+        try {
+            requestEnrichment(scanConfigService.getCurrentConfig());
+        } catch (SQLException e) {
+            logger.warn("Failed to load scan configuration for enrichment: {}", e.getMessage());
         }
     }
 
+    /**
+     * Repository-level scan of one repository, run by a {@link ScanCoordinator} worker.
+     */
+    private boolean scanRepository(String gitUrl, Long repositoryId) throws SQLException, IOException {
+        // Merge into the latest scan session that contains the repository, or the latest completed one
+        List<Long> repositoryIds = List.of(repositoryId);
+        return scanRepository(gitUrl, repositoryIds, findLatestScanSessionForRepositories(repositoryIds), null);
+    }
+
+    private boolean scanRepository(String gitUrl, List<Long> repositoryIds, Long targetScanSessionId,
+            RepositoryHubScanner.MergeGuard mergeGuard) throws SQLException, IOException {
+        ScanConfig config = scanConfigService.getCurrentConfig();
+        List<ScanRepositoryEntry> repositoryEntries = extractActiveRepositories(config).stream()
+                .filter(entry -> gitUrl.equals(entry.getRepositoryUrl()))
+                .collect(Collectors.toList());
+        if (repositoryEntries.isEmpty()) {
+            logger.warn("Repository {} is no longer active; skipping its scan", gitUrl);
+            return false;
+        }
+        GitRepositoryManager gitManager = createGitManager(config);
+        RepositoryHubScanner scanner = createHubScanner(gitManager, repositoryEntries, config, false);
+        scanner.setMergeGuard(mergeGuard);
+
+        // Repositories without test classes are simply absent from a queued full scan's session
+        boolean success = scanner.executeRepositoryScan(config.isTempCloneMode(), targetScanSessionId, repositoryIds,
+                repositoryIds == null);
+        if (success) {
+            logger.info("Repository-level scan of {} merged into scan session: {}", gitUrl, targetScanSessionId);
+        }
+        return success;
+    }
+
     /**
      * Overload for backward compatibility
      */
@@ -237,23 +397,83 @@ public class ScheduledScanService {
         try {
             ScanConfig config = scanConfigService.getCurrentConfig();
             return new ScanStatus(
-                    isScanning.get(),
+                    isScanning(),
                     lastScanTime.get(),
                     lastScanStatus.get(),
                     lastScanError.get(),
-                    config);
+                    config,
+                    parseCache.get(),
+                    parseDecisions.get());
         } catch (Exception e) {
             logger.error("Failed to load scan configuration for status", e);
             lastScanError.compareAndSet(null, e.getMessage());
             return new ScanStatus(
-                    isScanning.get(),
+                    isScanning(),
                     lastScanTime.get(),
                     "Error",
                     e.getMessage(),
-                    null);
+                    null,
+                    parseCache.get(),
+                    parseDecisions.get());
         }
     }
 
+    /**
+     * Progress of the background resolution of deferred referenced types
+     */
+    public ReferencedTypeEnrichmentService.EnrichmentStatus getEnrichmentStatus() {
+        return enrichmentService.getStatus();
+    }
+
+    /**
+     * Connection load of every git host contacted by scans so far
+     */
+    public List<GitCommandExecutor.HostStatus> getGitHostStatus() {
+        GitCommandExecutor current = gitExecutor.get();
+        return current != null ? current.getHostStatus() : List.of();
+    }
+
+    public ScanRole getScanRole() {
+        return scanRole;
+    }
+
+    /**
+     * Jobs per status in the database-backed scan job queue; empty when scans run in-process
+     */
+    public Map<String, Integer> getScanJobCounts() {
+        if (!scanRole.usesQueue()) {
+            return Collections.emptyMap();
+        }
+        try {
+            return scanJobQueue.countByStatus();
+        } catch (SQLException e) {
+            logger.warn("Failed to count scan jobs: {}", e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Full scan state, repository-level scan queue and repository locks
+     */
+    public ScanCoordinator getScanCoordinator() {
+        return scanCoordinator;
+    }
+
+    /**
+     * Repositories chosen for the running or last scan with estimated and actual durations, or null before the first scan
+     */
+    public ScanPlanner.ScanPlan getScanPlan() {
+        ScanPlanner planner = scanPlanner.get();
+        return planner != null ? planner.getCurrentPlan() : null;
+    }
+
+    /**
+     * Disk accounting of the hub used by the latest scan, or null before the first scan
+     */
+    public HubDiskLedger getHubDiskLedger() {
+        return hubLedger.get();
+    }
+
     /**
      * Update scan configuration
      */
@@ -268,19 +488,135 @@ public class ScheduledScanService {
         }
     }
 
-    private GitRepositoryManager buildGitManager(ScanConfig config) {
+    @PreDestroy
+    public void shutdown() {
+        scanCoordinator.shutdown();
+    }
+
+    private boolean isScanning() {
+        return scanCoordinator.isFullScanRunning() || scanCoordinator.hasRepositoryScans();
+    }
+
+    /**
+     * @param fullScan whether the scanner runs a full scan; only full scans publish their plan and
+     *                 parse decisions to the status, repository-level scans run next to them
+     */
+    private RepositoryHubScanner createHubScanner(GitRepositoryManager gitManager,
+            List<ScanRepositoryEntry> repositoryEntries, ScanConfig config, boolean fullScan) throws IOException {
+        RepositoryScanPipeline pipeline = new RepositoryScanPipeline(
+                config.getFetchWorkerCount(),
+                config.getRepositoryParseConcurrency(),
+                1,
+                config.getPipelineQueueCapacity());
+        RepositoryHubScanner scanner = new RepositoryHubScanner(
+                gitManager,
+                repositoryEntries,
+                config.getMaxRepositoriesPerScan(),
+                config.getParseWorkerCount(),
+                pipeline,
+                dependenciesDir);
+        scanner.setIncrementalScanEnabled(config.isIncrementalScanEnabled());
+        scanner.setRemoteChangeDetection(config.isRemoteChangeDetectionEnabled());
+        scanner.setScanTimeBudgetMinutes(config.getScanTimeBudgetMinutes());
+        scanner.setRepositoryLocks(scanCoordinator.getRepositoryLocks());
+        if (fullScan) {
+            scanPlanner.set(scanner.getScanPlanner());
+        }
+        scanner.setParseCache(resolveParseCache(gitManager, config));
+        scanner.setParseProfile(ParseProfile.fromString(config.getParseProfile()));
+        scanner.setDeferredTypeResolution(config.isDeferredTypeResolution());
+        scanner.setPreFilterEnabled(config.isPreFilterEnabled());
+        scanner.setTestRootPatterns(TestRootFinder.parsePatterns(config.getTestRootPatterns()));
+        if (fullScan) {
+            parseDecisions.set(scanner.getParseDecisionCounts());
+        }
+        return scanner;
+    }
+
+    private void requestEnrichment(ScanConfig config) {
+        if (config.isDeferredTypeResolution()) {
+            enrichmentService.requestEnrichment();
+        }
+    }
+
+    private ParseResultCache resolveParseCache(GitRepositoryManager gitManager, ScanConfig config) {
+        if (config.getParseCacheMaxMb() <= 0) {
+            parseCache.set(null);
+            return null;
+        }
+        Path cacheDir = ParseResultCache.defaultCacheDir(gitManager.getRepositoryHubPath());
+        long maxBytes = config.getParseCacheMaxMb() * 1024L * 1024L;
+        ParseResultCache current = parseCache.get();
+        if (current != null && current.getCacheDir().equals(cacheDir) && current.getMaxBytes() == maxBytes) {
+            return current;
+        }
+        try {
+            ParseResultCache cache = new ParseResultCache(cacheDir, maxBytes);
+            logger.info("Parse cache at {} holds {} entries ({} bytes)", cacheDir, cache.getEntryCount(), cache.getSizeBytes());
+            parseCache.set(cache);
+            return cache;
+        } catch (IOException e) {
+            logger.warn("Parse cache unavailable at {}, parsing without it: {}", cacheDir, e.getMessage());
+            parseCache.set(null);
+            return null;
+        }
+    }
+
+    private GitRepositoryManager createGitManager(ScanConfig config) {
+        GitRepositoryManager gitManager = buildGitManager(config);
+        gitManager.setGitExecutor(resolveGitExecutor(config));
+        hubLedger.set(gitManager.ledger());
+        return gitManager;
+    }
+
+    private GitCommandExecutor resolveGitExecutor(ScanConfig config) {
+        GitCommandExecutor current = gitExecutor.get();
+        if (current != null
+                && current.getMaxConnectionsPerHost() == config.getGitMaxConnectionsPerHost()
+                && current.getTimeoutSeconds() == config.getGitTimeoutSeconds()
+                && current.getMaxRetries() == config.getGitMaxRetries()
+                && current.getRetryBackoffMs() == config.getGitRetryBackoffMs()) {
+            return current;
+        }
+        // Commands still running on a replaced executor finish under its old limits
+        GitCommandExecutor executor = new GitCommandExecutor(
+                config.getGitMaxConnectionsPerHost(),
+                config.getGitTimeoutSeconds(),
+                config.getGitMaxRetries(),
+                config.getGitRetryBackoffMs());
+        gitExecutor.set(executor);
+        return executor;
+    }
+
+    /**
+     * Directory of dependency jars for symbol resolution, or null when none is configured.
+     */
+    static Path toDependenciesDir(String dependenciesDir) {
+        return dependenciesDir == null || dependenciesDir.isBlank() ? null : Path.of(dependenciesDir);
+    }
+
+    static GitRepositoryManager buildGitManager(ScanConfig config) {
         String gitUsername = System.getenv("GIT_USERNAME");
         String gitPassword = System.getenv("GIT_PASSWORD");
         String gitSshKeyPath = System.getenv("GIT_SSH_KEY_PATH");
         String repositoryHubOverride = System.getenv("REPOSITORY_HUB_PATH");
         String finalRepoPath = repositoryHubOverride != null ? repositoryHubOverride : config.getRepositoryHubPath();
 
-        return new GitRepositoryManager(
+        GitRepositoryManager gitManager = new GitRepositoryManager(
                 finalRepoPath,
                 gitUsername,
                 gitPassword,
                 gitSshKeyPath,
                 config.getScanBranch());
+        gitManager.setCloneMode(CloneMode.fromString(config.getCloneMode()));
+        gitManager.setCloneDepth(config.getCloneDepth());
+        gitManager.setSparseCheckoutRoots(TestRootFinder.parsePatterns(config.getTestRootPatterns()));
+        gitManager.setSparseMainSources(ParseProfile.fromString(config.getParseProfile()) == ParseProfile.FULL
+                || config.isDeferredTypeResolution());
+        gitManager.setObjectSharing(config.isSharedObjectStoreEnabled(),
+                SharedObjectStore.parseGroups(config.getObjectStoreGroups()));
+        gitManager.setDiskBudgetBytes(config.getHubDiskBudgetMb() * 1024L * 1024L);
+        return gitManager;
     }
 
     private List<ScanRepositoryEntry> extractActiveRepositories(ScanConfig config) {
@@ -335,14 +671,29 @@ public class ScheduledScanService {
         private final String lastScanStatus;
         private final String lastScanError;
         private final ScanConfig scanConfig;
+        private final ParseResultCache parseCache;
+        private final TestFilePreFilter.Counts parseDecisions;
 
         public ScanStatus(boolean isScanning, LocalDateTime lastScanTime, String lastScanStatus,
                 String lastScanError, ScanConfig scanConfig) {
+            this(isScanning, lastScanTime, lastScanStatus, lastScanError, scanConfig, null);
+        }
+
+        public ScanStatus(boolean isScanning, LocalDateTime lastScanTime, String lastScanStatus,
+                String lastScanError, ScanConfig scanConfig, ParseResultCache parseCache) {
+            this(isScanning, lastScanTime, lastScanStatus, lastScanError, scanConfig, parseCache, null);
+        }
+
+        public ScanStatus(boolean isScanning, LocalDateTime lastScanTime, String lastScanStatus,
+                String lastScanError, ScanConfig scanConfig, ParseResultCache parseCache,
+                TestFilePreFilter.Counts parseDecisions) {
             this.isScanning = isScanning;
             this.lastScanTime = lastScanTime;
             this.lastScanStatus = lastScanStatus;
             this.lastScanError = lastScanError;
             this.scanConfig = scanConfig;
+            this.parseCache = parseCache;
+            this.parseDecisions = parseDecisions;
         }
 
         public boolean isScanning() {
@@ -400,5 +751,133 @@ public class ScheduledScanService {
         public String getScanBranch() {
             return scanConfig != null ? scanConfig.getScanBranch() : null;
         }
+
+        public int getParseWorkerCount() {
+            return scanConfig != null ? scanConfig.getParseWorkerCount() : 1;
+        }
+
+        public int getFetchWorkerCount() {
+            return scanConfig != null ? scanConfig.getFetchWorkerCount() : 1;
+        }
+
+        public int getRepositoryParseConcurrency() {
+            return scanConfig != null ? scanConfig.getRepositoryParseConcurrency() : 1;
+        }
+
+        public int getPipelineQueueCapacity() {
+            return scanConfig != null ? scanConfig.getPipelineQueueCapacity() : 4;
+        }
+
+        public boolean isIncrementalScanEnabled() {
+            return scanConfig != null ? scanConfig.isIncrementalScanEnabled() : true;
+        }
+
+        public int getParseCacheMaxMb() {
+            return scanConfig != null ? scanConfig.getParseCacheMaxMb() : 512;
+        }
+
+        public String getParseProfile() {
+            return scanConfig != null ? scanConfig.getParseProfile() : "FULL";
+        }
+
+        public boolean isDeferredTypeResolution() {
+            return scanConfig != null ? scanConfig.isDeferredTypeResolution() : false;
+        }
+
+        public int getEnrichmentWorkerCount() {
+            return scanConfig != null ? scanConfig.getEnrichmentWorkerCount() : 1;
+        }
+
+        public boolean isPreFilterEnabled() {
+            return scanConfig != null ? scanConfig.isPreFilterEnabled() : true;
+        }
+
+        public String getTestRootPatterns() {
+            return scanConfig != null ? scanConfig.getTestRootPatterns() : "src/test/java";
+        }
+
+        public String getCloneMode() {
+            return scanConfig != null ? scanConfig.getCloneMode() : "FULL";
+        }
+
+        public int getCloneDepth() {
+            return scanConfig != null ? scanConfig.getCloneDepth() : 1;
+        }
+
+        public int getGitMaxConnectionsPerHost() {
+            return scanConfig != null ? scanConfig.getGitMaxConnectionsPerHost() : 4;
+        }
+
+        public int getGitTimeoutSeconds() {
+            return scanConfig != null ? scanConfig.getGitTimeoutSeconds() : 300;
+        }
+
+        public int getGitMaxRetries() {
+            return scanConfig != null ? scanConfig.getGitMaxRetries() : 2;
+        }
+
+        public int getGitRetryBackoffMs() {
+            return scanConfig != null ? scanConfig.getGitRetryBackoffMs() : 2000;
+        }
+
+        public boolean isSharedObjectStoreEnabled() {
+            return scanConfig != null ? scanConfig.isSharedObjectStoreEnabled() : false;
+        }
+
+        public String getObjectStoreGroups() {
+            return scanConfig != null ? scanConfig.getObjectStoreGroups() : "";
+        }
+
+        public int getHubDiskBudgetMb() {
+            return scanConfig != null ? scanConfig.getHubDiskBudgetMb() : 0;
+        }
+
+        public boolean isRemoteChangeDetectionEnabled() {
+            return scanConfig != null ? scanConfig.isRemoteChangeDetectionEnabled() : true;
+        }
+
+        public int getScanTimeBudgetMinutes() {
+            return scanConfig != null ? scanConfig.getScanTimeBudgetMinutes() : 0;
+        }
+
+        public int getRepositoryScanWorkers() {
+            return scanConfig != null ? scanConfig.getRepositoryScanWorkers() : 2;
+        }
+
+        public long getFullParseFiles() {
+            return parseDecisions != null ? parseDecisions.getFullParse() : 0L;
+        }
+
+        public long getHelperOnlyFiles() {
+            return parseDecisions != null ? parseDecisions.getHelperOnly() : 0L;
+        }
+
+        public long getSkippedFiles() {
+            return parseDecisions != null ? parseDecisions.getSkipped() : 0L;
+        }
+
+        public boolean isParseCacheActive() {
+            return parseCache != null;
+        }
+
+        public long getParseCacheHits() {
+            return parseCache != null ? parseCache.getHitCount() : 0L;
+        }
+
+        public long getParseCacheMisses() {
+            return parseCache != null ? parseCache.getMissCount() : 0L;
+        }
+
+        public long getParseCacheEvictions() {
+            return parseCache != null ? parseCache.getEvictionCount() : 0L;
+        }
+
+        public int getParseCacheEntries() {
+            return parseCache != null ? parseCache.getEntryCount() : 0;
+        }
+
+        public long getParseCacheSizeBytes() {
+            return parseCache != null ? parseCache.getSizeBytes() : 0L;
+        }
     }
 }
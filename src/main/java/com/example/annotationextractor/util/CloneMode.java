@@ -0,0 +1,38 @@
+package com.example.annotationextractor.util;
+
+/**
+ * How GitRepositoryManager materializes repositories in the hub.
+ */
+public enum CloneMode {
+
+    /**
+     * Complete clone with full history and a full working tree.
+     */
+    FULL,
+
+    /**
+     * Blob-filtered, shallow clone whose working tree is limited by sparse-checkout to the
+     * test roots; other blobs are never downloaded.
+     */
+    PARTIAL,
+
+    /**
+     * Bare single-branch mirror without a working tree. Test sources are read straight from the
+     * object database of the scanned commit; mirrors are kept as a cache even in temp clone mode.
+     */
+    BARE;
+
+    /**
+     * Parse a configured mode name, falling back to FULL for unknown or empty values.
+     */
+    public static CloneMode fromString(String value) {
+        if (value == null || value.isBlank()) {
+            return FULL;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return FULL;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.annotationextractor.util;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Files that differ between two commits of a repository, as reported by
+ * {@code git diff --name-status --no-renames}. Paths are relative to the repository
+ * root and always use forward slashes. A rename shows up as a delete plus an add.
+ */
+public class GitChangeSet {
+
+    private final Set<String> changedFiles = new LinkedHashSet<>();
+    private final Set<String> deletedFiles = new LinkedHashSet<>();
+
+    /**
+     * Parse the NUL separated output of {@code git diff --name-status --no-renames -z}.
+     */
+    public static GitChangeSet parseNameStatus(String output) {
+        GitChangeSet changeSet = new GitChangeSet();
+        if (output == null || output.isEmpty()) {
+            return changeSet;
+        }
+        String[] tokens = output.split("\0");
+        for (int i = 0; i + 1 < tokens.length; i += 2) {
+            String status = tokens[i].trim();
+            String path = tokens[i + 1];
+            if (status.isEmpty() || path.isEmpty()) {
+                continue;
+            }
+            if (status.charAt(0) == 'D') {
+                changeSet.deletedFiles.add(path);
+            } else {
+                changeSet.changedFiles.add(path);
+            }
+        }
+        return changeSet;
+    }
+
+    /**
+     * Added, modified or type-changed files.
+     */
+    public Set<String> getChangedFiles() {
+        return Collections.unmodifiableSet(changedFiles);
+    }
+
+    public Set<String> getDeletedFiles() {
+        return Collections.unmodifiableSet(deletedFiles);
+    }
+
+    /**
+     * Every path whose previous scan data is no longer valid.
+     */
+    public Set<String> getAllPaths() {
+        Set<String> all = new LinkedHashSet<>(changedFiles);
+        all.addAll(deletedFiles);
+        return all;
+    }
+
+    public boolean isEmpty() {
+        return changedFiles.isEmpty() && deletedFiles.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "GitChangeSet{changed=" + changedFiles.size() + ", deleted=" + deletedFiles.size() + '}';
+    }
+}
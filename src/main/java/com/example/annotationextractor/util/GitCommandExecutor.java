@@ -0,0 +1,243 @@
+package com.example.annotationextractor.util;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs git processes for any number of concurrent callers.
+ *
+ * Commands that talk to a git server take a permit of that server's host first, so however many
+ * fetch workers are running, no host sees more than the configured number of connections; callers
+ * beyond that wait in the host's queue. Failed or timed-out remote commands are retried with
+ * exponential backoff, without holding a permit while waiting. Output of all processes is drained
+ * by the shared {@link ProcessOutputPump} instead of one reader thread per command.
+ */
+public class GitCommandExecutor {
+
+    private static final long MAX_BACKOFF_MS = 60_000L;
+
+    /**
+     * Outcome of a git command.
+     *
+     * @param exitCode process exit code, -1 if the process could not be started or timed out
+     * @param output standard output (and standard error unless redirected by the caller)
+     * @param timedOut whether the last attempt was killed after the timeout
+     * @param attempts number of attempts made
+     */
+    public record Result(int exitCode, String output, boolean timedOut, int attempts) {
+        public boolean isSuccess() {
+            return exitCode == 0 && !timedOut;
+        }
+    }
+
+    /**
+     * Load of one git host.
+     *
+     * @param active commands currently holding a connection permit
+     * @param queued commands waiting for a permit
+     */
+    public record HostStatus(String host, int active, int queued, long completed, long failed, long retries) {}
+
+    private static final class HostState {
+        private final Semaphore permits;
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+
+        private HostState(int maxConnections) {
+            this.permits = new Semaphore(maxConnections, true);
+        }
+    }
+
+    private final int maxConnectionsPerHost;
+    private final int timeoutSeconds;
+    private final int maxRetries;
+    private final long retryBackoffMs;
+    private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * 4 connections per host, 5 minute timeout, 2 retries starting at 2 seconds.
+     */
+    public GitCommandExecutor() {
+        this(4, 300, 2, 2000L);
+    }
+
+    /**
+     * @param maxConnectionsPerHost concurrent remote commands per git host
+     * @param timeoutSeconds time limit of a single attempt
+     * @param maxRetries additional attempts of a failed remote command
+     * @param retryBackoffMs wait before the first retry; doubled for every further retry
+     */
+    public GitCommandExecutor(int maxConnectionsPerHost, int timeoutSeconds, int maxRetries, long retryBackoffMs) {
+        this.maxConnectionsPerHost = Math.max(1, maxConnectionsPerHost);
+        this.timeoutSeconds = Math.max(1, timeoutSeconds);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.retryBackoffMs = Math.max(0L, retryBackoffMs);
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public long getRetryBackoffMs() {
+        return retryBackoffMs;
+    }
+
+    /**
+     * Run a local command once, without a host permit.
+     *
+     * @param setup adjusts the process builder (environment, redirects) before start; can be null
+     * @param echo print every output line prefixed with "git> "
+     */
+    public Result run(List<String> command, Path directory, Consumer<ProcessBuilder> setup, boolean echo) {
+        return runOnce(command, directory, setup, echo, 1);
+    }
+
+    /**
+     * Run a command that contacts the git server of {@code gitUrl}, limited per host and retried on failure.
+     *
+     * @param beforeRetry cleanup run before every retry, e.g. removing a partial clone; can be null
+     */
+    public Result runRemote(String gitUrl, List<String> command, Path directory, Consumer<ProcessBuilder> setup,
+            Runnable beforeRetry) {
+        HostState host = hosts.computeIfAbsent(hostOf(gitUrl), key -> new HostState(maxConnectionsPerHost));
+        Result result = null;
+        for (int attempt = 1; attempt <= maxRetries + 1; attempt++) {
+            if (attempt > 1) {
+                long backoff = Math.min(MAX_BACKOFF_MS, retryBackoffMs << Math.min(attempt - 2, 16));
+                System.out.println("Retrying git command in " + backoff + " ms (attempt " + attempt + " of "
+                        + (maxRetries + 1) + "): " + String.join(" ", command));
+                host.retries.incrementAndGet();
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                if (beforeRetry != null) {
+                    beforeRetry.run();
+                }
+            }
+            host.queued.incrementAndGet();
+            try {
+                host.permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                host.queued.decrementAndGet();
+            }
+            host.active.incrementAndGet();
+            try {
+                result = runOnce(command, directory, setup, true, attempt);
+            } finally {
+                host.active.decrementAndGet();
+                host.permits.release();
+            }
+            if (result.isSuccess()) {
+                host.completed.incrementAndGet();
+                return result;
+            }
+        }
+        host.failed.incrementAndGet();
+        return result != null ? result : new Result(-1, "", false, 0);
+    }
+
+    /**
+     * Current load of every host contacted so far, sorted by host name.
+     */
+    public List<HostStatus> getHostStatus() {
+        Map<String, HostState> sorted = new TreeMap<>(hosts);
+        List<HostStatus> status = new ArrayList<>(sorted.size());
+        for (Map.Entry<String, HostState> entry : sorted.entrySet()) {
+            HostState state = entry.getValue();
+            status.add(new HostStatus(entry.getKey(), state.active.get(), state.queued.get(),
+                    state.completed.get(), state.failed.get(), state.retries.get()));
+        }
+        return status;
+    }
+
+    private Result runOnce(List<String> command, Path directory, Consumer<ProcessBuilder> setup, boolean echo, int attempt) {
+        try {
+            ProcessBuilder pb = new ProcessBuilder(command);
+            if (directory != null) {
+                pb.directory(directory.toFile());
+            }
+            pb.redirectErrorStream(true);
+            if (setup != null) {
+                setup.accept(pb);
+            }
+
+            Process process = pb.start();
+            ProcessOutputPump.Drain drain = ProcessOutputPump.shared()
+                    .register(process, echo ? line -> System.out.println("git> " + line) : null);
+
+            boolean completed = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
+            if (!completed) {
+                System.err.println("Git command timed out after " + timeoutSeconds + " seconds: " + command);
+                process.destroyForcibly();
+                drain.await(1, TimeUnit.SECONDS);
+                return new Result(-1, drain.getOutput(), true, attempt);
+            }
+            drain.await(timeoutSeconds, TimeUnit.SECONDS);
+            return new Result(process.exitValue(), drain.getOutput(), false, attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while running git command " + command);
+            return new Result(-1, "", false, attempt);
+        } catch (Exception e) {
+            System.err.println("Failed to execute git command " + command + ": " + e.getMessage());
+            return new Result(-1, "", false, attempt);
+        }
+    }
+
+    /**
+     * Host a git URL connects to: the part between "git@" and ':' for scp-like SSH URLs,
+     * the URI host (with a non-default port) otherwise, "local" for file paths.
+     */
+    static String hostOf(String gitUrl) {
+        if (gitUrl == null || gitUrl.isBlank()) {
+            return "local";
+        }
+        String url = gitUrl.trim();
+        if (!url.contains("://")) {
+            int colon = url.indexOf(':');
+            int slash = url.indexOf('/');
+            if (colon > 0 && (slash < 0 || colon < slash)) {
+                String host = url.substring(0, colon);
+                return host.substring(host.indexOf('@') + 1).toLowerCase();
+            }
+            return "local";
+        }
+        try {
+            URI uri = URI.create(url);
+            if (uri.getHost() == null) {
+                return "local";
+            }
+            String host = uri.getHost().toLowerCase();
+            return uri.getPort() > 0 ? host + ":" + uri.getPort() : host;
+        } catch (IllegalArgumentException e) {
+            return "local";
+        }
+    }
+}
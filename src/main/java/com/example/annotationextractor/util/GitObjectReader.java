@@ -0,0 +1,126 @@
+package com.example.annotationextractor.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads blobs from a repository's object database through one long-running
+ * {@code git cat-file --batch} process, so file contents can be scanned without a working tree.
+ *
+ * Objects are requested one at a time and read back before the next request, so the process pipes
+ * never fill up. Reads are synchronized and the reader can be shared by parse workers.
+ */
+public class GitObjectReader implements Closeable {
+
+    /**
+     * A file of a commit's tree.
+     *
+     * @param path repository-relative path with '/' separators
+     * @param objectId blob id
+     * @param size blob size in bytes
+     */
+    public record TreeEntry(String path, String objectId, long size) {}
+
+    private final Path gitDir;
+    private final Process process;
+    private final OutputStream requests;
+    private final InputStream responses;
+
+    /**
+     * @param gitDir repository to read from: a bare repository or a working tree
+     */
+    public GitObjectReader(Path gitDir) throws IOException {
+        this.gitDir = gitDir;
+        this.process = new ProcessBuilder("git", "cat-file", "--batch")
+                .directory(gitDir.toFile())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        this.requests = new BufferedOutputStream(process.getOutputStream());
+        this.responses = new BufferedInputStream(process.getInputStream(), 64 * 1024);
+    }
+
+    /**
+     * Read the content of a blob.
+     *
+     * @throws IOException if the object does not exist or the process died
+     */
+    public synchronized byte[] read(String objectId) throws IOException {
+        requests.write((objectId + "\n").getBytes(StandardCharsets.US_ASCII));
+        requests.flush();
+
+        // "<id> <type> <size>" or "<id> missing"
+        String header = readLine();
+        String[] parts = header.split(" ");
+        if (parts.length != 3) {
+            throw new IOException("Object " + objectId + " not readable in " + gitDir + ": " + header);
+        }
+        int size = Integer.parseInt(parts[2]);
+        byte[] content = responses.readNBytes(size);
+        if (content.length < size || responses.read() != '\n') {
+            throw new EOFException("Truncated object " + objectId + " in " + gitDir);
+        }
+        return content;
+    }
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = responses.read()) != '\n') {
+            if (b < 0) {
+                throw new EOFException("git cat-file exited while reading from " + gitDir);
+            }
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Parse the output of {@code git ls-tree -r -z -l}; entries other than blobs (submodules) are skipped.
+     */
+    public static List<TreeEntry> parseTree(String lsTreeOutput) {
+        List<TreeEntry> entries = new ArrayList<>();
+        if (lsTreeOutput == null) {
+            return entries;
+        }
+        for (String record : lsTreeOutput.split("\0")) {
+            // "<mode> <type> <id> <size padded>\t<path>"
+            int tab = record.indexOf('\t');
+            if (tab < 0) {
+                continue;
+            }
+            String[] meta = record.substring(0, tab).trim().split("\\s+");
+            if (meta.length != 4 || !"blob".equals(meta[1])) {
+                continue;
+            }
+            long size = meta[3].equals("-") ? 0L : Long.parseLong(meta[3]);
+            entries.add(new TreeEntry(record.substring(tab + 1), meta[2], size));
+        }
+        return entries;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            requests.close();
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        } finally {
+            responses.close();
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package com.example.annotationextractor.util;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -10,7 +8,20 @@ import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -20,12 +31,34 @@ import java.util.concurrent.TimeUnit;
  */
 public class GitRepositoryManager {
     
+    /**
+     * Hub subdirectory holding the bare mirrors of BARE clone mode.
+     */
+    public static final String MIRROR_DIRECTORY = ".mirrors";
+
     private final String repositoryHubPath;
     private final String username;
     private final String password;
     private final String sshKeyPath;
-    private final int timeoutSeconds;
     private final String targetBranch;
+    private GitCommandExecutor gitExecutor = new GitCommandExecutor();
+    private CloneMode cloneMode = CloneMode.FULL;
+    private int cloneDepth = 1;
+    private List<String> sparseCheckoutRoots = List.of("src/test/java");
+    private boolean sparseMainSources;
+    private final Map<String, FetchStats> fetchStats = new ConcurrentHashMap<>();
+    private SharedObjectStore objectStore;
+    private long diskBudgetBytes;
+
+    /**
+     * Outcome of the last clone or update of a repository.
+     *
+     * @param cloneMode mode the repository was fetched with
+     * @param cloned true for a fresh clone, false for an update of an existing one
+     * @param durationMs wall time of the git commands
+     * @param diskUsageBytes size of the repository directory afterwards, including .git
+     */
+    public record FetchStats(CloneMode cloneMode, boolean cloned, long durationMs, long diskUsageBytes) {}
     
     /**
      * Constructor for GitRepositoryManager with SSH key support
@@ -44,7 +77,6 @@ public class GitRepositoryManager {
         this.username = username;
         this.password = password;
         this.sshKeyPath = sshKeyPath;
-        this.timeoutSeconds = 300; // 5 minutes default timeout
         this.targetBranch = normalizeBranch(targetBranch);
         
         // Pre-populate known hosts to avoid interactive prompts
@@ -133,12 +165,18 @@ public class GitRepositoryManager {
     public Path cloneOrUpdateRepository(String gitUrl) {
         try {
             String repoName = extractRepositoryName(gitUrl);
-            Path repoPath = Paths.get(repositoryHubPath, repoName);
+            Path repoPath = resolveRepositoryPath(repoName);
+            // Not evicted until the caller releases or deletes it
+            ledger().pin(repoPath);
             
-            // If it's already a git repo, just pull
-            if (Files.exists(repoPath.resolve(".git"))) {
-                // Repository exists, pull latest changes
-                if (pullRepository(repoPath, repoName)) {
+            long start = System.nanoTime();
+            
+            // If it's already a git repo, just update it
+            if (isRepository(repoPath)) {
+                // Repository exists, fetch and reset to the latest commit
+                if (updateRepository(gitUrl, repoPath, repoName)) {
+                    shareObjects(gitUrl, repoPath);
+                    recordFetchStats(gitUrl, repoPath, false, start);
                     return repoPath;
                 }
             } else {
@@ -154,6 +192,8 @@ public class GitRepositoryManager {
                 }
                 // Clone fresh
                 if (cloneRepository(gitUrl, repoPath, repoName)) {
+                    shareObjects(gitUrl, repoPath);
+                    recordFetchStats(gitUrl, repoPath, true, start);
                     return repoPath;
                 }
             }
@@ -165,6 +205,35 @@ public class GitRepositoryManager {
         System.err.println("Failed to clone or update repository " + gitUrl);
         return null;
     }
+
+    /**
+     * Join the repository's object store network. Cheap for members already borrowing from their store;
+     * shallow PARTIAL clones are not shared.
+     */
+    private void shareObjects(String gitUrl, Path repoPath) {
+        if (objectStore == null || cloneMode == CloneMode.PARTIAL) {
+            return;
+        }
+        Path gitDir = cloneMode == CloneMode.BARE ? repoPath : repoPath.resolve(".git");
+        if (!objectStore.share(gitExecutor, gitUrl, gitDir)) {
+            System.err.println("Repository keeps its own objects (not shared): " + gitUrl);
+            return;
+        }
+        Path store = objectStore.getReference(gitUrl);
+        if (store != null) {
+            ledger().recordStore(store, calculateDirectorySize(store));
+        }
+    }
+
+    private void recordFetchStats(String gitUrl, Path repoPath, boolean cloned, long startNanos) {
+        long durationMs = (System.nanoTime() - startNanos) / 1_000_000L;
+        long diskUsage = calculateDirectorySize(repoPath);
+        fetchStats.put(gitUrl, new FetchStats(cloneMode, cloned, durationMs, diskUsage));
+        ledger().recordUse(repoPath, diskUsage);
+        enforceDiskBudget();
+        System.out.println((cloned ? "Cloned " : "Updated ") + gitUrl + " (" + cloneMode + ") in " + durationMs
+                + " ms, " + formatFileSize(diskUsage) + " on disk");
+    }
     
     /**
      * Clone a new repository using system Git command
@@ -191,55 +260,31 @@ public class GitRepositoryManager {
                 System.out.println("Requested branch: " + targetBranch);
             }
             
-            // Execute the command
-            ProcessBuilder pb = new ProcessBuilder(command);
-            pb.directory(Paths.get(repositoryHubPath).toFile());
-            
-            // Set environment variables for authentication if needed
-            if (username != null && password != null && !isSshUrl(gitUrl)) {
-                pb.environment().put("GIT_ASKPASS", "echo");
-                pb.environment().put("GIT_USERNAME", username);
-                pb.environment().put("GIT_PASSWORD", password);
-            }
-            
-            // Set SSH key if provided
-            if (sshKeyPath != null && isSshUrl(gitUrl)) {
-                pb.environment().put("GIT_SSH_COMMAND", "ssh -i " + sshKeyPath + " -o StrictHostKeyChecking=no -o UserKnownHostsFile=/dev/null");
-            } else if (isSshUrl(gitUrl)) {
-                // Even without SSH key, disable host key checking for automated operations
-                pb.environment().put("GIT_SSH_COMMAND", "ssh -o StrictHostKeyChecking=no -o UserKnownHostsFile=/dev/null");
-            }
-            
             System.out.println("Executing: " + String.join(" ", command));
             System.out.println("Clone target directory: " + repoPath);
             
-            Process process = pb.start();
-            
-            // Wait for completion with timeout
-            boolean completed = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
-            
-            if (!completed) {
-                process.destroyForcibly();
-                System.err.println("Git clone operation timed out after " + timeoutSeconds + " seconds");
-                return false;
-            }
-            
-            int exitCode = process.exitValue();
+            // Retries start over from an empty target directory
+            GitCommandExecutor.Result result = gitExecutor.runRemote(gitUrl, command, Paths.get(repositoryHubPath),
+                    pb -> applyCloneEnvironment(pb, gitUrl), () -> {
+                        try {
+                            cleanDirectory(repoPath);
+                        } catch (IOException e) {
+                            System.err.println("Could not clean " + repoPath + " before retrying clone: " + e.getMessage());
+                        }
+                    });
             
-            if (exitCode == 0) {
+            if (result.isSuccess()) {
+                if (cloneMode == CloneMode.PARTIAL && !checkoutSparse(gitUrl, repoPath)) {
+                    System.err.println("Failed to check out test roots of repository " + repoName);
+                    return false;
+                }
                 System.out.println("Successfully cloned repository: " + repoName);
                 return true;
-            } else {
-                // Capture error output
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        System.err.println("Git error: " + line);
-                    }
-                }
-                System.err.println("Failed to clone repository " + repoName + " (exit code: " + exitCode + ")");
-                return false;
             }
+            System.err.println("Failed to clone repository " + repoName + (result.timedOut()
+                    ? " (timed out after " + gitExecutor.getTimeoutSeconds() + " seconds)"
+                    : " (exit code: " + result.exitCode() + ")"));
+            return false;
             
         } catch (Exception e) {
             System.err.println("Failed to clone repository " + repoName + ": " + e.getMessage());
@@ -248,6 +293,22 @@ public class GitRepositoryManager {
         }
     }
     
+    /**
+     * Authentication environment of a clone: askpass credentials for HTTPS, non-interactive SSH otherwise
+     */
+    private void applyCloneEnvironment(ProcessBuilder pb, String gitUrl) {
+        if (username != null && password != null && !isSshUrl(gitUrl)) {
+            pb.environment().put("GIT_ASKPASS", "echo");
+            pb.environment().put("GIT_USERNAME", username);
+            pb.environment().put("GIT_PASSWORD", password);
+        }
+        
+        // Even without SSH key, disable host key checking for automated operations
+        if (isSshUrl(gitUrl)) {
+            applySshEnvironment(pb);
+        }
+    }
+    
     /**
      * Build Git clone command based on URL type and authentication
      */
@@ -265,13 +326,37 @@ public class GitRepositoryManager {
         
         // Add timeout
         command.add("--config");
-        command.add("http.timeout=" + timeoutSeconds);
+        command.add("http.timeout=" + gitExecutor.getTimeoutSeconds());
 
         if (useTargetBranch()) {
             command.add("--branch");
             command.add(targetBranch);
             command.add("--single-branch");
         }
+
+        if (objectStore != null && cloneMode != CloneMode.PARTIAL) {
+            Path reference = objectStore.getReference(gitUrl);
+            if (reference != null) {
+                // Borrow objects of the repository's network instead of downloading them again
+                command.add("--reference-if-able");
+                command.add(reference.toString());
+            }
+        }
+
+        if (cloneMode == CloneMode.BARE) {
+            command.add("--bare");
+            if (!useTargetBranch()) {
+                command.add("--single-branch");
+            }
+        } else if (cloneMode == CloneMode.PARTIAL) {
+            // Trees and commits only; blobs are fetched on demand for the sparse working tree
+            command.add("--filter=blob:none");
+            command.add("--no-checkout");
+            if (cloneDepth > 0) {
+                command.add("--depth");
+                command.add(String.valueOf(cloneDepth));
+            }
+        }
         
         // Add the repository URL and target directory (full path to support nested directories)
         command.add(gitUrl);
@@ -281,88 +366,261 @@ public class GitRepositoryManager {
     }
     
     /**
-     * Pull latest changes from an existing repository using system Git command
+     * Limit the working tree of a fresh PARTIAL clone to the test roots (and main source roots if
+     * enabled) and check it out.
      */
-    private boolean pullRepository(Path repoPath, String repoName) {
+    private boolean checkoutSparse(String gitUrl, Path repoPath) {
+        if (!applySparseCheckout(gitUrl, repoPath)) {
+            return false;
+        }
+        List<String> checkout = useTargetBranch()
+                ? List.of("git", "checkout", "-q", targetBranch)
+                : List.of("git", "checkout", "-q");
+        return runGitCommand(gitUrl, repoPath, checkout);
+    }
+
+    private boolean applySparseCheckout(String gitUrl, Path repoPath) {
+        List<String> command = new ArrayList<>(List.of("git", "sparse-checkout", "set", "--no-cone"));
+        command.addAll(toSparsePatterns(sparseMainSources
+                ? withMainSourceRoots(sparseCheckoutRoots) : sparseCheckoutRoots));
+        return runGitCommand(gitUrl, repoPath, command);
+    }
+
+    /**
+     * Bring an existing repository to the latest commit of the target branch (or the remote HEAD).
+     * Fetches and hard-resets instead of pulling, so local state can never cause merge conflicts.
+     * Sparse-checkout is re-applied in PARTIAL mode and removed in FULL mode, so mode and test root
+     * changes take effect on existing clones.
+     */
+    private boolean updateRepository(String gitUrl, Path repoPath, String repoName) {
         try {
-            System.out.println("Pulling latest changes for repository: " + repoName);
+            System.out.println("Fetching latest changes for repository: " + repoName);
             System.out.println("Repository path: " + repoPath);
-            if (useTargetBranch()) {
-                System.out.println("Ensuring branch: " + targetBranch);
-                if (!ensureBranchCheckedOut(repoPath)) {
-                    System.err.println("Failed to align repository " + repoName + " to branch " + targetBranch);
+            if (cloneMode == CloneMode.BARE) {
+                return updateMirror(gitUrl, repoPath);
+            }
+            if (cloneMode == CloneMode.PARTIAL) {
+                if (!applySparseCheckout(gitUrl, repoPath)) {
+                    return false;
+                }
+            } else if (isSparseCheckout(repoPath)) {
+                if (!runGitCommand(gitUrl, repoPath, List.of("git", "sparse-checkout", "disable"))) {
                     return false;
                 }
             }
 
-            List<String> command = useTargetBranch()
-                    ? List.of("git", "pull", "origin", targetBranch)
-                    : List.of("git", "pull");
-
-            return runGitCommand(repoPath, command);
+            if (!runGitCommand(gitUrl, repoPath, buildFetchCommand(repoPath))) {
+                return false;
+            }
+            List<String> reset = useTargetBranch()
+                    ? List.of("git", "checkout", "-q", "-f", "-B", targetBranch, "FETCH_HEAD")
+                    : List.of("git", "reset", "-q", "--hard", "FETCH_HEAD");
+            return runGitCommand(gitUrl, repoPath, reset);
         } catch (Exception e) {
-            System.err.println("Failed to pull repository " + repoName + ": " + e.getMessage());
+            System.err.println("Failed to update repository " + repoName + ": " + e.getMessage());
             e.printStackTrace();
             return false;
         }
     }
 
-    private boolean ensureBranchCheckedOut(Path repoPath) {
-        if (!useTargetBranch()) {
-            return true;
+    /**
+     * Move the mirror's HEAD branch to the latest commit. Bare single-branch clones have no
+     * remote-tracking refspec, so the fetched commit is written to the branch directly.
+     */
+    private boolean updateMirror(String gitUrl, Path repoPath) {
+        if (useTargetBranch() && !runGitCommand(gitUrl, repoPath,
+                List.of("git", "symbolic-ref", "HEAD", "refs/heads/" + targetBranch))) {
+            return false;
         }
-        if (!runGitCommand(repoPath, List.of("git", "fetch", "origin", targetBranch))) {
+        return runGitCommand(gitUrl, repoPath, buildFetchCommand(repoPath))
+                && runGitCommand(gitUrl, repoPath, List.of("git", "update-ref", "HEAD", "FETCH_HEAD"));
+    }
+
+    private boolean isSparseCheckout(Path repoPath) {
+        if (!Files.exists(repoPath.resolve(".git").resolve("info").resolve("sparse-checkout"))) {
             return false;
         }
-        if (runGitCommand(repoPath, List.of("git", "checkout", targetBranch))) {
-            return true;
+        String value = readGitOutput(repoPath, List.of("git", "config", "--bool", "core.sparseCheckout"));
+        return value != null && value.trim().equals("true");
+    }
+
+    private List<String> buildFetchCommand(Path repoPath) {
+        List<String> command = new ArrayList<>(List.of("git", "fetch", "-q"));
+        if (cloneMode == CloneMode.PARTIAL) {
+            if (cloneDepth > 0) {
+                command.add("--depth");
+                command.add(String.valueOf(cloneDepth));
+            }
+        } else if (cloneMode == CloneMode.FULL && Files.exists(repoPath.resolve(".git").resolve("shallow"))) {
+            // Previously cloned in PARTIAL mode: restore full history
+            command.add("--unshallow");
         }
-        return runGitCommand(repoPath, List.of("git", "checkout", "-B", targetBranch, "origin/" + targetBranch));
+        command.add("origin");
+        command.add(useTargetBranch() ? targetBranch : "HEAD");
+        return command;
     }
 
-    private boolean runGitCommand(Path repoPath, List<String> command) {
-        try {
-            System.out.println("Executing git command in " + repoPath + ": " + String.join(" ", command));
-            ProcessBuilder pb = new ProcessBuilder(command);
-            pb.directory(repoPath.toFile());
-            applySshEnvironment(pb);
-            pb.redirectErrorStream(true);
+    /**
+     * Run a command of a clone or update. In a partial clone checkouts download blobs as well,
+     * so every such command counts against the host's connection limit and is retried.
+     */
+    private boolean runGitCommand(String gitUrl, Path repoPath, List<String> command) {
+        System.out.println("Executing git command in " + repoPath + ": " + String.join(" ", command));
+        GitCommandExecutor.Result result = gitExecutor.runRemote(gitUrl, command, repoPath, this::applySshEnvironment, null);
+        if (!result.isSuccess()) {
+            System.err.println("Git command failed (" + result.exitCode() + "): " + String.join(" ", command));
+            System.err.println(result.output());
+            return false;
+        }
+        return true;
+    }
 
-            Process process = pb.start();
-            StringBuilder output = new StringBuilder();
-            Thread outputThread = new Thread(() -> {
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        System.out.println("git> " + line);
-                        output.append(line).append("\n");
-                    }
-                } catch (IOException e) {
-                    System.err.println("Error reading git command output: " + e.getMessage());
+    /**
+     * Ask the remotes for the latest commit of the target branch (or their HEAD) without fetching.
+     * Repositories are grouped by host: every host is queried by as many concurrent
+     * {@code git ls-remote} calls as its connection limit allows, and all hosts at the same time.
+     *
+     * @return commit by git URL; repositories whose remote could not be queried are left out
+     */
+    public Map<String, String> resolveRemoteHeads(Collection<String> gitUrls) {
+        Map<String, Queue<String>> byHost = new LinkedHashMap<>();
+        for (String gitUrl : gitUrls) {
+            byHost.computeIfAbsent(GitCommandExecutor.hostOf(gitUrl), host -> new ConcurrentLinkedQueue<>()).add(gitUrl);
+        }
+        Map<String, String> heads = new ConcurrentHashMap<>();
+        if (byHost.isEmpty()) {
+            return heads;
+        }
+        int threads = 0;
+        for (Queue<String> urls : byHost.values()) {
+            threads += Math.min(urls.size(), gitExecutor.getMaxConnectionsPerHost());
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "git-ls-remote");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Queue<String> urls : byHost.values()) {
+                for (int i = Math.min(urls.size(), gitExecutor.getMaxConnectionsPerHost()); i > 0; i--) {
+                    futures.add(workers.submit(() -> {
+                        String gitUrl;
+                        while ((gitUrl = urls.poll()) != null) {
+                            String head = resolveRemoteHead(gitUrl);
+                            if (head != null) {
+                                heads.put(gitUrl, head);
+                            }
+                        }
+                    }));
                 }
-            });
-            outputThread.start();
-
-            boolean completed = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
-            if (!completed) {
-                System.err.println("Git command timed out after " + timeoutSeconds + " seconds: " + command);
-                process.destroyForcibly();
-                outputThread.interrupt();
-                return false;
             }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Failed to query remote heads: " + e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+        return heads;
+    }
 
-            outputThread.join(1000);
-            int exitCode = process.exitValue();
-            if (exitCode != 0) {
-                System.err.println("Git command failed (" + exitCode + "): " + String.join(" ", command));
-                System.err.println(output.toString());
-                return false;
+    /**
+     * Latest commit of the target branch (or HEAD) on the remote, or null if it cannot be queried.
+     */
+    public String resolveRemoteHead(String gitUrl) {
+        List<String> command = List.of("git", "ls-remote", "-q", gitUrl,
+                useTargetBranch() ? "refs/heads/" + targetBranch : "HEAD");
+        GitCommandExecutor.Result result = gitExecutor.runRemote(gitUrl, command, Paths.get(repositoryHubPath), pb -> {
+            applyCloneEnvironment(pb, gitUrl);
+            pb.redirectErrorStream(false).redirectError(ProcessBuilder.Redirect.DISCARD);
+        }, null);
+        if (!result.isSuccess()) {
+            System.err.println("Cannot query remote head of " + gitUrl + " (" + result.exitCode() + ")");
+            return null;
+        }
+        // "<sha>\t<ref>"; no output if the branch does not exist
+        String line = result.output().strip();
+        int tab = line.indexOf('\t');
+        return tab > 0 ? line.substring(0, tab) : null;
+    }
+
+    /**
+     * Resolve the commit currently checked out in a repository
+     *
+     * @param repoPath Path to the repository working tree
+     * @return full commit SHA, or null if it cannot be determined
+     */
+    public String getHeadCommit(Path repoPath) {
+        String output = readGitOutput(repoPath, List.of("git", "rev-parse", "HEAD"));
+        if (output == null) {
+            return null;
+        }
+        String sha = output.trim();
+        return sha.isEmpty() ? null : sha;
+    }
+
+    /**
+     * List the files that differ between two commits
+     *
+     * @param repoPath Path to the repository working tree
+     * @param fromCommit commit of the previous scan
+     * @param toCommit commit being scanned now
+     * @return the change set, or null if git cannot diff the commits (e.g. history was rewritten)
+     */
+    public GitChangeSet getChangedFiles(Path repoPath, String fromCommit, String toCommit) {
+        String output = readGitOutput(repoPath,
+                List.of("git", "diff", "--name-status", "--no-renames", "-z", fromCommit, toCommit, "--"));
+        return output == null ? null : GitChangeSet.parseNameStatus(output);
+    }
+
+    /**
+     * List the files of a commit's tree without a working tree.
+     *
+     * @param repoPath bare repository or working tree
+     * @param commit commit to list
+     * @return the commit's files, or null if the tree cannot be read
+     */
+    public List<GitObjectReader.TreeEntry> listTree(Path repoPath, String commit) {
+        String output = readGitOutput(repoPath, List.of("git", "ls-tree", "-r", "-z", "-l", "--full-tree", commit));
+        return output == null ? null : GitObjectReader.parseTree(output);
+    }
+
+    /**
+     * Open a reader of the repository's object database. The caller closes it.
+     */
+    public GitObjectReader openObjectReader(Path repoPath) throws IOException {
+        return new GitObjectReader(repoPath);
+    }
+
+    /**
+     * Whether a directory is a bare repository, i.e. an object database without a working tree.
+     */
+    public static boolean isBareRepository(Path path) {
+        return path != null
+                && Files.isRegularFile(path.resolve("HEAD"))
+                && Files.isDirectory(path.resolve("objects"))
+                && Files.isDirectory(path.resolve("refs"))
+                && !Files.exists(path.resolve(".git"));
+    }
+
+    /**
+     * Run a read-only git command and return its standard output, or null if it fails.
+     * Output is not echoed since diffs of large repositories can be long.
+     */
+    private String readGitOutput(Path repoPath, List<String> command) {
+        GitCommandExecutor.Result result = gitExecutor.run(command, repoPath,
+                pb -> pb.redirectErrorStream(false).redirectError(ProcessBuilder.Redirect.INHERIT), false);
+        if (!result.isSuccess()) {
+            if (!result.timedOut()) {
+                System.err.println("Git command failed (" + result.exitCode() + "): " + String.join(" ", command));
             }
-            return true;
-        } catch (Exception e) {
-            System.err.println("Failed to execute git command " + command + ": " + e.getMessage());
-            return false;
+            return null;
         }
+        return result.output();
     }
 
     private void applySshEnvironment(ProcessBuilder pb) {
@@ -381,6 +639,158 @@ public class GitRepositoryManager {
         return targetBranch;
     }
 
+    /**
+     * Use a shared executor, so that the per-host connection limit holds across managers.
+     */
+    public void setGitExecutor(GitCommandExecutor gitExecutor) {
+        this.gitExecutor = gitExecutor != null ? gitExecutor : new GitCommandExecutor();
+    }
+
+    public GitCommandExecutor getGitExecutor() {
+        return gitExecutor;
+    }
+
+    /**
+     * Share objects between forks and related repositories through per-network object stores.
+     *
+     * @param enabled false keeps every repository's objects to itself
+     * @param declaredGroups network name by repository URL for repositories not detected by root commit; can be null
+     */
+    public void setObjectSharing(boolean enabled, Map<String, String> declaredGroups) {
+        this.objectStore = enabled ? new SharedObjectStore(Paths.get(repositoryHubPath), declaredGroups) : null;
+    }
+
+    /**
+     * Keep clones after their scan and evict the least recently used ones when the hub grows beyond the budget.
+     *
+     * @param diskBudgetBytes hub disk budget; 0 or less keeps every clone
+     */
+    public void setDiskBudgetBytes(long diskBudgetBytes) {
+        this.diskBudgetBytes = Math.max(0L, diskBudgetBytes);
+    }
+
+    public boolean hasDiskBudget() {
+        return diskBudgetBytes > 0;
+    }
+
+    /**
+     * Disk accounting of this manager's hub.
+     */
+    public HubDiskLedger ledger() {
+        return HubDiskLedger.forHub(Paths.get(repositoryHubPath));
+    }
+
+    /**
+     * The caller is done with a repository returned by {@link #cloneOrUpdateRepository}: it stays
+     * on disk but may now be evicted to keep the hub within its disk budget.
+     */
+    public void releaseRepository(String gitUrl) {
+        ledger().unpin(resolveRepositoryPath(extractRepositoryName(gitUrl)));
+        enforceDiskBudget();
+    }
+
+    private void enforceDiskBudget() {
+        if (diskBudgetBytes > 0) {
+            List<Path> evicted = ledger().evictOverBudget(diskBudgetBytes);
+            if (!evicted.isEmpty()) {
+                System.out.println("Evicted " + evicted.size() + " repositories, hub now uses "
+                        + formatFileSize(ledger().getTotalBytes()) + " of " + formatFileSize(diskBudgetBytes));
+            }
+        }
+    }
+
+    public SharedObjectStore getSharedObjectStore() {
+        return objectStore;
+    }
+
+    /**
+     * @param cloneMode FULL clones everything; PARTIAL clones without blobs, shallow, with a sparse working tree;
+     *                  BARE keeps bare mirrors and reads test sources from their objects
+     */
+    public void setCloneMode(CloneMode cloneMode) {
+        this.cloneMode = cloneMode != null ? cloneMode : CloneMode.FULL;
+    }
+
+    public CloneMode getCloneMode() {
+        return cloneMode;
+    }
+
+    /**
+     * @param cloneDepth history depth of PARTIAL clones and fetches; 0 or less fetches full history
+     */
+    public void setCloneDepth(int cloneDepth) {
+        this.cloneDepth = cloneDepth;
+    }
+
+    public int getCloneDepth() {
+        return cloneDepth;
+    }
+
+    /**
+     * @param roots test root directory patterns (e.g. src/test/java) checked out in PARTIAL mode, at any depth
+     */
+    public void setSparseCheckoutRoots(List<String> roots) {
+        this.sparseCheckoutRoots = roots == null || roots.isEmpty() ? List.of("src/test/java") : List.copyOf(roots);
+    }
+
+    /**
+     * @param include also check out the main source roots in PARTIAL mode. Without them the symbol solver
+     *                cannot resolve types of the code under test, so enable this for the FULL parse profile
+     *                and for deferred type resolution; FAST scans only need the test roots.
+     */
+    public void setSparseMainSources(boolean include) {
+        this.sparseMainSources = include;
+    }
+
+    /**
+     * Timing and disk usage of the last clone or update of a repository in this manager.
+     *
+     * @return the stats, or null if the repository was not fetched successfully
+     */
+    public FetchStats getFetchStats(String gitUrl) {
+        return fetchStats.get(gitUrl);
+    }
+
+    /**
+     * Test roots plus their main source counterparts: a "test" path segment becomes "main"
+     * (src/test/java -> src/main/java), and src/main/java is always included.
+     */
+    static List<String> withMainSourceRoots(List<String> testRoots) {
+        Set<String> roots = new LinkedHashSet<>(testRoots);
+        for (String root : testRoots) {
+            String[] segments = root.trim().replace('\\', '/').split("/");
+            for (int i = 0; i < segments.length; i++) {
+                if (segments[i].equalsIgnoreCase("test")) {
+                    segments[i] = "main";
+                }
+            }
+            roots.add(String.join("/", segments));
+        }
+        roots.add("src/main/java");
+        return new ArrayList<>(roots);
+    }
+
+    /**
+     * Non-cone sparse-checkout patterns for the test roots. The leading double-star lets a
+     * root match in every module; a trailing slash includes the whole directory.
+     */
+    static List<String> toSparsePatterns(List<String> roots) {
+        List<String> patterns = new ArrayList<>(roots.size());
+        for (String root : roots) {
+            String trimmed = root.trim().replace('\\', '/');
+            while (trimmed.startsWith("/")) {
+                trimmed = trimmed.substring(1);
+            }
+            while (trimmed.endsWith("/")) {
+                trimmed = trimmed.substring(0, trimmed.length() - 1);
+            }
+            if (!trimmed.isEmpty()) {
+                patterns.add("**/" + trimmed + "/");
+            }
+        }
+        return patterns;
+    }
+
     private String normalizeBranch(String branch) {
         if (branch == null) {
             return null;
@@ -632,13 +1042,51 @@ public class GitRepositoryManager {
      */
     public Path getRepositoryPath(String gitUrl) {
         String repoName = extractRepositoryName(gitUrl);
-        Path repoPath = Paths.get(repositoryHubPath, repoName);
+        Path repoPath = resolveRepositoryPath(repoName);
         
-        if (Files.exists(repoPath.resolve(".git"))) {
+        if (isRepository(repoPath)) {
+            return repoPath;
+        }
+        return null;
+    }
+    
+    /**
+     * Existing checkout of a repository, pinned like one returned by {@link #cloneOrUpdateRepository}
+     * so that it is not evicted while the caller reads it; hand it back with {@link #releaseRepository}.
+     *
+     * @return path to the repository directory, or null if not found; nothing stays pinned then
+     */
+    public Path acquireRepositoryPath(String gitUrl) {
+        Path repoPath = resolveRepositoryPath(extractRepositoryName(gitUrl));
+        // Pinned before the check, so an eviction cannot slip in between
+        ledger().pin(repoPath);
+        if (isRepository(repoPath)) {
             return repoPath;
         }
+        ledger().unpin(repoPath);
         return null;
     }
+
+    /**
+     * Name of a repository inside the hub, e.g. "repo" or "group/repo"
+     */
+    public String getRepositoryName(String gitUrl) {
+        return extractRepositoryName(gitUrl);
+    }
+    
+    /**
+     * Working tree directory in the hub, or the bare mirror under {@link #MIRROR_DIRECTORY} in BARE mode
+     */
+    private Path resolveRepositoryPath(String repoName) {
+        if (cloneMode == CloneMode.BARE) {
+            return Paths.get(repositoryHubPath, MIRROR_DIRECTORY, repoName + ".git");
+        }
+        return Paths.get(repositoryHubPath, repoName);
+    }
+    
+    private boolean isRepository(Path repoPath) {
+        return cloneMode == CloneMode.BARE ? isBareRepository(repoPath) : Files.exists(repoPath.resolve(".git"));
+    }
     
     /**
      * Get all repository paths in the hub
@@ -673,22 +1121,27 @@ public class GitRepositoryManager {
     public boolean deleteRepository(String gitUrl) {
         try {
             String repoName = extractRepositoryName(gitUrl);
-            Path repoPath = Paths.get(repositoryHubPath, repoName);
+            Path repoPath = resolveRepositoryPath(repoName);
             
             if (!Files.exists(repoPath)) {
                 System.out.println("Repository directory does not exist: " + repoPath);
                 return true; // Consider it "deleted" if it doesn't exist
             }
             
-            if (!Files.exists(repoPath.resolve(".git"))) {
+            if (!isRepository(repoPath)) {
                 System.out.println("Not a git repository: " + repoPath);
                 return false;
             }
             
             System.out.println("Deleting repository: " + repoName + " from " + repoPath);
             
-            // Clean the directory completely
-            cleanDirectory(repoPath);
+            HubDiskLedger ledger = ledger();
+            ledger.unpin(repoPath);
+            ledger.remove(repoPath);
+            // Removed in the background; clean in place only if it cannot be moved away
+            if (!ledger.moveToTrash(repoPath)) {
+                cleanDirectory(repoPath);
+            }
             
             System.out.println("Successfully deleted repository: " + repoName);
             return true;
@@ -701,24 +1154,14 @@ public class GitRepositoryManager {
     }
     
     /**
-     * Get the total disk usage of all repositories in the hub
+     * Get the total disk usage of the hub: clones, bare mirrors and shared object stores.
+     * Read from the hub's ledger, which is updated on every fetch instead of walking the hub;
+     * objects borrowed through alternates are counted with their store only.
      * 
-     * @return Total size in bytes, or -1 if calculation fails
+     * @return Total size in bytes
      */
     public long getTotalDiskUsage() {
-        try {
-            List<Path> repositories = getAllRepositoryPaths();
-            long totalSize = 0;
-            
-            for (Path repoPath : repositories) {
-                totalSize += calculateDirectorySize(repoPath);
-            }
-            
-            return totalSize;
-        } catch (Exception e) {
-            System.err.println("Error calculating disk usage: " + e.getMessage());
-            return -1;
-        }
+        return ledger().getTotalBytes();
     }
     
     /**
@@ -728,20 +1171,7 @@ public class GitRepositoryManager {
      * @return Size in bytes
      */
     private long calculateDirectorySize(Path dir) {
-        try {
-            return Files.walk(dir)
-                .filter(path -> Files.isRegularFile(path))
-                .mapToLong(path -> {
-                    try {
-                        return Files.size(path);
-                    } catch (IOException e) {
-                        return 0;
-                    }
-                })
-                .sum();
-        } catch (IOException e) {
-            return 0;
-        }
+        return HubDiskLedger.sizeOf(dir, new HashSet<>());
     }
     
     /**
@@ -0,0 +1,413 @@
+package com.example.annotationextractor.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Disk accounting and eviction for a repository hub.
+ *
+ * The ledger keeps the size, last use and use count of every clone, mirror and shared object store
+ * of the hub, updated whenever a repository is fetched, so the hub's usage is known without walking
+ * it. Only a hub without a ledger file is walked once to build it. Above a disk budget, the least
+ * recently used clones (fewest uses first on ties) that no scan is working on are evicted.
+ *
+ * Deletion never blocks a scan: directories are renamed into {@code <hub>/.trash} and removed by
+ * a background thread; whatever is left there after a restart is removed on startup.
+ * There is one ledger per hub directory and JVM, shared by all GitRepositoryManagers.
+ */
+public class HubDiskLedger {
+
+    public static final String TRASH_DIRECTORY = ".trash";
+    private static final String LEDGER_FILE = ".hub-usage.properties";
+    private static final Map<Path, HubDiskLedger> LEDGERS = new ConcurrentHashMap<>();
+
+    /**
+     * Disk usage of one hub directory.
+     *
+     * @param key hub-relative path of the directory
+     * @param evictable false for shared object stores, which other repositories depend on
+     */
+    public record Entry(String key, long sizeBytes, long lastUsedMs, int useCount, boolean evictable) {}
+
+    private final Path hubPath;
+    private final Path trashPath;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    // Scans working on a directory; a directory can be in use by a scan and the enrichment worker at once
+    private final Map<String, Integer> pinned = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingTrash = new AtomicInteger();
+    private final AtomicLong evictedRepositories = new AtomicLong();
+    private final ExecutorService trashCleaner;
+    private long totalBytes;
+
+    private HubDiskLedger(Path hubPath) {
+        this.hubPath = hubPath;
+        this.trashPath = hubPath.resolve(TRASH_DIRECTORY);
+        this.trashCleaner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hub-trash-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!load()) {
+            rebuild();
+        }
+        scheduleLeftoverTrash();
+    }
+
+    /**
+     * Ledger of a hub directory, loaded or built on first use.
+     */
+    public static HubDiskLedger forHub(Path hubPath) {
+        return LEDGERS.computeIfAbsent(hubPath.toAbsolutePath().normalize(), HubDiskLedger::new);
+    }
+
+    /**
+     * Ledger of a hub directory if it was used in this JVM, without loading or building it.
+     */
+    public static HubDiskLedger existing(Path hubPath) {
+        return LEDGERS.get(hubPath.toAbsolutePath().normalize());
+    }
+
+    public Path getHubPath() {
+        return hubPath;
+    }
+
+    /**
+     * Record a fetch of a clone or mirror: its current size, and one more use.
+     */
+    public synchronized void recordUse(Path directory, long sizeBytes) {
+        String key = keyOf(directory);
+        Entry previous = entries.get(key);
+        put(new Entry(key, sizeBytes, System.currentTimeMillis(), previous != null ? previous.useCount() + 1 : 1, true));
+        save();
+    }
+
+    /**
+     * Record the size of a shared object store; stores are never evicted.
+     */
+    public synchronized void recordStore(Path directory, long sizeBytes) {
+        String key = keyOf(directory);
+        Entry previous = entries.get(key);
+        if (previous != null && previous.sizeBytes() == sizeBytes && !previous.evictable()) {
+            return;
+        }
+        put(new Entry(key, sizeBytes, System.currentTimeMillis(), previous != null ? previous.useCount() : 0, false));
+        save();
+    }
+
+    public synchronized void remove(Path directory) {
+        Entry removed = entries.remove(keyOf(directory));
+        if (removed != null) {
+            totalBytes -= removed.sizeBytes();
+            save();
+        }
+    }
+
+    /**
+     * Protect a directory from eviction while a scan works on it.
+     */
+    public synchronized void pin(Path directory) {
+        pinned.merge(keyOf(directory), 1, Integer::sum);
+    }
+
+    public synchronized void unpin(Path directory) {
+        pinned.computeIfPresent(keyOf(directory), (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized List<Entry> getEntries() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Directories moved to the trash and not deleted yet.
+     */
+    public int getPendingTrash() {
+        return pendingTrash.get();
+    }
+
+    public long getEvictedRepositories() {
+        return evictedRepositories.get();
+    }
+
+    /**
+     * Evict least recently used clones until the hub fits the budget.
+     *
+     * @param budgetBytes disk budget; 0 or less never evicts
+     * @return directories moved to the trash
+     */
+    public List<Path> evictOverBudget(long budgetBytes) {
+        List<Path> evicted = new ArrayList<>();
+        if (budgetBytes <= 0) {
+            return evicted;
+        }
+        List<Entry> candidates;
+        synchronized (this) {
+            if (totalBytes <= budgetBytes) {
+                return evicted;
+            }
+            candidates = new ArrayList<>();
+            for (Entry entry : entries.values()) {
+                if (entry.evictable() && !pinned.containsKey(entry.key())) {
+                    candidates.add(entry);
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingLong(Entry::lastUsedMs).thenComparingInt(Entry::useCount));
+        for (Entry entry : candidates) {
+            Path directory = hubPath.resolve(entry.key());
+            synchronized (this) {
+                if (totalBytes <= budgetBytes) {
+                    break;
+                }
+                // Pinned since the candidates were chosen: a scan has started on it
+                if (pinned.containsKey(entry.key())) {
+                    continue;
+                }
+                System.out.println("Evicting " + entry.key() + " (" + entry.sizeBytes() + " bytes, last used "
+                        + Instant.ofEpochMilli(entry.lastUsedMs()) + ") to stay within the hub disk budget");
+                if (moveToTrash(directory)) {
+                    remove(directory);
+                    evicted.add(directory);
+                    evictedRepositories.incrementAndGet();
+                }
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Rename a directory into the trash and delete it in the background.
+     *
+     * @return false if the directory could not be moved; it is left in place
+     */
+    public boolean moveToTrash(Path directory) {
+        if (!Files.exists(directory)) {
+            return true;
+        }
+        try {
+            Files.createDirectories(trashPath);
+            Path target = trashPath.resolve(directory.getFileName() + "-" + System.nanoTime());
+            try {
+                Files.move(directory, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(directory, target);
+            }
+            scheduleDelete(target);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Cannot move " + directory + " to the trash: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void scheduleDelete(Path target) {
+        pendingTrash.incrementAndGet();
+        trashCleaner.submit(() -> {
+            try {
+                deleteRecursively(target);
+            } catch (IOException | UncheckedIOException e) {
+                System.err.println("Failed to delete trash " + target + ": " + e.getMessage());
+            } finally {
+                pendingTrash.decrementAndGet();
+            }
+        });
+    }
+
+    private void scheduleLeftoverTrash() {
+        if (!Files.isDirectory(trashPath)) {
+            return;
+        }
+        try (Stream<Path> leftovers = Files.list(trashPath)) {
+            leftovers.forEach(this::scheduleDelete);
+        } catch (IOException e) {
+            System.err.println("Cannot list trash " + trashPath + ": " + e.getMessage());
+        }
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                // Git object files are read-only
+                file.toFile().setWritable(true);
+                Files.deleteIfExists(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.deleteIfExists(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void put(Entry entry) {
+        Entry previous = entries.put(entry.key(), entry);
+        totalBytes += entry.sizeBytes() - (previous != null ? previous.sizeBytes() : 0L);
+    }
+
+    private String keyOf(Path directory) {
+        Path absolute = directory.toAbsolutePath().normalize();
+        return (absolute.startsWith(hubPath) ? hubPath.relativize(absolute) : absolute).toString().replace('\\', '/');
+    }
+
+    private boolean load() {
+        Path file = hubPath.resolve(LEDGER_FILE);
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            System.err.println("Cannot read hub ledger " + file + ", rebuilding it: " + e.getMessage());
+            return false;
+        }
+        for (String key : properties.stringPropertyNames()) {
+            // size,lastUsedMs,useCount,evictable
+            String[] values = properties.getProperty(key).split(",");
+            if (values.length != 4 || !Files.exists(hubPath.resolve(key))) {
+                continue;
+            }
+            try {
+                put(new Entry(key, Long.parseLong(values[0]), Long.parseLong(values[1]), Integer.parseInt(values[2]),
+                        Boolean.parseBoolean(values[3])));
+            } catch (NumberFormatException e) {
+                System.err.println("Ignoring malformed hub ledger entry " + key);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Walk the hub once: clones, bare mirrors and shared stores, counting hard-linked files once.
+     */
+    private void rebuild() {
+        if (!Files.isDirectory(hubPath)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Set<Object> seenFiles = new HashSet<>();
+        List<Path> stores = listChildren(hubPath.resolve(SharedObjectStore.DIRECTORY));
+        // Stores first, so objects hard-linked into clones count towards the store
+        for (Path store : stores) {
+            if (GitRepositoryManager.isBareRepository(store)) {
+                put(new Entry(keyOf(store), sizeOf(store, seenFiles), lastModified(store), 0, false));
+            }
+        }
+        for (Path mirror : listChildren(hubPath.resolve(GitRepositoryManager.MIRROR_DIRECTORY))) {
+            if (GitRepositoryManager.isBareRepository(mirror)) {
+                put(new Entry(keyOf(mirror), sizeOf(mirror, seenFiles), lastModified(mirror), 0, true));
+            }
+        }
+        try {
+            for (Path clone : GitRepositoryManager.findGitRepositories(hubPath)) {
+                if (!keyOf(clone).startsWith(".")) {
+                    put(new Entry(keyOf(clone), sizeOf(clone, seenFiles), lastModified(clone), 0, true));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Cannot walk hub " + hubPath + ": " + e.getMessage());
+        }
+        System.out.println("Built hub ledger of " + hubPath + ": " + entries.size() + " directories, " + totalBytes
+                + " bytes in " + (System.currentTimeMillis() - start) + " ms");
+        save();
+    }
+
+    private static List<Path> listChildren(Path dir) {
+        List<Path> children = new ArrayList<>();
+        if (Files.isDirectory(dir)) {
+            try (Stream<Path> paths = Files.list(dir)) {
+                paths.forEach(children::add);
+            } catch (IOException e) {
+                System.err.println("Cannot list " + dir + ": " + e.getMessage());
+            }
+        }
+        return children;
+    }
+
+    private static long lastModified(Path dir) {
+        try {
+            return Files.getLastModifiedTime(dir).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Size of the regular files below a directory that were not counted before.
+     *
+     * @param seenFiles file keys (inodes) counted so far; files without a key are always counted
+     */
+    static long sizeOf(Path dir, Set<Object> seenFiles) {
+        if (!Files.exists(dir)) {
+            return 0L;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.mapToLong(path -> {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    if (!attributes.isRegularFile()) {
+                        return 0L;
+                    }
+                    Object key = attributes.fileKey();
+                    if (key != null && !seenFiles.add(key)) {
+                        return 0L;
+                    }
+                    return attributes.size();
+                } catch (IOException e) {
+                    return 0L;
+                }
+            }).sum();
+        } catch (IOException | UncheckedIOException e) {
+            return 0L;
+        }
+    }
+
+    private synchronized void save() {
+        Properties properties = new Properties();
+        for (Entry entry : entries.values()) {
+            properties.setProperty(entry.key(), entry.sizeBytes() + "," + entry.lastUsedMs() + ","
+                    + entry.useCount() + "," + entry.evictable());
+        }
+        Path file = hubPath.resolve(LEDGER_FILE);
+        Path temp = hubPath.resolve(LEDGER_FILE + ".tmp");
+        try {
+            Files.createDirectories(hubPath);
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, "Hub disk usage: size,lastUsedMs,useCount,evictable by directory");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Cannot write hub ledger " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.annotationextractor.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Drains the output of many child processes on one shared daemon thread.
+ *
+ * Instead of a reader thread per process, the pump polls every registered stream for the bytes
+ * already available and only reads those, so a process that is slow to write never blocks the
+ * others. Once a process has exited, whatever is left in its pipe is read and the stream is
+ * released; streams still held open by grandchildren are not waited for.
+ */
+public final class ProcessOutputPump {
+
+    private static final long IDLE_SLEEP_MS = 5L;
+    private static final ProcessOutputPump SHARED = new ProcessOutputPump();
+
+    private final LinkedBlockingQueue<Drain> incoming = new LinkedBlockingQueue<>();
+    private final List<Drain> active = new ArrayList<>();
+    private volatile int activeCount;
+
+    private ProcessOutputPump() {
+        Thread thread = new Thread(this::loop, "git-output-pump");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public static ProcessOutputPump shared() {
+        return SHARED;
+    }
+
+    /**
+     * Start draining a process' standard output.
+     *
+     * @param process running process
+     * @param lineListener receives each complete line as it arrives (can be null)
+     */
+    public Drain register(Process process, Consumer<String> lineListener) {
+        Drain drain = new Drain(process, lineListener);
+        incoming.add(drain);
+        return drain;
+    }
+
+    /**
+     * Number of processes currently being drained.
+     */
+    public int getActiveCount() {
+        return activeCount + incoming.size();
+    }
+
+    private void loop() {
+        byte[] buffer = new byte[8192];
+        while (true) {
+            try {
+                if (active.isEmpty()) {
+                    active.add(incoming.take());
+                }
+                incoming.drainTo(active);
+                boolean progressed = false;
+                for (int i = active.size() - 1; i >= 0; i--) {
+                    Drain drain = active.get(i);
+                    int read = drain.poll(buffer);
+                    if (read > 0) {
+                        progressed = true;
+                    } else if (read < 0) {
+                        active.remove(i);
+                    }
+                }
+                activeCount = active.size();
+                if (!progressed) {
+                    Thread.sleep(IDLE_SLEEP_MS);
+                }
+            } catch (InterruptedException e) {
+                // Daemon thread: keep serving registered processes
+            } catch (RuntimeException e) {
+                System.err.println("Process output pump error: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Output collected from one process.
+     */
+    public static final class Drain {
+        private final Process process;
+        private final InputStream stream;
+        private final Consumer<String> lineListener;
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream partialLine = new ByteArrayOutputStream();
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        private Drain(Process process, Consumer<String> lineListener) {
+            this.process = process;
+            this.stream = process.getInputStream();
+            this.lineListener = lineListener;
+        }
+
+        /**
+         * Read what is available without blocking.
+         *
+         * @return bytes read, 0 if nothing was available, -1 once the process has exited and its output is drained
+         */
+        private int poll(byte[] buffer) {
+            try {
+                boolean exited = !process.isAlive();
+                int available = stream.available();
+                if (available > 0) {
+                    int read = stream.read(buffer, 0, Math.min(available, buffer.length));
+                    if (read > 0) {
+                        append(buffer, read);
+                        return read;
+                    }
+                }
+                if (!exited) {
+                    return 0;
+                }
+            } catch (IOException e) {
+                // Stream closed: treat as end of output
+            }
+            complete();
+            return -1;
+        }
+
+        private synchronized void append(byte[] buffer, int length) {
+            output.write(buffer, 0, length);
+            if (lineListener == null) {
+                return;
+            }
+            for (int i = 0; i < length; i++) {
+                if (buffer[i] == '\n') {
+                    lineListener.accept(partialLine.toString(StandardCharsets.UTF_8));
+                    partialLine.reset();
+                } else {
+                    partialLine.write(buffer[i]);
+                }
+            }
+        }
+
+        private synchronized void complete() {
+            if (finished.getCount() == 0) {
+                return;
+            }
+            if (lineListener != null && partialLine.size() > 0) {
+                lineListener.accept(partialLine.toString(StandardCharsets.UTF_8));
+                partialLine.reset();
+            }
+            try {
+                stream.close();
+            } catch (IOException ignored) {
+                // Nothing left to read
+            }
+            finished.countDown();
+        }
+
+        /**
+         * Wait until the output of the exited process has been drained.
+         *
+         * @return false if draining did not finish in time
+         */
+        public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+            return finished.await(timeout, unit);
+        }
+
+        public synchronized String getOutput() {
+            return output.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.annotationextractor.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Object stores shared by forks and related repositories of the hub.
+ *
+ * Repositories belong to a network: a declared group, or otherwise the root commit of their history
+ * with the smallest SHA, so forks of the same codebase end up in the same network. Each network has a bare store
+ * under {@code <hub>/.objects/<network>.git} holding the objects of its members. Members borrow
+ * from the store through git alternates and keep only objects the store does not have; new clones
+ * of known members pass the store as {@code --reference-if-able}, so shared objects are neither
+ * downloaded nor stored again.
+ *
+ * Stores are never deleted or pruned, since members depend on them. Membership is remembered in
+ * {@code networks.properties}, so later scans (and temporary re-clones) use the store from the start.
+ */
+public class SharedObjectStore {
+
+    public static final String DIRECTORY = ".objects";
+    private static final String INDEX_FILE = "networks.properties";
+
+    private final Path root;
+    private final Map<String, String> declaredGroups;
+    private final Map<String, String> networks = new ConcurrentHashMap<>();
+    private final Map<String, Object> networkLocks = new ConcurrentHashMap<>();
+
+    /**
+     * @param repositoryHubPath hub directory; stores are kept in its {@link #DIRECTORY} subdirectory
+     * @param declaredGroups group name by repository URL, see {@link #parseGroups}; can be empty
+     */
+    public SharedObjectStore(Path repositoryHubPath, Map<String, String> declaredGroups) {
+        this.root = repositoryHubPath.resolve(DIRECTORY);
+        this.declaredGroups = declaredGroups != null ? Map.copyOf(declaredGroups) : Collections.emptyMap();
+        loadIndex();
+    }
+
+    /**
+     * Parse declared groups: one {@code group: url, url, ...} line per group.
+     *
+     * @return group name by repository URL
+     * @throws IllegalArgumentException if a line has no group name or an invalid one
+     */
+    public static Map<String, String> parseGroups(String value) {
+        Map<String, String> groups = new LinkedHashMap<>();
+        if (value == null || value.isBlank()) {
+            return groups;
+        }
+        for (String line : value.split("\\r?\\n")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            int colon = line.indexOf(':');
+            // URLs contain colons too; the group name is everything before the first one
+            String group = colon > 0 ? line.substring(0, colon).trim() : "";
+            if (!group.matches("[A-Za-z0-9._-]+") || line.startsWith("//", colon + 1)) {
+                throw new IllegalArgumentException("Object store group line must look like 'group: url, url': " + line.trim());
+            }
+            for (String url : line.substring(colon + 1).split(",")) {
+                if (!url.isBlank()) {
+                    groups.put(url.trim(), group);
+                }
+            }
+        }
+        return groups;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Network of a repository when it is declared or was seen before, otherwise null.
+     */
+    public String getNetwork(String gitUrl) {
+        String declared = declaredGroups.get(gitUrl);
+        return declared != null ? declared : networks.get(gitUrl);
+    }
+
+    /**
+     * Store to pass as clone reference for a repository, or null if its network has no store yet.
+     */
+    public Path getReference(String gitUrl) {
+        String network = getNetwork(gitUrl);
+        if (network == null) {
+            return null;
+        }
+        Path store = storePath(network);
+        return GitRepositoryManager.isBareRepository(store) ? store : null;
+    }
+
+    /**
+     * Stores of all networks.
+     */
+    public List<Path> getStorePaths() {
+        List<Path> stores = new ArrayList<>();
+        if (!Files.isDirectory(root)) {
+            return stores;
+        }
+        try (Stream<Path> paths = Files.list(root)) {
+            paths.filter(GitRepositoryManager::isBareRepository).forEach(stores::add);
+        } catch (IOException e) {
+            System.err.println("Error listing object stores: " + e.getMessage());
+        }
+        return stores;
+    }
+
+    /**
+     * Make a freshly cloned repository a member of its network: copy its objects into the network's
+     * store once, then let it borrow from the store and drop the objects it holds twice.
+     *
+     * @param gitDir the repository's git directory (.git of a working tree, or a bare repository)
+     * @return true if the repository borrows from a store afterwards
+     */
+    public boolean share(GitCommandExecutor git, String gitUrl, Path gitDir) {
+        String network = getNetwork(gitUrl);
+        if (network == null) {
+            network = detectNetwork(git, gitDir);
+            if (network == null) {
+                return false;
+            }
+        }
+        Path store = storePath(network);
+        synchronized (networkLocks.computeIfAbsent(network, key -> new Object())) {
+            try {
+                if (!GitRepositoryManager.isBareRepository(store)) {
+                    Files.createDirectories(store);
+                    if (!runLocal(git, store, List.of("git", "init", "-q", "--bare"))) {
+                        return false;
+                    }
+                    System.out.println("Created object store for network " + network + ": " + store);
+                }
+                String memberRef = "refs/members/" + memberKey(gitUrl);
+                if (!runLocal(git, store, List.of("git", "rev-parse", "-q", "--verify", memberRef))
+                        && !runLocal(git, store, List.of("git", "fetch", "-q", "--no-tags",
+                                gitDir.toAbsolutePath().toString(), "+HEAD:" + memberRef))) {
+                    return false;
+                }
+                if (!borrowsFrom(gitDir, store)) {
+                    Path alternates = gitDir.resolve("objects").resolve("info").resolve("alternates");
+                    Files.createDirectories(alternates.getParent());
+                    Files.writeString(alternates, store.resolve("objects").toAbsolutePath() + "\n", StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                    // -l: pack only objects the store does not have
+                    if (!runLocal(git, gitDir, List.of("git", "repack", "-a", "-d", "-l", "-q"))) {
+                        return false;
+                    }
+                }
+                if (!network.equals(networks.put(gitUrl, network))) {
+                    saveIndex();
+                }
+                return true;
+            } catch (IOException e) {
+                System.err.println("Failed to share objects of " + gitUrl + " with network " + network + ": " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Root commit of the repository's history with the lexicographically smallest SHA. Forks share their
+     * root commits with upstream, so any fixed choice among them names the same network; the SHA is used
+     * rather than the commit date because it needs no extra git call and never ties.
+     */
+    private String detectNetwork(GitCommandExecutor git, Path gitDir) {
+        GitCommandExecutor.Result result = git.run(List.of("git", "rev-list", "--max-parents=0", "HEAD"), gitDir,
+                pb -> pb.redirectErrorStream(false).redirectError(ProcessBuilder.Redirect.INHERIT), false);
+        if (!result.isSuccess()) {
+            return null;
+        }
+        String network = null;
+        for (String line : result.output().split("\n")) {
+            String sha = line.trim();
+            if (!sha.isEmpty() && (network == null || sha.compareTo(network) < 0)) {
+                network = sha;
+            }
+        }
+        return network;
+    }
+
+    private static boolean borrowsFrom(Path gitDir, Path store) throws IOException {
+        Path alternates = gitDir.resolve("objects").resolve("info").resolve("alternates");
+        if (!Files.isRegularFile(alternates)) {
+            return false;
+        }
+        Path storeObjects = store.resolve("objects").toAbsolutePath().normalize();
+        for (String line : Files.readAllLines(alternates, StandardCharsets.UTF_8)) {
+            if (!line.isBlank() && Path.of(line.trim()).toAbsolutePath().normalize().equals(storeObjects)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean runLocal(GitCommandExecutor git, Path dir, List<String> command) {
+        GitCommandExecutor.Result result = git.run(command, dir, null, false);
+        return result.isSuccess();
+    }
+
+    private Path storePath(String network) {
+        return root.resolve(network + ".git");
+    }
+
+    private static String memberKey(String gitUrl) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(gitUrl.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+
+    private void loadIndex() {
+        Path index = root.resolve(INDEX_FILE);
+        if (!Files.isRegularFile(index)) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(index)) {
+            properties.load(in);
+            for (String url : properties.stringPropertyNames()) {
+                networks.put(url, properties.getProperty(url));
+            }
+        } catch (IOException e) {
+            System.err.println("Cannot read object store index " + index + ": " + e.getMessage());
+        }
+    }
+
+    private synchronized void saveIndex() throws IOException {
+        Files.createDirectories(root);
+        Properties properties = new Properties();
+        properties.putAll(networks);
+        Path index = root.resolve(INDEX_FILE);
+        Path temp = root.resolve(INDEX_FILE + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, "Object store network by repository URL");
+        }
+        Files.move(temp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
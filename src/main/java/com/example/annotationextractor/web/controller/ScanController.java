@@ -1,7 +1,16 @@
 package com.example.annotationextractor.web.controller;
 
+import com.example.annotationextractor.application.ReferencedTypeEnrichmentStore;
+import com.example.annotationextractor.service.ReferencedTypeEnrichmentService;
+import com.example.annotationextractor.service.ScanCoordinator;
+import com.example.annotationextractor.service.ScanWorkerService;
 import com.example.annotationextractor.service.ScheduledScanService;
+import com.example.annotationextractor.runner.ScanPlanner;
+import com.example.annotationextractor.util.GitCommandExecutor;
+import com.example.annotationextractor.util.HubDiskLedger;
+import com.example.annotationextractor.util.ProcessOutputPump;
 import com.example.annotationextractor.application.PersistenceReadFacade;
+import com.example.annotationextractor.database.BatchOperationHelper;
 import com.example.annotationextractor.domain.model.ScanSession;
 import com.example.annotationextractor.web.dto.ScanConfigDto;
 import org.springframework.core.io.FileSystemResource;
@@ -15,7 +24,9 @@ import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,11 +42,13 @@ import java.util.Optional;
 public class ScanController {
 
     private final ScheduledScanService scheduledScanService;
+    private final ScanWorkerService scanWorkerService;
     private final Optional<PersistenceReadFacade> persistenceReadFacade;
 
-    public ScanController(ScheduledScanService scheduledScanService,
+    public ScanController(ScheduledScanService scheduledScanService, ScanWorkerService scanWorkerService,
             Optional<PersistenceReadFacade> persistenceReadFacade) {
         this.scheduledScanService = scheduledScanService;
+        this.scanWorkerService = scanWorkerService;
         this.persistenceReadFacade = persistenceReadFacade;
     }
 
@@ -48,20 +61,22 @@ public class ScanController {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            // Check if scan is already running
-            ScheduledScanService.ScanStatus status = scheduledScanService.getScanStatus();
-            if (status.isScanning()) {
+            // Only a second full scan conflicts; repository-level scans are queued next to a running one
+            List<Long> repositoryIds = payload != null ? payload.get("repositoryIds") : null;
+            boolean fullScan = repositoryIds == null || repositoryIds.isEmpty();
+            if (fullScan && scheduledScanService.getScanCoordinator().isFullScanRunning()) {
                 response.put("success", false);
                 response.put("message", "Scan is already in progress");
                 response.put("timestamp", System.currentTimeMillis());
                 return ResponseEntity.status(409).body(response); // Conflict
             }
 
-            List<Long> repositoryIds = payload != null ? payload.get("repositoryIds") : null;
             boolean success = scheduledScanService.triggerManualScan(repositoryIds);
 
             response.put("success", success);
-            response.put("message", success ? "Scan completed successfully" : "Scan failed");
+            String completed = scheduledScanService.getScanRole().usesQueue()
+                    ? "Scan queued for scan workers" : "Scan completed successfully";
+            response.put("message", success ? completed : "Scan failed");
             response.put("timestamp", System.currentTimeMillis());
 
             if (success) {
@@ -98,6 +113,126 @@ public class ScanController {
         response.put("tempCloneMode", status.isTempCloneMode());
         response.put("scanBranch", status.getScanBranch());
         response.put("organization", status.getOrganization());
+
+        Map<String, Object> parseCache = new HashMap<>();
+        parseCache.put("active", status.isParseCacheActive());
+        parseCache.put("hits", status.getParseCacheHits());
+        parseCache.put("misses", status.getParseCacheMisses());
+        parseCache.put("evictions", status.getParseCacheEvictions());
+        parseCache.put("entries", status.getParseCacheEntries());
+        parseCache.put("sizeBytes", status.getParseCacheSizeBytes());
+        response.put("parseCache", parseCache);
+
+        Map<String, Object> parseDecisions = new HashMap<>();
+        parseDecisions.put("fullParse", status.getFullParseFiles());
+        parseDecisions.put("helperOnly", status.getHelperOnlyFiles());
+        parseDecisions.put("skipped", status.getSkippedFiles());
+        response.put("parseDecisions", parseDecisions);
+
+        List<Map<String, Object>> gitHosts = new ArrayList<>();
+        for (GitCommandExecutor.HostStatus host : scheduledScanService.getGitHostStatus()) {
+            Map<String, Object> hostStatus = new HashMap<>();
+            hostStatus.put("host", host.host());
+            hostStatus.put("active", host.active());
+            hostStatus.put("queued", host.queued());
+            hostStatus.put("completed", host.completed());
+            hostStatus.put("failed", host.failed());
+            hostStatus.put("retries", host.retries());
+            gitHosts.add(hostStatus);
+        }
+        Map<String, Object> git = new HashMap<>();
+        git.put("maxConnectionsPerHost", status.getGitMaxConnectionsPerHost());
+        git.put("timeoutSeconds", status.getGitTimeoutSeconds());
+        git.put("maxRetries", status.getGitMaxRetries());
+        git.put("retryBackoffMs", status.getGitRetryBackoffMs());
+        git.put("outputStreams", ProcessOutputPump.shared().getActiveCount());
+        git.put("hosts", gitHosts);
+        response.put("git", git);
+
+        HubDiskLedger ledger = scheduledScanService.getHubDiskLedger();
+        Map<String, Object> hubDisk = new HashMap<>();
+        hubDisk.put("budgetBytes", status.getHubDiskBudgetMb() * 1024L * 1024L);
+        hubDisk.put("usedBytes", ledger != null ? ledger.getTotalBytes() : null);
+        hubDisk.put("directories", ledger != null ? ledger.getEntries().size() : 0);
+        hubDisk.put("pendingTrash", ledger != null ? ledger.getPendingTrash() : 0);
+        hubDisk.put("evictedRepositories", ledger != null ? ledger.getEvictedRepositories() : 0L);
+        response.put("hubDisk", hubDisk);
+
+        ScanCoordinator coordinator = scheduledScanService.getScanCoordinator();
+        Map<String, Object> coordination = new HashMap<>();
+        coordination.put("fullScanRunning", coordinator.isFullScanRunning());
+        coordination.put("workers", coordinator.getWorkers());
+        coordination.put("queuedRepositories", coordinator.getQueuedRepositories());
+        coordination.put("runningRepositories", coordinator.getRunningRepositories());
+        coordination.put("lockedRepositories", coordinator.getRepositoryLocks().getLockedRepositories());
+        coordination.put("coalescedRequests", coordinator.getCoalescedRequests());
+        coordination.put("completedScans", coordinator.getCompletedScans());
+        coordination.put("failedScans", coordinator.getFailedScans());
+        response.put("coordination", coordination);
+
+        Map<String, Object> scanQueue = new HashMap<>();
+        scanQueue.put("role", scheduledScanService.getScanRole().name());
+        scanQueue.put("jobs", scheduledScanService.getScanJobCounts());
+        if (scanWorkerService.isEnabled()) {
+            scanQueue.put("workerId", scanWorkerService.getWorkerId());
+            scanQueue.put("runningRepositories", scanWorkerService.getRunningRepositories());
+            scanQueue.put("completedJobs", scanWorkerService.getCompletedJobs());
+            scanQueue.put("failedJobs", scanWorkerService.getFailedJobs());
+        }
+        response.put("scanQueue", scanQueue);
+        response.put("persistenceBatches", BatchOperationHelper.getMetrics());
+
+        ScanPlanner.ScanPlan scanPlan = scheduledScanService.getScanPlan();
+        if (scanPlan != null) {
+            List<Map<String, Object>> plannedRepositories = new ArrayList<>();
+            for (ScanPlanner.PlannedRepository planned : scanPlan.getRepositories()) {
+                Map<String, Object> repository = new HashMap<>();
+                repository.put("gitUrl", planned.gitUrl());
+                repository.put("estimatedMs", planned.estimatedMs());
+                repository.put("actualMs", scanPlan.getActualMs(planned.gitUrl()));
+                repository.put("stalenessHours", planned.stalenessHours() < 0 ? null : planned.stalenessHours());
+                repository.put("priority", Double.isInfinite(planned.priority()) ? null : planned.priority());
+                plannedRepositories.add(repository);
+            }
+            Map<String, Object> plan = new HashMap<>();
+            plan.put("createdAt", scanPlan.getCreatedAt().toString());
+            plan.put("budgetMs", scanPlan.getBudgetMs());
+            plan.put("maxRepositories", scanPlan.getMaxRepositories());
+            plan.put("estimatedMs", scanPlan.getEstimatedMs());
+            plan.put("actualMs", scanPlan.getTotalActualMs() < 0 ? null : scanPlan.getTotalActualMs());
+            plan.put("deferred", scanPlan.getDeferred());
+            plan.put("skippedOverBudget", scanPlan.getSkippedOverBudget());
+            plan.put("repositories", plannedRepositories);
+            response.put("plan", plan);
+        }
+
+        ReferencedTypeEnrichmentService.EnrichmentStatus enrichmentStatus = scheduledScanService.getEnrichmentStatus();
+        LocalDateTime now = LocalDateTime.now();
+        List<Map<String, Object>> enrichmentRepositories = new ArrayList<>();
+        for (ReferencedTypeEnrichmentStore.RepositoryProgress progress : enrichmentStatus.getRepositories()) {
+            Map<String, Object> repository = new HashMap<>();
+            repository.put("repositoryId", progress.repositoryId());
+            repository.put("repositoryName", progress.repositoryName());
+            repository.put("pendingClasses", progress.pendingClasses());
+            repository.put("failedClasses", progress.failedClasses());
+            repository.put("active", enrichmentStatus.getActiveRepositoryIds().contains(progress.repositoryId()));
+            repository.put("lagSeconds", ReferencedTypeEnrichmentService.EnrichmentStatus.lagSeconds(progress, now));
+            enrichmentRepositories.add(repository);
+        }
+        Map<String, Object> enrichment = new HashMap<>();
+        enrichment.put("running", enrichmentStatus.isRunning());
+        enrichment.put("workers", enrichmentStatus.getWorkerCount());
+        enrichment.put("pendingClasses", enrichmentStatus.getPendingClasses());
+        enrichment.put("resolvedClasses", enrichmentStatus.getResolvedClasses());
+        enrichment.put("failedClasses", enrichmentStatus.getFailedClasses());
+        enrichment.put("completedRepositories", enrichmentStatus.getCompletedRepositories());
+        enrichment.put("lastEnrichmentTime",
+                enrichmentStatus.getLastEnrichmentTime() != null
+                        ? enrichmentStatus.getLastEnrichmentTime().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+                        : null);
+        enrichment.put("lastEnrichmentError", enrichmentStatus.getLastEnrichmentError());
+        enrichment.put("repositories", enrichmentRepositories);
+        response.put("enrichment", enrichment);
         response.put("timestamp", System.currentTimeMillis());
 
         return ResponseEntity.ok(response);
@@ -120,6 +255,29 @@ public class ScanController {
         config.put("repositoryConfigContent", status.getRepositoryConfigContent());
         config.put("organization", status.getOrganization());
         config.put("scanBranch", status.getScanBranch());
+        config.put("parseWorkerCount", status.getParseWorkerCount());
+        config.put("fetchWorkerCount", status.getFetchWorkerCount());
+        config.put("repositoryParseConcurrency", status.getRepositoryParseConcurrency());
+        config.put("pipelineQueueCapacity", status.getPipelineQueueCapacity());
+        config.put("incrementalScanEnabled", status.isIncrementalScanEnabled());
+        config.put("parseCacheMaxMb", status.getParseCacheMaxMb());
+        config.put("parseProfile", status.getParseProfile());
+        config.put("deferredTypeResolution", status.isDeferredTypeResolution());
+        config.put("enrichmentWorkerCount", status.getEnrichmentWorkerCount());
+        config.put("preFilterEnabled", status.isPreFilterEnabled());
+        config.put("testRootPatterns", status.getTestRootPatterns());
+        config.put("cloneMode", status.getCloneMode());
+        config.put("cloneDepth", status.getCloneDepth());
+        config.put("gitMaxConnectionsPerHost", status.getGitMaxConnectionsPerHost());
+        config.put("gitTimeoutSeconds", status.getGitTimeoutSeconds());
+        config.put("gitMaxRetries", status.getGitMaxRetries());
+        config.put("gitRetryBackoffMs", status.getGitRetryBackoffMs());
+        config.put("sharedObjectStoreEnabled", status.isSharedObjectStoreEnabled());
+        config.put("objectStoreGroups", status.getObjectStoreGroups());
+        config.put("hubDiskBudgetMb", status.getHubDiskBudgetMb());
+        config.put("remoteChangeDetectionEnabled", status.isRemoteChangeDetectionEnabled());
+        config.put("scanTimeBudgetMinutes", status.getScanTimeBudgetMinutes());
+        config.put("repositoryScanWorkers", status.getRepositoryScanWorkers());
         config.put("timestamp", System.currentTimeMillis());
 
         return ResponseEntity.ok(config);
@@ -152,12 +310,113 @@ public class ScanController {
                 return ResponseEntity.badRequest().body(response);
             }
 
+            if (configDto.getParseWorkerCount() != null && configDto.getParseWorkerCount() <= 0) {
+                response.put("success", false);
+                response.put("message", "Parse worker count must be greater than 0");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            if (configDto.getFetchWorkerCount() != null && configDto.getFetchWorkerCount() <= 0) {
+                response.put("success", false);
+                response.put("message", "Fetch worker count must be greater than 0");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            if (configDto.getRepositoryParseConcurrency() != null && configDto.getRepositoryParseConcurrency() <= 0) {
+                response.put("success", false);
+                response.put("message", "Repository parse concurrency must be greater than 0");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            if (configDto.getPipelineQueueCapacity() != null && configDto.getPipelineQueueCapacity() <= 0) {
+                response.put("success", false);
+                response.put("message", "Pipeline queue capacity must be greater than 0");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            if (configDto.getScanTimeBudgetMinutes() != null && configDto.getScanTimeBudgetMinutes() < 0) {
+                response.put("success", false);
+                response.put("message", "Scan time budget (minutes) must not be negative");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            if (configDto.getRepositoryScanWorkers() != null && configDto.getRepositoryScanWorkers() <= 0) {
+                response.put("success", false);
+                response.put("message", "Repository scan workers must be greater than 0");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            if (configDto.getHubDiskBudgetMb() != null && configDto.getHubDiskBudgetMb() < 0) {
+                response.put("success", false);
+                response.put("message", "Hub disk budget MB must not be negative");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            if (configDto.getCloneDepth() != null && configDto.getCloneDepth() < 0) {
+                response.put("success", false);
+                response.put("message", "Clone depth must not be negative");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            if (configDto.getGitMaxConnectionsPerHost() != null && configDto.getGitMaxConnectionsPerHost() <= 0) {
+                response.put("success", false);
+                response.put("message", "Git connections per host must be greater than 0");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            if (configDto.getGitTimeoutSeconds() != null && configDto.getGitTimeoutSeconds() <= 0) {
+                response.put("success", false);
+                response.put("message", "Git timeout seconds must be greater than 0");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            if (configDto.getGitMaxRetries() != null && configDto.getGitMaxRetries() < 0) {
+                response.put("success", false);
+                response.put("message", "Git retries must not be negative");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            if (configDto.getGitRetryBackoffMs() != null && configDto.getGitRetryBackoffMs() < 0) {
+                response.put("success", false);
+                response.put("message", "Git retry backoff ms must not be negative");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            if (configDto.getEnrichmentWorkerCount() != null && configDto.getEnrichmentWorkerCount() <= 0) {
+                response.put("success", false);
+                response.put("message", "Enrichment worker count must be greater than 0");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            if (configDto.getParseCacheMaxMb() != null && configDto.getParseCacheMaxMb() < 0) {
+                response.put("success", false);
+                response.put("message", "Parse cache size must not be negative");
+                return ResponseEntity.badRequest().body(response);
+            }
+
             if (configDto.getScanBranch() != null && configDto.getScanBranch().trim().isEmpty()) {
                 response.put("success", false);
                 response.put("message", "Scan branch cannot be empty");
                 return ResponseEntity.badRequest().body(response);
             }
 
+            if (configDto.getParseProfile() != null
+                    && !configDto.getParseProfile().trim().equalsIgnoreCase("FAST")
+                    && !configDto.getParseProfile().trim().equalsIgnoreCase("FULL")) {
+                response.put("success", false);
+                response.put("message", "Parse profile must be FAST or FULL");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            if (configDto.getCloneMode() != null
+                    && !configDto.getCloneMode().trim().equalsIgnoreCase("FULL")
+                    && !configDto.getCloneMode().trim().equalsIgnoreCase("PARTIAL")
+                    && !configDto.getCloneMode().trim().equalsIgnoreCase("BARE")) {
+                response.put("success", false);
+                response.put("message", "Clone mode must be FULL, PARTIAL or BARE");
+                return ResponseEntity.badRequest().body(response);
+            }
+
             // Update configuration
             boolean updated = scheduledScanService.updateScanConfiguration(configDto);
 
@@ -33,6 +33,75 @@ public class ScanConfigDto {
 
     @JsonProperty("scanBranch")
     private String scanBranch;
+
+    @JsonProperty("parseWorkerCount")
+    private Integer parseWorkerCount;
+
+    @JsonProperty("fetchWorkerCount")
+    private Integer fetchWorkerCount;
+
+    @JsonProperty("repositoryParseConcurrency")
+    private Integer repositoryParseConcurrency;
+
+    @JsonProperty("pipelineQueueCapacity")
+    private Integer pipelineQueueCapacity;
+
+    @JsonProperty("incrementalScanEnabled")
+    private Boolean incrementalScanEnabled;
+
+    @JsonProperty("parseCacheMaxMb")
+    private Integer parseCacheMaxMb;
+
+    @JsonProperty("parseProfile")
+    private String parseProfile;
+
+    @JsonProperty("deferredTypeResolution")
+    private Boolean deferredTypeResolution;
+
+    @JsonProperty("enrichmentWorkerCount")
+    private Integer enrichmentWorkerCount;
+
+    @JsonProperty("preFilterEnabled")
+    private Boolean preFilterEnabled;
+
+    @JsonProperty("testRootPatterns")
+    private String testRootPatterns;
+
+    @JsonProperty("cloneMode")
+    private String cloneMode;
+
+    @JsonProperty("cloneDepth")
+    private Integer cloneDepth;
+
+    @JsonProperty("gitMaxConnectionsPerHost")
+    private Integer gitMaxConnectionsPerHost;
+
+    @JsonProperty("gitTimeoutSeconds")
+    private Integer gitTimeoutSeconds;
+
+    @JsonProperty("gitMaxRetries")
+    private Integer gitMaxRetries;
+
+    @JsonProperty("gitRetryBackoffMs")
+    private Integer gitRetryBackoffMs;
+
+    @JsonProperty("sharedObjectStoreEnabled")
+    private Boolean sharedObjectStoreEnabled;
+
+    @JsonProperty("objectStoreGroups")
+    private String objectStoreGroups;
+
+    @JsonProperty("hubDiskBudgetMb")
+    private Integer hubDiskBudgetMb;
+
+    @JsonProperty("remoteChangeDetectionEnabled")
+    private Boolean remoteChangeDetectionEnabled;
+
+    @JsonProperty("scanTimeBudgetMinutes")
+    private Integer scanTimeBudgetMinutes;
+
+    @JsonProperty("repositoryScanWorkers")
+    private Integer repositoryScanWorkers;
     
     // Default constructor
     public ScanConfigDto() {}
@@ -41,7 +110,29 @@ public class ScanConfigDto {
     public ScanConfigDto(Boolean tempCloneMode, String repositoryHubPath, 
                         String repositoryListFile, Integer maxRepositoriesPerScan,
                         Boolean schedulerEnabled, String dailyScanCron, String repositoryConfigContent,
-                        String organization, String scanBranch) {
+                        String organization, String scanBranch, Integer parseWorkerCount,
+                        Integer fetchWorkerCount,
+                        Integer repositoryParseConcurrency,
+                        Integer pipelineQueueCapacity,
+                        Boolean incrementalScanEnabled,
+                        Integer parseCacheMaxMb,
+                        String parseProfile,
+                        Boolean deferredTypeResolution,
+                        Integer enrichmentWorkerCount,
+                        Boolean preFilterEnabled,
+                        String testRootPatterns,
+                        String cloneMode,
+                        Integer cloneDepth,
+                        Integer gitMaxConnectionsPerHost,
+                        Integer gitTimeoutSeconds,
+                        Integer gitMaxRetries,
+                        Integer gitRetryBackoffMs,
+                        Boolean sharedObjectStoreEnabled,
+                        String objectStoreGroups,
+                        Integer hubDiskBudgetMb,
+                        Boolean remoteChangeDetectionEnabled,
+                        Integer scanTimeBudgetMinutes,
+                        Integer repositoryScanWorkers) {
         this.tempCloneMode = tempCloneMode;
         this.repositoryHubPath = repositoryHubPath;
         this.repositoryListFile = repositoryListFile;
@@ -51,6 +142,29 @@ public class ScanConfigDto {
         this.repositoryConfigContent = repositoryConfigContent;
         this.organization = organization;
         this.scanBranch = scanBranch;
+        this.parseWorkerCount = parseWorkerCount;
+        this.fetchWorkerCount = fetchWorkerCount;
+        this.repositoryParseConcurrency = repositoryParseConcurrency;
+        this.pipelineQueueCapacity = pipelineQueueCapacity;
+        this.incrementalScanEnabled = incrementalScanEnabled;
+        this.parseCacheMaxMb = parseCacheMaxMb;
+        this.parseProfile = parseProfile;
+        this.deferredTypeResolution = deferredTypeResolution;
+        this.enrichmentWorkerCount = enrichmentWorkerCount;
+        this.preFilterEnabled = preFilterEnabled;
+        this.testRootPatterns = testRootPatterns;
+        this.cloneMode = cloneMode;
+        this.cloneDepth = cloneDepth;
+        this.gitMaxConnectionsPerHost = gitMaxConnectionsPerHost;
+        this.gitTimeoutSeconds = gitTimeoutSeconds;
+        this.gitMaxRetries = gitMaxRetries;
+        this.gitRetryBackoffMs = gitRetryBackoffMs;
+        this.sharedObjectStoreEnabled = sharedObjectStoreEnabled;
+        this.objectStoreGroups = objectStoreGroups;
+        this.hubDiskBudgetMb = hubDiskBudgetMb;
+        this.remoteChangeDetectionEnabled = remoteChangeDetectionEnabled;
+        this.scanTimeBudgetMinutes = scanTimeBudgetMinutes;
+        this.repositoryScanWorkers = repositoryScanWorkers;
     }
     
     // Getters and Setters
@@ -125,6 +239,190 @@ public class ScanConfigDto {
     public void setScanBranch(String scanBranch) {
         this.scanBranch = scanBranch;
     }
+
+    public Integer getParseWorkerCount() {
+        return parseWorkerCount;
+    }
+
+    public void setParseWorkerCount(Integer parseWorkerCount) {
+        this.parseWorkerCount = parseWorkerCount;
+    }
+
+    public Integer getFetchWorkerCount() {
+        return fetchWorkerCount;
+    }
+
+    public void setFetchWorkerCount(Integer fetchWorkerCount) {
+        this.fetchWorkerCount = fetchWorkerCount;
+    }
+
+    public Integer getRepositoryParseConcurrency() {
+        return repositoryParseConcurrency;
+    }
+
+    public void setRepositoryParseConcurrency(Integer repositoryParseConcurrency) {
+        this.repositoryParseConcurrency = repositoryParseConcurrency;
+    }
+
+    public Integer getPipelineQueueCapacity() {
+        return pipelineQueueCapacity;
+    }
+
+    public void setPipelineQueueCapacity(Integer pipelineQueueCapacity) {
+        this.pipelineQueueCapacity = pipelineQueueCapacity;
+    }
+
+    public Boolean getIncrementalScanEnabled() {
+        return incrementalScanEnabled;
+    }
+
+    public void setIncrementalScanEnabled(Boolean incrementalScanEnabled) {
+        this.incrementalScanEnabled = incrementalScanEnabled;
+    }
+
+    public Integer getParseCacheMaxMb() {
+        return parseCacheMaxMb;
+    }
+
+    public void setParseCacheMaxMb(Integer parseCacheMaxMb) {
+        this.parseCacheMaxMb = parseCacheMaxMb;
+    }
+
+    public String getParseProfile() {
+        return parseProfile;
+    }
+
+    public void setParseProfile(String parseProfile) {
+        this.parseProfile = parseProfile;
+    }
+
+    public Boolean getDeferredTypeResolution() {
+        return deferredTypeResolution;
+    }
+
+    public void setDeferredTypeResolution(Boolean deferredTypeResolution) {
+        this.deferredTypeResolution = deferredTypeResolution;
+    }
+
+    public Integer getEnrichmentWorkerCount() {
+        return enrichmentWorkerCount;
+    }
+
+    public void setEnrichmentWorkerCount(Integer enrichmentWorkerCount) {
+        this.enrichmentWorkerCount = enrichmentWorkerCount;
+    }
+
+    public Boolean getPreFilterEnabled() {
+        return preFilterEnabled;
+    }
+
+    public void setPreFilterEnabled(Boolean preFilterEnabled) {
+        this.preFilterEnabled = preFilterEnabled;
+    }
+
+    public String getTestRootPatterns() {
+        return testRootPatterns;
+    }
+
+    public void setTestRootPatterns(String testRootPatterns) {
+        this.testRootPatterns = testRootPatterns;
+    }
+
+    public String getCloneMode() {
+        return cloneMode;
+    }
+
+    public void setCloneMode(String cloneMode) {
+        this.cloneMode = cloneMode;
+    }
+
+    public Integer getCloneDepth() {
+        return cloneDepth;
+    }
+
+    public void setCloneDepth(Integer cloneDepth) {
+        this.cloneDepth = cloneDepth;
+    }
+
+    public Integer getGitMaxConnectionsPerHost() {
+        return gitMaxConnectionsPerHost;
+    }
+
+    public void setGitMaxConnectionsPerHost(Integer gitMaxConnectionsPerHost) {
+        this.gitMaxConnectionsPerHost = gitMaxConnectionsPerHost;
+    }
+
+    public Integer getGitTimeoutSeconds() {
+        return gitTimeoutSeconds;
+    }
+
+    public void setGitTimeoutSeconds(Integer gitTimeoutSeconds) {
+        this.gitTimeoutSeconds = gitTimeoutSeconds;
+    }
+
+    public Integer getGitMaxRetries() {
+        return gitMaxRetries;
+    }
+
+    public void setGitMaxRetries(Integer gitMaxRetries) {
+        this.gitMaxRetries = gitMaxRetries;
+    }
+
+    public Integer getGitRetryBackoffMs() {
+        return gitRetryBackoffMs;
+    }
+
+    public void setGitRetryBackoffMs(Integer gitRetryBackoffMs) {
+        this.gitRetryBackoffMs = gitRetryBackoffMs;
+    }
+
+    public Boolean getSharedObjectStoreEnabled() {
+        return sharedObjectStoreEnabled;
+    }
+
+    public void setSharedObjectStoreEnabled(Boolean sharedObjectStoreEnabled) {
+        this.sharedObjectStoreEnabled = sharedObjectStoreEnabled;
+    }
+
+    public String getObjectStoreGroups() {
+        return objectStoreGroups;
+    }
+
+    public void setObjectStoreGroups(String objectStoreGroups) {
+        this.objectStoreGroups = objectStoreGroups;
+    }
+
+    public Integer getHubDiskBudgetMb() {
+        return hubDiskBudgetMb;
+    }
+
+    public void setHubDiskBudgetMb(Integer hubDiskBudgetMb) {
+        this.hubDiskBudgetMb = hubDiskBudgetMb;
+    }
+
+    public Boolean getRemoteChangeDetectionEnabled() {
+        return remoteChangeDetectionEnabled;
+    }
+
+    public void setRemoteChangeDetectionEnabled(Boolean remoteChangeDetectionEnabled) {
+        this.remoteChangeDetectionEnabled = remoteChangeDetectionEnabled;
+    }
+
+    public Integer getScanTimeBudgetMinutes() {
+        return scanTimeBudgetMinutes;
+    }
+
+    public void setScanTimeBudgetMinutes(Integer scanTimeBudgetMinutes) {
+        this.scanTimeBudgetMinutes = scanTimeBudgetMinutes;
+    }
+
+    public Integer getRepositoryScanWorkers() {
+        return repositoryScanWorkers;
+    }
+
+    public void setRepositoryScanWorkers(Integer repositoryScanWorkers) {
+        this.repositoryScanWorkers = repositoryScanWorkers;
+    }
     
     @Override
     public String toString() {
@@ -138,6 +436,29 @@ public class ScanConfigDto {
                 ", repositoryConfigContent='" + repositoryConfigContent + '\'' +
                 ", organization='" + organization + '\'' +
                 ", scanBranch='" + scanBranch + '\'' +
+                ", parseWorkerCount=" + parseWorkerCount +
+                ", fetchWorkerCount=" + fetchWorkerCount +
+                ", repositoryParseConcurrency=" + repositoryParseConcurrency +
+                ", pipelineQueueCapacity=" + pipelineQueueCapacity +
+                ", incrementalScanEnabled=" + incrementalScanEnabled +
+                ", parseCacheMaxMb=" + parseCacheMaxMb +
+                ", parseProfile='" + parseProfile + '\'' +
+                ", deferredTypeResolution=" + deferredTypeResolution +
+                ", enrichmentWorkerCount=" + enrichmentWorkerCount +
+                ", preFilterEnabled=" + preFilterEnabled +
+                ", testRootPatterns='" + testRootPatterns + '\'' +
+                ", cloneMode='" + cloneMode + '\'' +
+                ", cloneDepth=" + cloneDepth +
+                ", gitMaxConnectionsPerHost=" + gitMaxConnectionsPerHost +
+                ", gitTimeoutSeconds=" + gitTimeoutSeconds +
+                ", gitMaxRetries=" + gitMaxRetries +
+                ", gitRetryBackoffMs=" + gitRetryBackoffMs +
+                ", sharedObjectStoreEnabled=" + sharedObjectStoreEnabled +
+                ", objectStoreGroups='" + objectStoreGroups + '\'' +
+                ", hubDiskBudgetMb=" + hubDiskBudgetMb +
+                ", remoteChangeDetectionEnabled=" + remoteChangeDetectionEnabled +
+                ", scanTimeBudgetMinutes=" + scanTimeBudgetMinutes +
+                ", repositoryScanWorkers=" + repositoryScanWorkers +
                 '}';
     }
 }
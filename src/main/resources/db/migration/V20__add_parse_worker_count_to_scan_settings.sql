@@ -0,0 +1,7 @@
+-- Migration: Add parse_worker_count to scan_settings to control per-repository parse parallelism
+-- Version: 20
+
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS parse_worker_count INTEGER NOT NULL DEFAULT 1;
+
+-- 1 keeps the serial parse path; larger values parse files of a repository concurrently.
@@ -0,0 +1,15 @@
+-- Migration: Add scan pipeline settings (fetch -> parse -> persist) to scan_settings
+-- Version: 21
+
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS fetch_worker_count INTEGER NOT NULL DEFAULT 1;
+
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS repository_parse_concurrency INTEGER NOT NULL DEFAULT 1;
+
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS pipeline_queue_capacity INTEGER NOT NULL DEFAULT 4;
+
+-- fetch_worker_count: repositories cloned/pulled concurrently
+-- repository_parse_concurrency: repositories parsed concurrently
+-- pipeline_queue_capacity: repositories buffered between two stages before the upstream stage blocks
@@ -0,0 +1,13 @@
+-- Migration: Track the last scanned commit per repository for incremental scans
+-- Version: 22
+
+-- HEAD commit the repository's rows in last_scanned_session_id were collected from
+ALTER TABLE repositories
+    ADD COLUMN IF NOT EXISTS last_scanned_commit VARCHAR(64);
+
+ALTER TABLE repositories
+    ADD COLUMN IF NOT EXISTS last_scanned_session_id BIGINT;
+
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS incremental_scan_enabled BOOLEAN NOT NULL DEFAULT TRUE;
+
@@ -0,0 +1,5 @@
+-- Migration: Add parse result cache budget to scan settings
+-- Version: 23
+
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS parse_cache_max_mb INTEGER NOT NULL DEFAULT 512;
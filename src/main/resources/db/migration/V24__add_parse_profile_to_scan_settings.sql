@@ -0,0 +1,8 @@
+-- Migration: Add parse profile to scan settings
+-- Version: 24
+
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS parse_profile VARCHAR(16) NOT NULL DEFAULT 'FULL';
+
+-- FAST: test methods, annotations and LOC only (no comment attribution or symbol resolution)
+-- FULL: also resolves referenced types
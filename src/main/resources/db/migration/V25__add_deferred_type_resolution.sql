@@ -0,0 +1,18 @@
+-- Migration: Track deferred referenced type resolution
+-- Version: 25
+
+-- NULL: referenced types were resolved during the scan (or the class predates this column)
+-- PENDING: the scan published structural data only; the enrichment worker still has to resolve types
+-- FAILED: the enrichment worker could not parse the stored class content
+ALTER TABLE test_classes
+    ADD COLUMN IF NOT EXISTS referenced_types_status VARCHAR(16);
+
+CREATE INDEX IF NOT EXISTS idx_test_classes_referenced_types_pending
+    ON test_classes (repository_id, scan_session_id)
+    WHERE referenced_types_status = 'PENDING';
+
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS deferred_type_resolution BOOLEAN NOT NULL DEFAULT FALSE;
+
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS enrichment_worker_count INTEGER NOT NULL DEFAULT 1;
@@ -0,0 +1,5 @@
+-- Migration: Lexical pre-filter before parsing test files
+-- Version: 26
+
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS pre_filter_enabled BOOLEAN NOT NULL DEFAULT TRUE;
@@ -0,0 +1,6 @@
+-- Migration: Configurable test source roots for file discovery
+-- Version: 27
+
+-- Comma separated directory patterns relative to a module root, e.g. src/test/java,src/integrationTest/java
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS test_root_patterns VARCHAR(1000) NOT NULL DEFAULT 'src/test/java';
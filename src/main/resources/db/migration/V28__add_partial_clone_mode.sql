@@ -0,0 +1,20 @@
+-- Migration: Partial, sparse clone mode and per-repository fetch statistics
+-- Version: 28
+
+-- FULL: complete clone; PARTIAL: blob-filtered shallow clone with sparse-checkout of the test roots
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS clone_mode VARCHAR(16) NOT NULL DEFAULT 'FULL';
+
+-- History depth of PARTIAL clones and fetches; 0 fetches full history
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS clone_depth INTEGER NOT NULL DEFAULT 1;
+
+-- Last clone/update of each repository, to compare modes
+ALTER TABLE repositories
+    ADD COLUMN IF NOT EXISTS clone_mode VARCHAR(16);
+
+ALTER TABLE repositories
+    ADD COLUMN IF NOT EXISTS last_fetch_duration_ms BIGINT;
+
+ALTER TABLE repositories
+    ADD COLUMN IF NOT EXISTS disk_usage_bytes BIGINT;
@@ -0,0 +1,17 @@
+-- Migration: Per-host git connection limits, timeouts and retries
+-- Version: 29
+
+-- Concurrent clone/fetch connections per git host; further commands queue
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS git_max_connections_per_host INTEGER NOT NULL DEFAULT 4;
+
+-- Time limit of a single git command attempt
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS git_timeout_seconds INTEGER NOT NULL DEFAULT 300;
+
+-- Retries of failed clones and fetches, with exponential backoff starting at git_retry_backoff_ms
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS git_max_retries INTEGER NOT NULL DEFAULT 2;
+
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS git_retry_backoff_ms INTEGER NOT NULL DEFAULT 2000;
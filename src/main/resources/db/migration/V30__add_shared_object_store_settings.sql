@@ -0,0 +1,10 @@
+-- Migration: Shared object stores for forks and related repositories
+-- Version: 30
+
+-- Forks borrow objects from a per-network store in <hub>/.objects instead of holding their own copy
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS shared_object_store_enabled BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Declared networks for repositories not related by root commit, one 'group: url, url' line per group
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS object_store_groups VARCHAR(4000) NOT NULL DEFAULT '';
@@ -0,0 +1,6 @@
+-- Migration: Disk budget for repositories kept on the hub
+-- Version: 31
+
+-- Above this size the least recently used clones are evicted; 0 keeps every clone (no budget)
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS hub_disk_budget_mb INTEGER NOT NULL DEFAULT 0;
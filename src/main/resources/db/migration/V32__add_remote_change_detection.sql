@@ -0,0 +1,6 @@
+-- Migration: Remote change detection before fetching
+-- Version: 32
+
+-- Ask each remote for its head first; repositories still at their last scanned commit are not fetched
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS remote_change_detection_enabled BOOLEAN NOT NULL DEFAULT TRUE;
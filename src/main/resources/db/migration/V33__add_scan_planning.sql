@@ -0,0 +1,19 @@
+-- Migration: Time-budgeted, staleness-prioritized scan planning
+-- Version: 33
+
+-- Time window the scan planner fits repositories into; 0 plans by max_repositories_per_scan only
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS scan_time_budget_minutes INTEGER NOT NULL DEFAULT 0;
+
+-- Per-repository history the planner estimates durations and change likelihood from.
+-- Keyed by URL because repositories without test classes have no repositories row.
+CREATE TABLE IF NOT EXISTS repository_scan_history (
+    git_url VARCHAR(500) PRIMARY KEY,
+    last_attempt_at TIMESTAMP NOT NULL,
+    last_commit VARCHAR(64),
+    fetch_duration_ms BIGINT,
+    parse_duration_ms BIGINT,
+    persist_duration_ms BIGINT,
+    scan_count INTEGER NOT NULL DEFAULT 0,
+    change_count INTEGER NOT NULL DEFAULT 0
+);
@@ -0,0 +1,6 @@
+-- Migration: Concurrent repository-level scans next to a running full scan
+-- Version: 34
+
+-- Workers for repository-level scans queued from the UI; their budget is separate from the full scan's workers
+ALTER TABLE scan_settings
+    ADD COLUMN IF NOT EXISTS repository_scan_workers INTEGER NOT NULL DEFAULT 2;
@@ -0,0 +1,27 @@
+-- Migration: Database-backed scan job queue for distributed scan workers
+-- Version: 35
+
+-- One job per repository to scan. Workers claim jobs with FOR UPDATE SKIP LOCKED and hold a lease
+-- while scanning; jobs whose lease expired are claimed again until max_attempts is reached.
+CREATE TABLE IF NOT EXISTS scan_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    scan_session_id BIGINT REFERENCES scan_sessions(id) ON DELETE CASCADE,
+    git_url VARCHAR(500) NOT NULL,
+    repository_id BIGINT,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    max_attempts INTEGER NOT NULL DEFAULT 3,
+    available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    lease_owner VARCHAR(255),
+    lease_expires_at TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_scan_jobs_status ON scan_jobs (status, available_at, id);
+CREATE INDEX IF NOT EXISTS idx_scan_jobs_session ON scan_jobs (scan_session_id, status);
+
+-- At most one pending job per repository and session: repeated requests are coalesced into it
+CREATE UNIQUE INDEX IF NOT EXISTS uq_scan_jobs_pending
+    ON scan_jobs (COALESCE(scan_session_id, 0), git_url) WHERE status = 'PENDING';
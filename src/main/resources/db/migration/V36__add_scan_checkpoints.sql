@@ -0,0 +1,13 @@
+-- Migration: Crash-safe scan checkpoints
+-- Version: 36
+
+-- Repositories committed into a RUNNING scan session, written in the same transaction as their rows.
+-- A scan interrupted before completing its session resumes with the repositories not listed here.
+CREATE TABLE IF NOT EXISTS scan_checkpoints (
+    scan_session_id BIGINT NOT NULL REFERENCES scan_sessions(id) ON DELETE CASCADE,
+    git_url VARCHAR(500) NOT NULL,
+    repository_id BIGINT,
+    head_commit VARCHAR(64),
+    completed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (scan_session_id, git_url)
+);
@@ -0,0 +1,8 @@
+-- Migration: Invalidate incremental scan baselines when extraction changes
+-- Version: 37
+
+-- Extractor version, parse profile and test root patterns the repository's rows were collected with.
+-- A baseline is only used by a scan with the same fingerprint; NULL (rows from before this column)
+-- never matches, so such repositories are scanned fully once.
+ALTER TABLE repositories
+    ADD COLUMN IF NOT EXISTS last_scan_fingerprint VARCHAR(64);
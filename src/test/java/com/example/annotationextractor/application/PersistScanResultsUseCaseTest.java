@@ -0,0 +1,216 @@
+package com.example.annotationextractor.application;
+
+import com.example.annotationextractor.casemodel.RepositoryTestInfo;
+import com.example.annotationextractor.casemodel.TestCollectionSummary;
+import com.example.annotationextractor.database.DatabaseConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for persisting the repositories of a session in parallel, one transaction each, against an
+ * in-memory database. Repository rows are replaced by one marker row per repository.
+ */
+public class PersistScanResultsUseCaseTest {
+
+    @Before
+    public void createSchema() throws SQLException {
+        DatabaseConfig.initialize("jdbc:h2:mem:persist;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection conn = DatabaseConfig.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                    CREATE TABLE scan_sessions (
+                        id BIGSERIAL PRIMARY KEY,
+                        scan_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        scan_directory VARCHAR(500) NOT NULL,
+                        total_repositories INT DEFAULT 0,
+                        total_test_classes INT DEFAULT 0,
+                        total_test_methods INT DEFAULT 0,
+                        total_annotated_methods INT DEFAULT 0,
+                        scan_duration_ms BIGINT DEFAULT 0,
+                        scan_status VARCHAR(50) DEFAULT 'COMPLETED',
+                        error_log TEXT
+                    )""");
+            stmt.execute("""
+                    CREATE TABLE daily_metrics (
+                        metric_date DATE PRIMARY KEY,
+                        total_repositories INT,
+                        total_test_classes INT,
+                        total_test_methods INT,
+                        total_annotated_methods INT,
+                        overall_coverage_rate DECIMAL(5,2)
+                    )""");
+            stmt.execute("CREATE TABLE persisted_repositories (scan_session_id BIGINT, git_url VARCHAR(500))");
+        }
+        System.setProperty("persistence.parallelism", "2");
+    }
+
+    @After
+    public void dropDatabase() throws SQLException {
+        System.clearProperty("persistence.parallelism");
+        try (Connection conn = DatabaseConfig.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        DatabaseConfig.close();
+    }
+
+    @Test
+    public void repositoriesArePersistedInParallelAndTheSessionCompletes() throws SQLException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        PersistScanResultsUseCase useCase = new MarkerPersistence() {
+            @Override
+            long persistRepositoryData(Connection conn, RepositoryTestInfo repo, long scanSessionId) throws SQLException {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                bothStarted.countDown();
+                try {
+                    bothStarted.await(5, TimeUnit.SECONDS);
+                    return super.persistRepositoryData(conn, repo, scanSessionId);
+                } catch (InterruptedException e) {
+                    throw new SQLException(e);
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+        };
+
+        long sessionId = useCase.persist(summary("repo-a", "repo-b", "repo-c", "repo-d"), 10);
+
+        assertEquals(2, maxRunning.get());
+        assertEquals("COMPLETED", status(sessionId));
+        assertEquals(List.of("repo-a", "repo-b", "repo-c", "repo-d"), persisted(sessionId));
+        assertEquals(1, count("SELECT COUNT(*) FROM daily_metrics WHERE total_repositories = 4"));
+    }
+
+    @Test
+    public void failedRepositoryMarksTheSessionFailedAndCancelsTheOthers() {
+        CountDownLatch failed = new CountDownLatch(1);
+        PersistScanResultsUseCase useCase = new MarkerPersistence() {
+            @Override
+            long persistRepositoryData(Connection conn, RepositoryTestInfo repo, long scanSessionId) throws SQLException {
+                long id = super.persistRepositoryData(conn, repo, scanSessionId);
+                if (repo.getGitUrl().equals("broken")) {
+                    failed.countDown();
+                    throw new SQLException("value too long", "22001");
+                }
+                try {
+                    // Still running when the other repository fails, so it must roll back instead of committing
+                    failed.await(5, TimeUnit.SECONDS);
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    throw new SQLException(e);
+                }
+                return id;
+            }
+        };
+
+        try {
+            useCase.persist(summary("slow", "broken", "queued-a", "queued-b"), 10);
+            fail("expected the broken repository to fail the session");
+        } catch (SQLException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("broken"));
+            assertEquals("22001", e.getSQLState());
+        }
+
+        long sessionId = latestSession();
+        assertEquals("FAILED", status(sessionId));
+        assertTrue(persisted(sessionId).isEmpty());
+        assertEquals(0, count("SELECT COUNT(*) FROM daily_metrics"));
+    }
+
+    @Test
+    public void sessionIsNotResumableWhilePersisting() throws SQLException {
+        PersistScanResultsUseCase useCase = new MarkerPersistence() {
+            @Override
+            long persistRepositoryData(Connection conn, RepositoryTestInfo repo, long scanSessionId) throws SQLException {
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT scan_status FROM scan_sessions WHERE id = " + scanSessionId)) {
+                    assertTrue(rs.next());
+                    assertEquals("PERSISTING", rs.getString(1));
+                }
+                return super.persistRepositoryData(conn, repo, scanSessionId);
+            }
+        };
+        try (Connection conn = DatabaseConfig.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE scan_jobs (id BIGSERIAL PRIMARY KEY, scan_session_id BIGINT)");
+        }
+
+        useCase.persist(summary("repo-a"), 10);
+
+        assertTrue(useCase.findInterruptedScanSession("/hub").isEmpty());
+    }
+
+    /**
+     * Writes one marker row per repository instead of its test classes.
+     */
+    private static class MarkerPersistence extends PersistScanResultsUseCase {
+        @Override
+        long persistRepositoryData(Connection conn, RepositoryTestInfo repo, long scanSessionId) throws SQLException {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO persisted_repositories (scan_session_id, git_url) VALUES (?, ?)")) {
+                stmt.setLong(1, scanSessionId);
+                stmt.setString(2, repo.getGitUrl());
+                stmt.executeUpdate();
+            }
+            return 0;
+        }
+    }
+
+    private static TestCollectionSummary summary(String... gitUrls) {
+        TestCollectionSummary summary = new TestCollectionSummary("/hub");
+        for (String gitUrl : gitUrls) {
+            summary.addRepository(new RepositoryTestInfo(gitUrl, "Team", "TEAM"));
+        }
+        return summary;
+    }
+
+    private static String status(long sessionId) {
+        try (Connection conn = DatabaseConfig.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT scan_status FROM scan_sessions WHERE id = " + sessionId)) {
+            assertTrue(rs.next());
+            return rs.getString(1);
+        } catch (SQLException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static List<String> persisted(long sessionId) {
+        try (Connection conn = DatabaseConfig.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT git_url FROM persisted_repositories WHERE scan_session_id = "
+                     + sessionId + " ORDER BY git_url")) {
+            List<String> gitUrls = new java.util.ArrayList<>();
+            while (rs.next()) {
+                gitUrls.add(rs.getString(1));
+            }
+            return gitUrls;
+        } catch (SQLException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static long latestSession() {
+        return count("SELECT MAX(id) FROM scan_sessions");
+    }
+
+    private static long count(String sql) {
+        try (Connection conn = DatabaseConfig.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            assertTrue(rs.next());
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
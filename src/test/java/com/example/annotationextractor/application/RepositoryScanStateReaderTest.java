@@ -0,0 +1,123 @@
+package com.example.annotationextractor.application;
+
+import com.example.annotationextractor.casemodel.IncrementalScanBaseline;
+import com.example.annotationextractor.casemodel.ParseProfile;
+import com.example.annotationextractor.database.DatabaseConfig;
+import com.example.annotationextractor.runner.RepositoryScanner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the path filters used to carry unchanged files forward, and which previous scans
+ * qualify as baselines, against an in-memory database.
+ */
+public class RepositoryScanStateReaderTest {
+
+    private static final String URL = "https://git.example.com/org/repo-a";
+    private static final List<String> ROOTS = List.of("src/test/java");
+
+    private final RepositoryScanStateReader reader = new RepositoryScanStateReader();
+
+    @Before
+    public void createSchema() throws SQLException {
+        DatabaseConfig.initialize("jdbc:h2:mem:scan_state;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection conn = DatabaseConfig.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                    CREATE TABLE repositories (
+                        id BIGSERIAL PRIMARY KEY,
+                        git_url VARCHAR(500) UNIQUE,
+                        last_scanned_commit VARCHAR(64),
+                        last_scanned_session_id BIGINT,
+                        last_scan_fingerprint VARCHAR(64)
+                    )""");
+            stmt.execute("CREATE TABLE test_classes (id BIGSERIAL PRIMARY KEY, scan_session_id BIGINT, repository_id BIGINT)");
+        }
+    }
+
+    @After
+    public void dropDatabase() throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        DatabaseConfig.close();
+    }
+
+    @Test
+    public void filePathFilterIsEmptyWithoutInvalidatedFiles() {
+        assertEquals("", RepositoryScanStateReader.buildFilePathFilter("file_path", 0));
+    }
+
+    @Test
+    public void filePathFilterExcludesInvalidatedFiles() {
+        assertEquals(" AND (oc.file_path IS NULL OR oc.file_path NOT IN (?, ?, ?))",
+                RepositoryScanStateReader.buildFilePathFilter("oc.file_path", 3));
+    }
+
+    @Test
+    public void filePathMatchSelectsOnlyInvalidatedFiles() {
+        assertEquals(" AND file_path IN (?, ?)", RepositoryScanStateReader.buildFilePathMatch("file_path", 2));
+        assertEquals(" AND 1 = 0", RepositoryScanStateReader.buildFilePathMatch("file_path", 0));
+    }
+
+    @Test
+    public void baselineIsUsedOnlyWithTheSameFingerprint() throws SQLException {
+        String fingerprint = RepositoryScanner.scanFingerprint(1, ParseProfile.FULL, ROOTS);
+        insertScannedRepository(fingerprint);
+
+        Map<String, IncrementalScanBaseline> baselines = reader.loadBaselines(fingerprint);
+        assertEquals(1, baselines.size());
+        assertEquals("abc123", baselines.get(URL).getBaseCommit());
+        assertEquals(7L, baselines.get(URL).getSourceScanSessionId());
+    }
+
+    @Test
+    public void extractorUpgradeDropsTheBaseline() throws SQLException {
+        insertScannedRepository(RepositoryScanner.scanFingerprint(1, ParseProfile.FULL, ROOTS));
+
+        assertTrue(reader.loadBaselines(RepositoryScanner.scanFingerprint(2, ParseProfile.FULL, ROOTS)).isEmpty());
+    }
+
+    @Test
+    public void newTestRootDropsTheBaseline() throws SQLException {
+        insertScannedRepository(RepositoryScanner.scanFingerprint(1, ParseProfile.FULL, ROOTS));
+
+        String withIntegrationTests = RepositoryScanner.scanFingerprint(1, ParseProfile.FULL,
+                List.of("src/test/java", "src/integrationTest/java"));
+        assertTrue(reader.loadBaselines(withIntegrationTests).isEmpty());
+        // Only the set of roots counts, not their order
+        assertEquals(withIntegrationTests, RepositoryScanner.scanFingerprint(1, ParseProfile.FULL,
+                List.of("src/integrationTest/java", "src/test/java")));
+    }
+
+    @Test
+    public void rowsWithoutFingerprintAreScannedFully() throws SQLException {
+        insertScannedRepository(null);
+
+        assertTrue(reader.loadBaselines(RepositoryScanner.scanFingerprint(1, ParseProfile.FULL, ROOTS)).isEmpty());
+    }
+
+    private static void insertScannedRepository(String fingerprint) throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement("""
+                    INSERT INTO repositories (id, git_url, last_scanned_commit, last_scanned_session_id, last_scan_fingerprint)
+                    VALUES (1, ?, 'abc123', 7, ?)""")) {
+                stmt.setString(1, URL);
+                stmt.setString(2, fingerprint);
+                stmt.executeUpdate();
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("INSERT INTO test_classes (scan_session_id, repository_id) VALUES (7, 1)");
+            }
+        }
+    }
+}
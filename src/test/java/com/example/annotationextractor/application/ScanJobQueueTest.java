@@ -0,0 +1,134 @@
+package com.example.annotationextractor.application;
+
+import com.example.annotationextractor.database.DatabaseConfig;
+import org.flywaydb.core.Flyway;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the scan job state machine: claiming, leases, retries and completing sessions.
+ * The queue relies on PostgreSQL (SKIP LOCKED, RETURNING, interval arithmetic), so these tests
+ * are skipped when the test database is not reachable.
+ */
+public class ScanJobQueueTest {
+
+    private static final String TEST_HOST = "localhost";
+    private static final int TEST_PORT = 5432;
+    private static final String TEST_DATABASE = "test_analytics_test";
+    private static final String TEST_USERNAME = "postgres";
+    private static final String TEST_PASSWORD = "postgres";
+
+    private static final long LEASE_MS = 60_000;
+
+    private final ScanJobQueue queue = new ScanJobQueue();
+
+    @Before
+    public void setUp() {
+        try {
+            DatabaseConfig.initialize(TEST_HOST, TEST_PORT, TEST_DATABASE, TEST_USERNAME, TEST_PASSWORD);
+        } catch (RuntimeException e) {
+            Assume.assumeNoException("PostgreSQL test database not reachable", e);
+        }
+        Flyway flyway = Flyway.configure()
+                .dataSource(DatabaseConfig.getDataSource())
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+        flyway.migrate();
+    }
+
+    @After
+    public void tearDown() {
+        DatabaseConfig.close();
+    }
+
+    @Test
+    public void claimedJobsAreLeasedToOneWorker() throws SQLException {
+        long sessionId = queue.startScan("/hub", List.of("https://git.example.com/a", "https://git.example.com/b"), 3);
+        assertTrue(sessionId > 0);
+        assertEquals(-1, queue.startScan("/hub", List.of("https://git.example.com/c"), 3));
+
+        List<ScanJobQueue.ScanJob> jobs = queue.claim("worker-a", 5, LEASE_MS);
+
+        assertEquals(2, jobs.size());
+        assertEquals(1, jobs.get(0).attempts());
+        assertEquals(Long.valueOf(sessionId), jobs.get(0).scanSessionId());
+        assertTrue(queue.claim("worker-b", 5, LEASE_MS).isEmpty());
+        assertEquals(0, queue.renewLeases("worker-b", List.of(jobs.get(0).id(), jobs.get(1).id()), LEASE_MS));
+        assertEquals(2, queue.renewLeases("worker-a", List.of(jobs.get(0).id(), jobs.get(1).id()), LEASE_MS));
+        assertFalse(queue.complete(jobs.get(0), "worker-b"));
+        assertTrue(queue.complete(jobs.get(0), "worker-a"));
+    }
+
+    @Test
+    public void expiredLeaseIsTakenOverAndTheStalledWorkerLosesTheJob() throws Exception {
+        queue.startScan("/hub", List.of("https://git.example.com/a"), 3);
+        ScanJobQueue.ScanJob stalled = queue.claim("worker-a", 1, 1).get(0);
+        Thread.sleep(50);
+
+        List<ScanJobQueue.ScanJob> takenOver = queue.claim("worker-b", 1, LEASE_MS);
+
+        assertEquals(1, takenOver.size());
+        assertEquals(stalled.id(), takenOver.get(0).id());
+        assertEquals(2, takenOver.get(0).attempts());
+        assertFalse(queue.renewLease(stalled, "worker-a", LEASE_MS));
+        assertFalse(queue.complete(stalled, "worker-a"));
+        assertFalse(queue.fail(stalled, "worker-a", "late", 0));
+        assertTrue(queue.renewLease(takenOver.get(0), "worker-b", LEASE_MS));
+        assertTrue(queue.complete(takenOver.get(0), "worker-b"));
+    }
+
+    @Test
+    public void failedJobsAreRetriedUntilMaxAttemptsThenCompleteTheSession() throws SQLException {
+        long sessionId = queue.startScan("/hub", List.of("https://git.example.com/a"), 2);
+
+        ScanJobQueue.ScanJob first = queue.claim("worker-a", 1, LEASE_MS).get(0);
+        assertTrue(queue.fail(first, "worker-a", "clone failed", 0));
+        assertFalse(queue.completeSessionIfDone(sessionId));
+
+        ScanJobQueue.ScanJob second = queue.claim("worker-a", 1, LEASE_MS).get(0);
+        assertEquals(2, second.attempts());
+        assertFalse(queue.fail(second, "worker-a", "clone failed again", 0));
+        assertTrue(queue.claim("worker-a", 1, LEASE_MS).isEmpty());
+
+        assertTrue(queue.completeSessionIfDone(sessionId));
+        assertFalse(queue.completeSessionIfDone(sessionId));
+        try (Connection conn = DatabaseConfig.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT scan_status, error_log FROM scan_sessions WHERE id = " + sessionId)) {
+            assertTrue(rs.next());
+            assertEquals("COMPLETED", rs.getString("scan_status"));
+            assertEquals("https://git.example.com/a: clone failed again", rs.getString("error_log"));
+        }
+        assertEquals(Integer.valueOf(1), queue.countByStatus().get(ScanJobQueue.FAILED));
+    }
+
+    @Test
+    public void leaseExpiredOnTheLastAttemptFailsTheJob() throws Exception {
+        long sessionId = queue.startScan("/hub", List.of("https://git.example.com/a"), 1);
+        queue.claim("worker-a", 1, 1);
+        Thread.sleep(50);
+
+        assertEquals(Set.of(sessionId), queue.failExpiredLeases());
+        assertTrue(queue.claim("worker-b", 1, LEASE_MS).isEmpty());
+        assertTrue(queue.completeSessionIfDone(sessionId));
+    }
+
+    @Test
+    public void repeatedRequestsJoinThePendingJob() throws SQLException {
+        assertTrue(queue.enqueue(null, "https://git.example.com/a", 7L, 3));
+        assertFalse(queue.enqueue(null, "https://git.example.com/a", 7L, 3));
+
+        assertEquals(Integer.valueOf(1), queue.countByStatus().get(ScanJobQueue.PENDING));
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.annotationextractor.application;
+
+import com.example.annotationextractor.database.DatabaseConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for resuming and abandoning interrupted hub scan sessions, against an in-memory database.
+ */
+public class ScanSessionResumeTest {
+
+    private static final String HUB = "/hub";
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    private final PersistScanResultsUseCase useCase = new PersistScanResultsUseCase();
+
+    @Before
+    public void createSchema() throws SQLException {
+        DatabaseConfig.initialize("jdbc:h2:mem:scan_sessions;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection conn = DatabaseConfig.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                    CREATE TABLE scan_sessions (
+                        id BIGSERIAL PRIMARY KEY,
+                        scan_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        scan_directory VARCHAR(500) NOT NULL,
+                        scan_duration_ms BIGINT DEFAULT 0,
+                        scan_status VARCHAR(50) DEFAULT 'COMPLETED',
+                        error_log TEXT
+                    )""");
+            stmt.execute("CREATE TABLE teams (id BIGSERIAL PRIMARY KEY, team_name VARCHAR(255), team_code VARCHAR(50) UNIQUE)");
+            stmt.execute("CREATE TABLE repositories (id BIGSERIAL PRIMARY KEY, git_url VARCHAR(500) UNIQUE, team_id BIGINT)");
+            stmt.execute("CREATE TABLE scan_jobs (id BIGSERIAL PRIMARY KEY, scan_session_id BIGINT, git_url VARCHAR(500))");
+            stmt.execute("""
+                    CREATE TABLE scan_checkpoints (
+                        scan_session_id BIGINT NOT NULL,
+                        git_url VARCHAR(500) NOT NULL,
+                        repository_id BIGINT,
+                        completed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        PRIMARY KEY (scan_session_id, git_url)
+                    )""");
+        }
+    }
+
+    @After
+    public void dropDatabase() throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        DatabaseConfig.close();
+    }
+
+    @Test
+    public void recentInterruptedSessionIsResumedWithItsCheckpoints() throws SQLException {
+        long sessionId = useCase.startScanSession(HUB);
+        checkpoint(sessionId, "https://git.example.com/org/repo-a", "TEAM_A");
+        checkpoint(sessionId, "https://git.example.com/org/repo-b", null);
+
+        PersistScanResultsUseCase.ScanSessionStart start = useCase.startOrResumeScanSession(HUB, DAY_MS);
+
+        assertTrue(start.resumed());
+        assertEquals(sessionId, start.id());
+        assertEquals(Set.of("https://git.example.com/org/repo-a", "https://git.example.com/org/repo-b"), start.checkpoints());
+        assertEquals(Set.of("TEAM_A"), start.checkpointedTeamCodes());
+        assertEquals("RUNNING", status(sessionId));
+    }
+
+    @Test
+    public void sessionOlderThanTheWindowIsAbandoned() throws SQLException {
+        long sessionId = useCase.startScanSession(HUB);
+        checkpoint(sessionId, "https://git.example.com/org/repo-a", "TEAM_A");
+        execute("UPDATE scan_sessions SET scan_date = DATEADD('DAY', -2, CURRENT_TIMESTAMP) WHERE id = " + sessionId);
+
+        PersistScanResultsUseCase.ScanSessionStart start = useCase.startOrResumeScanSession(HUB, DAY_MS);
+
+        assertFalse(start.resumed());
+        assertNotEquals(sessionId, start.id());
+        assertTrue(start.checkpoints().isEmpty());
+        assertTrue(start.checkpointedTeamCodes().isEmpty());
+        assertEquals("INTERRUPTED", status(sessionId));
+        assertEquals("RUNNING", status(start.id()));
+    }
+
+    @Test
+    public void completedAndDistributedSessionsAreNotResumed() throws SQLException {
+        long completed = useCase.startScanSession(HUB);
+        execute("UPDATE scan_sessions SET scan_status = 'COMPLETED' WHERE id = " + completed);
+        long distributed = useCase.startScanSession(HUB);
+        execute("INSERT INTO scan_jobs (scan_session_id, git_url) VALUES (" + distributed + ", 'https://git.example.com/org/repo-a')");
+        long otherHub = useCase.startScanSession("/other-hub");
+
+        PersistScanResultsUseCase.ScanSessionStart start = useCase.startOrResumeScanSession(HUB, DAY_MS);
+
+        assertFalse(start.resumed());
+        assertNotEquals(completed, start.id());
+        assertNotEquals(distributed, start.id());
+        assertNotEquals(otherHub, start.id());
+        assertEquals("RUNNING", status(distributed));
+        assertEquals("RUNNING", status(otherHub));
+    }
+
+    private static void checkpoint(long sessionId, String gitUrl, String teamCode) throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            Long repositoryId = null;
+            if (teamCode != null) {
+                execute(conn, "INSERT INTO teams (team_name, team_code) VALUES ('" + teamCode + "', '" + teamCode + "')");
+                execute(conn, "INSERT INTO repositories (git_url, team_id) SELECT '" + gitUrl
+                        + "', id FROM teams WHERE team_code = '" + teamCode + "'");
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT id FROM repositories WHERE git_url = '" + gitUrl + "'")) {
+                    rs.next();
+                    repositoryId = rs.getLong(1);
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO scan_checkpoints (scan_session_id, git_url, repository_id) VALUES (?, ?, ?)")) {
+                stmt.setLong(1, sessionId);
+                stmt.setString(2, gitUrl);
+                stmt.setObject(3, repositoryId);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    private static String status(long sessionId) throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT scan_status FROM scan_sessions WHERE id = " + sessionId)) {
+            assertTrue(rs.next());
+            return rs.getString(1);
+        }
+    }
+
+    private static void execute(String sql) throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            execute(conn, sql);
+        }
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
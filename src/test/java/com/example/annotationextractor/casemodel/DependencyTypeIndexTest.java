@@ -0,0 +1,127 @@
+package com.example.annotationextractor.casemodel;
+
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the shared dependency type index: lookups, reuse of the index file and symbol resolution through it.
+ */
+public class DependencyTypeIndexTest {
+
+    private Path workDir;
+    private Path depsDir;
+
+    @Before
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("type-index-test");
+        depsDir = workDir.resolve("deps");
+        Files.createDirectories(depsDir);
+        writeJar(depsDir.resolve("model.jar"), SourceBuffer.class, TestClassParser.class);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void findsTopLevelAndNestedClasses() throws IOException {
+        DependencyTypeIndex index = DependencyTypeIndex.forDirectory(depsDir);
+
+        assertEquals(1, index.getJarCount());
+        assertTrue(index.contains("com.example.annotationextractor.casemodel.SourceBuffer"));
+        assertTrue(index.contains("com.example.annotationextractor.casemodel.TestClassParser$TestClassVisitor"));
+        assertEquals("com.example.annotationextractor.casemodel.TestClassParser$TestClassVisitor",
+                index.classPoolName("com.example.annotationextractor.casemodel.TestClassParser.TestClassVisitor"));
+        assertFalse(index.contains("com.example.annotationextractor.casemodel.ParseResultCache"));
+        assertTrue(Files.isRegularFile(DependencyTypeIndex.defaultIndexFile(depsDir)));
+    }
+
+    @Test
+    public void indexIsSharedAndRebuiltOnlyWhenJarsChange() throws IOException {
+        DependencyTypeIndex first = DependencyTypeIndex.forDirectory(depsDir);
+        assertSame(first, DependencyTypeIndex.forDirectory(depsDir));
+
+        Path indexFile = DependencyTypeIndex.defaultIndexFile(depsDir);
+        FileTime written = FileTime.fromMillis(1_000_000L);
+        Files.setLastModifiedTime(indexFile, written);
+        String fingerprint = DependencyTypeIndex.fingerprint(List.of(depsDir.resolve("model.jar")));
+        DependencyTypeIndex reopened = DependencyTypeIndex.open(depsDir, indexFile,
+                List.of(depsDir.resolve("model.jar")), fingerprint);
+        assertEquals(first.getClassCount(), reopened.getClassCount());
+        assertEquals(written, Files.getLastModifiedTime(indexFile));
+
+        writeJar(depsDir.resolve("more.jar"), ParseResultCache.class);
+        DependencyTypeIndex rebuilt = DependencyTypeIndex.forDirectory(depsDir);
+        assertNotSame(first, rebuilt);
+        assertEquals(2, rebuilt.getJarCount());
+        assertTrue(rebuilt.contains("com.example.annotationextractor.casemodel.ParseResultCache"));
+    }
+
+    @Test
+    public void typeSolversResolveFromIndexedJars() throws IOException {
+        DependencyTypeIndex index = DependencyTypeIndex.forDirectory(depsDir);
+        TypeSolver solver = new CombinedTypeSolver(new ReflectionTypeSolver(), index.newTypeSolver());
+        TypeSolver other = new CombinedTypeSolver(new ReflectionTypeSolver(), index.newTypeSolver());
+
+        assertEquals("com.example.annotationextractor.casemodel.SourceBuffer",
+                solver.solveType("com.example.annotationextractor.casemodel.SourceBuffer").getQualifiedName());
+        assertTrue(other.hasType("com.example.annotationextractor.casemodel.SourceBuffer"));
+        assertFalse(solver.hasType("com.example.annotationextractor.casemodel.ParseResultCache"));
+    }
+
+    @Test
+    public void parserResolvesReferencedTypesThroughIndex() throws IOException {
+        Path file = workDir.resolve("BufferTest.java");
+        String source = "package a;\n\nimport org.junit.Test;\nimport com.example.annotationextractor.casemodel.SourceBuffer;\n\n"
+                + "public class BufferTest {\n    @Test\n    public void counts() {\n"
+                + "        SourceBuffer buffer = new SourceBuffer(\"x\");\n    }\n}\n";
+        Files.writeString(file, source);
+
+        TestClassInfo info = TestClassParser.parseTestClassWithHelpers(file, source,
+                TestClassParser.createParser(null, depsDir), null).getTestClassInfo();
+
+        assertTrue(info.getReferencedTypes().contains("com.example.annotationextractor.casemodel.SourceBuffer"));
+    }
+
+    private static void writeJar(Path jar, Class<?>... classes) throws IOException {
+        try (OutputStream file = Files.newOutputStream(jar);
+             JarOutputStream out = new JarOutputStream(file)) {
+            for (Class<?> type : classes) {
+                writeClass(out, type);
+                for (Class<?> nested : type.getDeclaredClasses()) {
+                    writeClass(out, nested);
+                }
+            }
+        }
+    }
+
+    private static void writeClass(JarOutputStream out, Class<?> type) throws IOException {
+        String entry = type.getName().replace('.', '/') + ".class";
+        try (InputStream in = type.getClassLoader().getResourceAsStream(entry)) {
+            out.putNextEntry(new JarEntry(entry));
+            in.transferTo(out);
+            out.closeEntry();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.annotationextractor.casemodel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the content-addressed parse cache: path relocation, LRU eviction and persistence.
+ */
+public class ParseResultCacheTest {
+
+    private Path workDir;
+    private Path cacheDir;
+
+    @Before
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("parse-cache-test");
+        cacheDir = workDir.resolve("cache");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void hitReturnsResultWithPathsOfScannedFile() throws IOException {
+        ParseResultCache cache = new ParseResultCache(cacheDir, 1024 * 1024);
+        String key = ParseResultCache.computeKey("class A {}".getBytes(StandardCharsets.UTF_8));
+        assertNull(cache.get(key, workDir.resolve("A.java"), workDir));
+
+        cache.put(key, sampleResult("src/test/java/a/ATest.java"));
+        Path forkFile = workDir.resolve("fork/src/test/java/b/ATest.java");
+        ParseResult hit = cache.get(key, forkFile, workDir.resolve("fork"));
+
+        assertNotNull(hit);
+        assertEquals("ATest", hit.getTestClassInfo().getClassName());
+        assertEquals(2, hit.getTestClassInfo().getTotalTestMethods());
+        assertEquals(1, hit.getTestClassInfo().getAnnotatedTestMethods());
+        assertEquals("src/test/java/b/ATest.java", hit.getTestClassInfo().getFilePath());
+        assertEquals("src/test/java/b/ATest.java", hit.getTestClassInfo().getTestMethods().get(0).getFilePath());
+        assertEquals("Login works", hit.getTestClassInfo().getTestMethods().get(0).getAnnotationData().getTitle());
+        assertEquals("src/test/java/b/ATest.java", hit.getHelperClasses().get(0).getFilePath());
+        assertEquals(List.of("com.acme.Service"), hit.getTestClassInfo().getReferencedTypes());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void keyDependsOnContent() {
+        String a = ParseResultCache.computeKey("class A {}".getBytes(StandardCharsets.UTF_8));
+        String b = ParseResultCache.computeKey("class B {}".getBytes(StandardCharsets.UTF_8));
+        assertNotEquals(a, b);
+        assertEquals(a, ParseResultCache.computeKey("class A {}".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(64, a.length());
+        assertNotEquals(a, ParseResultCache.computeKey("class A {}".getBytes(StandardCharsets.UTF_8), ParseProfile.FAST));
+    }
+
+    @Test
+    public void fullKeysDependOnRepositoryAndDependencyJars() throws IOException {
+        byte[] content = "class A {}".getBytes(StandardCharsets.UTF_8);
+        Path deps = Files.createDirectories(workDir.resolve("deps"));
+        String repoA = ParseResultCache.resolutionContext(workDir.resolve("repo-a"), null);
+        String repoB = ParseResultCache.resolutionContext(workDir.resolve("repo-b"), null);
+        String repoAWithDeps = ParseResultCache.resolutionContext(workDir.resolve("repo-a"), deps);
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(deps.resolve("lib.jar")))) {
+            jar.putNextEntry(new JarEntry("META-INF/"));
+        }
+        String repoAWithJar = ParseResultCache.resolutionContext(workDir.resolve("repo-a"), deps);
+
+        String full = ParseResultCache.computeKey(content, ParseProfile.FULL, repoA);
+        assertEquals(full, ParseResultCache.computeKey(content, ParseProfile.FULL,
+                ParseResultCache.resolutionContext(workDir.resolve("repo-a"), null)));
+        assertNotEquals(full, ParseResultCache.computeKey(content, ParseProfile.FULL, repoB));
+        assertNotEquals(full, ParseResultCache.computeKey(content, ParseProfile.FULL, repoAWithDeps));
+        assertNotEquals(ParseResultCache.computeKey(content, ParseProfile.FULL, repoAWithDeps),
+                ParseResultCache.computeKey(content, ParseProfile.FULL, repoAWithJar));
+        // FAST results do not resolve symbols, so they stay shared across repositories
+        assertEquals(ParseResultCache.computeKey(content, ParseProfile.FAST, repoA),
+                ParseResultCache.computeKey(content, ParseProfile.FAST, repoB));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedEntriesOverBudget() throws IOException {
+        ParseResultCache probe = new ParseResultCache(workDir.resolve("probe"), Long.MAX_VALUE);
+        probe.put(key(0), sampleResult("A.java"));
+        long entrySize = probe.getSizeBytes();
+
+        ParseResultCache cache = new ParseResultCache(cacheDir, entrySize * 3 + entrySize / 2);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            keys.add(key(i));
+            cache.put(keys.get(i), sampleResult("A.java"));
+        }
+        // Touch the oldest entry so the second one becomes the eviction candidate
+        assertNotNull(cache.get(keys.get(0), workDir.resolve("A.java"), workDir));
+        cache.put(key(3), sampleResult("A.java"));
+
+        assertEquals(3, cache.getEntryCount());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.get(keys.get(1), workDir.resolve("A.java"), workDir));
+        assertNotNull(cache.get(keys.get(0), workDir.resolve("A.java"), workDir));
+        assertTrue(cache.getSizeBytes() <= cache.getMaxBytes());
+    }
+
+    @Test
+    public void entriesSurviveRestart() throws IOException {
+        ParseResultCache cache = new ParseResultCache(cacheDir, 1024 * 1024);
+        cache.put(key(1), sampleResult("A.java"));
+
+        ParseResultCache reopened = new ParseResultCache(cacheDir, 1024 * 1024);
+
+        assertEquals(1, reopened.getEntryCount());
+        assertEquals(cache.getSizeBytes(), reopened.getSizeBytes());
+        assertNotNull(reopened.get(key(1), workDir.resolve("A.java"), workDir));
+    }
+
+    private static String key(int i) {
+        return ParseResultCache.computeKey(("class C" + i + " {}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ParseResult sampleResult(String filePath) {
+        TestClassInfo testClass = new TestClassInfo("ATest", "a", filePath);
+        TestMethodInfo annotated = new TestMethodInfo();
+        annotated.setMethodName("login");
+        annotated.setFilePath(filePath);
+        annotated.getAnnotationData().setTitle("Login works");
+        testClass.addTestMethod(annotated);
+        TestMethodInfo plain = new TestMethodInfo();
+        plain.setMethodName("logout");
+        plain.setFilePath(filePath);
+        testClass.addTestMethod(plain);
+        testClass.addReferencedType("com.acme.Service");
+        testClass.setTestClassContent("class ATest {}");
+
+        TestHelperClassInfo helper = new TestHelperClassInfo();
+        helper.setClassName("Fixture");
+        helper.setFilePath(filePath);
+        List<TestHelperClassInfo> helpers = new ArrayList<>();
+        helpers.add(helper);
+        return new ParseResult(testClass, helpers);
+    }
+}
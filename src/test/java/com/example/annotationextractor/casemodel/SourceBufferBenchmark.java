@@ -0,0 +1,115 @@
+package com.example.annotationextractor.casemodel;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Compares method body extraction by splitting the file per method (previous approach)
+ * with slicing through a {@link SourceBuffer}, on generated test classes of growing size.
+ *
+ * Not run by the test suite. Run after {@code mvn test-compile} with:
+ * <pre>
+ * java -cp target/classes:target/test-classes com.example.annotationextractor.casemodel.SourceBufferBenchmark
+ * </pre>
+ */
+public class SourceBufferBenchmark {
+
+    private static final int[] METHOD_COUNTS = {50, 300, 1000};
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int HEADER_LINES = 5;
+    private static final int LINES_PER_METHOD = 9;
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        System.out.printf("%8s %10s | %12s %14s | %12s %14s%n",
+                "methods", "file KB", "split ms", "split MB alloc", "buffer ms", "buffer MB alloc");
+        for (int methodCount : METHOD_COUNTS) {
+            String content = generateTestClass(methodCount);
+            int[][] ranges = methodRanges(methodCount);
+
+            long sink = 0;
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                sink += extractWithSplit(content, ranges) + extractWithBuffer(content, ranges);
+            }
+
+            long allocBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                sink += extractWithSplit(content, ranges);
+            }
+            double splitMs = (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+            double splitMb = (threads.getThreadAllocatedBytes(threadId) - allocBefore) / 1048576.0 / MEASURED_ROUNDS;
+
+            allocBefore = threads.getThreadAllocatedBytes(threadId);
+            start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                sink += extractWithBuffer(content, ranges);
+            }
+            double bufferMs = (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+            double bufferMb = (threads.getThreadAllocatedBytes(threadId) - allocBefore) / 1048576.0 / MEASURED_ROUNDS;
+
+            System.out.printf("%8d %10d | %12.2f %14.2f | %12.2f %14.2f%n",
+                    methodCount, content.length() / 1024, splitMs, splitMb, bufferMs, bufferMb);
+            if (sink == 42) {
+                System.out.println();
+            }
+        }
+    }
+
+    /**
+     * Previous extraction: split the whole file for every method and join the method's lines.
+     */
+    private static long extractWithSplit(String content, int[][] ranges) {
+        long total = 0;
+        for (int[] range : ranges) {
+            String[] lines = content.split("\n", -1);
+            StringBuilder methodBody = new StringBuilder();
+            for (int i = range[0] - 1; i < range[1] && i < lines.length; i++) {
+                if (i > range[0] - 1) {
+                    methodBody.append("\n");
+                }
+                methodBody.append(lines[i]);
+            }
+            total += methodBody.toString().length();
+        }
+        return total + content.lines().count();
+    }
+
+    private static long extractWithBuffer(String content, int[][] ranges) {
+        SourceBuffer buffer = new SourceBuffer(content);
+        long total = 0;
+        for (int[] range : ranges) {
+            total += buffer.getLines(range[0], range[1]).length();
+        }
+        return total + buffer.getLogicalLineCount();
+    }
+
+    private static String generateTestClass(int methodCount) {
+        StringBuilder source = new StringBuilder();
+        source.append("package com.acme;\n\nimport org.junit.Test;\n\npublic class GeneratedTest {\n");
+        for (int m = 0; m < methodCount; m++) {
+            source.append("    @Test\n");
+            source.append("    public void method").append(m).append("() {\n");
+            source.append("        java.util.List<String> values = new java.util.ArrayList<>();\n");
+            source.append("        values.add(\"").append(m).append("\");\n");
+            source.append("        values.add(\"second value for method ").append(m).append("\");\n");
+            source.append("        org.junit.Assert.assertEquals(2, values.size());\n");
+            source.append("        org.junit.Assert.assertTrue(values.contains(\"").append(m).append("\"));\n");
+            source.append("    }\n\n");
+        }
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private static int[][] methodRanges(int methodCount) {
+        int[][] ranges = new int[methodCount][];
+        for (int m = 0; m < methodCount; m++) {
+            int start = HEADER_LINES + 1 + m * LINES_PER_METHOD;
+            ranges[m] = new int[] {start, start + LINES_PER_METHOD - 2};
+        }
+        return ranges;
+    }
+}
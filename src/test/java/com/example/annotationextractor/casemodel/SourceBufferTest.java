@@ -0,0 +1,81 @@
+package com.example.annotationextractor.casemodel;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies that line slices match the split-based extraction they replace.
+ */
+public class SourceBufferTest {
+
+    private static final String[] SAMPLES = {
+            "",
+            "one line",
+            "a\nb\nc",
+            "a\nb\nc\n",
+            "a\r\nb\r\n\r\nc\r\n",
+            "a\rb\nc",
+            "\n\n\n",
+    };
+
+    @Test
+    public void linesMatchSplitJoin() {
+        for (String sample : SAMPLES) {
+            SourceBuffer buffer = new SourceBuffer(sample);
+            String[] lines = sample.split("\n", -1);
+            assertEquals(sample, lines.length, buffer.getLineCount());
+            for (int start = 1; start <= lines.length; start++) {
+                for (int end = start; end <= lines.length; end++) {
+                    StringBuilder expected = new StringBuilder();
+                    for (int i = start - 1; i < end; i++) {
+                        if (i > start - 1) {
+                            expected.append('\n');
+                        }
+                        expected.append(lines[i]);
+                    }
+                    assertEquals(sample + " [" + start + "," + end + "]", expected.toString(), buffer.getLines(start, end));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void logicalLineCountMatchesStringLines() {
+        for (String sample : SAMPLES) {
+            assertEquals(sample, sample.lines().count(), new SourceBuffer(sample).getLogicalLineCount());
+        }
+    }
+
+    @Test
+    public void rangesOutsideTheFileReturnNull() {
+        SourceBuffer buffer = new SourceBuffer("a\nb");
+        assertNull(buffer.getLines(0, 1));
+        assertNull(buffer.getLines(2, 1));
+        assertNull(buffer.getLines(2, 3));
+    }
+
+    @Test
+    public void methodBodiesAreSlicedFromTheFile() throws IOException {
+        Path file = Files.createTempFile("SliceTest", ".java");
+        try {
+            String source = "package a;\r\n\r\nimport org.junit.Test;\r\n\r\npublic class SliceTest {\r\n"
+                    + "    @Test\r\n    public void first() {\r\n        int x = 1;\r\n    }\r\n\r\n"
+                    + "    @Test\r\n    public void second() {\r\n    }\r\n}\r\n";
+            Files.writeString(file, source);
+
+            TestClassInfo info = TestClassParser.parseTestClassWithHelpers(file).getTestClassInfo();
+
+            assertEquals(2, info.getTotalTestMethods());
+            assertEquals("    @Test\r\n    public void first() {\r\n        int x = 1;\r\n    }\r",
+                    info.getTestMethods().get(0).getMethodBodyContent());
+            assertEquals(source.lines().count(), info.getClassLoc());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
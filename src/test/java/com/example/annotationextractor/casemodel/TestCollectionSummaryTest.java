@@ -0,0 +1,67 @@
+package com.example.annotationextractor.casemodel;
+
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for summaries of streaming scans, which count persisted repositories without keeping them.
+ */
+public class TestCollectionSummaryTest {
+
+    @Test
+    public void recordedRepositoriesCountIntoTotalsWithoutBeingKept() {
+        RepositoryTestInfo streamed = sampleRepository("https://git.example.com/org/repo-a", "TEAM_A");
+        RepositoryTestInfo kept = sampleRepository("https://git.example.com/org/repo-b", "TEAM_B");
+
+        TestCollectionSummary summary = new TestCollectionSummary("/hub");
+        summary.recordRepository(streamed);
+        summary.addRepository(kept);
+
+        assertEquals(1, summary.getRepositories().size());
+        assertEquals(2, summary.getTotalRepositories());
+        assertEquals(2, summary.getTotalTestClasses());
+        assertEquals(4, summary.getTotalTestMethods());
+        assertEquals(2, summary.getTotalAnnotatedTestMethods());
+        assertEquals(Set.of("TEAM_A", "TEAM_B"), summary.getTeamCodes());
+    }
+
+    @Test
+    public void releasingParsedClassesKeepsTotals() {
+        RepositoryTestInfo repository = sampleRepository("https://git.example.com/org/repo-a", "TEAM_A");
+        int testCodeLines = repository.getTestCodeLines();
+
+        repository.releaseParsedClasses();
+
+        assertTrue(repository.getTestClasses().isEmpty());
+        assertTrue(repository.getHelperClasses().isEmpty());
+        assertEquals(1, repository.getTotalTestClasses());
+        assertEquals(2, repository.getTotalTestMethods());
+        assertEquals(1, repository.getTotalAnnotatedTestMethods());
+        assertEquals(testCodeLines, repository.getTestCodeLines());
+        assertEquals(3, repository.getTestRelatedCodeLines());
+    }
+
+    private static RepositoryTestInfo sampleRepository(String gitUrl, String teamCode) {
+        TestClassInfo testClass = new TestClassInfo("ATest", "a", "src/test/java/a/ATest.java");
+        TestMethodInfo annotated = new TestMethodInfo();
+        annotated.setMethodName("login");
+        annotated.getAnnotationData().setTitle("Login works");
+        testClass.addTestMethod(annotated);
+        TestMethodInfo plain = new TestMethodInfo();
+        plain.setMethodName("logout");
+        testClass.addTestMethod(plain);
+        testClass.setTestClassContent("class ATest {\n}\n");
+
+        TestHelperClassInfo helper = new TestHelperClassInfo();
+        helper.setClassName("Fixture");
+        helper.setLoc(3);
+
+        RepositoryTestInfo repository = new RepositoryTestInfo(gitUrl, "Team", teamCode);
+        repository.addTestClass(testClass);
+        repository.addHelperClass(helper);
+        return repository;
+    }
+}
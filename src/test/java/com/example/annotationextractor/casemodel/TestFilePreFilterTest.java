@@ -0,0 +1,124 @@
+package com.example.annotationextractor.casemodel;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the lexical pre-filter decisions and that helper-only results match what the parser extracts.
+ */
+public class TestFilePreFilterTest {
+
+    private static final Path ROOT = Paths.get("/repo");
+    private static final Path FILE = ROOT.resolve("src/test/java/a/Support.java");
+
+    private final TestFilePreFilter filter = TestFilePreFilter.forRegisteredExtractors();
+
+    @Test
+    public void testMarkersRequireFullParse() {
+        assertEquals(TestFilePreFilter.Decision.FULL_PARSE, decide(
+                "package a;\nclass Helper {\n    @Test void runs() {}\n}\n"));
+        assertEquals(TestFilePreFilter.Decision.FULL_PARSE, decide(
+                "package a;\nclass Helper {\n    @org.junit.jupiter.api.Test void runs() {}\n}\n"));
+        assertEquals(TestFilePreFilter.Decision.FULL_PARSE, decide(
+                "package a;\nimport static org.junit.Assert.assertTrue;\nclass Helper {}\n"));
+        assertEquals(TestFilePreFilter.Decision.FULL_PARSE, decide(
+                "package a;\nclass Helper {\n    @TestCaseId(\"TC-1\") void linked() {}\n}\n"));
+        assertEquals(TestFilePreFilter.Decision.FULL_PARSE, decide(
+                "package a;\npublic class OrderServiceTest {\n}\n"));
+        assertTrue(TestClassParser.getTestCaseIdAnnotationNames().containsAll(Set.of("UnittestCaseInfo", "TestCaseId", "Tag")));
+    }
+
+    @Test
+    public void markersInCommentsAndLiteralsAreIgnored() {
+        String source = "package a;\n"
+                + "// @Test import org.junit.Test;\n"
+                + "/* @Test\n   class Fake {} */\n"
+                + "public class Fixtures {\n"
+                + "    String s = \"@Test } {\";\n"
+                + "    char c = '}';\n"
+                + "    String block = \"\"\"\n        @Test }\n        \"\"\";\n"
+                + "}\n";
+        assertEquals(TestFilePreFilter.Decision.HELPER_ONLY, decide(source));
+    }
+
+    @Test
+    public void filesWithoutUsableClassesAreSkipped() {
+        assertEquals(TestFilePreFilter.Decision.SKIP, decide("package a;\npublic enum Color { RED, GREEN }\n"));
+        assertEquals(TestFilePreFilter.Decision.SKIP, decide("@Deprecated\npackage a;\n"));
+        assertEquals(TestFilePreFilter.Decision.SKIP, decide(
+                "package a;\npublic class One {}\npublic class Two {}\n"));
+    }
+
+    @Test
+    public void uncertainStructureFallsBackToFullParse() {
+        assertEquals(TestFilePreFilter.Decision.FULL_PARSE, decide(
+                "package a;\npublic enum Kind {\n    A;\n    static class Nested {}\n}\n"));
+        assertEquals(TestFilePreFilter.Decision.FULL_PARSE, decide("package a;\nclass Broken {\n"));
+        assertEquals(TestFilePreFilter.Decision.FULL_PARSE, decide("package a;\nclass Broken { String s = \"open;\n}\n"));
+    }
+
+    @Test
+    public void helperResultMatchesParser() throws IOException {
+        String[] sources = {
+            "package a.b;\n\nimport java.util.List;\n\n/** Builds fixtures. */\n@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n"
+                + "public final class Fixtures<T extends List<String>> {\n    static class Inner { }\n    void run() {\n"
+                + "        Runnable r = new Runnable() { public void run() { } };\n    }\n}\n\nclass Second implements Runnable {\n"
+                + "    public void run() { if (true) { } }\n}\n",
+            "package a;\r\n\r\ninterface Clock {\r\n    long now();\r\n}\r\n\r\nenum Mode { ON, OFF }\r\n\r\nclass Fixed\r\n    implements Clock {\r\n"
+                + "    public long now() { return 0L; }\r\n}\r\n",
+            "﻿import java.util.Map;\n\n@Deprecated\nabstract class Base {\n    Map<String, String> values = Map.of(\"}\", \"{\");\n"
+                + "    /* } */ char brace = '{';\n}\n\nrecord Pair(int a, int b) {\n    Pair {\n    }\n}\n",
+            "package a;\n\npublic class ÜéHelper {\n    String text = \"\"\"\n        }\n        \"\"\";\n}\n"
+        };
+        for (String source : sources) {
+            byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+            TestFilePreFilter.Result scan = filter.scan(bytes);
+            assertEquals(source, TestFilePreFilter.Decision.HELPER_ONLY, scan.decision());
+
+            ParseResult lexical = TestFilePreFilter.toHelperResult(scan, FILE, source, ROOT);
+            ParseResult parsed = TestClassParser.parseTestClassWithHelpers(FILE, source,
+                    TestClassParser.createParser(null, null, ParseProfile.FAST), ROOT);
+            assertEquals(0, parsed.getTestClassInfo().getTotalTestMethods());
+            assertHelpersEqual(parsed.getHelperClasses(), lexical.getHelperClasses());
+        }
+    }
+
+    @Test
+    public void countsRecordEveryDecision() {
+        TestFilePreFilter.Counts counts = new TestFilePreFilter.Counts();
+        counts.record(TestFilePreFilter.Decision.FULL_PARSE);
+        counts.record(TestFilePreFilter.Decision.HELPER_ONLY);
+        counts.record(TestFilePreFilter.Decision.HELPER_ONLY);
+        counts.record(TestFilePreFilter.Decision.SKIP);
+
+        assertEquals(1, counts.getFullParse());
+        assertEquals(2, counts.getHelperOnly());
+        assertEquals(1, counts.getSkipped());
+    }
+
+    private TestFilePreFilter.Decision decide(String source) {
+        return filter.scan(source.getBytes(StandardCharsets.UTF_8)).decision();
+    }
+
+    private static void assertHelpersEqual(List<TestHelperClassInfo> expected, List<TestHelperClassInfo> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            TestHelperClassInfo e = expected.get(i);
+            TestHelperClassInfo a = actual.get(i);
+            assertEquals(e.getClassName(), a.getClassName());
+            assertEquals(e.getPackageName(), a.getPackageName());
+            assertEquals(e.getFilePath(), a.getFilePath());
+            assertEquals(e.getClassName(), e.getClassLineNumber(), a.getClassLineNumber());
+            assertEquals(e.getClassName(), e.getLoc(), a.getLoc());
+            assertEquals(e.getHelperClassContent(), a.getHelperClassContent());
+        }
+    }
+}
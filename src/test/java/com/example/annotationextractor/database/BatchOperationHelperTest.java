@@ -0,0 +1,121 @@
+package com.example.annotationextractor.database;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the SQL built by BatchOperationHelper and for bisection of failed batches.
+ */
+public class BatchOperationHelperTest {
+
+    @Test
+    public void buildsMultiRowValues() {
+        assertEquals("(?, ?, ?)", BatchOperationHelper.buildValuesRows(3, 1));
+        assertEquals("(?, ?), (?, ?), (?, ?)", BatchOperationHelper.buildValuesRows(2, 3));
+        assertEquals("", BatchOperationHelper.buildValuesRows(2, 0));
+    }
+
+    @Test
+    public void bisectionIsolatesFailingRows() throws SQLException {
+        List<Integer> items = IntStream.range(0, 64).boxed().collect(Collectors.toList());
+        Set<Integer> duplicates = Set.of(5, 40);
+        AtomicInteger executedBatches = new AtomicInteger();
+        List<Integer> stored = new ArrayList<>();
+        long bisectedBefore = BatchOperationHelper.getBatchesBisected();
+        long rejectedBefore = BatchOperationHelper.getRowsRejected();
+
+        List<Integer> failed = BatchOperationHelper.executeBatchWithFallback(
+                fakeConnection(duplicates, executedBatches, stored), items, 64, (stmt, item) -> {
+                    try {
+                        stmt.setInt(1, item);
+                    } catch (SQLException e) {
+                        throw new RuntimeException(e);
+                    }
+                }, "INSERT INTO t (v) VALUES (?)");
+
+        assertEquals(List.of(5, 40), failed);
+        assertEquals(62, stored.size());
+        assertFalse(stored.contains(5));
+        // 1 full batch + 19 halves, far below 64 single-row statements; no known-bad row or half runs twice
+        assertEquals(20, executedBatches.get());
+        assertEquals(2, BatchOperationHelper.getRowsRejected() - rejectedBefore);
+        assertTrue(BatchOperationHelper.getBatchesBisected() - bisectedBefore >= 6);
+    }
+
+    @Test
+    public void knownFailuresAreNotExecutedAgain() throws SQLException {
+        List<Integer> items = List.of(0, 1);
+        AtomicInteger executedBatches = new AtomicInteger();
+        List<Integer> stored = new ArrayList<>();
+
+        List<Integer> failed = BatchOperationHelper.executeBatchWithFallback(
+                fakeConnection(Set.of(1), executedBatches, stored), items, 2, (stmt, item) -> {
+                    try {
+                        stmt.setInt(1, item);
+                    } catch (SQLException e) {
+                        throw new RuntimeException(e);
+                    }
+                }, "INSERT INTO t (v) VALUES (?)");
+
+        assertEquals(List.of(1), failed);
+        assertEquals(List.of(0), stored);
+        // The batch, then row 0; row 1 is rejected without running it alone
+        assertEquals(2, executedBatches.get());
+    }
+
+    /**
+     * PostgreSQL-like connection whose batches fail with a unique violation when they contain a duplicate.
+     */
+    private static Connection fakeConnection(Set<Integer> duplicates, AtomicInteger executedBatches, List<Integer> stored) {
+        DatabaseMetaData metaData = (DatabaseMetaData) Proxy.newProxyInstance(
+                BatchOperationHelperTest.class.getClassLoader(), new Class<?>[]{DatabaseMetaData.class},
+                (proxy, method, args) -> "getDatabaseProductName".equals(method.getName()) ? "PostgreSQL" : null);
+        return (Connection) Proxy.newProxyInstance(
+                BatchOperationHelperTest.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getMetaData" -> metaData;
+                    case "prepareStatement" -> fakeStatement(duplicates, executedBatches, stored);
+                    default -> null;
+                });
+    }
+
+    private static PreparedStatement fakeStatement(Set<Integer> duplicates, AtomicInteger executedBatches, List<Integer> stored) {
+        List<Integer> batch = new ArrayList<>();
+        int[] current = new int[1];
+        return (PreparedStatement) Proxy.newProxyInstance(
+                BatchOperationHelperTest.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setInt" -> current[0] = (Integer) args[1];
+                        case "addBatch" -> batch.add(current[0]);
+                        case "executeBatch" -> {
+                            executedBatches.incrementAndGet();
+                            for (Integer value : batch) {
+                                if (duplicates.contains(value)) {
+                                    throw new SQLException("duplicate key value violates unique constraint", "23505");
+                                }
+                            }
+                            stored.addAll(batch);
+                            return new int[batch.size()];
+                        }
+                        default -> {
+                            return null;
+                        }
+                    }
+                    return null;
+                });
+    }
+}
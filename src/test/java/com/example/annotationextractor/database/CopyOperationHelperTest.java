@@ -0,0 +1,33 @@
+package com.example.annotationextractor.database;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the CSV encoding of COPY rows.
+ */
+public class CopyOperationHelperTest {
+
+    @Test
+    public void textIsQuotedAndNullIsAnEmptyField() {
+        CopyOperationHelper.CopyRow row = new CopyOperationHelper.CopyRow();
+        row.addText("ATest").addText("").addText(null).addNumber(42).addNumber(null).addNumber(87.5).addBoolean(true);
+        row.endRow();
+
+        assertEquals("\"ATest\",\"\",,42,,87.5,t\n", row.drain());
+        assertEquals(0, row.length());
+    }
+
+    @Test
+    public void quotesSeparatorsAndLineBreaksStayInsideTheField() {
+        CopyOperationHelper.CopyRow row = new CopyOperationHelper.CopyRow();
+        row.addText("@Test\nvoid login() {\r\n  assertEquals(\"a,b\", value);\n}");
+        row.endRow();
+        row.addBoolean(false).addText("\\N");
+        row.endRow();
+
+        assertEquals("\"@Test\nvoid login() {\r\n  assertEquals(\"\"a,b\"\", value);\n}\"\n"
+                + "f,\"\\N\"\n", row.drain());
+    }
+}
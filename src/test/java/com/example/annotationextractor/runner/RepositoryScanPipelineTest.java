@@ -0,0 +1,115 @@
+package com.example.annotationextractor.runner;
+
+import com.example.annotationextractor.casemodel.RepositoryTestInfo;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the staged fetch -> parse -> persist scan pipeline.
+ */
+public class RepositoryScanPipelineTest {
+
+    private static List<RepositoryTestInfo> repositories(int count) {
+        List<RepositoryTestInfo> repositories = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            repositories.add(new RepositoryTestInfo("https://git.example.com/org/repo-" + i, "Team", "T"));
+        }
+        return repositories;
+    }
+
+    @Test
+    public void everyRepositoryReachesTheSinkOnce() throws Exception {
+        List<RepositoryTestInfo> input = repositories(25);
+        List<String> persisted = Collections.synchronizedList(new ArrayList<>());
+
+        int count = new RepositoryScanPipeline(4, 3, 2, 2).run(input,
+                repo -> repo,
+                repo -> repo,
+                repo -> persisted.add(repo.getGitUrl()));
+
+        assertEquals(25, count);
+        assertEquals(25, persisted.size());
+        assertEquals(25, new HashSet<>(persisted).size());
+    }
+
+    @Test(timeout = 10000)
+    public void errorsInEveryStageDoNotKillTheWorkers() throws Exception {
+        // One worker per stage and one queue slot: a dead worker would leave the stage before it blocked forever
+        List<RepositoryTestInfo> input = repositories(12);
+        Set<String> persisted = Collections.synchronizedSet(new HashSet<>());
+
+        int count = new RepositoryScanPipeline(1, 1, 1, 1).run(input,
+                repo -> {
+                    if (repo.getGitUrl().endsWith("-1")) {
+                        throw new StackOverflowError();
+                    }
+                    return repo;
+                },
+                repo -> {
+                    if (repo.getGitUrl().endsWith("-2")) {
+                        throw new StackOverflowError();
+                    }
+                    return repo;
+                },
+                repo -> {
+                    if (repo.getGitUrl().endsWith("-3")) {
+                        throw new AssertionError("persist failed");
+                    }
+                    persisted.add(repo.getGitUrl());
+                });
+
+        assertEquals(9, count);
+        assertEquals(9, persisted.size());
+        assertFalse(persisted.contains("https://git.example.com/org/repo-2"));
+    }
+
+    @Test
+    public void failedAndDroppedRepositoriesDoNotStopOthers() throws Exception {
+        List<RepositoryTestInfo> input = repositories(10);
+        Set<String> persisted = Collections.synchronizedSet(new HashSet<>());
+
+        int count = new RepositoryScanPipeline(2, 2, 1, 1).run(input,
+                repo -> {
+                    if (repo.getGitUrl().endsWith("-3")) {
+                        throw new IllegalStateException("clone failed");
+                    }
+                    return repo;
+                },
+                repo -> repo.getGitUrl().endsWith("-5") ? null : repo,
+                repo -> persisted.add(repo.getGitUrl()));
+
+        assertEquals(8, count);
+        assertFalse(persisted.contains("https://git.example.com/org/repo-3"));
+        assertFalse(persisted.contains("https://git.example.com/org/repo-5"));
+    }
+
+    @Test
+    public void slowSinkBoundsRepositoriesInFlight() throws Exception {
+        int queueCapacity = 2;
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        new RepositoryScanPipeline(4, 1, 1, queueCapacity).run(repositories(20),
+                repo -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return repo;
+                },
+                repo -> repo,
+                repo -> {
+                    Thread.sleep(20);
+                    inFlight.decrementAndGet();
+                });
+
+        // fetch workers + two queues + one repository in each of parse and persist
+        int bound = 4 + 2 * queueCapacity + 2;
+        assertTrue("in flight: " + maxInFlight.get(), maxInFlight.get() <= bound);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.annotationextractor.runner;
+
+import com.example.annotationextractor.casemodel.RepositoryTestInfo;
+import com.example.annotationextractor.casemodel.TestClassInfo;
+import com.example.annotationextractor.casemodel.TestCollectionSummary;
+import com.example.annotationextractor.domain.model.ScanRepositoryEntry;
+import com.example.annotationextractor.util.GitRepositoryManager;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies that scanners running at the same time, as repository-level scans and queued jobs do,
+ * parse each repository against its own root and sources.
+ */
+public class RepositoryScannerConcurrencyTest {
+
+    private static final int FILES_PER_REPOSITORY = 40;
+
+    private Path workDir;
+
+    @Before
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("scanner-concurrency-test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void concurrentScannersKeepPathsAndTypesOfTheirRepository() throws Exception {
+        Assume.assumeTrue("git is not available", createOrigin("alpha"));
+        assertTrue(createOrigin("beta"));
+
+        scanConcurrently(List.of("alpha", "beta"), 2);
+    }
+
+    @Test
+    public void queuedJobsOnOneWorkerKeepPathsAndTypesOfTheirRepository() throws Exception {
+        List<String> names = List.of("alpha", "beta", "gamma", "delta", "epsilon");
+        for (String name : names) {
+            Assume.assumeTrue("git is not available", createOrigin(name));
+        }
+
+        // A worker runs repositoryScanWorkers (default 2) claimed jobs at once, one scanner per job
+        scanConcurrently(names, 2);
+    }
+
+    private void scanConcurrently(List<String> names, int threads) throws Exception {
+        Path hub = Files.createDirectories(workDir.resolve("hub"));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<TestCollectionSummary>> scans = new ArrayList<>();
+            for (String name : names) {
+                String url = workDir.resolve(name).toUri().toString();
+                scans.add(executor.submit(() -> {
+                    start.await();
+                    GitRepositoryManager manager = new GitRepositoryManager(hub.toString(), null, null, null, "main");
+                    // One repository at a time per scanner, the default of scheduled and queued scans
+                    RepositoryScanner scanner = new RepositoryScanner(manager,
+                            List.of(new ScanRepositoryEntry(url, "team", "T")), 0, null, 1,
+                            new RepositoryScanPipeline(1, 1, 1, 1));
+                    return scanner.scanRepositories(false);
+                }));
+            }
+            start.countDown();
+
+            for (int i = 0; i < names.size(); i++) {
+                assertRepository(names.get(i), scans.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertRepository(String name, TestCollectionSummary summary) {
+        assertEquals(1, summary.getRepositories().size());
+        RepositoryTestInfo repository = summary.getRepositories().get(0);
+        assertEquals(FILES_PER_REPOSITORY, repository.getTotalTestClasses());
+        for (TestClassInfo testClass : repository.getTestClasses()) {
+            assertTrue(testClass.getFilePath(), testClass.getFilePath().startsWith("src/test/java/" + name + "/"));
+            assertEquals(testClass.getFilePath(), List.of(name + ".Service"), testClass.getReferencedTypes());
+        }
+    }
+
+    private boolean createOrigin(String name) throws Exception {
+        Path origin = Files.createDirectories(workDir.resolve(name));
+        if (!git(origin, "init", "-q", "-b", "main")) {
+            return false;
+        }
+        write(origin, "src/main/java/" + name + "/Service.java",
+                "package " + name + ";\npublic class Service {\n    public int call() { return 1; }\n}\n");
+        for (int i = 0; i < FILES_PER_REPOSITORY; i++) {
+            write(origin, "src/test/java/" + name + "/Case" + i + "Test.java",
+                    "package " + name + ";\nimport org.junit.Test;\npublic class Case" + i + "Test {\n"
+                            + "    @Test\n    public void calls() {\n        Service service = new Service();\n"
+                            + "        service.call();\n    }\n}\n");
+        }
+        return git(origin, "add", "-A")
+                && git(origin, "-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-q", "-m", "first");
+    }
+
+    private static void write(Path origin, String relative, String content) throws IOException {
+        Path file = origin.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private static boolean git(Path dir, String... args) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(List.of(args));
+        try {
+            Process process = new ProcessBuilder(command)
+                    .directory(dir.toFile())
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            return process.waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.annotationextractor.runner;
+
+import com.example.annotationextractor.casemodel.RepositoryScanHistory;
+import com.example.annotationextractor.casemodel.RepositoryTestInfo;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for choosing and ordering the repositories of a scan.
+ */
+public class ScanPlannerTest {
+
+    private static final long NOW = 1_800_000_000_000L;
+    private static final long HOUR = 3_600_000L;
+
+    private static List<RepositoryTestInfo> repositories(int count) {
+        List<RepositoryTestInfo> repositories = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            repositories.add(new RepositoryTestInfo(url(i), "Team", "T"));
+        }
+        return repositories;
+    }
+
+    private static String url(int i) {
+        return "https://git.example.com/org/repo-" + i;
+    }
+
+    private static RepositoryScanHistory history(int i, long hoursAgo, long durationMs, int scans, int changes) {
+        return new RepositoryScanHistory(url(i), NOW - hoursAgo * HOUR, durationMs, durationMs, 0, scans, changes);
+    }
+
+    private static List<String> urls(List<RepositoryTestInfo> repositories) {
+        List<String> urls = new ArrayList<>();
+        for (RepositoryTestInfo repository : repositories) {
+            urls.add(repository.getGitUrl());
+        }
+        return urls;
+    }
+
+    @Test
+    public void neverScannedComeFirstThenStaleAndChangingRepositories() {
+        Map<String, RepositoryScanHistory> history = new HashMap<>();
+        history.put(url(0), history(0, 24, 1000, 10, 0));
+        history.put(url(1), history(1, 24, 1000, 10, 10));
+        history.put(url(2), history(2, 72, 1000, 10, 10));
+        // repo-3 and repo-4 were never scanned
+
+        ScanPlanner planner = new ScanPlanner(4, 1, 1);
+        List<RepositoryTestInfo> planned = planner.plan(repositories(5), history, NOW);
+
+        assertEquals(List.of(url(3), url(4), url(2), url(1)), urls(planned));
+        ScanPlanner.ScanPlan plan = planner.getCurrentPlan();
+        assertEquals(1, plan.getDeferred());
+        assertEquals(-1.0, plan.getRepositories().get(0).stalenessHours(), 0.0);
+        assertEquals(72.0, plan.getRepositories().get(2).stalenessHours(), 0.001);
+    }
+
+    @Test
+    public void timeBudgetIsFilledWithSmallerRepositoriesAndNeverEmpty() {
+        Map<String, RepositoryScanHistory> history = new HashMap<>();
+        history.put(url(0), history(0, 100, 40 * 60_000L, 4, 4));
+        history.put(url(1), history(1, 50, 20 * 60_000L, 4, 4));
+        history.put(url(2), history(2, 40, 60_000L, 4, 4));
+        history.put(url(3), history(3, 30, 60_000L, 4, 4));
+
+        ScanPlanner planner = new ScanPlanner(0, 1, 1);
+        planner.setTimeBudgetMs(30 * 60_000L);
+        List<RepositoryTestInfo> planned = planner.plan(repositories(4), history, NOW);
+
+        // repo-0 ranks above repo-1 but would exceed the budget; repo-1 fits after the small ones
+        assertEquals(List.of(url(2), url(3), url(1)), urls(planned));
+        assertTrue(planner.getCurrentPlan().getEstimatedMs() <= 30 * 60_000L);
+        assertEquals(1, planner.getCurrentPlan().getDeferred());
+
+        // A repository larger than the whole budget still gets scanned when it is the most valuable
+        planner.setTimeBudgetMs(60_000L);
+        Map<String, RepositoryScanHistory> onlyLarge = Map.of(url(0), history(0, 100, 40 * 60_000L, 4, 4));
+        assertEquals(List.of(url(0)), urls(planner.plan(repositories(1), onlyLarge, NOW)));
+    }
+
+    @Test
+    public void deferredRepositoriesAreScannedInLaterRuns() {
+        List<RepositoryTestInfo> repositories = repositories(6);
+        Map<String, RepositoryScanHistory> history = new HashMap<>();
+        for (int i = 0; i < 6; i++) {
+            history.put(url(i), history(i, 24, 1000, 5, 1));
+        }
+        ScanPlanner planner = new ScanPlanner(2, 1, 1);
+        Set<String> scanned = new HashSet<>();
+        long now = NOW;
+        for (int run = 0; run < 3; run++) {
+            for (RepositoryTestInfo repository : planner.plan(repositories, history, now)) {
+                assertTrue("scanned twice before others: " + repository.getGitUrl(), scanned.add(repository.getGitUrl()));
+                RepositoryScanHistory past = history.get(repository.getGitUrl());
+                history.put(past.gitUrl(), new RepositoryScanHistory(past.gitUrl(), now, 1000, 1000, 0,
+                        past.scanCount() + 1, past.changeCount()));
+            }
+            now += 24 * HOUR;
+        }
+        assertEquals(6, scanned.size());
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.annotationextractor.runner;
+
+import com.example.annotationextractor.casemodel.ParseProfile;
+import com.example.annotationextractor.casemodel.ParseResult;
+import com.example.annotationextractor.casemodel.ParseResultCache;
+import com.example.annotationextractor.casemodel.TestClassInfo;
+import com.example.annotationextractor.casemodel.TestMethodInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies that parallel parsing produces the same results as the serial path.
+ */
+public class TestFileParseExecutorTest {
+
+    private Path repoRoot;
+    private List<Path> javaFiles;
+
+    @Before
+    public void setUp() throws IOException {
+        repoRoot = Files.createTempDirectory("parse-executor-test");
+        Path testDir = Files.createDirectories(repoRoot.resolve("src/test/java/com/acme"));
+        javaFiles = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            StringBuilder source = new StringBuilder();
+            source.append("package com.acme;\n\n");
+            source.append("import org.junit.Test;\n\n");
+            source.append("public class Sample").append(i).append("Test {\n");
+            for (int m = 0; m <= i; m++) {
+                source.append("    @Test\n");
+                source.append("    public void method").append(m).append("() {\n");
+                source.append("        java.util.List<String> values = new java.util.ArrayList<>();\n");
+                source.append("        values.add(\"").append(m).append("\");\n");
+                source.append("    }\n\n");
+            }
+            source.append("}\n");
+            Path file = testDir.resolve("Sample" + i + "Test.java");
+            Files.writeString(file, source.toString());
+            javaFiles.add(file);
+        }
+        Path helper = testDir.resolve("FixtureBuilder.java");
+        Files.writeString(helper, "package com.acme;\n\npublic class FixtureBuilder {\n    String name;\n}\n");
+        javaFiles.add(helper);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(repoRoot)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void parallelParseMatchesSerialParse() {
+        List<ParseResult> serial = new TestFileParseExecutor(1, null).parseAll(repoRoot, javaFiles);
+        List<ParseResult> parallel = new TestFileParseExecutor(4, null).parseAll(repoRoot, javaFiles);
+
+        assertEquals(javaFiles.size(), serial.size());
+        assertEquals(serial.size(), parallel.size());
+        for (int i = 0; i < serial.size(); i++) {
+            TestClassInfo expected = serial.get(i).getTestClassInfo();
+            TestClassInfo actual = parallel.get(i).getTestClassInfo();
+            assertEquals(expected.getClassName(), actual.getClassName());
+            assertEquals(expected.getFilePath(), actual.getFilePath());
+            assertEquals(expected.getTotalTestMethods(), actual.getTotalTestMethods());
+            assertEquals(expected.getClassLoc(), actual.getClassLoc());
+            assertEquals(new HashSet<>(expected.getReferencedTypes()),
+                    new HashSet<>(actual.getReferencedTypes()));
+            for (int m = 0; m < expected.getTestMethods().size(); m++) {
+                TestMethodInfo expectedMethod = expected.getTestMethods().get(m);
+                TestMethodInfo actualMethod = actual.getTestMethods().get(m);
+                assertEquals(expectedMethod.getMethodName(), actualMethod.getMethodName());
+                assertEquals(expectedMethod.getMethodBodyContent(), actualMethod.getMethodBodyContent());
+            }
+            assertEquals(serial.get(i).getHelperClasses().size(), parallel.get(i).getHelperClasses().size());
+        }
+    }
+
+    @Test
+    public void cachedParseMatchesFreshParse() throws IOException {
+        Path cacheDir = Files.createTempDirectory("parse-executor-cache");
+        try {
+            ParseResultCache cache = new ParseResultCache(cacheDir, 64L * 1024 * 1024);
+            TestFileParseExecutor executor = new TestFileParseExecutor(2, null);
+            executor.setParseCache(cache);
+
+            List<ParseResult> fresh = executor.parseAll(repoRoot, javaFiles);
+            assertEquals(0, cache.getHitCount());
+            assertEquals(javaFiles.size(), cache.getMissCount());
+
+            List<ParseResult> cached = executor.parseAll(repoRoot, javaFiles);
+            assertEquals(javaFiles.size(), cache.getHitCount());
+            for (int i = 0; i < fresh.size(); i++) {
+                TestClassInfo expected = fresh.get(i).getTestClassInfo();
+                TestClassInfo actual = cached.get(i).getTestClassInfo();
+                assertEquals(expected.getClassName(), actual.getClassName());
+                assertEquals(expected.getFilePath(), actual.getFilePath());
+                assertEquals(expected.getTotalTestMethods(), actual.getTotalTestMethods());
+                assertEquals(expected.getAnnotatedTestMethods(), actual.getAnnotatedTestMethods());
+                assertEquals(expected.getTestClassContent(), actual.getTestClassContent());
+                assertEquals(expected.getReferencedTypes(), actual.getReferencedTypes());
+                assertEquals(fresh.get(i).getHelperClasses().size(), cached.get(i).getHelperClasses().size());
+            }
+        } finally {
+            try (Stream<Path> paths = Files.walk(cacheDir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void fastProfileSkipsOnlyReferencedTypes() {
+        TestFileParseExecutor fullExecutor = new TestFileParseExecutor(2, null);
+        TestFileParseExecutor fastExecutor = new TestFileParseExecutor(2, null);
+        fastExecutor.setParseProfile(ParseProfile.FAST);
+
+        List<ParseResult> full = fullExecutor.parseAll(repoRoot, javaFiles);
+        List<ParseResult> fast = fastExecutor.parseAll(repoRoot, javaFiles);
+
+        assertFalse(full.get(0).getTestClassInfo().getReferencedTypes().isEmpty());
+        for (int i = 0; i < full.size(); i++) {
+            TestClassInfo expected = full.get(i).getTestClassInfo();
+            TestClassInfo actual = fast.get(i).getTestClassInfo();
+            assertEquals(expected.getClassName(), actual.getClassName());
+            assertEquals(expected.getTotalTestMethods(), actual.getTotalTestMethods());
+            assertEquals(expected.getClassLoc(), actual.getClassLoc());
+            assertEquals(expected.getImportedTypes(), actual.getImportedTypes());
+            assertTrue(actual.getReferencedTypes().isEmpty());
+            for (int m = 0; m < expected.getTestMethods().size(); m++) {
+                assertEquals(expected.getTestMethods().get(m).getMethodBodyContent(),
+                        actual.getTestMethods().get(m).getMethodBodyContent());
+                assertEquals(expected.getTestMethods().get(m).getLineNumber(),
+                        actual.getTestMethods().get(m).getLineNumber());
+            }
+        }
+    }
+
+    @Test
+    public void virtualFilesAreScheduledBySizesOfTheContentSource() throws IOException {
+        // Paths of a bare repository do not exist on disk, so Files.size cannot order them
+        Path bareRoot = repoRoot.resolve("mirror.git");
+        Map<Path, byte[]> blobs = new HashMap<>();
+        List<Path> virtualFiles = new ArrayList<>();
+        for (Path javaFile : javaFiles) {
+            Path virtual = bareRoot.resolve(repoRoot.relativize(javaFile));
+            blobs.put(virtual, Files.readAllBytes(javaFile));
+            virtualFiles.add(virtual);
+        }
+        Set<Path> sized = ConcurrentHashMap.newKeySet();
+
+        List<ParseResult> results = new TestFileParseExecutor(3, null).parseAll(bareRoot, virtualFiles,
+                new TestFileParseExecutor.ContentSource() {
+                    @Override
+                    public byte[] read(Path javaFile) {
+                        return blobs.get(javaFile);
+                    }
+
+                    @Override
+                    public long size(Path javaFile) {
+                        sized.add(javaFile);
+                        return blobs.get(javaFile).length;
+                    }
+                });
+
+        assertEquals(new HashSet<>(virtualFiles), sized);
+        assertEquals(12, results.get(11).getTestClassInfo().getTotalTestMethods());
+        assertEquals("src/test/java/com/acme/Sample0Test.java", results.get(0).getTestClassInfo().getFilePath());
+    }
+
+    @Test
+    public void filePathsAreRelativeToRepositoryRoot() {
+        List<ParseResult> parallel = new TestFileParseExecutor(3, null).parseAll(repoRoot, javaFiles);
+        assertEquals("src/test/java/com/acme/Sample0Test.java", parallel.get(0).getTestClassInfo().getFilePath());
+        assertEquals("FixtureBuilder", parallel.get(parallel.size() - 1).getHelperClasses().get(0).getClassName());
+    }
+}
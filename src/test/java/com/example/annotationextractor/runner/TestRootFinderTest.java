@@ -0,0 +1,105 @@
+package com.example.annotationextractor.runner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies test root discovery: configured roots at any depth, pruning outside roots and changed-path matching.
+ */
+public class TestRootFinderTest {
+
+    private Path repo;
+
+    @Before
+    public void setUp() throws IOException {
+        repo = Files.createTempDirectory("test-root-finder");
+        touch("src/main/java/a/Service.java");
+        touch("src/test/java/a/ServiceTest.java");
+        touch("src/test/java/a/build/BuildHelper.java");
+        touch("src/test/resources/Fixture.java");
+        touch("src/integrationTest/java/a/ServiceIT.java");
+        touch("module-b/src/test/java/b/OtherTest.java");
+        touch("module-b/target/src/test/java/b/Copied.java");
+        touch("node_modules/pkg/src/test/java/Vendored.java");
+        touch(".git/src/test/java/Hidden.java");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(repo)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void defaultRootsFindStandardTestSourcesOnly() throws IOException {
+        TestRootFinder.Result result = new TestRootFinder().find(repo);
+
+        assertEquals(Set.of(
+                "module-b/src/test/java/b/OtherTest.java",
+                "src/test/java/a/ServiceTest.java",
+                "src/test/java/a/build/BuildHelper.java"), relative(result));
+        assertEquals(3, result.getPrunedDirectories());
+    }
+
+    @Test
+    public void configuredRootsSupportWildcards() throws IOException {
+        TestRootFinder finder = new TestRootFinder(TestRootFinder.parsePatterns("src/test/java, src/*Test/java"));
+
+        assertEquals(List.of("src/test/java", "src/*Test/java"), finder.getPatterns());
+        assertTrue(relative(finder.find(repo)).contains("src/integrationTest/java/a/ServiceIT.java"));
+    }
+
+    @Test
+    public void modulesNestedUnderSrcAreFound() throws IOException {
+        touch("src/module-c/src/test/java/c/NestedTest.java");
+        touch("src/main/module-d/src/test/java/d/DeepTest.java");
+        TestRootFinder finder = new TestRootFinder();
+
+        Set<String> found = relative(finder.find(repo));
+
+        assertTrue(found.contains("src/module-c/src/test/java/c/NestedTest.java"));
+        assertTrue(found.contains("src/main/module-d/src/test/java/d/DeepTest.java"));
+        assertTrue(finder.isTestJavaFile("src/module-c/src/test/java/c/NestedTest.java"));
+        assertTrue(finder.isTestJavaFile("src/main/module-d/src/test/java/d/DeepTest.java"));
+    }
+
+    @Test
+    public void changedPathsUseTheSameRules() {
+        TestRootFinder finder = new TestRootFinder();
+
+        assertTrue(finder.isTestJavaFile("src/test/java/a/ServiceTest.java"));
+        assertTrue(finder.isTestJavaFile("module-b/src/test/java/b/OtherTest.java"));
+        assertTrue(finder.isTestJavaFile("src/test/java/a/build/BuildHelper.java"));
+        assertFalse(finder.isTestJavaFile("src/main/java/a/Service.java"));
+        assertFalse(finder.isTestJavaFile("module-b/target/src/test/java/b/Copied.java"));
+        assertFalse(finder.isTestJavaFile("src/test/java/a/data.json"));
+        assertEquals(TestRootFinder.DEFAULT_TEST_ROOTS, TestRootFinder.parsePatterns(" "));
+    }
+
+    private Set<String> relative(TestRootFinder.Result result) {
+        Set<String> paths = new TreeSet<>();
+        for (Path file : result.getFiles().values()) {
+            paths.add(repo.relativize(file).toString().replace('\\', '/'));
+        }
+        return paths;
+    }
+
+    private void touch(String relative) throws IOException {
+        Path file = repo.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "class X {}\n");
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.annotationextractor.service;
+
+import com.example.annotationextractor.application.ReferencedTypeEnrichmentStore;
+import com.example.annotationextractor.casemodel.ParseProfile;
+import com.example.annotationextractor.casemodel.TestClassInfo;
+import com.example.annotationextractor.casemodel.TestClassParser;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies that enrichment fills what a deferred (FAST) scan left out, and how lag is reported.
+ */
+public class ReferencedTypeEnrichmentServiceTest {
+
+    private static final String CONTENT = "package a;\n\nimport org.junit.Test;\nimport java.util.ArrayList;\n\n"
+            + "public class ListTest {\n    @Test\n    public void adds() {\n"
+            + "        ArrayList<String> values = new ArrayList<>();\n        values.add(\"x\");\n    }\n}\n";
+
+    @Test
+    public void resolvesTypesLeftPendingByFastScan() throws Exception {
+        Path file = Path.of("src/test/java/a/ListTest.java");
+        TestClassInfo fast = TestClassParser.parseTestClassWithHelpers(file, CONTENT,
+                TestClassParser.createParser(null, null, ParseProfile.FAST), null).getTestClassInfo();
+        assertTrue(fast.getReferencedTypes().isEmpty());
+
+        ReferencedTypeEnrichmentStore.ResolvedTypes resolved = ReferencedTypeEnrichmentService.resolve(
+                new ReferencedTypeEnrichmentStore.PendingTestClass(7L, file.toString(), CONTENT),
+                TestClassParser.createParser(null, null, ParseProfile.FULL), null);
+
+        assertNotNull(resolved);
+        assertEquals(7L, resolved.id());
+        assertEquals(fast.getImportedTypes(), resolved.importedTypes());
+        assertTrue(resolved.referencedTypes().contains("java.util.ArrayList"));
+    }
+
+    @Test
+    public void unparsableContentIsReportedAsFailure() throws Exception {
+        assertNull(ReferencedTypeEnrichmentService.resolve(
+                new ReferencedTypeEnrichmentStore.PendingTestClass(1L, "Broken.java", "class {"),
+                TestClassParser.createParser(null, null, ParseProfile.FULL), null));
+        assertNull(ReferencedTypeEnrichmentService.resolve(
+                new ReferencedTypeEnrichmentStore.PendingTestClass(2L, "Empty.java", null),
+                TestClassParser.createParser(null, null, ParseProfile.FULL), null));
+    }
+
+    @Test
+    public void lagIsMeasuredFromOldestPendingScan() {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        ReferencedTypeEnrichmentStore.RepositoryProgress pending =
+                new ReferencedTypeEnrichmentStore.RepositoryProgress(1L, "repo-a", 5, 0, now.minusMinutes(3));
+        ReferencedTypeEnrichmentStore.RepositoryProgress failedOnly =
+                new ReferencedTypeEnrichmentStore.RepositoryProgress(2L, "repo-b", 0, 2, null);
+
+        assertEquals(180, ReferencedTypeEnrichmentService.EnrichmentStatus.lagSeconds(pending, now));
+        assertEquals(0, ReferencedTypeEnrichmentService.EnrichmentStatus.lagSeconds(failedOnly, now));
+
+        ReferencedTypeEnrichmentService.EnrichmentStatus status = new ReferencedTypeEnrichmentService.EnrichmentStatus(
+                true, 1, Set.of(1L), 0, 0, 0, null, null, List.of(pending, failedOnly));
+        assertEquals(5, status.getPendingClasses());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.annotationextractor.service;
+
+import com.example.annotationextractor.runner.RepositoryLocks;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for queueing, coalescing and locking of repository-level scans.
+ */
+public class ScanCoordinatorTest {
+
+    private static final String REPO_A = "https://git.example.com/org/repo-a";
+    private static final String REPO_B = "https://git.example.com/org/repo-b";
+
+    private final Map<String, AtomicInteger> scans = new ConcurrentHashMap<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private ScanCoordinator coordinator;
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        if (coordinator != null) {
+            coordinator.shutdown();
+        }
+    }
+
+    private boolean blockingScan(String gitUrl, Long repositoryId) throws InterruptedException {
+        scans.computeIfAbsent(gitUrl, key -> new AtomicInteger()).incrementAndGet();
+        started.countDown();
+        return release.await(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void requestsForTheSameRepositoryAreCoalesced() throws Exception {
+        coordinator = new ScanCoordinator(this::blockingScan);
+        CompletableFuture<Boolean> first = coordinator.submit(REPO_A, 1L, 1);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        // repo-a is running: one follow-up is queued and later requests join it
+        CompletableFuture<Boolean> followUp = coordinator.submit(REPO_A, 1L, 1);
+        assertSame(followUp, coordinator.submit(REPO_A, 1L, 1));
+        // repo-b waits for the single worker; a second request joins it
+        CompletableFuture<Boolean> other = coordinator.submit(REPO_B, 2L, 1);
+        assertSame(other, coordinator.submit(REPO_B, 2L, 1));
+
+        assertEquals(List.of(REPO_A, REPO_B), coordinator.getQueuedRepositories());
+        assertEquals(2, coordinator.getCoalescedRequests());
+
+        release.countDown();
+        assertTrue(first.get(10, TimeUnit.SECONDS));
+        assertTrue(followUp.get(10, TimeUnit.SECONDS));
+        assertTrue(other.get(10, TimeUnit.SECONDS));
+        assertEquals(2, scans.get(REPO_A).get());
+        assertEquals(1, scans.get(REPO_B).get());
+        assertEquals(3, coordinator.getCompletedScans());
+        assertFalse(coordinator.hasRepositoryScans());
+    }
+
+    @Test
+    public void repositoryScansRunWhileAFullScanIsInProgress() throws Exception {
+        coordinator = new ScanCoordinator((gitUrl, repositoryId) -> {
+            scans.computeIfAbsent(gitUrl, key -> new AtomicInteger()).incrementAndGet();
+            return true;
+        });
+        assertTrue(coordinator.tryStartFullScan());
+        assertFalse("second full scan started", coordinator.tryStartFullScan());
+
+        assertTrue(coordinator.submit(REPO_A, 1L, 2).get(10, TimeUnit.SECONDS));
+        assertEquals(1, scans.get(REPO_A).get());
+        coordinator.finishFullScan();
+        assertFalse(coordinator.isFullScanRunning());
+    }
+
+    @Test
+    public void repositoryLocksAreHeldAcrossThreads() throws Exception {
+        RepositoryLocks locks = new RepositoryLocks();
+        assertTrue(locks.tryLock(REPO_A));
+        assertFalse(locks.tryLock(REPO_A));
+        assertTrue(locks.tryLock(REPO_B));
+        assertEquals(List.of(REPO_A, REPO_B), List.copyOf(locks.getLockedRepositories()));
+
+        // The parse stage gives back the lock its fetch stage took on another thread
+        Thread waiter = new Thread(() -> {
+            try {
+                locks.lock(REPO_A);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        Thread unlocker = new Thread(() -> locks.unlock(REPO_A));
+        unlocker.start();
+        unlocker.join(10_000);
+        waiter.join(10_000);
+        assertFalse(waiter.isAlive());
+        assertTrue(locks.isLocked(REPO_A));
+
+        locks.unlock(REPO_A);
+        locks.unlock(REPO_B);
+        assertTrue(locks.getLockedRepositories().isEmpty());
+        try {
+            locks.unlock(REPO_B);
+            fail("unlocked a free repository");
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.annotationextractor.service;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies parsing of the configured scan role and which roles distribute scans through the job queue.
+ */
+public class ScanRoleTest {
+
+    @Test
+    public void unknownOrMissingRolesScanInProcess() {
+        assertEquals(ScanRole.STANDALONE, ScanRole.fromString(null));
+        assertEquals(ScanRole.STANDALONE, ScanRole.fromString(" "));
+        assertEquals(ScanRole.STANDALONE, ScanRole.fromString("scheduler"));
+        assertFalse(ScanRole.STANDALONE.usesQueue());
+    }
+
+    @Test
+    public void apiAndWorkerRolesUseTheQueue() {
+        assertEquals(ScanRole.API, ScanRole.fromString("api"));
+        assertEquals(ScanRole.WORKER, ScanRole.fromString(" Worker "));
+        assertTrue(ScanRole.API.usesQueue());
+        assertTrue(ScanRole.WORKER.usesQueue());
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.annotationextractor.util;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies change detection between two scanned commits of a repository.
+ */
+public class GitChangeSetTest {
+
+    private Path repoRoot;
+
+    @Before
+    public void setUp() throws IOException {
+        repoRoot = Files.createTempDirectory("git-change-set-test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(repoRoot)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void parseNameStatusSplitsChangedAndDeletedFiles() {
+        String output = "M\0src/test/java/a/ATest.java\0A\0src/test/java/a/BTest.java\0"
+                + "D\0src/test/java/a/OldTest.java\0T\0src/test/java/a/Link.java\0";
+
+        GitChangeSet changeSet = GitChangeSet.parseNameStatus(output);
+
+        assertEquals(Set.of("src/test/java/a/ATest.java", "src/test/java/a/BTest.java", "src/test/java/a/Link.java"),
+                changeSet.getChangedFiles());
+        assertEquals(Set.of("src/test/java/a/OldTest.java"), changeSet.getDeletedFiles());
+        assertEquals(4, changeSet.getAllPaths().size());
+        assertFalse(changeSet.isEmpty());
+    }
+
+    @Test
+    public void parseNameStatusHandlesEmptyOutput() {
+        assertTrue(GitChangeSet.parseNameStatus("").isEmpty());
+        assertTrue(GitChangeSet.parseNameStatus(null).isEmpty());
+    }
+
+    @Test
+    public void detectsChangesBetweenCommits() throws Exception {
+        Assume.assumeTrue("git is not available", git("init", "-q"));
+        Path testDir = Files.createDirectories(repoRoot.resolve("src/test/java/com/acme"));
+        Files.writeString(testDir.resolve("KeptTest.java"), "class KeptTest {}\n");
+        Files.writeString(testDir.resolve("ChangedTest.java"), "class ChangedTest {}\n");
+        Files.writeString(testDir.resolve("RenamedTest.java"), "class RenamedTest {}\n");
+        assertTrue(commit("first"));
+
+        GitRepositoryManager manager = new GitRepositoryManager(repoRoot.getParent().toString());
+        String firstCommit = manager.getHeadCommit(repoRoot);
+        assertNotNull(firstCommit);
+        assertEquals(40, firstCommit.length());
+
+        Files.writeString(testDir.resolve("ChangedTest.java"), "class ChangedTest { void a() {} }\n");
+        Files.move(testDir.resolve("RenamedTest.java"), testDir.resolve("MovedTest.java"));
+        assertTrue(commit("second"));
+        String secondCommit = manager.getHeadCommit(repoRoot);
+
+        GitChangeSet changeSet = manager.getChangedFiles(repoRoot, firstCommit, secondCommit);
+
+        assertNotNull(changeSet);
+        assertEquals(Set.of("src/test/java/com/acme/ChangedTest.java", "src/test/java/com/acme/MovedTest.java"),
+                changeSet.getChangedFiles());
+        assertEquals(Set.of("src/test/java/com/acme/RenamedTest.java"), changeSet.getDeletedFiles());
+        assertTrue(manager.getChangedFiles(repoRoot, secondCommit, secondCommit).isEmpty());
+        assertNull(manager.getChangedFiles(repoRoot, "0000000000000000000000000000000000000000", secondCommit));
+    }
+
+    private boolean commit(String message) throws Exception {
+        return git("add", "-A")
+                && git("-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-q", "-m", message);
+    }
+
+    private boolean git(String... args) throws Exception {
+        List<String> command = new java.util.ArrayList<>();
+        command.add("git");
+        command.addAll(List.of(args));
+        try {
+            Process process = new ProcessBuilder(command)
+                    .directory(repoRoot.toFile())
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            return process.waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.annotationextractor.util;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the git command executor: host extraction, per-host limits, retries, timeouts and output capture.
+ */
+public class GitCommandExecutorTest {
+
+    private static final String URL = "https://git.example.com/team/repo.git";
+
+    private Path workDir;
+
+    @Before
+    public void setUp() throws IOException {
+        Assume.assumeTrue("sh is not available", Files.isExecutable(Path.of("/bin/sh")));
+        workDir = Files.createTempDirectory("git-executor-test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (workDir == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void hostIsExtractedFromAllUrlForms() {
+        assertEquals("github.com", GitCommandExecutor.hostOf("git@github.com:org/repo.git"));
+        assertEquals("git.example.com", GitCommandExecutor.hostOf("https://user@Git.Example.com/org/repo.git"));
+        assertEquals("git.example.com:7999", GitCommandExecutor.hostOf("ssh://git@git.example.com:7999/org/repo.git"));
+        assertEquals("local", GitCommandExecutor.hostOf("file:///tmp/origin"));
+        assertEquals("local", GitCommandExecutor.hostOf("/tmp/origin"));
+    }
+
+    @Test
+    public void remoteCommandsAreLimitedPerHost() throws Exception {
+        GitCommandExecutor executor = new GitCommandExecutor(2, 30, 0, 0L);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        long start = System.nanoTime();
+        try {
+            List<Future<GitCommandExecutor.Result>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(callers.submit(() -> executor.runRemote(URL, sh("sleep 0.4"), workDir, null, null)));
+            }
+            for (Future<GitCommandExecutor.Result> result : results) {
+                assertTrue(result.get().isSuccess());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
+
+        // Two rounds of two commands
+        assertTrue("elapsed " + elapsedMs, elapsedMs >= 750);
+        GitCommandExecutor.HostStatus host = executor.getHostStatus().get(0);
+        assertEquals("git.example.com", host.host());
+        assertEquals(4, host.completed());
+        assertEquals(0, host.active());
+        assertEquals(0, host.queued());
+    }
+
+    @Test
+    public void failedRemoteCommandIsRetriedAfterCleanup() {
+        GitCommandExecutor executor = new GitCommandExecutor(1, 30, 2, 10L);
+        Path marker = workDir.resolve("marker");
+
+        GitCommandExecutor.Result result = executor.runRemote(URL, sh("test -f marker"), workDir, null, () -> {
+            try {
+                Files.createFile(marker);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertTrue(result.isSuccess());
+        assertEquals(2, result.attempts());
+        GitCommandExecutor.HostStatus host = executor.getHostStatus().get(0);
+        assertEquals(1, host.retries());
+        assertEquals(1, host.completed());
+        assertEquals(0, host.failed());
+    }
+
+    @Test
+    public void commandIsKilledAfterTimeout() {
+        GitCommandExecutor executor = new GitCommandExecutor(1, 1, 0, 0L);
+        long start = System.nanoTime();
+
+        GitCommandExecutor.Result result = executor.runRemote(URL, sh("sleep 10"), workDir, null, null);
+
+        assertTrue(result.timedOut());
+        assertFalse(result.isSuccess());
+        assertTrue((System.nanoTime() - start) / 1_000_000L < 5000);
+        assertEquals(1, executor.getHostStatus().get(0).failed());
+    }
+
+    @Test
+    public void outputIsCapturedThroughSharedPump() {
+        GitCommandExecutor executor = new GitCommandExecutor();
+
+        GitCommandExecutor.Result merged = executor.run(sh("echo out; echo err 1>&2; exit 3"), workDir, null, false);
+        assertEquals(3, merged.exitCode());
+        assertTrue(merged.output().contains("out"));
+        assertTrue(merged.output().contains("err"));
+
+        GitCommandExecutor.Result stdoutOnly = executor.run(sh("echo out; echo err 1>&2"), workDir,
+                pb -> pb.redirectErrorStream(false).redirectError(ProcessBuilder.Redirect.DISCARD), false);
+        assertEquals("out\n", stdoutOnly.output());
+        assertTrue(executor.getHostStatus().isEmpty());
+    }
+
+    private static List<String> sh(String script) {
+        return List.of("/bin/sh", "-c", script);
+    }
+}
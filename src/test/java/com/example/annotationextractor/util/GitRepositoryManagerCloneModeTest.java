@@ -0,0 +1,193 @@
+package com.example.annotationextractor.util;
+
+import com.example.annotationextractor.casemodel.RepositoryTestInfo;
+import com.example.annotationextractor.casemodel.TestClassInfo;
+import com.example.annotationextractor.casemodel.TestCollectionSummary;
+import com.example.annotationextractor.domain.model.ScanRepositoryEntry;
+import com.example.annotationextractor.runner.RepositoryScanner;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies PARTIAL clones (sparse working tree limited to test roots and optionally main sources, shallow history,
+ * fetch-and-reset updates)
+ * and BARE mirrors scanned from the object database.
+ */
+public class GitRepositoryManagerCloneModeTest {
+
+    private Path workDir;
+    private Path origin;
+
+    @Before
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("clone-mode-test");
+        origin = Files.createDirectories(workDir.resolve("origin"));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void sparsePatternsMatchRootsInEveryModule() {
+        assertEquals(List.of("**/src/test/java/", "**/src/*Test/java/"),
+                GitRepositoryManager.toSparsePatterns(List.of("src/test/java", "/src/*Test/java/")));
+        assertEquals(List.of("src/test/java", "app/test/java", "src/main/java", "app/main/java"),
+                GitRepositoryManager.withMainSourceRoots(List.of("src/test/java", "app/test/java")));
+        assertEquals(CloneMode.PARTIAL, CloneMode.fromString(" partial "));
+        assertEquals(CloneMode.FULL, CloneMode.fromString("mirror"));
+    }
+
+    @Test
+    public void partialCloneChecksOutOnlyTestRootsAndUpdatesByReset() throws Exception {
+        Assume.assumeTrue("git is not available", git(origin, "init", "-q", "-b", "main"));
+        assertTrue(git(origin, "config", "uploadpack.allowFilter", "true"));
+        write("src/test/java/a/ATest.java", "class ATest {}\n");
+        write("module/src/test/java/b/BTest.java", "class BTest {}\n");
+        write("src/main/java/a/A.java", "class A {}\n");
+        write("web/assets/app.bin", "binary");
+        assertTrue(commit("first"));
+
+        Path hub = Files.createDirectories(workDir.resolve("hub"));
+        GitRepositoryManager manager = new GitRepositoryManager(hub.toString(), null, null, null, "main");
+        manager.setCloneMode(CloneMode.PARTIAL);
+        manager.setCloneDepth(1);
+        String url = origin.toUri().toString();
+
+        Path clone = manager.cloneOrUpdateRepository(url);
+        assertNotNull(clone);
+        assertTrue(Files.isRegularFile(clone.resolve("src/test/java/a/ATest.java")));
+        assertTrue(Files.isRegularFile(clone.resolve("module/src/test/java/b/BTest.java")));
+        assertFalse(Files.exists(clone.resolve("src/main/java/a/A.java")));
+        assertFalse(Files.exists(clone.resolve("web")));
+        assertTrue(Files.exists(clone.resolve(".git/shallow")));
+        GitRepositoryManager.FetchStats cloned = manager.getFetchStats(url);
+        assertTrue(cloned.cloned());
+        assertEquals(CloneMode.PARTIAL, cloned.cloneMode());
+        assertTrue(cloned.diskUsageBytes() > 0);
+
+        write("src/test/java/a/CTest.java", "class CTest {}\n");
+        assertTrue(commit("second"));
+        // Local modifications must not block the update
+        Files.writeString(clone.resolve("src/test/java/a/ATest.java"), "local edit");
+
+        assertEquals(clone, manager.cloneOrUpdateRepository(url));
+        assertTrue(Files.isRegularFile(clone.resolve("src/test/java/a/CTest.java")));
+        assertEquals("class ATest {}\n", Files.readString(clone.resolve("src/test/java/a/ATest.java")));
+        assertFalse(manager.getFetchStats(url).cloned());
+        assertEquals(manager.getHeadCommit(origin), manager.getHeadCommit(clone));
+    }
+
+    @Test
+    public void partialCloneChecksOutMainSourcesWhenRequested() throws Exception {
+        Assume.assumeTrue("git is not available", git(origin, "init", "-q", "-b", "main"));
+        assertTrue(git(origin, "config", "uploadpack.allowFilter", "true"));
+        write("src/test/java/a/ATest.java", "class ATest {}\n");
+        write("module/src/main/java/b/B.java", "class B {}\n");
+        write("web/assets/app.bin", "binary");
+        assertTrue(commit("first"));
+
+        Path hub = Files.createDirectories(workDir.resolve("hub"));
+        GitRepositoryManager manager = new GitRepositoryManager(hub.toString(), null, null, null, "main");
+        manager.setCloneMode(CloneMode.PARTIAL);
+        manager.setSparseMainSources(true);
+
+        Path clone = manager.cloneOrUpdateRepository(origin.toUri().toString());
+        assertNotNull(clone);
+        assertTrue(Files.isRegularFile(clone.resolve("src/test/java/a/ATest.java")));
+        assertTrue(Files.isRegularFile(clone.resolve("module/src/main/java/b/B.java")));
+        assertFalse(Files.exists(clone.resolve("web")));
+    }
+
+    @Test
+    public void bareMirrorIsScannedWithoutWorkingTree() throws Exception {
+        Assume.assumeTrue("git is not available", git(origin, "init", "-q", "-b", "main"));
+        write("src/test/java/a/ATest.java",
+                "package a;\nimport org.junit.Test;\npublic class ATest {\n    @Test\n    public void works() {}\n}\n");
+        write("src/test/java/a/Helper.java", "package a;\npublic class Helper {}\n");
+        write("src/main/java/a/A.java", "package a;\npublic class A {}\n");
+        assertTrue(commit("first"));
+
+        Path hub = Files.createDirectories(workDir.resolve("hub"));
+        GitRepositoryManager manager = new GitRepositoryManager(hub.toString(), null, null, null, "main");
+        manager.setCloneMode(CloneMode.BARE);
+        String url = origin.toUri().toString();
+
+        Path mirror = manager.cloneOrUpdateRepository(url);
+        assertEquals(hub.resolve(GitRepositoryManager.MIRROR_DIRECTORY).resolve("origin.git"), mirror);
+        assertTrue(GitRepositoryManager.isBareRepository(mirror));
+        assertFalse(Files.exists(hub.resolve("origin")));
+
+        String head = manager.getHeadCommit(mirror);
+        assertEquals(manager.getHeadCommit(origin), head);
+        List<GitObjectReader.TreeEntry> tree = manager.listTree(mirror, head);
+        assertEquals(3, tree.size());
+        GitObjectReader.TreeEntry helper = tree.stream()
+                .filter(entry -> entry.path().equals("src/test/java/a/Helper.java"))
+                .findFirst().orElseThrow();
+        try (GitObjectReader reader = manager.openObjectReader(mirror)) {
+            assertEquals("package a;\npublic class Helper {}\n", new String(reader.read(helper.objectId()), StandardCharsets.UTF_8));
+            assertEquals(helper.size(), reader.read(helper.objectId()).length);
+        }
+
+        write("src/test/java/a/BTest.java",
+                "package a;\nimport org.junit.Test;\npublic class BTest {\n    @Test\n    public void one() {}\n    @Test\n    public void two() {}\n}\n");
+        assertTrue(commit("second"));
+
+        // Temp clone mode keeps the mirror as a cache
+        RepositoryScanner scanner = new RepositoryScanner(manager, List.of(new ScanRepositoryEntry(url, "team", "T")), 0);
+        TestCollectionSummary summary = scanner.scanRepositories(true);
+        assertEquals(manager.getHeadCommit(origin), manager.getHeadCommit(mirror));
+        assertTrue(GitRepositoryManager.isBareRepository(mirror));
+        assertEquals(1, summary.getRepositories().size());
+        RepositoryTestInfo repository = summary.getRepositories().get(0);
+        assertEquals(2, repository.getTotalTestClasses());
+        assertEquals(3, repository.getTotalTestMethods());
+        for (TestClassInfo testClass : repository.getTestClasses()) {
+            assertTrue(testClass.getFilePath(), testClass.getFilePath().startsWith("src/test/java/a/"));
+        }
+        assertFalse(Files.exists(hub.resolve("origin")));
+    }
+
+    private void write(String relative, String content) throws IOException {
+        Path file = origin.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private boolean commit(String message) throws Exception {
+        return git(origin, "add", "-A")
+                && git(origin, "-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-q", "-m", message);
+    }
+
+    private boolean git(Path dir, String... args) throws Exception {
+        List<String> command = new java.util.ArrayList<>();
+        command.add("git");
+        command.addAll(List.of(args));
+        try {
+            Process process = new ProcessBuilder(command)
+                    .directory(dir.toFile())
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            return process.waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.annotationextractor.util;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies that remote heads are queried without fetching, so unchanged repositories can be skipped.
+ */
+public class GitRepositoryManagerRemoteHeadTest {
+
+    private Path workDir;
+    private Path hub;
+
+    @Before
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("remote-head-test");
+        hub = Files.createDirectories(workDir.resolve("hub"));
+        Assume.assumeTrue("git is not available", git(workDir, "--version"));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void remoteHeadsOfTargetBranchAreResolvedWithoutCloning() throws Exception {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            urls.add(origin("origin" + i).toUri().toString());
+        }
+        Path other = origin("other");
+        assertTrue(git(other, "branch", "-m", "main", "feature"));
+        String missingBranch = other.toUri().toString();
+        String unreachable = workDir.resolve("does-not-exist").toUri().toString();
+
+        GitRepositoryManager manager = new GitRepositoryManager(hub.toString(), null, null, null, "main");
+        manager.setGitExecutor(new GitCommandExecutor(2, 30, 0, 0L));
+        List<String> queried = new ArrayList<>(urls);
+        queried.add(missingBranch);
+        queried.add(unreachable);
+        Map<String, String> heads = manager.resolveRemoteHeads(queried);
+
+        assertEquals(urls.size(), heads.size());
+        for (String url : urls) {
+            assertEquals(manager.getHeadCommit(Path.of(URI.create(url))), heads.get(url));
+        }
+        // Nothing was cloned into the hub
+        try (Stream<Path> children = Files.list(hub)) {
+            assertEquals(0L, children.count());
+        }
+        GitCommandExecutor.HostStatus local = manager.getGitExecutor().getHostStatus().get(0);
+        assertEquals("local", local.host());
+        // A missing branch is an empty answer, an unreachable remote a failure
+        assertEquals(urls.size() + 1, local.completed());
+        assertEquals(1, local.failed());
+    }
+
+    private Path origin(String name) throws Exception {
+        Path origin = Files.createDirectories(workDir.resolve(name));
+        assertTrue(git(origin, "init", "-q", "-b", "main"));
+        Files.writeString(origin.resolve("README"), name + "\n");
+        assertTrue(git(origin, "add", "-A"));
+        assertTrue(git(origin, "-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-q", "-m", name));
+        return origin;
+    }
+
+    private boolean git(Path dir, String... args) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(List.of(args));
+        try {
+            Process process = new ProcessBuilder(command)
+                    .directory(dir.toFile())
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            return process.waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
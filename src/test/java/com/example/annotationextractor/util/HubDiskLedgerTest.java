@@ -0,0 +1,116 @@
+package com.example.annotationextractor.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies hub disk accounting: building the ledger from an existing hub, LRU eviction within
+ * a budget, pinned directories and background deletion.
+ */
+public class HubDiskLedgerTest {
+
+    private Path hub;
+
+    @Before
+    public void setUp() throws IOException {
+        hub = Files.createTempDirectory("hub-disk-ledger-test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(hub)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void existingHubIsWalkedOnceToBuildTheLedger() throws Exception {
+        Path clone = Files.createDirectories(hub.resolve("team/repo"));
+        Files.createDirectories(clone.resolve(".git"));
+        Files.write(clone.resolve(".git/config"), new byte[100]);
+        Files.write(clone.resolve("Test.java"), new byte[50]);
+
+        HubDiskLedger ledger = HubDiskLedger.forHub(hub);
+
+        assertEquals(150L, ledger.getTotalBytes());
+        assertEquals("team/repo", ledger.getEntries().get(0).key());
+        assertTrue(Files.isRegularFile(hub.resolve(".hub-usage.properties")));
+        assertSame(ledger, HubDiskLedger.existing(hub));
+    }
+
+    @Test
+    public void leastRecentlyUsedUnpinnedClonesAreEvicted() throws Exception {
+        HubDiskLedger ledger = HubDiskLedger.forHub(hub);
+        Path first = cloneOf("first");
+        Path second = cloneOf("second");
+        Path pinned = cloneOf("pinned");
+        Path store = Files.createDirectories(hub.resolve(SharedObjectStore.DIRECTORY).resolve("network.git"));
+
+        ledger.recordUse(first, 1000);
+        Thread.sleep(5);
+        ledger.recordUse(second, 1000);
+        Thread.sleep(5);
+        ledger.recordUse(pinned, 1000);
+        ledger.recordStore(store, 1000);
+        Thread.sleep(5);
+        // Used again: now the most recently used clone
+        ledger.recordUse(first, 1000);
+        ledger.pin(pinned);
+        assertEquals(4000L, ledger.getTotalBytes());
+
+        List<Path> evicted = ledger.evictOverBudget(2500);
+
+        assertEquals(List.of(second, first), evicted);
+        assertEquals(2000L, ledger.getTotalBytes());
+        assertFalse(Files.exists(first));
+        assertFalse(Files.exists(second));
+        assertTrue(Files.exists(pinned));
+        assertTrue(Files.exists(store));
+        assertEquals(2L, ledger.getEvictedRepositories());
+
+        // Nothing left to evict: the pinned clone and the store stay even above the budget
+        assertTrue(ledger.evictOverBudget(1000).isEmpty());
+        ledger.unpin(pinned);
+        assertEquals(List.of(pinned), ledger.evictOverBudget(1000));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (ledger.getPendingTrash() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, ledger.getPendingTrash());
+        try (Stream<Path> trash = Files.list(hub.resolve(HubDiskLedger.TRASH_DIRECTORY))) {
+            assertEquals(0L, trash.count());
+        }
+    }
+
+    @Test
+    public void acquiredCheckoutIsNotEvictedUntilReleased() throws Exception {
+        HubDiskLedger ledger = HubDiskLedger.forHub(hub);
+        Path clone = Files.createDirectories(hub.resolve("repo/.git")).getParent();
+        ledger.recordUse(clone, 1000);
+        GitRepositoryManager gitManager = new GitRepositoryManager(hub.toString(), null, null, null, "main");
+
+        assertEquals(clone, gitManager.acquireRepositoryPath("https://git.example.com/team/repo.git"));
+        assertNull(gitManager.acquireRepositoryPath("https://git.example.com/team/missing.git"));
+        assertTrue(ledger.evictOverBudget(500).isEmpty());
+
+        gitManager.releaseRepository("https://git.example.com/team/repo.git");
+        assertEquals(List.of(clone), ledger.evictOverBudget(500));
+    }
+
+    private Path cloneOf(String name) throws IOException {
+        Path clone = Files.createDirectories(hub.resolve("team").resolve(name));
+        Files.write(clone.resolve("Test.java"), new byte[10]);
+        return clone;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.annotationextractor.util;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies object sharing between forks: network detection by root commit, deduplicated storage,
+ * reference clones of known members and declared groups.
+ */
+public class SharedObjectStoreTest {
+
+    private Path workDir;
+    private Path upstream;
+    private Path fork;
+    private Path hub;
+
+    @Before
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("shared-object-store-test");
+        upstream = Files.createDirectories(workDir.resolve("upstream"));
+        hub = Files.createDirectories(workDir.resolve("hub"));
+        Assume.assumeTrue("git is not available", git(upstream, "init", "-q", "-b", "main"));
+
+        // Incompressible content so that duplicated objects show in disk usage
+        byte[] data = new byte[512 * 1024];
+        new Random(42).nextBytes(data);
+        Files.createDirectories(upstream.resolve("src/test/java"));
+        Files.write(upstream.resolve("src/test/java/data.bin"), data);
+        assertTrue(commit(upstream, "first"));
+
+        fork = workDir.resolve("fork");
+        assertTrue(git(workDir, "clone", "-q", upstream.toString(), fork.toString()));
+        Files.writeString(fork.resolve("src/test/java/ForkTest.java"), "class ForkTest {}\n");
+        assertTrue(commit(fork, "fork change"));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void forksShareOneCopyOfTheirObjects() throws Exception {
+        String upstreamUrl = upstream.toUri().toString();
+        String forkUrl = fork.toUri().toString();
+
+        GitRepositoryManager manager = newManager(null);
+        assertNotNull(manager.cloneOrUpdateRepository(upstreamUrl));
+        long afterUpstream = manager.getTotalDiskUsage();
+        Path forkClone = manager.cloneOrUpdateRepository(forkUrl);
+        assertNotNull(forkClone);
+        long afterFork = manager.getTotalDiskUsage();
+
+        SharedObjectStore store = manager.getSharedObjectStore();
+        assertNotNull(store.getNetwork(upstreamUrl));
+        assertEquals(store.getNetwork(upstreamUrl), store.getNetwork(forkUrl));
+        assertEquals(1, store.getStorePaths().size());
+        assertTrue(Files.isRegularFile(forkClone.resolve(".git/objects/info/alternates")));
+        // The fork adds its working tree, not a second copy of the history
+        assertTrue("fork added " + (afterFork - afterUpstream), afterFork - afterUpstream < 2 * 512 * 1024);
+        assertEquals("class ForkTest {}\n", Files.readString(forkClone.resolve("src/test/java/ForkTest.java")));
+        assertTrue(git(forkClone, "fsck", "--connectivity-only"));
+
+        // A later scan re-clones the fork against the store remembered in the index
+        assertTrue(manager.deleteRepository(forkUrl));
+        GitRepositoryManager nextScan = newManager(null);
+        assertNotNull(nextScan.getSharedObjectStore().getReference(forkUrl));
+        Path reclone = nextScan.cloneOrUpdateRepository(forkUrl);
+        assertNotNull(reclone);
+        assertTrue(Files.isRegularFile(reclone.resolve(".git/objects/info/alternates")));
+        assertEquals(nextScan.getHeadCommit(fork), nextScan.getHeadCommit(reclone));
+    }
+
+    @Test
+    public void declaredGroupsOverrideDetection() throws Exception {
+        String upstreamUrl = upstream.toUri().toString();
+        Map<String, String> groups = SharedObjectStore.parseGroups(
+                "core: " + upstreamUrl + ", https://git.example.com/team/other.git\n\n");
+        assertEquals("core", groups.get("https://git.example.com/team/other.git"));
+
+        GitRepositoryManager manager = newManager(groups);
+        manager.setCloneMode(CloneMode.BARE);
+        Path mirror = manager.cloneOrUpdateRepository(upstreamUrl);
+        assertNotNull(mirror);
+        assertTrue(GitRepositoryManager.isBareRepository(hub.resolve(SharedObjectStore.DIRECTORY).resolve("core.git")));
+        assertTrue(Files.isRegularFile(mirror.resolve("objects/info/alternates")));
+
+        try {
+            SharedObjectStore.parseGroups("https://git.example.com/team/repo.git");
+            fail("URL without group name accepted");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    private GitRepositoryManager newManager(Map<String, String> groups) {
+        GitRepositoryManager manager = new GitRepositoryManager(hub.toString(), null, null, null, "main");
+        manager.setObjectSharing(true, groups);
+        return manager;
+    }
+
+    private boolean commit(Path repo, String message) throws Exception {
+        return git(repo, "add", "-A")
+                && git(repo, "-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-q", "-m", message);
+    }
+
+    private boolean git(Path dir, String... args) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(List.of(args));
+        try {
+            Process process = new ProcessBuilder(command)
+                    .directory(dir.toFile())
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            return process.waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}